@@ -0,0 +1,86 @@
+package com.Bank.Management.accountnumber;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Asigna números de cuenta sin consultar si ya existen. La secuencia ACCOUNT_NUMBER_SEQ avanza de a
+// block-size y cada valor es el primer correlativo de un bloque reservado para esta instancia: los
+// números del bloque se entregan desde memoria y solo al agotarlo se vuelve a la base. Dos instancias
+// (o dos hilos) nunca reciben el mismo bloque, así que no hay carreras por el mismo número.
+// Los números que se reservan y no se usan (por ejemplo, al reiniciar) simplemente se pierden.
+@Component
+public class AccountNumberAllocator {
+
+    private static final String SEQUENCE = "ACCOUNT_NUMBER_SEQ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+
+    // Correlativos de números aleatorios anteriores a este esquema que casualmente tienen dígitos de
+    // control válidos y están por delante de la secuencia: se saltan al asignar.
+    private final Set<Long> legacySerials = new HashSet<>();
+
+    private long nextSerial;
+    private long blockEnd;
+
+    // El EntityManagerFactory se recibe solo para que el esquema ya esté actualizado por Hibernate.
+    public AccountNumberAllocator(JdbcTemplate jdbcTemplate,
+                                  EntityManagerFactory entityManagerFactory,
+                                  @Value("${bank.account-numbers.block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("create sequence if not exists " + SEQUENCE + " start with 1 increment by " + blockSize);
+        Map<String, Object> sequence = jdbcTemplate.queryForMap(
+                "select base_value, increment from information_schema.sequences where sequence_name = ?", SEQUENCE);
+        long baseValue = ((Number) sequence.get("BASE_VALUE")).longValue();
+        long increment = ((Number) sequence.get("INCREMENT")).longValue();
+
+        // Si cambió block-size se reinicia desde el próximo valor sin entregar: los bloques ya
+        // reservados quedan todos por debajo y no se solapan con los nuevos.
+        if (increment != blockSize) {
+            jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + baseValue + " increment by " + blockSize);
+        }
+
+        // El correlativo ocupa posiciones fijas, así que el orden de texto coincide con el numérico y
+        // el índice único de account_number acota la búsqueda a los números por delante de la secuencia.
+        jdbcTemplate.query("select account_number from BANK_ACCOUNTS where account_number >= ?",
+                rs -> {
+                    String accountNumber = rs.getString(1);
+                    if (AccountNumbers.isValid(accountNumber)) {
+                        legacySerials.add(AccountNumbers.serialOf(accountNumber));
+                    }
+                },
+                String.format("%s%08d", AccountNumbers.PREFIX, Math.min(baseValue, AccountNumbers.MAX_SERIAL)));
+    }
+
+    public synchronized String next() {
+        long serial;
+        do {
+            if (nextSerial >= blockEnd) {
+                reserveBlock();
+            }
+            serial = nextSerial++;
+        } while (legacySerials.contains(serial));
+        return AccountNumbers.format(serial);
+    }
+
+    private void reserveBlock() {
+        Long start = jdbcTemplate.queryForObject("select next value for " + SEQUENCE, Long.class);
+        if (start == null || start > AccountNumbers.MAX_SERIAL) {
+            throw new IllegalStateException("Se agotaron los números de cuenta disponibles.");
+        }
+        nextSerial = start;
+        blockEnd = Math.min(start + blockSize, AccountNumbers.MAX_SERIAL + 1);
+    }
+}
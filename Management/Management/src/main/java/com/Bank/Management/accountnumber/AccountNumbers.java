@@ -0,0 +1,55 @@
+package com.Bank.Management.accountnumber;
+
+// Formato de los números de cuenta: "45" + correlativo de 8 dígitos + "-" + 2 dígitos de control.
+// Los dígitos de control siguen ISO 7064 MOD 97-10 (el mismo esquema que el IBAN) calculado sobre
+// los 10 dígitos "45XXXXXXXX": detecta cualquier dígito cambiado y cualquier par de dígitos adyacentes
+// intercambiados, que son los errores típicos al copiar un número a mano.
+public final class AccountNumbers {
+
+    public static final String PREFIX = "45";
+    public static final int SERIAL_DIGITS = 8;
+    public static final long MAX_SERIAL = 99_999_999L;
+
+    private static final long PREFIX_VALUE = 45L * 100_000_000L;
+
+    private AccountNumbers() {
+    }
+
+    public static String format(long serial) {
+        if (serial < 0 || serial > MAX_SERIAL) {
+            throw new IllegalArgumentException("Correlativo de cuenta fuera de rango: " + serial);
+        }
+        return String.format("%s%08d-%02d", PREFIX, serial, checkDigits(serial));
+    }
+
+    // 98 - (número * 100 mod 97): al anexarlos, el número completo queda con resto 1 módulo 97.
+    public static int checkDigits(long serial) {
+        return (int) (98 - Math.floorMod((PREFIX_VALUE + serial) * 100, 97L));
+    }
+
+    // Verdadero si el texto tiene el formato completo y los dígitos de control corresponden.
+    // Los números generados antes de este esquema tenían dígitos de control aleatorios y en general no pasan.
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != PREFIX.length() + SERIAL_DIGITS + 3
+                || !accountNumber.startsWith(PREFIX) || accountNumber.charAt(PREFIX.length() + SERIAL_DIGITS) != '-') {
+            return false;
+        }
+        long digits = 0;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+        return digits % 97 == 1;
+    }
+
+    // Correlativo de un número con formato válido (sin verificar los dígitos de control).
+    public static long serialOf(String accountNumber) {
+        return Long.parseLong(accountNumber.substring(PREFIX.length(), PREFIX.length() + SERIAL_DIGITS));
+    }
+}
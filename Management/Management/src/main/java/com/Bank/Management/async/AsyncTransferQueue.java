@@ -0,0 +1,185 @@
+package com.Bank.Management.async;
+
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.AsyncTransferMetricsDto;
+import com.Bank.Management.dto.response.AsyncTransferStatusDto;
+import com.Bank.Management.dto.response.OperationStatus;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.TooManyRequestsException;
+import com.Bank.Management.idempotency.IdempotencyScope;
+import com.Bank.Management.service.TransactionService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Transferencias asíncronas: la solicitud HTTP solo encola la transferencia y devuelve un identificador
+// de seguimiento; un grupo fijo de hilos ejecuta TransactionService.transfer y deja el resultado para
+// consultarlo después. La cola es acotada: si está llena la transferencia se rechaza (429) en lugar
+// de acumular trabajo que el cliente ya abandonó por timeout.
+// Los estados viven en memoria. Se conservan los últimos bank.async.retention resultados terminados;
+// los pendientes nunca se descartan.
+// El hilo que aplica la transferencia recibe la clave de idempotencia y la sesión del cliente de la solicitud
+// que la encoló: su commit cuenta como escritura de esa sesión (ver ReadYourWritesTracker).
+@Component
+public class AsyncTransferQueue {
+
+    private final TransactionService transactionService;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ThreadPoolExecutor executor;
+    private final int workers;
+    private final int queueCapacity;
+    private final int retention;
+
+    private final Map<String, TrackedTransfer> statuses = new ConcurrentHashMap<>();
+    private final Queue<String> finishedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public AsyncTransferQueue(TransactionService transactionService, ReadYourWritesTracker readYourWritesTracker,
+                              @Value("${bank.async.workers:4}") int workers,
+                              @Value("${bank.async.queue-capacity:1000}") int queueCapacity,
+                              @Value("${bank.async.retention:10000}") int retention) {
+        this.transactionService = transactionService;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.retention = Math.max(1, retention);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-transfer-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public AsyncTransferStatusDto submit(TransferRequestDto dto) {
+        TrackedTransfer tracked = new TrackedTransfer(UUID.randomUUID().toString(), LocalDateTime.now());
+        statuses.put(tracked.trackingId, tracked);
+        try {
+            String idempotencyKey = IdempotencyScope.current();
+            ReadYourWritesTracker.Session session = readYourWritesTracker.currentSession();
+            executor.execute(() -> readYourWritesTracker.call(session,
+                    () -> IdempotencyScope.call(idempotencyKey, () -> run(tracked, dto))));
+        } catch (RejectedExecutionException ex) {
+            statuses.remove(tracked.trackingId);
+            rejected.increment();
+            throw new TooManyRequestsException("La cola de transferencias está llena, intente nuevamente en unos segundos.");
+        }
+        accepted.increment();
+        return tracked.toDto();
+    }
+
+    public AsyncTransferStatusDto getStatus(String trackingId) {
+        TrackedTransfer tracked = statuses.get(trackingId);
+        if (tracked == null) {
+            throw new DataNotFoundException(trackingId, "Transferencia asíncrona");
+        }
+        return tracked.toDto();
+    }
+
+    public AsyncTransferMetricsDto getMetrics() {
+        return new AsyncTransferMetricsDto(
+                workers,
+                queueCapacity,
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                accepted.sum(),
+                rejected.sum(),
+                completed.sum(),
+                failed.sum(),
+                statuses.size()
+        );
+    }
+
+    // Las transferencias ya aceptadas se terminan de aplicar antes de cerrar.
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Contadores y retención se actualizan antes de publicar el estado final, así quien lo consulta
+    // ya ve las métricas al día.
+    private Void run(TrackedTransfer tracked, TransferRequestDto dto) {
+        try {
+            TransactionResponseDto transaction = transactionService.transfer(dto);
+            completed.increment();
+            retire(tracked.trackingId);
+            tracked.complete(transaction);
+        } catch (RuntimeException ex) {
+            failed.increment();
+            retire(tracked.trackingId);
+            tracked.fail(ex.getMessage());
+        }
+        return null;
+    }
+
+    // Descarta el resultado terminado más antiguo cuando se supera la retención.
+    private void retire(String trackingId) {
+        finishedOrder.add(trackingId);
+        if (finishedCount.incrementAndGet() > retention) {
+            String oldest = finishedOrder.poll();
+            if (oldest != null) {
+                statuses.remove(oldest);
+                finishedCount.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class TrackedTransfer {
+
+        private final String trackingId;
+        private final LocalDateTime submittedAt;
+        private OperationStatus status = OperationStatus.PENDING;
+        private TransactionResponseDto transaction;
+        private String error;
+        private LocalDateTime finishedAt;
+
+        private TrackedTransfer(String trackingId, LocalDateTime submittedAt) {
+            this.trackingId = trackingId;
+            this.submittedAt = submittedAt;
+        }
+
+        synchronized void complete(TransactionResponseDto transaction) {
+            this.transaction = transaction;
+            this.status = OperationStatus.COMPLETED;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        synchronized void fail(String error) {
+            this.error = error;
+            this.status = OperationStatus.FAILED;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        synchronized AsyncTransferStatusDto toDto() {
+            return new AsyncTransferStatusDto(trackingId, status, transaction, error, submittedAt, finishedAt);
+        }
+    }
+}
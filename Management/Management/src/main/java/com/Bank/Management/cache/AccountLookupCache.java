@@ -0,0 +1,166 @@
+package com.Bank.Management.cache;
+
+import com.Bank.Management.dto.response.AccountCacheMetricsDto;
+import com.Bank.Management.repository.BankAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caché en memoria de número de cuenta -> id, delante de BankAccountRepository.findIdByAccountNumber.
+// Solo guarda el id: número e id no cambian nunca, y el saldo se sigue leyendo y actualizando en la base
+// de datos con los UPDATE atómicos, así que depósitos, retiros y transferencias no necesitan invalidar nada.
+// Lo único que vuelve obsoleta una entrada es borrar la cuenta (o su usuario):
+//   - la entrada se quita después del commit del borrado (antes otra lectura podría volver a cargarla);
+//   - cada invalidación aumenta una época; una carga que empezó antes no guarda su resultado, porque pudo
+//     leer la fila justo antes del commit.
+// Está dividida en segmentos LRU (LinkedHashMap en orden de acceso) con su propio monitor, para que los hilos
+// de las operaciones no compitan por un único bloqueo. Los números inexistentes no se guardan.
+@Component
+public class AccountLookupCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final BankAccountRepository bankAccountRepository;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int capacity;
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public AccountLookupCache(BankAccountRepository bankAccountRepository,
+                              @Value("${bank.account-cache.size:100000}") int size) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.capacity = Math.max(SEGMENTS, size);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity / SEGMENTS);
+        }
+    }
+
+    public Optional<Long> findId(String accountNumber) {
+        if (accountNumber == null) {
+            return Optional.empty();
+        }
+        Segment segment = segmentFor(accountNumber);
+        Long cached;
+        synchronized (segment) {
+            cached = segment.get(accountNumber);
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        long loadEpoch = epoch.get();
+        Optional<Long> loaded = bankAccountRepository.findIdByAccountNumber(accountNumber);
+        loaded.ifPresent(id -> {
+            synchronized (segment) {
+                if (epoch.get() == loadEpoch) {
+                    segment.put(accountNumber, id);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    // Quita las cuentas al confirmarse la transacción actual (o ya, si no hay una activa).
+    public void invalidateAfterCommit(Collection<String> accountNumbers) {
+        if (accountNumbers.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> numbers = List.copyOf(accountNumbers);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(numbers);
+                }
+            });
+            return;
+        }
+        invalidate(accountNumbers);
+    }
+
+    public void invalidateAfterCommit(String accountNumber) {
+        invalidateAfterCommit(List.of(accountNumber));
+    }
+
+    // Vacía la caché: para borrados hechos fuera de los servicios (mantenimiento, cargas masivas, pruebas).
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                epoch.incrementAndGet();
+                segment.clear();
+            }
+        }
+    }
+
+    public AccountCacheMetricsDto getMetrics() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new AccountCacheMetricsDto(
+                size,
+                capacity,
+                hitCount,
+                missCount,
+                lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                evictions.sum(),
+                invalidations.sum()
+        );
+    }
+
+    // También tras un rollback: quitar de más solo cuesta una consulta en la siguiente lectura.
+    private void invalidate(Collection<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            Segment segment = segmentFor(accountNumber);
+            synchronized (segment) {
+                epoch.incrementAndGet();
+                segment.remove(accountNumber);
+            }
+            invalidations.increment();
+        }
+    }
+
+    private Segment segmentFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment extends LinkedHashMap<String, Long> {
+
+        private final int maxEntries;
+
+        private Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = Math.max(1, maxEntries);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.dto.response.LockMetricsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Bloqueos en memoria por número de cuenta, repartidos en un arreglo fijo de "stripes".
+// Los stripes se adquieren siempre en orden ascendente de índice, así dos transferencias
+// cruzadas (A->B y B->A) nunca quedan esperándose mutuamente.
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final boolean enabled;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+
+    public AccountLockManager(@Value("${bank.locks.stripes:1024}") int stripeCount,
+                              @Value("${bank.locks.enabled:true}") boolean enabled) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.enabled = enabled;
+    }
+
+    // Ejecuta la acción con los stripes de las cuentas indicadas tomados. Se llama antes de abrir la transacción
+    // (la acción la abre): un hilo que espera un stripe todavía no tiene conexión del pool, y los stripes se
+    // liberan al volver, ya confirmada. Si se llama con una transacción activa, los bloqueos se liberan al
+    // terminarla (después del commit o rollback), para que ningún otro hilo lea un saldo aún no confirmado.
+    public <T> T callWithLocks(Supplier<T> action, String... accountNumbers) {
+        if (!enabled) {
+            return action.get();
+        }
+        int[] ordered = orderedStripes(accountNumbers);
+        acquire(ordered);
+
+        boolean releaseOnCompletion = false;
+        try {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        release(ordered);
+                    }
+                });
+                releaseOnCompletion = true;
+            }
+            return action.get();
+        } finally {
+            if (!releaseOnCompletion) {
+                release(ordered);
+            }
+        }
+    }
+
+    public LockMetricsDto getMetrics() {
+        long total = acquisitions.sum();
+        long waited = totalWaitNanos.sum();
+        double averageWaitMicros = total == 0 ? 0.0 : (waited / 1_000.0) / total;
+        return new LockMetricsDto(
+                stripes.length,
+                total,
+                contendedAcquisitions.sum(),
+                averageWaitMicros,
+                maxWaitNanos.get() / 1_000
+        );
+    }
+
+    int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int[] orderedStripes(String... accountNumbers) {
+        return Arrays.stream(accountNumbers)
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private void acquire(int[] ordered) {
+        for (int index : ordered) {
+            ReentrantLock lock = stripes[index];
+            acquisitions.increment();
+            if (lock.tryLock()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            lock.lock();
+            long waited = System.nanoTime() - start;
+            contendedAcquisitions.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+        }
+    }
+
+    private void release(int[] ordered) {
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            stripes[ordered[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.dto.response.NettingMetricsDto;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.journal.LedgerJournal;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.PendingCreditTotal;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// "Netting" de créditos para cuentas calientes (por ejemplo, cuentas recaudadoras de comercios).
+// Los depósitos y transferencias entrantes a estas cuentas no actualizan la fila de BANK_ACCOUNTS:
+// se guarda el movimiento marcado con credit_pending y el monto queda pendiente en memoria.
+// Los pendientes se aplican sumados en un solo UPDATE cada cierto intervalo o al llegar a un umbral.
+// Antes de un débito se aplican los pendientes de la cuenta, así la validación de saldo sigue siendo estricta.
+// La marca credit_pending permite que las lecturas sumen los pendientes en la misma consulta del saldo
+// y que al arrancar se recuperen los créditos que no llegaron a aplicarse (después de migrar los montos a centavos
+// y de reaplicar el diario de movimientos, que puede restaurar movimientos con la marca).
+// En el modo de eventos (ver AccountEventStore) cada crédito genera su evento cuando se aplica al saldo.
+@Component
+@DependsOn({"minorUnitsMigration", "ledgerJournal"})
+public class HotAccountCreditBuffer {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final ShardedCommandSequencer commandSequencer;
+    private final AccountEventStore accountEventStore;
+    private final LedgerJournal ledgerJournal;
+    private final Set<String> hotAccounts;
+    private final long flushIntervalMs;
+    private final int flushThreshold;
+
+    private final Map<Long, PendingCredits> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder deferredCredits = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedCredits = new LongAdder();
+
+    public HotAccountCreditBuffer(BankAccountRepository bankAccountRepository,
+                                  TransactionRepository transactionRepository,
+                                  AccountLockManager accountLockManager,
+                                  OptimisticRetryExecutor optimisticRetryExecutor,
+                                  ShardedCommandSequencer commandSequencer,
+                                  AccountEventStore accountEventStore,
+                                  LedgerJournal ledgerJournal,
+                                  @Value("${bank.hot-accounts.numbers:}") List<String> hotAccounts,
+                                  @Value("${bank.hot-accounts.flush-interval-ms:50}") long flushIntervalMs,
+                                  @Value("${bank.hot-accounts.flush-threshold:100}") int flushThreshold) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.commandSequencer = commandSequencer;
+        this.accountEventStore = accountEventStore;
+        this.ledgerJournal = ledgerJournal;
+        this.hotAccounts = hotAccounts.stream()
+                .map(String::trim)
+                .filter(number -> !number.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.flushThreshold = Math.max(1, flushThreshold);
+    }
+
+    @PostConstruct
+    public void start() {
+        recoverPendingCredits();
+        if (hotAccounts.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-account-netting");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushAllQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAllQuietly();
+    }
+
+    public boolean isHot(String accountNumber) {
+        return accountNumber != null && hotAccounts.contains(accountNumber);
+    }
+
+    // Registra un crédito diferido. Con una transacción activa el monto se agrega recién después del commit,
+    // para que un rollback no deje en memoria un crédito cuyo movimiento nunca se guardó.
+    public void deferCredit(String accountNumber, Long accountId, Long transactionId, long amount) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addPending(accountNumber, accountId, transactionId, amount);
+                }
+            });
+        } else {
+            addPending(accountNumber, accountId, transactionId, amount);
+        }
+    }
+
+    // Aplica los créditos pendientes de la cuenta dentro de la transacción actual. En un débito quien llama
+    // ya tiene el bloqueo de la cuenta, así que ningún flush en segundo plano puede estar a medio confirmar.
+    // Si la transacción se revierte, los créditos vuelven a quedar pendientes.
+    public void flushInCurrentTransaction(Long accountId) {
+        PendingCredits credits = pending.get(accountId);
+        if (credits == null) {
+            return;
+        }
+        Drained drained = credits.drain();
+        if (drained == null) {
+            return;
+        }
+        try {
+            applyToBalance(accountId, drained.amount());
+            accountEventStore.recordCredits(accountId, drained.transactionIds());
+            ledgerJournal.recordCredits(accountId, drained.transactionIds());
+            transactionRepository.clearCreditPending(drained.transactionIds());
+        } catch (RuntimeException ex) {
+            credits.restore(drained);
+            throw ex;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        completed(drained);
+                    } else {
+                        credits.restore(drained);
+                    }
+                }
+            });
+        } else {
+            completed(drained);
+        }
+    }
+
+    // Aplica en su propia transacción los créditos pendientes de la cuenta. Toma el mismo bloqueo que los
+    // débitos: un retiro que llega mientras tanto espera el commit y no valida contra un saldo incompleto.
+    // En modo "sequencer" el flush es un comando más del shard de la cuenta, con el mismo efecto.
+    public void flush(Long accountId) {
+        PendingCredits credits = pending.get(accountId);
+        if (credits == null || credits.count() == 0) {
+            return;
+        }
+        if (commandSequencer.isEnabled()) {
+            commandSequencer.execute(credits.accountNumber, () -> {
+                flushInCurrentTransaction(accountId);
+                return null;
+            });
+            return;
+        }
+        accountLockManager.callWithLocks(() -> optimisticRetryExecutor.execute(() -> {
+            flushInCurrentTransaction(accountId);
+            return null;
+        }), credits.accountNumber);
+    }
+
+    public void flushAll() {
+        pending.keySet().forEach(this::flush);
+    }
+
+    public NettingMetricsDto getMetrics() {
+        long pendingCount = 0;
+        long pendingTotal = 0;
+        for (PendingCredits credits : pending.values()) {
+            pendingCount += credits.count();
+            pendingTotal += credits.total();
+        }
+        return new NettingMetricsDto(
+                hotAccounts.size(),
+                deferredCredits.sum(),
+                flushes.sum(),
+                flushedCredits.sum(),
+                pendingCount,
+                Money.toDecimal(pendingTotal)
+        );
+    }
+
+    // Créditos marcados como pendientes que quedaron sin aplicar (por ejemplo, tras una caída del proceso).
+    void recoverPendingCredits() {
+        for (PendingCreditTotal total : transactionRepository.findPendingCreditTotals()) {
+            try {
+                optimisticRetryExecutor.execute(() -> {
+                    applyToBalance(total.getAccountId(), total.getTotal());
+                    accountEventStore.recordPendingCredits(total.getAccountId());
+                    transactionRepository.clearCreditPendingForAccount(total.getAccountId());
+                    return null;
+                });
+            } catch (InvalidOperationException | DataNotFoundException ignored) {
+                // Los movimientos siguen marcados: se reintentan en el próximo arranque.
+            }
+        }
+    }
+
+    // Las marcas credit_pending solo se limpian si el crédito quedó en el saldo. 0 filas con la cuenta existente
+    // significa que el saldo desbordaría; si no, la cuenta ya no existe.
+    private void applyToBalance(Long accountId, long amount) {
+        if (bankAccountRepository.addToBalance(accountId, amount) != 1) {
+            if (bankAccountRepository.existsById(accountId)) {
+                throw new InvalidOperationException("El saldo resultante excede el máximo permitido.");
+            }
+            throw new DataNotFoundException(accountId, "Cuenta bancaria");
+        }
+    }
+
+    private void addPending(String accountNumber, Long accountId, Long transactionId, long amount) {
+        PendingCredits credits = pending.computeIfAbsent(accountId, key -> new PendingCredits(accountNumber));
+        int count = credits.add(transactionId, amount);
+        deferredCredits.increment();
+        if (count >= flushThreshold && scheduler != null) {
+            scheduler.execute(() -> flushQuietly(accountId));
+        }
+    }
+
+    private void completed(Drained drained) {
+        flushes.increment();
+        flushedCredits.add(drained.transactionIds().size());
+    }
+
+    // En el hilo de fondo un fallo no debe cancelar la tarea periódica: los créditos siguen pendientes
+    // y se reintentan en la próxima pasada.
+    private void flushQuietly(Long accountId) {
+        try {
+            flush(accountId);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private void flushAllQuietly() {
+        pending.keySet().forEach(this::flushQuietly);
+    }
+
+    private record Drained(List<Long> transactionIds, long amount) {
+    }
+
+    private static final class PendingCredits {
+
+        private final String accountNumber;
+        private List<Long> transactionIds = new ArrayList<>();
+        // Suma en centavos de los créditos pendientes.
+        private long amount;
+
+        private PendingCredits(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        synchronized int add(Long transactionId, long value) {
+            transactionIds.add(transactionId);
+            amount += value;
+            return transactionIds.size();
+        }
+
+        synchronized Drained drain() {
+            if (transactionIds.isEmpty()) {
+                return null;
+            }
+            Drained drained = new Drained(transactionIds, amount);
+            transactionIds = new ArrayList<>();
+            amount = 0;
+            return drained;
+        }
+
+        synchronized void restore(Drained drained) {
+            transactionIds.addAll(drained.transactionIds());
+            amount += drained.amount();
+        }
+
+        synchronized long total() {
+            return amount;
+        }
+
+        synchronized int count() {
+            return transactionIds.size();
+        }
+    }
+}
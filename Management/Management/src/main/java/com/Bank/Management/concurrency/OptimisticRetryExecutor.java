@@ -0,0 +1,72 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.dto.response.RetryMetricsDto;
+import com.Bank.Management.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Ejecuta cada intento en su propia transacción y lo repite cuando falla por concurrencia
+// (versión desactualizada o bloqueo no obtenido). Entre intentos espera un tiempo aleatorio
+// entre 0 y un tope exponencial ("full jitter") para que los hilos en conflicto no choquen de nuevo.
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+
+    public OptimisticRetryExecutor(TransactionOperations transactionOperations,
+                                   @Value("${bank.retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${bank.retry.base-backoff-ms:5}") long baseBackoffMs,
+                                   @Value("${bank.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        executions.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> action.get());
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    aborts.increment();
+                    throw new ConcurrentUpdateException(attempt);
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public RetryMetricsDto getMetrics() {
+        return new RetryMetricsDto(executions.sum(), retries.sum(), aborts.sum(), maxAttempts);
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborts.increment();
+            throw new ConcurrentUpdateException(attempt);
+        }
+    }
+}
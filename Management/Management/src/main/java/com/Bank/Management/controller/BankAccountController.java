@@ -3,15 +3,26 @@ package com.Bank.Management.controller;
 import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.UpdateBankAccountDto;
 import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.response.AccountStateDto;
+import com.Bank.Management.dto.response.AccountStateRebuildDto;
+import com.Bank.Management.dto.response.BalanceSnapshotRunDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.PointInTimeBalanceDto;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.eventsourcing.AccountStateRebuildJob;
+import com.Bank.Management.idempotency.IdempotencyService;
 import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.snapshot.BalanceSnapshotJob;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -19,9 +30,19 @@ import java.util.List;
 public class BankAccountController {
 
     private final BankAccountService bankAccountService;
+    private final IdempotencyService idempotencyService;
+    private final BalanceSnapshotJob balanceSnapshotJob;
+    private final AccountEventStore accountEventStore;
+    private final AccountStateRebuildJob accountStateRebuildJob;
 
-    public BankAccountController(BankAccountService bankAccountService) {
+    public BankAccountController(BankAccountService bankAccountService, IdempotencyService idempotencyService,
+                                 BalanceSnapshotJob balanceSnapshotJob, AccountEventStore accountEventStore,
+                                 AccountStateRebuildJob accountStateRebuildJob) {
         this.bankAccountService = bankAccountService;
+        this.idempotencyService = idempotencyService;
+        this.balanceSnapshotJob = balanceSnapshotJob;
+        this.accountEventStore = accountEventStore;
+        this.accountStateRebuildJob = accountStateRebuildJob;
     }
 
     @PostMapping
@@ -32,19 +53,49 @@ public class BankAccountController {
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todas las cuentas bancarias")
-    public ResponseEntity<List<BankAccountResponseDto>> getAllAccounts() {
-        List<BankAccountResponseDto> accounts = bankAccountService.getAllAccounts();
+    @Operation(summary = "Listar las cuentas bancarias (id, número, saldo y usuario) paginadas por id; las transacciones solo con includeTransactions=true")
+    public ResponseEntity<BankAccountPageDto> getAccounts(@RequestParam(required = false) Long afterId,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestParam(defaultValue = "false") boolean includeTransactions) {
+        BankAccountPageDto accounts = bankAccountService.getAccounts(afterId, size, includeTransactions);
         return new ResponseEntity<>(accounts, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Obtener una cuenta bancaria por ID")
-    public ResponseEntity<BankAccountResponseDto> getAccountById(@PathVariable Long id) {
-        BankAccountResponseDto account = bankAccountService.getAccountById(id);
+    @Operation(summary = "Obtener una cuenta bancaria por ID; las transacciones solo con includeTransactions=true")
+    public ResponseEntity<BankAccountResponseDto> getAccountById(@PathVariable Long id,
+                                                                 @RequestParam(defaultValue = "false") boolean includeTransactions) {
+        BankAccountResponseDto account = bankAccountService.getAccountById(id, includeTransactions);
         return new ResponseEntity<>(account, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/balance")
+    @Operation(summary = "Obtener el saldo de una cuenta en una fecha y hora (movimientos anteriores a 'at')")
+    public ResponseEntity<PointInTimeBalanceDto> getBalanceAt(@PathVariable Long id,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        PointInTimeBalanceDto balance = bankAccountService.getBalanceAt(id, at);
+        return new ResponseEntity<>(balance, HttpStatus.OK);
+    }
+
+    @PostMapping("/snapshots")
+    @Operation(summary = "Generar o completar las fotos de saldo de un día ya cerrado")
+    public ResponseEntity<BalanceSnapshotRunDto> createSnapshots(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        BalanceSnapshotRunDto run = balanceSnapshotJob.run(date);
+        return new ResponseEntity<>(run, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/state")
+    @Operation(summary = "Obtener el saldo de una cuenta derivado de sus eventos (última foto más los eventos posteriores)")
+    public ResponseEntity<AccountStateDto> getAccountState(@PathVariable Long id) {
+        return new ResponseEntity<>(accountEventStore.currentState(id), HttpStatus.OK);
+    }
+
+    @PostMapping("/state/rebuild")
+    @Operation(summary = "Reconstruir en paralelo el saldo de todas las cuentas desde sus eventos (desde las fotos o desde cero)")
+    public ResponseEntity<AccountStateRebuildDto> rebuildAccountStates(@RequestParam(defaultValue = "false") boolean fromScratch) {
+        return new ResponseEntity<>(accountStateRebuildJob.rebuild(fromScratch), HttpStatus.OK);
+    }
+
     @PutMapping
     @Operation(summary = "Actualizar el balance de una cuenta bancaria")
     public ResponseEntity<BankAccountResponseDto> updateAccount(@RequestBody UpdateBankAccountDto updateBankAccountDto) {
@@ -61,15 +112,21 @@ public class BankAccountController {
 
     @PutMapping("/deposit")
     @Operation(summary = "Realizar un depósito en una cuenta específica (Añadir fondos)")
-    public ResponseEntity<BankAccountResponseDto> deposit(@RequestBody AccountOperationDto operationDto) {
-        BankAccountResponseDto updatedAccount = bankAccountService.deposit(operationDto);
+    public ResponseEntity<BankAccountResponseDto> deposit(@RequestBody AccountOperationDto operationDto,
+                                                          @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        BankAccountResponseDto updatedAccount = idempotencyService.execute(idempotencyKey, "deposit", operationDto,
+                BankAccountResponseDto.class, () -> bankAccountService.deposit(operationDto),
+                key -> bankAccountService.findOperationResult(operationDto.getAccountNumber(), key));
         return new ResponseEntity<>(updatedAccount, HttpStatus.OK);
     }
 
     @PutMapping("/withdraw")
     @Operation(summary = "Realizar un retiro de una cuenta específica (Retirar fondos)")
-    public ResponseEntity<BankAccountResponseDto> withdraw(@RequestBody AccountOperationDto operationDto) {
-        BankAccountResponseDto updatedAccount = bankAccountService.withdraw(operationDto);
+    public ResponseEntity<BankAccountResponseDto> withdraw(@RequestBody AccountOperationDto operationDto,
+                                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        BankAccountResponseDto updatedAccount = idempotencyService.execute(idempotencyKey, "withdraw", operationDto,
+                BankAccountResponseDto.class, () -> bankAccountService.withdraw(operationDto),
+                key -> bankAccountService.findOperationResult(operationDto.getAccountNumber(), key));
         return new ResponseEntity<>(updatedAccount, HttpStatus.OK);
     }
 }
\ No newline at end of file
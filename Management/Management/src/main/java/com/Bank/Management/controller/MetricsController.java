@@ -0,0 +1,109 @@
+package com.Bank.Management.controller;
+
+import com.Bank.Management.async.AsyncTransferQueue;
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.datasource.ReadWriteRoutingDataSource;
+import com.Bank.Management.dto.response.AccountCacheMetricsDto;
+import com.Bank.Management.dto.response.AsyncTransferMetricsDto;
+import com.Bank.Management.dto.response.DataSourceRoutingMetricsDto;
+import com.Bank.Management.dto.response.IdempotencyMetricsDto;
+import com.Bank.Management.dto.response.JournalMetricsDto;
+import com.Bank.Management.dto.response.LockMetricsDto;
+import com.Bank.Management.dto.response.NettingMetricsDto;
+import com.Bank.Management.dto.response.RetryMetricsDto;
+import com.Bank.Management.dto.response.SequencerMetricsDto;
+import com.Bank.Management.idempotency.IdempotencyService;
+import com.Bank.Management.journal.LedgerJournal;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/metrics")
+@Tag(name = "Métricas", description = "Métricas internas de concurrencia y rendimiento")
+public class MetricsController {
+
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final HotAccountCreditBuffer hotAccountCreditBuffer;
+    private final ShardedCommandSequencer commandSequencer;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferQueue asyncTransferQueue;
+    private final AccountLookupCache accountLookupCache;
+    private final LedgerJournal ledgerJournal;
+    private final ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    public MetricsController(AccountLockManager accountLockManager, OptimisticRetryExecutor optimisticRetryExecutor, HotAccountCreditBuffer hotAccountCreditBuffer, ShardedCommandSequencer commandSequencer, IdempotencyService idempotencyService, AsyncTransferQueue asyncTransferQueue, AccountLookupCache accountLookupCache, LedgerJournal ledgerJournal, ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.hotAccountCreditBuffer = hotAccountCreditBuffer;
+        this.commandSequencer = commandSequencer;
+        this.idempotencyService = idempotencyService;
+        this.asyncTransferQueue = asyncTransferQueue;
+        this.accountLookupCache = accountLookupCache;
+        this.ledgerJournal = ledgerJournal;
+        this.readWriteRoutingDataSource = readWriteRoutingDataSource;
+    }
+
+    @GetMapping("/locks")
+    @Operation(summary = "Obtener los tiempos de espera de los bloqueos por cuenta")
+    public ResponseEntity<LockMetricsDto> getLockMetrics() {
+        return new ResponseEntity<>(accountLockManager.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/retries")
+    @Operation(summary = "Obtener los reintentos y abortos por conflictos de concurrencia optimista")
+    public ResponseEntity<RetryMetricsDto> getRetryMetrics() {
+        return new ResponseEntity<>(optimisticRetryExecutor.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/netting")
+    @Operation(summary = "Obtener los créditos diferidos y aplicados de las cuentas calientes")
+    public ResponseEntity<NettingMetricsDto> getNettingMetrics() {
+        return new ResponseEntity<>(hotAccountCreditBuffer.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/sequencer")
+    @Operation(summary = "Obtener los comandos, lotes y cola pendiente de los shards de escritura")
+    public ResponseEntity<SequencerMetricsDto> getSequencerMetrics() {
+        return new ResponseEntity<>(commandSequencer.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/idempotency")
+    @Operation(summary = "Obtener las respuestas repetidas por Idempotency-Key (caché, tabla y duplicados concurrentes)")
+    public ResponseEntity<IdempotencyMetricsDto> getIdempotencyMetrics() {
+        return new ResponseEntity<>(idempotencyService.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/async-transfers")
+    @Operation(summary = "Obtener la cola, los hilos y los resultados de las transferencias asíncronas")
+    public ResponseEntity<AsyncTransferMetricsDto> getAsyncTransferMetrics() {
+        return new ResponseEntity<>(asyncTransferQueue.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/account-cache")
+    @Operation(summary = "Obtener los aciertos, fallos, desalojos e invalidaciones de la caché de número de cuenta a id")
+    public ResponseEntity<AccountCacheMetricsDto> getAccountCacheMetrics() {
+        return new ResponseEntity<>(accountLookupCache.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/journal")
+    @Operation(summary = "Obtener el último lsn, el checkpoint, los segmentos y la última recuperación del diario de movimientos")
+    public ResponseEntity<JournalMetricsDto> getJournalMetrics() {
+        return new ResponseEntity<>(ledgerJournal.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/datasource")
+    @Operation(summary = "Obtener el atraso de las réplicas y cuántas lecturas fueron a ellas o volvieron al primario")
+    public ResponseEntity<DataSourceRoutingMetricsDto> getDataSourceMetrics() {
+        return new ResponseEntity<>(readWriteRoutingDataSource.getMetrics(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,33 @@
+package com.Bank.Management.controller;
+
+import com.Bank.Management.dto.response.StatementRunReportDto;
+import com.Bank.Management.statement.MonthlyStatementEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/statements")
+@Tag(name = "Extractos", description = "Generación de extractos mensuales de todas las cuentas")
+public class StatementController {
+
+    private final MonthlyStatementEngine monthlyStatementEngine;
+
+    public StatementController(MonthlyStatementEngine monthlyStatementEngine) {
+        this.monthlyStatementEngine = monthlyStatementEngine;
+    }
+
+    @PostMapping
+    @Operation(summary = "Generar (o retomar) los extractos de un mes cerrado, por ejemplo month=2024-03")
+    public ResponseEntity<StatementRunReportDto> generate(@RequestParam YearMonth month) {
+        StatementRunReportDto report = monthlyStatementEngine.generate(month);
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+}
@@ -1,14 +1,27 @@
 package com.Bank.Management.controller;
 
+import com.Bank.Management.async.AsyncTransferQueue;
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
 import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.AsyncTransferStatusDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
 import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.export.ExportFormat;
+import com.Bank.Management.export.TransactionHistoryExporter;
+import com.Bank.Management.idempotency.IdempotencyService;
 import com.Bank.Management.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,20 +30,56 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferQueue asyncTransferQueue;
+    private final TransactionHistoryExporter transactionHistoryExporter;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService, AsyncTransferQueue asyncTransferQueue, TransactionHistoryExporter transactionHistoryExporter) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.asyncTransferQueue = asyncTransferQueue;
+        this.transactionHistoryExporter = transactionHistoryExporter;
     }
 
 
     @PostMapping("/transfer")
     @Operation(summary = "Realizar una transferencia entre cuentas")
-    public ResponseEntity<TransactionResponseDto> transfer(@RequestBody TransferRequestDto dto) {
-        TransactionResponseDto response = transactionService.transfer(dto);
+    public ResponseEntity<TransactionResponseDto> transfer(@RequestBody TransferRequestDto dto,
+                                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        TransactionResponseDto response = idempotencyService.execute(idempotencyKey, "transfer", dto,
+                TransactionResponseDto.class, () -> transactionService.transfer(dto),
+                key -> transactionService.findByIdempotencyKey(dto.getSourceAccountNumber(), key));
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
 
+    @PostMapping("/transfer/async")
+    @Operation(summary = "Encolar una transferencia y obtener un identificador para consultar su estado")
+    public ResponseEntity<AsyncTransferStatusDto> transferAsync(@RequestBody TransferRequestDto dto,
+                                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        AsyncTransferStatusDto response = idempotencyService.execute(idempotencyKey, "transfer-async", dto,
+                AsyncTransferStatusDto.class, () -> asyncTransferQueue.submit(dto),
+                key -> transactionService.findByIdempotencyKey(dto.getSourceAccountNumber(), key).map(AsyncTransferStatusDto::completed));
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+
+    @GetMapping("/transfer/async/{trackingId}")
+    @Operation(summary = "Consultar el estado de una transferencia asíncrona (PENDING, COMPLETED o FAILED)")
+    public ResponseEntity<AsyncTransferStatusDto> getAsyncTransferStatus(@PathVariable String trackingId) {
+        AsyncTransferStatusDto response = asyncTransferQueue.getStatus(trackingId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
+    @PostMapping("/transfer/batch")
+    @Operation(summary = "Realizar un lote de transferencias y obtener el resultado de cada una")
+    public ResponseEntity<List<BatchTransferResultDto>> transferBatch(@RequestBody List<TransferRequestDto> transfers) {
+        List<BatchTransferResultDto> response = transactionService.transferBatch(transfers);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener los detalles de una transacción por ID")
     public ResponseEntity<TransactionResponseDto> getTransactionById(@PathVariable Long id) {
@@ -40,9 +89,30 @@ public class TransactionController {
 
 
     @GetMapping("/history/{accountNumber}")
-    @Operation(summary = "Obtener todo el historial de transacciones (entrantes y salientes) de una cuenta")
-    public ResponseEntity<List<TransactionResponseDto>> getHistoryByAccountNumber(@PathVariable String accountNumber) {
-        List<TransactionResponseDto> response = transactionService.getHistoryByAccountNumber(accountNumber);
+    @Operation(summary = "Obtener el historial de transacciones (entrantes y salientes) de una cuenta, de la más reciente a la más antigua, paginado por cursor y con filtros opcionales de fecha [from, to), monto y dirección (incoming, outgoing, deposit, withdrawal)")
+    public ResponseEntity<TransactionHistoryPageDto> getHistoryByAccountNumber(@PathVariable String accountNumber,
+                                                                               @RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size,
+                                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                               @RequestParam(required = false) BigDecimal minAmount,
+                                                                               @RequestParam(required = false) BigDecimal maxAmount,
+                                                                               @RequestParam(required = false) List<String> direction) {
+        TransactionHistoryFilterDto filter = new TransactionHistoryFilterDto(from, to, minAmount, maxAmount, direction);
+        TransactionHistoryPageDto response = transactionService.getHistoryByAccountNumber(accountNumber, cursor, size, filter);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+
+    @GetMapping("/history/{accountNumber}/export")
+    @Operation(summary = "Exportar el historial completo de una cuenta como NDJSON o CSV, enviado a medida que se lee")
+    public ResponseEntity<StreamingResponseBody> exportHistory(@PathVariable String accountNumber,
+                                                               @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = transactionHistoryExporter.export(accountNumber, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"historial-" + accountNumber + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -2,6 +2,7 @@ package com.Bank.Management.controller;
 
 import com.Bank.Management.dto.request.UpdateUserDTO;
 import com.Bank.Management.dto.request.UserRegistrationDto;
+import com.Bank.Management.dto.response.UserPageDto;
 import com.Bank.Management.dto.response.UserResponseDto;
 import com.Bank.Management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,7 +11,6 @@ import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -33,9 +33,11 @@ public class UserController {
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todos los usuarios")
-    public ResponseEntity<List<UserResponseDto>> getAllUsers() {
-        List<UserResponseDto> users = userService.getAllUsers();
+    @Operation(summary = "Listar los usuarios (id, dni, usuario y email) paginados por id; sus cuentas solo con includeAccounts=true")
+    public ResponseEntity<UserPageDto> getUsers(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(defaultValue = "false") boolean includeAccounts) {
+        UserPageDto users = userService.getUsers(afterId, size, includeAccounts);
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
@@ -0,0 +1,84 @@
+package com.Bank.Management.datasource;
+
+import com.Bank.Management.sharding.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// DataSource de la aplicación. El primario se arma con spring.datasource.* y spring.datasource.hikari.*, igual
+// que lo haría Spring Boot; cada URL de bank.datasource.replicas es una réplica de solo lectura con su propio pool
+// (mismo usuario y contraseña). Sin réplicas se usa el pool del primario tal cual.
+// Para probar localmente, una réplica puede ser otra base H2 (archivo o memoria) cargada con una copia del
+// primario (SCRIPT / RUNSCRIPT): su latido queda en el momento de la copia.
+@Configuration
+public class ReadWriteRoutingConfig implements WebMvcConfigurer {
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingConfig(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                                 @Value("${bank.datasource.replicas:}") List<String> replicaUrls,
+                                                                 @Value("${bank.datasource.replica-pool-size:10}") int replicaPoolSize,
+                                                                 @Value("${bank.datasource.replica-connection-timeout-ms:250}") long replicaConnectionTimeoutMs,
+                                                                 @Value("${bank.datasource.max-lag-ms:1000}") long maxLagMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(Math.max(1, replicaPoolSize));
+            // Una réplica caída no debe demorar la lectura: se pasa al primario en cuanto vence la espera.
+            replica.setConnectionTimeout(Math.max(250, replicaConnectionTimeoutMs));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, readYourWritesTracker, maxLagMs);
+    }
+
+    // El pool del primario lo cierra readWriteRoutingDataSource; los de los shards, shardRouter.
+    // Réplicas y shards no se combinan (ver ShardingConfig).
+    @Bean(destroyMethod = "")
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource, ShardRouter shardRouter) {
+        if (shardRouter.isEnabled()) {
+            return new LazyConnectionDataSourceProxy(shardRouter.routingDataSource());
+        }
+        return readWriteRoutingDataSource.hasReplicas()
+                ? new LazyConnectionDataSourceProxy(readWriteRoutingDataSource)
+                : readWriteRoutingDataSource.getPrimary();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWritesTracker)
+                .addPathPatterns("/api/accounts/**", "/api/transactions/**", "/api/users/**", "/api/statements/**");
+    }
+}
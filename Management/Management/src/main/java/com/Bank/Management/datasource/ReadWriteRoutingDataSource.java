@@ -0,0 +1,166 @@
+package com.Bank.Management.datasource;
+
+import com.Bank.Management.dto.response.DataSourceRoutingMetricsDto;
+import com.Bank.Management.dto.response.ReplicaStatusDto;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Envía las transacciones de solo lectura (@Transactional(readOnly = true)) a una réplica y todo lo demás al
+// primario. Se usa detrás de un LazyConnectionDataSourceProxy: la conexión real se pide con la primera sentencia,
+// cuando la transacción ya registró si es de solo lectura.
+// Una réplica es elegible si su último latido (ver ReplicaLagMonitor) tiene como máximo max-lag-ms de atraso y,
+// para la sesión del cliente, si es posterior a su última escritura (ver ReadYourWritesTracker). Entre las
+// elegibles se reparte en ronda; si no hay ninguna, o la réplica no entrega una conexión, se lee del primario.
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder lagFallbacks = new LongAdder();
+    private final LongAdder readYourWritesFallbacks = new LongAdder();
+    private final LongAdder failureFallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      ReadYourWritesTracker readYourWritesTracker, long maxLagMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagMillis = Math.max(0, maxLagMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionOpener opener) throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                Connection connection = opener.open(replica.dataSource);
+                replica.connections.increment();
+                return connection;
+            } catch (SQLException ex) {
+                // Hasta que el monitor vuelva a leer su latido la réplica no es elegible.
+                replica.appliedUpTo = 0;
+                failureFallbacks.increment();
+            }
+        }
+        primaryConnections.increment();
+        readYourWritesTracker.recordWriteOnCommit();
+        return opener.open(primary);
+    }
+
+    // null = primario.
+    private Replica route() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        if (readYourWritesTracker.isWriteRequest()) {
+            readYourWritesFallbacks.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long lastWrite = readYourWritesTracker.currentSessionLastWrite();
+        boolean behindSession = false;
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            long appliedUpTo = replica.appliedUpTo;
+            if (now - appliedUpTo > maxLagMillis) {
+                continue;
+            }
+            if (appliedUpTo < lastWrite) {
+                behindSession = true;
+                continue;
+            }
+            return replica;
+        }
+        (behindSession ? readYourWritesFallbacks : lagFallbacks).increment();
+        return null;
+    }
+
+    // Lo llama ReplicaLagMonitor con el latido que leyó en la réplica (0 si no pudo leerlo).
+    void observe(int replica, long beatMillis, long nowMillis) {
+        Replica observed = replicas.get(replica);
+        observed.appliedUpTo = beatMillis;
+        observed.checkedAt = nowMillis;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    public DataSourceRoutingMetricsDto getMetrics() {
+        long now = System.currentTimeMillis();
+        List<ReplicaStatusDto> status = replicas.stream()
+                .map(replica -> new ReplicaStatusDto(
+                        replica.dataSource.getJdbcUrl(),
+                        replica.appliedUpTo == 0 ? -1 : now - replica.appliedUpTo,
+                        replica.appliedUpTo != 0 && now - replica.appliedUpTo <= maxLagMillis,
+                        replica.checkedAt == 0 ? -1 : now - replica.checkedAt,
+                        replica.connections.sum()))
+                .toList();
+        return new DataSourceRoutingMetricsDto(
+                replicas.size(),
+                maxLagMillis,
+                primaryConnections.sum(),
+                status.stream().mapToLong(ReplicaStatusDto::getConnections).sum(),
+                lagFallbacks.sum(),
+                readYourWritesFallbacks.sum(),
+                failureFallbacks.sum(),
+                readYourWritesTracker.trackedSessions(),
+                status
+        );
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private final LongAdder connections = new LongAdder();
+        // Latido del primario que la réplica ya aplicó; 0 = desconocido.
+        private volatile long appliedUpTo;
+        private volatile long checkedAt;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
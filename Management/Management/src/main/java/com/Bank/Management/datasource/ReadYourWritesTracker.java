@@ -0,0 +1,135 @@
+package com.Bank.Management.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Lectura de las propias escrituras para ReadWriteRoutingDataSource. La sesión del cliente es el header
+// X-Session-Id o, si no viene, su dirección IP. Cada transacción de escritura anota el momento de su commit para
+// la sesión que la originó. Las lecturas posteriores de esa sesión solo van a una réplica cuyo latido sea igual o
+// posterior, es decir, que ya aplicó esas escrituras.
+// Durante la propia solicitud de escritura todas las transacciones usan el primario.
+// La sesión vive en el hilo de la solicitud. El trabajo que sigue en otro hilo (transferencias asíncronas, hilos
+// del sequencer, exportaciones en streaming) la captura con currentSession() y la vuelve a fijar con call(); así
+// el commit del otro hilo queda anotado en la sesión correcta y el otro hilo nunca ve la de otra solicitud.
+// Una anotación más vieja que el retraso máximo se descarta: cualquier réplica elegible ya la cubre.
+@Component
+public class ReadYourWritesTracker implements AsyncHandlerInterceptor {
+
+    public static final String HEADER = "X-Session-Id";
+
+    private static final int MAX_SESSION_LENGTH = 100;
+
+    private final long retentionMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ThreadLocal<Session> currentRequest = new ThreadLocal<>();
+
+    public ReadYourWritesTracker(@Value("${bank.datasource.max-lag-ms:1000}") long maxLagMs) {
+        this.retentionMillis = Math.max(0, maxLagMs);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        currentRequest.set(new Session(sessionOf(request), isWrite(request.getMethod())));
+        return true;
+    }
+
+    // La respuesta sigue en otro hilo (StreamingResponseBody): este hilo vuelve al pool sin la sesión.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        currentRequest.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        currentRequest.remove();
+    }
+
+    // Sesión de la solicitud en curso (null fuera de una solicitud), para pasarla a otro hilo con call().
+    public Session currentSession() {
+        return currentRequest.get();
+    }
+
+    // Ejecuta la acción con la sesión indicada. Si ya corre dentro de una transacción de escritura (comandos del
+    // sequencer dentro de su lote), la sesión queda anotada con el commit de esa transacción.
+    public <T> T call(Session session, Supplier<T> action) {
+        Session previous = currentRequest.get();
+        currentRequest.set(session);
+        try {
+            recordWriteOnCommit();
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentRequest.remove();
+            } else {
+                currentRequest.set(previous);
+            }
+        }
+    }
+
+    // Lo llama ReadWriteRoutingDataSource al entregar una conexión del primario: si la transacción escribe, la
+    // sesión en curso queda anotada cuando confirme. Una transacción revertida no anota nada.
+    void recordWriteOnCommit() {
+        Session session = currentRequest.get();
+        if (session == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String id = session.id();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.merge(id, System.currentTimeMillis(), Math::max);
+            }
+        });
+    }
+
+    // La solicitud en curso escribe: sus lecturas deben ver lo que acaba de escribir.
+    public boolean isWriteRequest() {
+        Session session = currentRequest.get();
+        return session != null && session.write();
+    }
+
+    // Momento de la última escritura de la sesión de la solicitud en curso; 0 si no hay sesión o no escribió.
+    public long currentSessionLastWrite() {
+        Session session = currentRequest.get();
+        if (session == null) {
+            return 0;
+        }
+        Long lastWrite = lastWrites.get(session.id());
+        return lastWrite == null ? 0 : lastWrite;
+    }
+
+    public void expire(long nowMillis) {
+        lastWrites.values().removeIf(lastWrite -> lastWrite < nowMillis - retentionMillis);
+    }
+
+    public int trackedSessions() {
+        return lastWrites.size();
+    }
+
+    private String sessionOf(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header == null || header.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        String session = header.trim();
+        return session.length() > MAX_SESSION_LENGTH ? session.substring(0, MAX_SESSION_LENGTH) : session;
+    }
+
+    private boolean isWrite(String method) {
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+
+    public record Session(String id, boolean write) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.Bank.Management.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Mide el atraso de las réplicas con un latido (REPLICATION_HEARTBEAT): cada heartbeat-interval-ms escribe la hora
+// actual en el primario y lee en cada réplica el último latido que recibió. Atraso = ahora - latido leído, así que
+// incluye hasta un intervalo de latido aunque la replicación esté al día.
+// La misma hora sirve para leer las propias escrituras: el latido se escribe después del commit que se quiere ver.
+// Solo se ejecuta si hay réplicas configuradas. Requiere la tabla del latido, que crea Hibernate.
+@Component
+@DependsOn("entityManagerFactory")
+public class ReplicaLagMonitor {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long heartbeatIntervalMs;
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource,
+                             ReadYourWritesTracker readYourWritesTracker,
+                             @Value("${bank.datasource.heartbeat-interval-ms:100}") long heartbeatIntervalMs) {
+        this.routingDataSource = routingDataSource;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.heartbeatIntervalMs = Math.max(1, heartbeatIntervalMs);
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.replicas = routingDataSource.getReplicas().stream().map(JdbcTemplate::new).toList();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::beatQuietly, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Escribe un latido en el primario y actualiza el atraso de cada réplica.
+    public void beat() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("merge into REPLICATION_HEARTBEAT (id, beat_millis) key (id) values (1, ?)", now);
+        } catch (RuntimeException ignored) {
+            // Sin latidos nuevos las réplicas quedan atrasadas y las lecturas vuelven al primario.
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            long beat;
+            try {
+                Long read = replicas.get(i).queryForObject("select max(beat_millis) from REPLICATION_HEARTBEAT", Long.class);
+                beat = read == null ? 0 : read;
+            } catch (RuntimeException ex) {
+                beat = 0;
+            }
+            routingDataSource.observe(i, beat, now);
+        }
+        readYourWritesTracker.expire(now);
+    }
+
+    // En el hilo de fondo un fallo no detiene los latidos siguientes.
+    private void beatQuietly() {
+        try {
+            beat();
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +16,7 @@ public class BankAccountRequestDto {
 
     @NotNull(message = "El saldo inicial no puede ser nulo.")
     @DecimalMin(value = "0.00", inclusive = true, message = "El saldo inicial debe ser cero o positivo.")
-    private double balance;
+    private BigDecimal balance;
 
     @NotNull(message = "El ID del usuario es obligatorio.")
     @Positive(message = "El ID del usuario debe ser un número positivo.")
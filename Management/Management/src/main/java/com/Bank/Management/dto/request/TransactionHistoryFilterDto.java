@@ -0,0 +1,25 @@
+package com.Bank.Management.dto.request;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Filtros opcionales del historial. Se envían como parámetros de consulta y hay que repetirlos en cada página:
+// el cursor solo guarda la posición.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TransactionHistoryFilterDto {
+
+    // Rango de fechas [from, to): from inclusive, to exclusivo.
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    // incoming, outgoing, deposit o withdrawal; vacío = todas.
+    private List<String> direction;
+}
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,5 +20,5 @@ public class UpdateBankAccountDto {
 
     @NotNull(message = "El saldo no puede ser nulo.")
     @DecimalMin(value = "0.00", inclusive = true, message = "El saldo de la cuenta debe ser cero o positivo.")
-    private double balance;
+    private BigDecimal balance;
 }
@@ -0,0 +1,20 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AccountCacheMetricsDto {
+
+    private int size;
+    private int capacity;
+    private long hits;
+    private long misses;
+    // hits / (hits + misses); 0 si todavía no hubo búsquedas.
+    private double hitRate;
+    private long evictions;
+    private long invalidations;
+}
@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Estado de una cuenta derivado de sus eventos: la última foto (snapshotSequence, 0 si no hay) más los
+// eventos posteriores (replayedEvents, siempre menos que el intervalo de fotos).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AccountStateDto {
+
+    private Long accountId;
+    private BigDecimal balance;
+    private long sequence;
+    private long snapshotSequence;
+    private long replayedEvents;
+}
@@ -0,0 +1,20 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+// Resultado de reconstruir el saldo de todas las cuentas desde sus eventos. fromScratch indica si se ignoraron
+// las fotos; correctedAccounts son las cuentas cuyo saldo guardado no coincidía y se reemplazó.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AccountStateRebuildDto {
+
+    private boolean fromScratch;
+    private int partitions;
+    private long accounts;
+    private long events;
+    private long correctedAccounts;
+    private long millis;
+}
@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AsyncTransferMetricsDto {
+
+    private int workers;
+    private int queueCapacity;
+    private int queued;
+    private int running;
+    private long accepted;
+    private long rejected;
+    private long completed;
+    private long failed;
+    private int trackedStatuses;
+}
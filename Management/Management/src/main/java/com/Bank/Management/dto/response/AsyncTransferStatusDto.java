@@ -0,0 +1,25 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AsyncTransferStatusDto {
+
+    private String trackingId;
+    private OperationStatus status;
+    private TransactionResponseDto transaction;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    // Transferencia encontrada por su Idempotency-Key cuando ya no queda su seguimiento en memoria.
+    public static AsyncTransferStatusDto completed(TransactionResponseDto transaction) {
+        return new AsyncTransferStatusDto(null, OperationStatus.COMPLETED, transaction, null, null, transaction.getTransactionDate());
+    }
+}
@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import com.Bank.Management.entity.BalanceSnapshotRunStatus;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BalanceSnapshotRunDto {
+
+    private LocalDate snapshotDate;
+    private BalanceSnapshotRunStatus status;
+    private long accounts;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
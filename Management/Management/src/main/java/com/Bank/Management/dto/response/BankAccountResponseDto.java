@@ -1,12 +1,11 @@
 package com.Bank.Management.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
-// Importa el DTO que crearemos a continuación
-import com.Bank.Management.dto.response.TransactionResponseDto;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,9 +15,12 @@ public class BankAccountResponseDto {
 
     private Long id;
     private String accountNumber;
-    private double balance;
-
+    private BigDecimal balance;
+    private Long userId;
 
+    // Solo se incluyen cuando se piden explícitamente (includeTransactions=true); si no, se omiten del JSON.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<TransactionResponseDto> outgoingTransactions;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<TransactionResponseDto> incomingTransactions;
-}
\ No newline at end of file
+}
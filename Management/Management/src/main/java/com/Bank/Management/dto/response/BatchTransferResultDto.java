@@ -0,0 +1,24 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BatchTransferResultDto {
+
+    private int index;
+    private OperationStatus status;
+    private TransactionResponseDto transaction;
+    private String error;
+
+    public static BatchTransferResultDto completed(int index, TransactionResponseDto transaction) {
+        return new BatchTransferResultDto(index, OperationStatus.COMPLETED, transaction, null);
+    }
+
+    public static BatchTransferResultDto failed(int index, String error) {
+        return new BatchTransferResultDto(index, OperationStatus.FAILED, null, error);
+    }
+}
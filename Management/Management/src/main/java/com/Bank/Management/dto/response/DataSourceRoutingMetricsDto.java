@@ -0,0 +1,27 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DataSourceRoutingMetricsDto {
+
+    private int replicas;
+    private long maxLagMs;
+    // Conexiones entregadas por el primario (escrituras y lecturas que no pudieron ir a una réplica).
+    private long primaryConnections;
+    private long replicaConnections;
+    // Lecturas de solo lectura que fueron al primario porque ninguna réplica estaba al día...
+    private long lagFallbacks;
+    // ...porque ninguna había aplicado todavía la última escritura de la sesión (o la solicitud escribe)...
+    private long readYourWritesFallbacks;
+    // ...o porque la réplica elegida no entregó una conexión.
+    private long failureFallbacks;
+    private int trackedSessions;
+    private List<ReplicaStatusDto> replicaStatus;
+}
@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class IdempotencyMetricsDto {
+
+    private int cachedKeys;
+    private long executions;
+    private long cacheHits;
+    private long storeHits;
+    private long collapsedDuplicates;
+    private long conflicts;
+    // Reservas PENDING vencidas: completadas con el movimiento que dejaron, o liberadas porque no se aplicaron.
+    private long recoveredReservations;
+    private long releasedReservations;
+}
@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class JournalMetricsDto {
+
+    private boolean enabled;
+    private long lastLsn;
+    private long checkpointLsn;
+    private int segments;
+    private long appendedRecords;
+    private long cancelledRecords;
+    private long replayedRecords;
+    private long skippedRecords;
+    private long replayMillis;
+}
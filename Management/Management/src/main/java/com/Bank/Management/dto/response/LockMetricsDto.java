@@ -0,0 +1,17 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class LockMetricsDto {
+
+    private int stripes;
+    private long acquisitions;
+    private long contendedAcquisitions;
+    private double averageWaitMicros;
+    private long maxWaitMicros;
+}
@@ -0,0 +1,20 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class NettingMetricsDto {
+
+    private int hotAccounts;
+    private long deferredCredits;
+    private long flushes;
+    private long flushedCredits;
+    private long pendingCredits;
+    private BigDecimal pendingAmount;
+}
@@ -0,0 +1,7 @@
+package com.Bank.Management.dto.response;
+
+public enum OperationStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
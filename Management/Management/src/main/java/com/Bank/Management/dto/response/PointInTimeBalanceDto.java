@@ -0,0 +1,23 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Saldo de una cuenta en un instante: incluye los movimientos con fecha anterior a "at".
+// snapshotDate es la foto diaria usada como punto de partida (null si se partió del saldo actual).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PointInTimeBalanceDto {
+
+    private Long accountId;
+    private String accountNumber;
+    private LocalDateTime at;
+    private BigDecimal balance;
+    private LocalDate snapshotDate;
+}
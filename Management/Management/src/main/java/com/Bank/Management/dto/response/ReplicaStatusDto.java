@@ -0,0 +1,19 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ReplicaStatusDto {
+
+    private String url;
+    // Atraso del último latido aplicado por la réplica; -1 si todavía no se pudo leer.
+    private long lagMs;
+    private boolean eligible;
+    // Hace cuánto se leyó el latido por última vez; -1 si nunca.
+    private long checkedMsAgo;
+    private long connections;
+}
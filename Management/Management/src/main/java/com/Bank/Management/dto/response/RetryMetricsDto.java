@@ -0,0 +1,16 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class RetryMetricsDto {
+
+    private long executions;
+    private long retries;
+    private long aborts;
+    private int maxAttempts;
+}
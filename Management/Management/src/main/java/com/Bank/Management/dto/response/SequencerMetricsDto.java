@@ -0,0 +1,21 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SequencerMetricsDto {
+
+    private boolean enabled;
+    private int shards;
+    private int maxBatch;
+    private long batchWindowMicros;
+    private long commands;
+    private long batches;
+    private double averageBatchSize;
+    private long batchFallbacks;
+    private long queuedCommands;
+}
@@ -0,0 +1,27 @@
+package com.Bank.Management.dto.response;
+
+import com.Bank.Management.entity.StatementRunStatus;
+import lombok.*;
+
+// Resultado de una ejecución del motor de extractos. Los totales cubren todas las particiones del mes;
+// el tiempo y las cuentas por segundo, solo las procesadas en esta ejecución (sin las ya completas de
+// una ejecución anterior interrumpida).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class StatementRunReportDto {
+
+    private String month;
+    private StatementRunStatus status;
+    private String directory;
+    private int partitions;
+    private int resumedPartitions;
+    private int processedPartitions;
+    private long accounts;
+    private long transactions;
+    private long processedAccounts;
+    private long elapsedMs;
+    private double accountsPerSecond;
+}
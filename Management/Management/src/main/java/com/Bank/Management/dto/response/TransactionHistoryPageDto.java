@@ -0,0 +1,18 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TransactionHistoryPageDto {
+
+    private List<TransactionResponseDto> transactions;
+    // null cuando no hay más páginas.
+    private String nextCursor;
+    private int size;
+}
@@ -2,6 +2,7 @@ package com.Bank.Management.dto.response;
 
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 public class TransactionResponseDto {
 
     private Long id;
-    private double amount;
+    private BigDecimal amount;
     private LocalDateTime transactionDate;
     private String description;
 
@@ -0,0 +1,18 @@
+package com.Bank.Management.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserPageDto {
+
+    private List<UserResponseDto> users;
+    // Id a enviar como afterId para pedir la página siguiente; null cuando no hay más páginas.
+    private Long nextAfterId;
+    private int size;
+}
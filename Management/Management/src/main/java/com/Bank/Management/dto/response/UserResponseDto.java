@@ -1,5 +1,6 @@
 package com.Bank.Management.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -8,6 +9,8 @@ import java.util.List;
 
 
 
+// En el listado básico no se cargan contraseña ni cuentas: los campos nulos se omiten del JSON.
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -0,0 +1,45 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Evento de una cuenta en el modo de eventos (ver AccountEventStore): cada cambio de saldo queda como un evento
+// con número de secuencia consecutivo por cuenta, y el saldo es la suma de los deltas. Los eventos no se
+// modifican ni se borran. Sin relación JPA con BankAccount ni Transaction, como las fotos de saldo.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(AccountEventId.class)
+@Table(name = "ACCOUNT_EVENTS")
+public class AccountEvent {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = "sequence")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionType type;
+
+    // Cambio del saldo en centavos (ver Money): negativo en retiros y transferencias salientes.
+    @Column(name = "delta_cents", nullable = false)
+    private long deltaCents;
+
+    // Movimiento que originó el evento; null en los ajustes y en el saldo inicial de una cuenta nueva.
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
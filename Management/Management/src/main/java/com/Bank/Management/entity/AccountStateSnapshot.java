@@ -0,0 +1,34 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Última foto del estado de una cuenta en el modo de eventos: el saldo después de aplicar sus eventos
+// hasta "sequence" inclusive. Para reconstruir la cuenta solo se suman los eventos posteriores.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ACCOUNT_STATE_SNAPSHOTS")
+public class AccountStateSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(nullable = false)
+    private long sequence;
+
+    // Saldo en centavos (ver Money).
+    @Column(name = "balance_cents", nullable = false)
+    private long balanceCents;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
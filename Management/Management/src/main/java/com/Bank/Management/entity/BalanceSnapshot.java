@@ -0,0 +1,34 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+// Saldo de una cuenta al cierre de un día: incluye todos los movimientos con fecha anterior al inicio del día
+// siguiente (ver BalanceSnapshotJob). Sin relación JPA con BankAccount: las fotos son datos derivados y no
+// deben impedir borrar una cuenta.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(BalanceSnapshotId.class)
+@Table(name = "ACCOUNT_BALANCE_SNAPSHOTS")
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+
+    // Saldo en centavos (ver Money).
+    @Column(name = "balance_cents", nullable = false)
+    private long balanceCents;
+}
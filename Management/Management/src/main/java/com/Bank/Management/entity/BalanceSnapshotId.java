@@ -0,0 +1,17 @@
+package com.Bank.Management.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshotId implements Serializable {
+
+    private Long accountId;
+    private LocalDate snapshotDate;
+}
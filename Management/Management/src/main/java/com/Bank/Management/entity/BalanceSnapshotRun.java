@@ -0,0 +1,38 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Estado de la generación de fotos de saldo de un día. Queda en RUNNING si el proceso cae a mitad de camino;
+// la siguiente pasada de BalanceSnapshotJob retoma el día y solo genera las fotos que faltan.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "BALANCE_SNAPSHOT_RUNS")
+public class BalanceSnapshotRun {
+
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BalanceSnapshotRunStatus status;
+
+    // Cantidad de fotos del día al terminar.
+    @Column(nullable = false)
+    private long accounts;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
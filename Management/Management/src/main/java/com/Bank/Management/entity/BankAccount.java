@@ -6,6 +6,7 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -17,15 +18,29 @@ import java.util.ArrayList;
 @Table(name = "BANK_ACCOUNTS")
 public class BankAccount {
 
+    // Secuencia con optimizador "pooled": Hibernate reserva bloques de 50 ids en memoria
+    // y puede agrupar los INSERT en batches JDBC (con IDENTITY cada INSERT se ejecuta al instante).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_accounts_seq")
+    @SequenceGenerator(name = "bank_accounts_seq", sequenceName = "BANK_ACCOUNTS_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String accountNumber;
 
-    @Column(nullable = false)
-    private double balance;
+    // Saldo en centavos (ver Money); la columna DOUBLE anterior se migra en MinorUnitsMigration.
+    @Column(name = "balance_cents", nullable = false, columnDefinition = "bigint default 0")
+    private long balanceCents;
+
+    // Control de concurrencia optimista: cada UPDATE verifica y aumenta la versión.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Fecha de alta: las fotos de saldo diarias y las consultas a una fecha no incluyen días anteriores.
+    // Las cuentas creadas antes de existir la columna la tienen en null y se consideran existentes siempre.
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -0,0 +1,43 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Resultado de una operación identificada por el header Idempotency-Key (ver IdempotencyService).
+// La fila se reserva en PENDING antes de ejecutar la operación y pasa a COMPLETED con la respuesta en JSON.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "IDEMPOTENCY_KEYS")
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 40)
+    private String operation;
+
+    // SHA-256 de la operación y el cuerpo de la solicitud: la misma clave con otro cuerpo es un conflicto.
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    // Momento de la reserva: una fila PENDING más vieja que bank.idempotency.pending-timeout-seconds se revisa.
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
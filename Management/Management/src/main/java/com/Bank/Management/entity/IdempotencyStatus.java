@@ -0,0 +1,6 @@
+package com.Bank.Management.entity;
+
+public enum IdempotencyStatus {
+    PENDING,
+    COMPLETED
+}
@@ -0,0 +1,26 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Latido de la base principal (una sola fila, id = 1) que ReplicaLagMonitor escribe periódicamente. Las réplicas
+// lo reciben por replicación como cualquier otro cambio: el valor que tiene cada réplica indica hasta qué momento
+// del primario aplicó los cambios.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "REPLICATION_HEARTBEAT")
+public class ReplicationHeartbeat {
+
+    @Id
+    private Integer id;
+
+    // Momento del latido en milisegundos desde epoch, según el reloj de la aplicación.
+    @Column(name = "beat_millis", nullable = false)
+    private long beatMillis;
+}
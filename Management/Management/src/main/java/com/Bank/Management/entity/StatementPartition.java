@@ -0,0 +1,46 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Punto de control de la generación de extractos: un rango de ids de cuenta de un mes. completedAt queda en null
+// hasta que el archivo de la partición está escrito completo en su nombre definitivo.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(StatementPartitionId.class)
+@Table(name = "STATEMENT_PARTITIONS")
+public class StatementPartition {
+
+    @Id
+    @Column(name = "statement_month", length = 7)
+    private String statementMonth;
+
+    @Id
+    @Column(name = "partition_index")
+    private int partitionIndex;
+
+    @Column(name = "first_account_id", nullable = false)
+    private long firstAccountId;
+
+    @Column(name = "last_account_id", nullable = false)
+    private long lastAccountId;
+
+    @Column(nullable = false)
+    private long accounts;
+
+    @Column(nullable = false)
+    private long transactions;
+
+    @Column(length = 100)
+    private String fileName;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,16 @@
+package com.Bank.Management.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementPartitionId implements Serializable {
+
+    private String statementMonth;
+    private int partitionIndex;
+}
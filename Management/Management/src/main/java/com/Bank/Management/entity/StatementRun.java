@@ -0,0 +1,38 @@
+package com.Bank.Management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Generación de los extractos mensuales de un mes (ver MonthlyStatementEngine). Las particiones planificadas
+// quedan en STATEMENT_PARTITIONS; si el proceso cae, el mes queda en RUNNING y la próxima ejecución del mismo
+// mes solo procesa las particiones sin completar.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "STATEMENT_RUNS")
+public class StatementRun {
+
+    // Mes en formato yyyy-MM.
+    @Id
+    @Column(name = "statement_month", length = 7)
+    private String statementMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatementRunStatus status;
+
+    @Column(nullable = false)
+    private int partitions;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
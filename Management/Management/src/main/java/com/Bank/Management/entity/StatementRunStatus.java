@@ -0,0 +1,6 @@
+package com.Bank.Management.entity;
+
+public enum StatementRunStatus {
+    RUNNING,
+    COMPLETED
+}
@@ -13,15 +13,25 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "TRANSACTION")
+// Índices del historial paginado por cursor: cada dirección se lee en orden (transaction_date, id)
+// descendente directamente del índice, sin ordenar todas las transacciones de la cuenta.
+@Table(name = "TRANSACTION", indexes = {
+        @Index(name = "IDX_TRANSACTION_SOURCE_DATE", columnList = "source_account_id, transaction_date DESC, id DESC"),
+        @Index(name = "IDX_TRANSACTION_TARGET_DATE", columnList = "target_account_id, transaction_date DESC, id DESC"),
+        @Index(name = "IDX_TRANSACTION_IDEMPOTENCY_KEY", columnList = "idempotency_key")
+})
 public class Transaction {
 
+    // Secuencia con optimizador "pooled": Hibernate reserva bloques de 50 ids en memoria
+    // y puede agrupar los INSERT en batches JDBC (con IDENTITY cada INSERT se ejecuta al instante).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "TRANSACTION_SEQ", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private double amount;
+    // Monto en centavos (ver Money).
+    @Column(name = "amount_cents", nullable = false, columnDefinition = "bigint default 0")
+    private long amountCents;
 
     @Column(nullable = false)
     private LocalDateTime transactionDate = LocalDateTime.now();
@@ -29,6 +39,10 @@ public class Transaction {
     @Column(length = 255)
     private String description;
 
+    // Crédito a una cuenta caliente que todavía no se sumó al saldo de la cuenta destino.
+    @Column(name = "credit_pending", nullable = false, columnDefinition = "boolean default false")
+    private boolean creditPending;
+
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "source_account_id")
@@ -38,4 +52,13 @@ public class Transaction {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "target_account_id")
     private BankAccount targetAccount;
+
+    // Transferencia entre shards: número de la otra cuenta, cuya fila está en otro shard. La cuenta de este lado
+    // es la única asociación no nula (ver CrossShardTransferCoordinator).
+    @Column(name = "counterpart_account_number", length = 20)
+    private String counterpartAccountNumber;
+
+    // Idempotency-Key de la solicitud que grabó el movimiento (ver IdempotencyScope); null sin header.
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
 }
\ No newline at end of file
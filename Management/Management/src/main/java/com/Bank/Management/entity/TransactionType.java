@@ -1,8 +1,13 @@
 package com.Bank.Management.entity;
 
+// Tipo de evento de una cuenta (ver AccountEvent). Los cuatro primeros salen de los movimientos de TRANSACTION;
+// ADJUSTMENT es un cambio de saldo sin movimiento (saldo reemplazado con updateAccount o saldo previo al
+// modo de eventos) y TRANSFER_REVERSAL el reintegro de una transferencia entre shards que no pudo completarse.
 public enum TransactionType {
     DEPOSIT,
     WITHDRAW,
     TRANSFER_OUT,
-    TRANSFER_IN
+    TRANSFER_IN,
+    ADJUSTMENT,
+    TRANSFER_REVERSAL
 }
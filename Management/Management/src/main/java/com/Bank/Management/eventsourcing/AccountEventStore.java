@@ -0,0 +1,166 @@
+package com.Bank.Management.eventsourcing;
+
+import com.Bank.Management.dto.response.AccountStateDto;
+import com.Bank.Management.entity.AccountStateSnapshot;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.entity.TransactionType;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.AccountEventRepository;
+import com.Bank.Management.repository.AccountStateSnapshotRepository;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.projection.AccountEventTail;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+// Modo de eventos de los saldos (bank.event-sourcing.enabled). Cada cambio de saldo se registra como un evento
+// de la cuenta (ACCOUNT_EVENTS, tipo TransactionType) en la misma transacción que lo aplica, y ese registro es la
+// fuente de verdad: BANK_ACCOUNTS.balance_cents queda como proyección que las operaciones mantienen al día y que
+// AccountStateRebuildJob puede regenerar desde los eventos.
+// Los eventos se agregan después de actualizar la fila de la cuenta, así que el bloqueo de la fila ordena la
+// secuencia. Los créditos diferidos (credit_pending) generan su evento recién al aplicarse al saldo.
+// Cada snapshot-interval eventos de una cuenta se guarda una foto de su estado (ACCOUNT_STATE_SNAPSHOTS),
+// calculada desde la foto anterior: reconstruir una cuenta suma como máximo snapshot-interval - 1 eventos.
+// Al habilitar el modo, las cuentas que ya tenían saldo reciben un evento ADJUSTMENT inicial por ese saldo; el
+// modo debe quedar habilitado a partir de entonces, porque los cambios hechos con el modo apagado no tienen evento.
+@Component
+@DependsOn("minorUnitsMigration")
+public class AccountEventStore {
+
+    private final AccountEventRepository accountEventRepository;
+    private final AccountStateSnapshotRepository accountStateSnapshotRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long snapshotInterval;
+
+    public AccountEventStore(AccountEventRepository accountEventRepository,
+                             AccountStateSnapshotRepository accountStateSnapshotRepository,
+                             BankAccountRepository bankAccountRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bank.event-sourcing.enabled:false}") boolean enabled,
+                             @Value("${bank.event-sourcing.snapshot-interval:100}") long snapshotInterval) {
+        this.accountEventRepository = accountEventRepository;
+        this.accountStateSnapshotRepository = accountStateSnapshotRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            transactionTemplate.executeWithoutResult(status -> accountEventRepository.appendOpeningBalances(LocalDateTime.now()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Eventos de un movimiento recién guardado: débito del origen y, si no quedó pendiente, crédito del destino.
+    public void recordMovement(Transaction transaction) {
+        recordMovement(transaction.getId(),
+                transaction.getSourceAccount() == null ? null : transaction.getSourceAccount().getId(),
+                transaction.getTargetAccount() == null ? null : transaction.getTargetAccount().getId(),
+                transaction.getAmountCents(),
+                transaction.getTransactionDate(),
+                transaction.isCreditPending());
+    }
+
+    public void recordMovement(Long transactionId, Long sourceAccountId, Long targetAccountId, long amountCents,
+                               LocalDateTime date, boolean creditPending) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime occurredAt = date == null ? LocalDateTime.now() : date;
+        if (sourceAccountId != null) {
+            append(sourceAccountId, targetAccountId == null ? TransactionType.WITHDRAW : TransactionType.TRANSFER_OUT,
+                    -amountCents, transactionId, occurredAt);
+        }
+        if (targetAccountId != null && !creditPending) {
+            append(targetAccountId, sourceAccountId == null ? TransactionType.DEPOSIT : TransactionType.TRANSFER_IN,
+                    amountCents, transactionId, occurredAt);
+        }
+    }
+
+    // Saldo inicial de una cuenta nueva.
+    public void recordOpening(Long accountId, long balanceCents) {
+        if (enabled && balanceCents != 0) {
+            append(accountId, TransactionType.DEPOSIT, balanceCents, null, LocalDateTime.now());
+        }
+    }
+
+    // Cambio de saldo sin movimiento (saldo reemplazado con updateAccount).
+    public void recordAdjustment(Long accountId, long deltaCents) {
+        if (enabled && deltaCents != 0) {
+            append(accountId, TransactionType.ADJUSTMENT, deltaCents, null, LocalDateTime.now());
+        }
+    }
+
+    // Reintegro al origen de una transferencia entre shards cuyo crédito falló (el movimiento se borra).
+    public void recordReversal(Long accountId, Long transactionId, long amountCents) {
+        if (enabled) {
+            append(accountId, TransactionType.TRANSFER_REVERSAL, amountCents, transactionId, LocalDateTime.now());
+        }
+    }
+
+    // Créditos diferidos que se acaban de sumar al saldo de la cuenta.
+    public void recordCredits(Long accountId, Collection<Long> transactionIds) {
+        if (!enabled || transactionIds.isEmpty()) {
+            return;
+        }
+        long last = accountEventRepository.findLastSequence(accountId);
+        int appended = accountEventRepository.appendCredits(accountId, last, transactionIds);
+        snapshotIfDue(accountId, last, last + appended);
+    }
+
+    // Todos los créditos todavía marcados como pendientes de la cuenta (se llama antes de limpiar la marca).
+    public void recordPendingCredits(Long accountId) {
+        if (!enabled) {
+            return;
+        }
+        long last = accountEventRepository.findLastSequence(accountId);
+        int appended = accountEventRepository.appendPendingCredits(accountId, last);
+        snapshotIfDue(accountId, last, last + appended);
+    }
+
+    // Estado actual de la cuenta: su última foto más los eventos posteriores.
+    public AccountStateDto currentState(Long accountId) {
+        if (!enabled) {
+            throw new InvalidOperationException("El modo de eventos no está habilitado.");
+        }
+        if (!bankAccountRepository.existsById(accountId)) {
+            throw new DataNotFoundException(accountId, "Cuenta bancaria");
+        }
+        Optional<AccountStateSnapshot> snapshot = accountStateSnapshotRepository.findById(accountId);
+        long snapshotSequence = snapshot.map(AccountStateSnapshot::getSequence).orElse(0L);
+        long snapshotCents = snapshot.map(AccountStateSnapshot::getBalanceCents).orElse(0L);
+        AccountEventTail tail = accountEventRepository.findTail(accountId, snapshotSequence);
+        return new AccountStateDto(accountId, Money.toDecimal(snapshotCents + tail.getDeltaCents()),
+                tail.getLastSequence(), snapshotSequence, tail.getEvents());
+    }
+
+    private void append(Long accountId, TransactionType type, long deltaCents, Long transactionId, LocalDateTime occurredAt) {
+        long last = accountEventRepository.findLastSequence(accountId);
+        accountEventRepository.append(accountId, last + 1, type.name(), deltaCents, transactionId, occurredAt);
+        snapshotIfDue(accountId, last, last + 1);
+    }
+
+    // Se toma una foto al cruzar un múltiplo del intervalo; un lote de créditos puede cruzarlo con varios eventos.
+    private void snapshotIfDue(Long accountId, long previousSequence, long lastSequence) {
+        if (lastSequence / snapshotInterval > previousSequence / snapshotInterval) {
+            accountStateSnapshotRepository.advance(accountId, lastSequence, LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.Bank.Management.eventsourcing;
+
+import com.Bank.Management.dto.response.AccountStateRebuildDto;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.AccountStateSnapshotRepository;
+import com.Bank.Management.repository.projection.AccountStateView;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reconstrucción completa de los saldos desde los eventos (ver AccountEventStore). Las cuentas se reparten en
+// particiones (id mod partitions) que se procesan en paralelo, en bloques con su propia transacción:
+// se bloquean las filas del bloque, se calcula el estado de cada cuenta (foto + eventos posteriores, o todos los
+// eventos con fromScratch), se deja una foto al día y se reemplaza el saldo guardado si no coincide.
+// La memoria no depende del tamaño del historial: cada bloque trae una fila por cuenta, ya agregada en la base.
+@Component
+public class AccountStateRebuildJob {
+
+    private final AccountEventStore accountEventStore;
+    private final AccountStateSnapshotRepository accountStateSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+    private final int chunkSize;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final ExecutorService partitionExecutor;
+
+    public AccountStateRebuildJob(AccountEventStore accountEventStore,
+                                  AccountStateSnapshotRepository accountStateSnapshotRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${bank.event-sourcing.partitions:4}") int partitions,
+                                  @Value("${bank.event-sourcing.chunk-size:500}") int chunkSize) {
+        this.accountEventStore = accountEventStore;
+        this.accountStateSnapshotRepository = accountStateSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = Math.max(1, partitions);
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.partitionExecutor = Executors.newFixedThreadPool(this.partitions, runnable -> {
+            Thread thread = new Thread(runnable, "account-state-rebuild-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        partitionExecutor.shutdownNow();
+    }
+
+    public AccountStateRebuildDto rebuild(boolean fromScratch) {
+        if (!accountEventStore.isEnabled()) {
+            throw new InvalidOperationException("El modo de eventos no está habilitado: los saldos no pueden reconstruirse.");
+        }
+        runLock.lock();
+        try {
+            long start = System.nanoTime();
+            List<Future<long[]>> running = new ArrayList<>();
+            for (int partition = 0; partition < partitions; partition++) {
+                int current = partition;
+                running.add(partitionExecutor.submit(() -> rebuildPartition(current, fromScratch)));
+            }
+            long[] totals = new long[3];
+            for (long[] partial : awaitAll(running)) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += partial[i];
+                }
+            }
+            return new AccountStateRebuildDto(fromScratch, partitions, totals[0], totals[1], totals[2],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // Devuelve {cuentas, eventos leídos, cuentas corregidas} de la partición.
+    private long[] rebuildPartition(int partition, boolean fromScratch) {
+        long[] totals = new long[3];
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = accountStateSnapshotRepository.findAccountIdsInPartition(partitions, partition, afterId, chunkSize);
+            if (ids.isEmpty()) {
+                return totals;
+            }
+            long[] chunk = transactionTemplate.execute(status -> rebuildChunk(ids, fromScratch));
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += chunk[i];
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private long[] rebuildChunk(List<Long> ids, boolean fromScratch) {
+        accountStateSnapshotRepository.lockAccounts(ids);
+        LocalDateTime now = LocalDateTime.now();
+        long[] totals = new long[3];
+        for (AccountStateView state : accountStateSnapshotRepository.findStates(ids, fromScratch)) {
+            totals[0]++;
+            totals[1] += state.getEvents();
+            if (state.getEvents() > 0) {
+                accountStateSnapshotRepository.put(state.getAccountId(), state.getLastSequence(), state.getBalanceCents(), now);
+            }
+            if (!state.getBalanceCents().equals(state.getStoredCents())) {
+                accountStateSnapshotRepository.overwriteBalance(state.getAccountId(), state.getBalanceCents());
+                totals[2]++;
+            }
+        }
+        return totals;
+    }
+
+    private List<long[]> awaitAll(List<Future<long[]>> running) {
+        List<long[]> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Future<long[]> future : running) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new IllegalStateException("No se pudieron reconstruir los saldos.", ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconstrucción de saldos interrumpida.", ex);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,7 @@
+package com.Bank.Management.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(int attempts) {
+        super(String.format("La cuenta fue modificada por otra operación en curso. Se abortó tras %d intentos, vuelva a intentarlo.", attempts));
+    }
+}
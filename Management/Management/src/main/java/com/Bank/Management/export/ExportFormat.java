@@ -0,0 +1,34 @@
+package com.Bank.Management.export;
+
+import com.Bank.Management.exception.InvalidOperationException;
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat fromParameter(String format) {
+        for (ExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format == null ? "" : format.trim())) {
+                return value;
+            }
+        }
+        throw new InvalidOperationException(String.format("Formato de exportación no soportado: %s. Use ndjson o csv.", format));
+    }
+}
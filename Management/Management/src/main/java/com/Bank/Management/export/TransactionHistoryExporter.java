@@ -0,0 +1,231 @@
+package com.Bank.Management.export;
+
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.AccountNumberView;
+import com.Bank.Management.repository.projection.TransactionExportRow;
+import com.Bank.Management.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Exportación del historial completo de una cuenta (NDJSON o CSV) directamente desde cursores de base de datos.
+// Salientes y entrantes se leen con dos Stream en el orden del índice (fecha, id descendente) y se mezclan aquí,
+// así la base no ordena el historial completo antes de devolver la primera fila. Las filas se escriben en
+// bloques de CHUNK_SIZE: por bloque se resuelven en una consulta los números de cuenta que falten en un caché
+// acotado, se escribe y se envía. La memoria usada no depende del tamaño del historial.
+@Component
+public class TransactionHistoryExporter {
+
+    static final int CHUNK_SIZE = 500;
+    private static final int ACCOUNT_CACHE_SIZE = 10_000;
+    private static final String CSV_HEADER = "id,amount,transactionDate,description,sourceAccountNumber,targetAccountNumber";
+
+    private static final Comparator<TransactionExportRow> NEWEST_FIRST =
+            Comparator.comparing(TransactionExportRow::getTransactionDate).thenComparing(TransactionExportRow::getId).reversed();
+
+    private final TransactionRepository transactionRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountLookupCache accountLookupCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public TransactionHistoryExporter(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository,
+                                      AccountLookupCache accountLookupCache, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                      ShardRouter shardRouter, ReadYourWritesTracker readYourWritesTracker) {
+        this.transactionRepository = transactionRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountLookupCache = accountLookupCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    // La cuenta se valida antes de empezar la respuesta (404 normal); el contenido se escribe después,
+    // mientras se envía, dentro de su propia transacción de solo lectura en el shard de la cuenta. Ese envío corre
+    // en otro hilo: la sesión del cliente se captura aquí y se le pasa explícitamente.
+    public StreamingResponseBody export(String accountNumber, ExportFormat format) {
+        int shard = shardRouter.shardOfAccount(accountNumber);
+        Long accountId = shardRouter.call(shard, () -> accountLookupCache.findId(accountNumber))
+                .orElseThrow(() -> new DataNotFoundException(accountNumber, "Cuenta Bancaria"));
+        ReadYourWritesTracker.Session session = readYourWritesTracker.currentSession();
+        return out -> {
+            try {
+                readYourWritesTracker.call(session, () -> {
+                    shardRouter.run(shard, () -> readOnlyTransaction.executeWithoutResult(status -> write(accountId, accountNumber, format, out)));
+                    return null;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+    }
+
+    private void write(Long accountId, String accountNumber, ExportFormat format, OutputStream out) {
+        // Sin ejecución diferida H2 calcula el resultado completo antes de entregar la primera fila.
+        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        try (Stream<TransactionExportRow> outgoing = transactionRepository.streamOutgoing(accountId);
+             Stream<TransactionExportRow> incoming = transactionRepository.streamIncoming(accountId)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            Map<Long, String> accountNumbers = accountNumberCache();
+            accountNumbers.put(accountId, accountNumber);
+            List<TransactionExportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<TransactionExportRow> rows = merge(outgoing.iterator(), incoming.iterator());
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, accountNumbers, format, writer);
+                }
+            }
+            writeChunk(chunk, accountNumbers, format, writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+        }
+    }
+
+    private void writeChunk(List<TransactionExportRow> chunk, Map<Long, String> accountNumbers, ExportFormat format, Writer writer) throws IOException {
+        Set<Long> missing = new HashSet<>();
+        for (TransactionExportRow row : chunk) {
+            addIfMissing(row.getSourceAccountId(), accountNumbers, missing);
+            addIfMissing(row.getTargetAccountId(), accountNumbers, missing);
+        }
+        if (!missing.isEmpty()) {
+            for (AccountNumberView view : bankAccountRepository.findAccountNumbersByIdIn(missing)) {
+                accountNumbers.put(view.getId(), view.getAccountNumber());
+            }
+        }
+
+        for (TransactionExportRow row : chunk) {
+            TransactionResponseDto dto = new TransactionResponseDto(
+                    row.getId(),
+                    Money.toDecimal(row.getAmountCents()),
+                    row.getTransactionDate(),
+                    row.getDescription(),
+                    accountNumber(row.getSourceAccountId(), row.getCounterpartAccountNumber(), accountNumbers),
+                    accountNumber(row.getTargetAccountId(), row.getCounterpartAccountNumber(), accountNumbers)
+            );
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(dto, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        chunk.clear();
+    }
+
+    private void writeCsvLine(TransactionResponseDto dto, Writer writer) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writer.write(',');
+        writer.write(dto.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(dto.getTransactionDate().toString());
+        writer.write(',');
+        writer.write(csvField(dto.getDescription()));
+        writer.write(',');
+        writer.write(csvField(dto.getSourceAccountNumber()));
+        writer.write(',');
+        writer.write(csvField(dto.getTargetAccountNumber()));
+        writer.write('\n');
+    }
+
+    public static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void addIfMissing(Long id, Map<Long, String> accountNumbers, Set<Long> missing) {
+        if (id != null && !accountNumbers.containsKey(id)) {
+            missing.add(id);
+        }
+    }
+
+    // Sin id de este lado, la cuenta (si la hay) está en otro shard y la fila trae su número.
+    private String accountNumber(Long id, String counterpartAccountNumber, Map<Long, String> accountNumbers) {
+        return id == null ? counterpartAccountNumber : accountNumbers.get(id);
+    }
+
+    // LRU en orden de acceso: la cuenta exportada aparece en cada fila y nunca se descarta.
+    private Map<Long, String> accountNumberCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > ACCOUNT_CACHE_SIZE;
+            }
+        };
+    }
+
+    // Mezcla dos secuencias ya ordenadas de la más reciente a la más antigua, leyendo una fila a la vez de cada una.
+    static Iterator<TransactionExportRow> merge(Iterator<TransactionExportRow> first, Iterator<TransactionExportRow> second) {
+        return new Iterator<>() {
+            private TransactionExportRow nextFirst = first.hasNext() ? first.next() : null;
+            private TransactionExportRow nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public TransactionExportRow next() {
+                TransactionExportRow result;
+                if (nextSecond == null || (nextFirst != null && NEWEST_FIRST.compare(nextFirst, nextSecond) <= 0)) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                if (result == null) {
+                    throw new NoSuchElementException();
+                }
+                return result;
+            }
+        };
+    }
+}
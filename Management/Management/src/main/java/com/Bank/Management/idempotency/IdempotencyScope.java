@@ -0,0 +1,34 @@
+package com.Bank.Management.idempotency;
+
+import java.util.function.Supplier;
+
+// Clave de idempotencia de la operación que se ejecuta en el hilo actual. IdempotencyService la fija mientras
+// corre la acción y los movimientos que se graban la copian en TRANSACTION.idempotency_key; así una reserva que
+// quedó en PENDING se puede contrastar con lo que realmente se escribió.
+// El valor no cruza hilos por sí solo: quien pasa trabajo a otro hilo (cola asíncrona, sequencer) lo captura con
+// current() y lo vuelve a fijar con call() del otro lado.
+public final class IdempotencyScope {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private IdempotencyScope() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(String key, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(key);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
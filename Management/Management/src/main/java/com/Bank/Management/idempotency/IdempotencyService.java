@@ -0,0 +1,288 @@
+package com.Bank.Management.idempotency;
+
+import com.Bank.Management.dto.response.IdempotencyMetricsDto;
+import com.Bank.Management.entity.IdempotencyRecord;
+import com.Bank.Management.entity.IdempotencyStatus;
+import com.Bank.Management.exception.IdempotencyConflictException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Operaciones idempotentes con el header Idempotency-Key (transferencias, depósitos y retiros).
+// Un reintento con la misma clave devuelve la respuesta guardada sin volver a escribir:
+//   1. Primero se busca en un LRU acotado en memoria con las respuestas recientes.
+//   2. Las solicitudes concurrentes con la misma clave esperan el resultado de la primera.
+//   3. La clave se reserva en IDEMPOTENCY_KEYS (PENDING) antes de ejecutar, y al terminar se guarda
+//      la respuesta (COMPLETED). La tabla cubre reinicios y otras instancias.
+// Si la operación falla, la reserva se borra y la misma clave puede reintentarse.
+// Los movimientos que escribe la operación llevan la clave (ver IdempotencyScope). Si el proceso cae después de
+// escribir y antes de guardar la respuesta, la clave queda en PENDING: mientras la reserva sea reciente los
+// reintentos reciben un conflicto; pasado bank.idempotency.pending-timeout-seconds se busca el movimiento con esa
+// clave. Si existe, la reserva se completa con la respuesta reconstruida; si no, la operación nunca se confirmó y
+// la reserva se libera para ejecutarla.
+@Component
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long pendingTimeoutSeconds;
+    private final Map<String, StoredResult> recentResults;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder collapsedDuplicates = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder recoveredReservations = new LongAdder();
+    private final LongAdder releasedReservations = new LongAdder();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${bank.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${bank.idempotency.pending-timeout-seconds:300}") long pendingTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.pendingTimeoutSeconds = Math.max(1, pendingTimeoutSeconds);
+        int capacity = Math.max(1, cacheSize);
+        // LinkedHashMap en orden de acceso: al superar la capacidad se descarta la clave menos usada.
+        this.recentResults = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Sin forma de buscar lo que escribió la operación, una reserva vencida sigue respondiendo con conflicto.
+    public <T> T execute(String idempotencyKey, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        return execute(idempotencyKey, operation, request, responseType, action, null);
+    }
+
+    // Sin clave la operación se ejecuta normalmente (el header es opcional).
+    // appliedResponse arma la respuesta de una operación ya confirmada con esa clave (vacío si no se aplicó).
+    public <T> T execute(String idempotencyKey, String operation, Object request, Class<T> responseType, Supplier<T> action,
+                         Function<String, Optional<T>> appliedResponse) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOperationException(String.format("La clave de idempotencia admite como máximo %d caracteres.", MAX_KEY_LENGTH));
+        }
+        String requestHash = fingerprint(operation, request);
+
+        StoredResult cached = cachedResult(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return replay(cached, operation, requestHash, responseType);
+        }
+
+        InFlight mine = new InFlight(operation, requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            collapsedDuplicates.increment();
+            checkSameRequest(running.operation(), running.requestHash(), operation, requestHash);
+            return responseType.cast(await(running.result()));
+        }
+
+        try {
+            T response = executeOnce(key, operation, requestHash, responseType, action, appliedResponse);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public IdempotencyMetricsDto getMetrics() {
+        int cachedKeys;
+        synchronized (recentResults) {
+            cachedKeys = recentResults.size();
+        }
+        return new IdempotencyMetricsDto(
+                cachedKeys,
+                executions.sum(),
+                cacheHits.sum(),
+                storeHits.sum(),
+                collapsedDuplicates.sum(),
+                conflicts.sum(),
+                recoveredReservations.sum(),
+                releasedReservations.sum()
+        );
+    }
+
+    private <T> T executeOnce(String key, String operation, String requestHash, Class<T> responseType, Supplier<T> action,
+                              Function<String, Optional<T>> appliedResponse) {
+        // Otra solicitud pudo terminar entre la consulta al LRU y el registro como "en curso".
+        StoredResult cached = cachedResult(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return replay(cached, operation, requestHash, responseType);
+        }
+
+        if (!reserve(key, operation, requestHash)) {
+            IdempotencyRecord record = storedRecord(key, operation, requestHash);
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return storedResponse(key, record, responseType);
+            }
+            if (appliedResponse == null || !isStale(record)) {
+                throw new IdempotencyConflictException("La operación con esta clave de idempotencia todavía está en curso.");
+            }
+            return recoverStale(key, record, responseType, action, appliedResponse);
+        }
+
+        T response;
+        try {
+            response = IdempotencyScope.call(key, action);
+        } catch (RuntimeException ex) {
+            idempotencyRecordRepository.deleteById(key);
+            throw ex;
+        }
+        executions.increment();
+
+        idempotencyRecordRepository.complete(key, serialize(response));
+        remember(key, new StoredResult(operation, requestHash, response));
+        return response;
+    }
+
+    private boolean reserve(String key, String operation, String requestHash) {
+        try {
+            idempotencyRecordRepository.reserve(key, operation, requestHash, LocalDateTime.now());
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            return false;
+        }
+    }
+
+    private IdempotencyRecord storedRecord(String key, String operation, String requestHash) {
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key)
+                .orElseThrow(() -> new IdempotencyConflictException("La operación con esta clave de idempotencia todavía está en curso."));
+        storeHits.increment();
+        checkSameRequest(record.getOperation(), record.getRequestHash(), operation, requestHash);
+        return record;
+    }
+
+    // La clave ya estaba en la tabla: se responde con lo guardado (y se carga en el LRU) sin ejecutar nada.
+    private <T> T storedResponse(String key, IdempotencyRecord record, Class<T> responseType) {
+        T response = deserialize(record.getResponseBody(), responseType);
+        remember(key, new StoredResult(record.getOperation(), record.getRequestHash(), response));
+        return response;
+    }
+
+    private boolean isStale(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(pendingTimeoutSeconds));
+    }
+
+    // Reserva vencida: si la operación dejó su movimiento se completa con esa respuesta; si no, se libera y se
+    // ejecuta ahora. El borrado exige la misma fecha de reserva: entre dos instancias solo una la libera, y la
+    // otra encuentra la reserva nueva (reciente) y recibe un conflicto.
+    private <T> T recoverStale(String key, IdempotencyRecord record, Class<T> responseType, Supplier<T> action,
+                               Function<String, Optional<T>> appliedResponse) {
+        Optional<T> applied = appliedResponse.apply(key);
+        if (applied.isPresent()) {
+            recoveredReservations.increment();
+            idempotencyRecordRepository.complete(key, serialize(applied.get()));
+            remember(key, new StoredResult(record.getOperation(), record.getRequestHash(), applied.get()));
+            return applied.get();
+        }
+        if (idempotencyRecordRepository.releaseStale(key, record.getCreatedAt()) > 0) {
+            releasedReservations.increment();
+        }
+        return executeOnce(key, record.getOperation(), record.getRequestHash(), responseType, action, appliedResponse);
+    }
+
+    private <T> T replay(StoredResult stored, String operation, String requestHash, Class<T> responseType) {
+        checkSameRequest(stored.operation(), stored.requestHash(), operation, requestHash);
+        return responseType.cast(stored.response());
+    }
+
+    private void checkSameRequest(String storedOperation, String storedHash, String operation, String requestHash) {
+        if (!storedOperation.equals(operation) || !storedHash.equals(requestHash)) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("La clave de idempotencia ya se usó con otra solicitud.");
+        }
+    }
+
+    private StoredResult cachedResult(String key) {
+        synchronized (recentResults) {
+            return recentResults.get(key);
+        }
+    }
+
+    private void remember(String key, StoredResult result) {
+        synchronized (recentResults) {
+            recentResults.put(key, result);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud.", ex);
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo guardar la respuesta idempotente.", ex);
+        }
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo leer la respuesta idempotente guardada.", ex);
+        }
+    }
+
+    private record StoredResult(String operation, String requestHash, Object response) {
+    }
+
+    private record InFlight(String operation, String requestHash, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.Bank.Management.journal;
+
+// Una entrada del diario: un movimiento (fila de TRANSACTION) con los cambios de saldo que implica.
+// Las cuentas ausentes van en 0 (depósitos sin origen, retiros sin destino). CANCEL anula un movimiento
+// ya escrito cuyo commit no llegó a confirmarse o que luego se compensó.
+// CREDIT es un crédito diferido de una cuenta caliente que un flush sumó al saldo (transactionId es su movimiento).
+// ADJUSTMENT es un reemplazo de saldo desde updateAccount de diarios anteriores (hoy se escribe como MOVEMENT de
+// su fila de ajuste): amountCents es el cambio (puede ser negativo) y transactionId la versión de la fila después
+// del UPDATE; su CANCEL lleva la misma cuenta y versión.
+// lsn es el número de secuencia en el diario; lo asigna MappedJournal al escribir.
+public record JournalRecord(long lsn, Kind kind, long transactionId, long sourceAccountId, long targetAccountId,
+                            long amountCents, long dateNanos, boolean creditPending) {
+
+    public enum Kind {
+        MOVEMENT,
+        CANCEL,
+        CREDIT,
+        ADJUSTMENT
+    }
+
+    public static JournalRecord movement(long transactionId, long sourceAccountId, long targetAccountId,
+                                         long amountCents, long dateNanos, boolean creditPending) {
+        return new JournalRecord(0, Kind.MOVEMENT, transactionId, sourceAccountId, targetAccountId, amountCents, dateNanos, creditPending);
+    }
+
+    public static JournalRecord cancel(long transactionId) {
+        return new JournalRecord(0, Kind.CANCEL, transactionId, 0, 0, 0, 0, false);
+    }
+
+    public static JournalRecord credit(long transactionId, long targetAccountId) {
+        return new JournalRecord(0, Kind.CREDIT, transactionId, 0, targetAccountId, 0, 0, false);
+    }
+
+    // CANCEL que anula esta entrada (un movimiento o un ajuste).
+    JournalRecord cancelling() {
+        return new JournalRecord(0, Kind.CANCEL, transactionId, 0, kind == Kind.ADJUSTMENT ? targetAccountId : 0, 0, 0, false);
+    }
+
+    JournalRecord withLsn(long value) {
+        return new JournalRecord(value, kind, transactionId, sourceAccountId, targetAccountId, amountCents, dateNanos, creditPending);
+    }
+}
@@ -0,0 +1,510 @@
+package com.Bank.Management.journal;
+
+import com.Bank.Management.dto.response.JournalMetricsDto;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Diario de movimientos (write-ahead) sobre MappedJournal. Cada fila de TRANSACTION que se guarda se
+// escribe también en el diario justo antes del commit (un msync por commit con force-on-commit), así un
+// commit confirmado está en el diario aunque la base todavía no lo haya llevado a disco: H2 puede
+// confirmar con WRITE_DELAY sin perder movimientos si el proceso cae.
+// También se escriben los créditos diferidos que un flush de cuenta caliente suma al saldo (CREDIT). Los reemplazos
+// de saldo de updateAccount dejan una fila de ajuste y se escriben como movimientos; las entradas ADJUSTMENT
+// solo aparecen en diarios anteriores y se siguen reaplicando.
+// Al arrancar se reaplican, en este orden, las entradas posteriores al último checkpoint que la base no refleja:
+//   1. Ajustes cuya versión es mayor que la que tiene la fila.
+//   2. Movimientos cuya fila no existe (saldos + fila con su id original).
+//   3. Créditos cuyo movimiento sigue con credit_pending.
+// Si el commit falla después de escribir, o el movimiento se compensa más tarde, se agrega un CANCEL y la
+// entrada no se reaplica.
+// Cada checkpoint-interval-ms se ejecuta CHECKPOINT en H2, se guarda el lsn que la base ya refleja y se
+// borran los segmentos cerrados anteriores a ese lsn.
+@Component
+@DependsOn("minorUnitsMigration")
+public class LedgerJournal {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int REPLAY_CHUNK = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final AccountEventStore accountEventStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentRecords;
+    private final boolean forceOnCommit;
+    private final long checkpointIntervalMs;
+
+    // Cota inferior del primer lsn de cada commit en curso que ya escribió (o está por escribir) en el diario,
+    // con la cantidad de commits que la comparten. El checkpoint nunca avanza más allá de la menor.
+    private final ConcurrentSkipListMap<Long, Integer> inFlight = new ConcurrentSkipListMap<>();
+
+    private final LongAdder appendedRecords = new LongAdder();
+    private final LongAdder cancelledRecords = new LongAdder();
+    private volatile long checkpointLsn;
+    private volatile long replayedRecords;
+    private volatile long skippedRecords;
+    private volatile long replayMillis;
+
+    private MappedJournal journal;
+    private ScheduledExecutorService scheduler;
+
+    public LedgerJournal(JdbcTemplate jdbcTemplate,
+                         TransactionOperations transactionOperations,
+                         AccountEventStore accountEventStore,
+                         @Value("${bank.journal.enabled:false}") boolean enabled,
+                         @Value("${bank.journal.directory:./data/journal}") String directory,
+                         @Value("${bank.journal.segment-records:1048576}") int segmentRecords,
+                         @Value("${bank.journal.force-on-commit:true}") boolean forceOnCommit,
+                         @Value("${bank.journal.checkpoint-interval-ms:60000}") long checkpointIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.accountEventStore = accountEventStore;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentRecords = Math.max(1, segmentRecords);
+        this.forceOnCommit = forceOnCommit;
+        this.checkpointIntervalMs = Math.max(1, checkpointIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        journal = new MappedJournal(directory, segmentRecords);
+        checkpointLsn = readCheckpoint();
+        replay();
+        checkpoint();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointIntervalMs, checkpointIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            checkpointQuietly();
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Registra un movimiento recién guardado (con id asignado). Se escribe en el diario antes del commit.
+    public void recordMovement(Transaction transaction) {
+        if (!enabled) {
+            return;
+        }
+        record(JournalRecord.movement(
+                transaction.getId(),
+                transaction.getSourceAccount() == null ? 0 : transaction.getSourceAccount().getId(),
+                transaction.getTargetAccount() == null ? 0 : transaction.getTargetAccount().getId(),
+                transaction.getAmountCents(),
+                toNanos(transaction.getTransactionDate()),
+                transaction.isCreditPending()));
+    }
+
+    // Créditos diferidos que un flush acaba de sumar al saldo de una cuenta caliente.
+    public void recordCredits(Long accountId, Collection<Long> transactionIds) {
+        if (!enabled) {
+            return;
+        }
+        for (Long transactionId : transactionIds) {
+            record(JournalRecord.credit(transactionId, accountId));
+        }
+    }
+
+    // El movimiento se revirtió (compensación): no debe reaplicarse aunque su fila ya no exista.
+    public void recordCancel(Long transactionId) {
+        if (!enabled) {
+            return;
+        }
+        cancelledRecords.increment();
+        record(JournalRecord.cancel(transactionId));
+    }
+
+    // Lleva el checkpoint hasta el último lsn que la base ya refleja y borra los segmentos anteriores.
+    public synchronized void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        long last = journal.lastLsn();
+        Map.Entry<Long, Integer> oldestInFlight = inFlight.firstEntry();
+        long safe = oldestInFlight == null ? last : Math.min(last, oldestInFlight.getKey() - 1);
+        if (safe <= checkpointLsn) {
+            return;
+        }
+        jdbcTemplate.execute("CHECKPOINT");
+        writeCheckpoint(safe);
+        checkpointLsn = safe;
+        journal.truncateUpTo(safe);
+    }
+
+    public JournalMetricsDto getMetrics() {
+        return new JournalMetricsDto(
+                enabled,
+                journal == null ? 0 : journal.lastLsn(),
+                checkpointLsn,
+                journal == null ? 0 : journal.segmentCount(),
+                appendedRecords.sum(),
+                cancelledRecords.sum(),
+                replayedRecords,
+                skippedRecords,
+                replayMillis
+        );
+    }
+
+    private void record(JournalRecord record) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(List.of(record));
+            return;
+        }
+        PendingRecords pending = (PendingRecords) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRecords();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.records.add(record);
+    }
+
+    private void append(List<JournalRecord> records) {
+        long lsn = journal.append(records);
+        if (forceOnCommit) {
+            journal.force(lsn);
+        }
+        appendedRecords.add(records.size());
+    }
+
+    // Reaplica en lotes, en orden de lsn, las entradas posteriores al checkpoint que la base no refleja.
+    // Primero se juntan los cancelados y los ajustes (pocos), así movimientos y créditos se recorren sin
+    // guardarlos todos.
+    void replay() {
+        long start = System.nanoTime();
+        Set<Long> cancelled = new HashSet<>();
+        Set<AdjustmentKey> cancelledAdjustments = new HashSet<>();
+        List<JournalRecord> adjustments = new ArrayList<>();
+        journal.scan(checkpointLsn, record -> {
+            if (record.kind() == JournalRecord.Kind.CANCEL && record.targetAccountId() == 0) {
+                cancelled.add(record.transactionId());
+            } else if (record.kind() == JournalRecord.Kind.CANCEL) {
+                cancelledAdjustments.add(new AdjustmentKey(record.targetAccountId(), record.transactionId()));
+            } else if (record.kind() == JournalRecord.Kind.ADJUSTMENT) {
+                adjustments.add(record);
+            }
+        });
+
+        long[] counters = new long[2];
+        replayAdjustments(adjustments.stream()
+                .filter(record -> !cancelledAdjustments.contains(new AdjustmentKey(record.targetAccountId(), record.transactionId())))
+                .toList(), counters);
+
+        List<JournalRecord> chunk = new ArrayList<>(REPLAY_CHUNK);
+        journal.scan(checkpointLsn, record -> {
+            if (record.kind() == JournalRecord.Kind.MOVEMENT && !cancelled.contains(record.transactionId())) {
+                chunk.add(record);
+                if (chunk.size() == REPLAY_CHUNK) {
+                    replayChunk(chunk, counters);
+                    chunk.clear();
+                }
+            }
+        });
+        replayChunk(chunk, counters);
+        chunk.clear();
+
+        // Un flush revertido no se cancela: si su movimiento sigue pendiente, aplicarlo es lo mismo que haría
+        // la recuperación de créditos pendientes al arrancar.
+        journal.scan(checkpointLsn, record -> {
+            if (record.kind() == JournalRecord.Kind.CREDIT) {
+                chunk.add(record);
+                if (chunk.size() == REPLAY_CHUNK) {
+                    replayCredits(chunk, counters);
+                    chunk.clear();
+                }
+            }
+        });
+        replayCredits(chunk, counters);
+
+        replayedRecords = counters[0];
+        skippedRecords = counters[1];
+        replayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private void replayChunk(List<JournalRecord> chunk, long[] counters) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from TRANSACTION where id in (" + placeholders(chunk.size()) + ")", Long.class,
+                chunk.stream().map(JournalRecord::transactionId).toArray()));
+        List<JournalRecord> missing = chunk.stream().filter(record -> !existing.contains(record.transactionId())).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> accountNumbers = accountNumbers(missing.stream()
+                .flatMap(record -> Stream.of(record.sourceAccountId(), record.targetAccountId()))
+                .filter(id -> id != 0)
+                .collect(Collectors.toSet()));
+
+        // Los cambios de saldo se suman por cuenta: un solo UPDATE por cuenta y bloque, no uno por movimiento.
+        Map<Long, Long> changes = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        List<JournalRecord> replayed = new ArrayList<>();
+        for (JournalRecord record : missing) {
+            String source = record.sourceAccountId() == 0 ? null : accountNumbers.get(record.sourceAccountId());
+            String target = record.targetAccountId() == 0 ? null : accountNumbers.get(record.targetAccountId());
+            // Una cuenta borrada después del movimiento se llevó sus filas: no hay nada que reaplicar.
+            if ((record.sourceAccountId() != 0 && source == null) || (record.targetAccountId() != 0 && target == null)) {
+                counters[1]++;
+                continue;
+            }
+            if (source != null) {
+                changes.merge(record.sourceAccountId(), -record.amountCents(), Long::sum);
+            }
+            if (target != null && !record.creditPending()) {
+                changes.merge(record.targetAccountId(), record.amountCents(), Long::sum);
+            }
+            rows.add(new Object[]{record.transactionId(), record.amountCents(), Timestamp.valueOf(fromNanos(record.dateNanos())),
+                    description(source, target), record.creditPending(),
+                    source == null ? null : record.sourceAccountId(), target == null ? null : record.targetAccountId()});
+            replayed.add(record);
+            counters[0]++;
+        }
+
+        transactionOperations.execute(status -> {
+            jdbcTemplate.batchUpdate("update BANK_ACCOUNTS set balance_cents = balance_cents + ?, version = version + 1 where id = ?",
+                    changes.entrySet().stream().map(change -> new Object[]{change.getValue(), change.getKey()}).toList());
+            jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, source_account_id, target_account_id) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)", rows);
+            // Los eventos del modo de eventos se perdieron junto con las filas: se vuelven a agregar en orden.
+            for (JournalRecord record : replayed) {
+                accountEventStore.recordMovement(record.transactionId(),
+                        record.sourceAccountId() == 0 ? null : record.sourceAccountId(),
+                        record.targetAccountId() == 0 ? null : record.targetAccountId(),
+                        record.amountCents(), fromNanos(record.dateNanos()), record.creditPending());
+            }
+            return null;
+        });
+    }
+
+    // Las versiones de las filas solo crecen: un ajuste ya está en la base si la fila tiene su versión o una
+    // mayor. Se comparan antes de reaplicar movimientos (que también suben la versión), y la versión queda al
+    // menos en la del ajuste, así un arranque interrumpido después de este paso no lo aplica dos veces.
+    private void replayAdjustments(List<JournalRecord> adjustments, long[] counters) {
+        if (adjustments.isEmpty()) {
+            return;
+        }
+        Set<Long> accountIds = adjustments.stream().map(JournalRecord::targetAccountId).collect(Collectors.toSet());
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("select id, version from BANK_ACCOUNTS where id in (" + placeholders(accountIds.size()) + ")",
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getLong(2));
+                },
+                accountIds.toArray());
+
+        List<JournalRecord> missing = new ArrayList<>();
+        for (JournalRecord record : adjustments) {
+            Long version = versions.get(record.targetAccountId());
+            if (version == null) {
+                counters[1]++;
+            } else if (version < record.transactionId()) {
+                missing.add(record);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        transactionOperations.execute(status -> {
+            for (JournalRecord record : missing) {
+                jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = balance_cents + ?, version = greatest(version + 1, ?) where id = ?",
+                        record.amountCents(), record.transactionId(), record.targetAccountId());
+                accountEventStore.recordAdjustment(record.targetAccountId(), record.amountCents());
+            }
+            return null;
+        });
+        counters[0] += missing.size();
+    }
+
+    // Créditos cuyo flush no quedó en la base: el movimiento (quizás recién reaplicado) sigue marcado.
+    private void replayCredits(List<JournalRecord> chunk, long[] counters) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        transactionOperations.execute(status -> {
+            Map<Long, Long> totals = new HashMap<>();
+            Map<Long, List<Long>> transactionIds = new HashMap<>();
+            jdbcTemplate.query("select id, target_account_id, amount_cents from TRANSACTION " +
+                            "where credit_pending = true and target_account_id is not null and id in (" + placeholders(chunk.size()) + ")",
+                    rs -> {
+                        totals.merge(rs.getLong(2), rs.getLong(3), Long::sum);
+                        transactionIds.computeIfAbsent(rs.getLong(2), id -> new ArrayList<>()).add(rs.getLong(1));
+                    },
+                    chunk.stream().map(JournalRecord::transactionId).toArray());
+            if (totals.isEmpty()) {
+                return null;
+            }
+            jdbcTemplate.batchUpdate("update BANK_ACCOUNTS set balance_cents = balance_cents + ?, version = version + 1 where id = ?",
+                    totals.entrySet().stream().map(total -> new Object[]{total.getValue(), total.getKey()}).toList());
+            List<Long> applied = transactionIds.values().stream().flatMap(List::stream).toList();
+            jdbcTemplate.update("update TRANSACTION set credit_pending = false where id in (" + placeholders(applied.size()) + ")",
+                    applied.toArray());
+            transactionIds.forEach(accountEventStore::recordCredits);
+            counters[0] += applied.size();
+            return null;
+        });
+    }
+
+    private Map<Long, String> accountNumbers(Collection<Long> ids) {
+        Map<Long, String> numbers = new HashMap<>();
+        if (ids.isEmpty()) {
+            return numbers;
+        }
+        jdbcTemplate.query("select id, account_number from BANK_ACCOUNTS where id in (" + placeholders(ids.size()) + ")",
+                rs -> {
+                    numbers.put(rs.getLong(1), rs.getString(2));
+                },
+                ids.toArray());
+        return numbers;
+    }
+
+    // Las mismas descripciones que arman los servicios al guardar cada tipo de movimiento.
+    private static String description(String source, String target) {
+        if (source == null) {
+            return "Depósito en efectivo a la cuenta " + target;
+        }
+        if (target == null) {
+            return "Retiro de efectivo de la cuenta " + source;
+        }
+        return "Transferencia de " + source + " a " + target;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private long readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        try {
+            return Files.exists(file) ? Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim()) : 0L;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Se escribe en un archivo temporal y se renombra: un corte a mitad de escritura deja el checkpoint anterior.
+    private void writeCheckpoint(long lsn) {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.writeString(temporary, Long.toString(lsn), StandardCharsets.UTF_8);
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // En el hilo de fondo un fallo no debe cancelar la tarea periódica: se reintenta en la próxima pasada.
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    // Fecha exacta en nanos desde la época: al reinsertar, la columna redondea igual que en el insert original.
+    private static long toNanos(LocalDateTime date) {
+        LocalDateTime value = date == null ? LocalDateTime.now() : date;
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + value.getNano();
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private record AdjustmentKey(long accountId, long version) {
+    }
+
+    // Entradas de una transacción de base de datos: se escriben todas juntas (un solo msync) en beforeCommit.
+    private final class PendingRecords implements TransactionSynchronization {
+
+        private final List<JournalRecord> records = new ArrayList<>();
+        private Long marker;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            marker = journal.lastLsn() + 1;
+            inFlight.merge(marker, 1, Integer::sum);
+            append(records);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LedgerJournal.this);
+            if (marker == null) {
+                return;
+            }
+            try {
+                if (status != STATUS_COMMITTED) {
+                    // Una compensación revertida no anula nada: solo se cancelan movimientos y ajustes.
+                    List<JournalRecord> cancels = records.stream()
+                            .filter(record -> record.kind() == JournalRecord.Kind.MOVEMENT || record.kind() == JournalRecord.Kind.ADJUSTMENT)
+                            .map(JournalRecord::cancelling)
+                            .toList();
+                    cancelledRecords.add(cancels.size());
+                    append(cancels);
+                }
+            } finally {
+                inFlight.computeIfPresent(marker, (key, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+}
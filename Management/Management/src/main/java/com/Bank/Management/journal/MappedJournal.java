@@ -0,0 +1,270 @@
+package com.Bank.Management.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Diario binario de solo agregado, en segmentos de tamaño fijo mapeados en memoria (FileChannel.map).
+// Cada registro ocupa RECORD_SIZE bytes:
+//   lsn (8) | transactionId o versión (8) | origen (8) | destino (8) | monto (8) | fecha en nanos (8) |
+//   tipo (4) | marcas (4) | reservado (4) | CRC32C de los 60 bytes anteriores (4)
+// Un segmento se llama journal-<primer lsn>.seg y se crea con su tamaño completo (relleno con ceros).
+// Al abrir se recorre hasta el primer registro con CRC inválido o lsn fuera de orden: ahí terminó la
+// última escritura (por ejemplo, un registro a medio escribir al caer el proceso) y se sigue escribiendo
+// desde esa posición. Los segmentos ya cerrados se borran con truncateUpTo cuando la base los refleja.
+// append y force no se bloquean entre sí: force asegura en disco todo lo escrito hasta ese momento.
+public class MappedJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 64;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final List<Segment> closedSegments = new ArrayList<>();
+
+    private Segment active;
+    private int position;
+    private volatile long lastLsn;
+
+    private final Object forceLock = new Object();
+    private long forcedLsn;
+
+    public MappedJournal(Path directory, int segmentRecords) {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1, segmentRecords);
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public long lastLsn() {
+        return lastLsn;
+    }
+
+    public synchronized int segmentCount() {
+        return closedSegments.size() + 1;
+    }
+
+    // Escribe los registros en orden, asigna sus lsn y devuelve el último. No fuerza a disco.
+    public synchronized long append(List<JournalRecord> records) {
+        for (JournalRecord record : records) {
+            if (position == segmentRecords) {
+                roll();
+            }
+            long lsn = lastLsn + 1;
+            write(active.buffer, position * RECORD_SIZE, record.withLsn(lsn));
+            position++;
+            lastLsn = lsn;
+        }
+        return lastLsn;
+    }
+
+    // Lleva a disco (msync) al menos hasta "lsn". Si otro hilo ya forzó más allá no hace nada,
+    // así varios commits concurrentes comparten un solo msync.
+    public void force(long lsn) {
+        synchronized (forceLock) {
+            if (forcedLsn >= lsn) {
+                return;
+            }
+            Segment segment;
+            long upTo;
+            synchronized (this) {
+                segment = active;
+                upTo = lastLsn;
+            }
+            segment.buffer.force();
+            forcedLsn = upTo;
+        }
+    }
+
+    // Recorre en orden los registros con lsn mayor a "afterLsn".
+    public synchronized void scan(long afterLsn, Consumer<JournalRecord> consumer) {
+        List<Segment> segments = new ArrayList<>(closedSegments);
+        segments.add(active);
+        for (Segment segment : segments) {
+            long segmentLast = segment == active ? lastLsn : segment.firstLsn + segmentRecords - 1;
+            if (segmentLast <= afterLsn) {
+                continue;
+            }
+            int count = (int) (segmentLast - segment.firstLsn + 1);
+            int from = (int) Math.max(0, afterLsn - segment.firstLsn + 1);
+            for (int i = from; i < count; i++) {
+                consumer.accept(read(segment.buffer, i * RECORD_SIZE));
+            }
+        }
+    }
+
+    // Borra los segmentos cerrados cuyos registros son todos menores o iguales a "lsn".
+    // El segmento activo nunca se borra.
+    public synchronized int truncateUpTo(long lsn) {
+        int deleted = 0;
+        while (!closedSegments.isEmpty() && closedSegments.get(0).firstLsn + segmentRecords - 1 <= lsn) {
+            Segment segment = closedSegments.remove(0);
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            active.buffer.force();
+            for (Segment segment : closedSegments) {
+                segment.channel.close();
+            }
+            active.channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        long expected = 0;
+        for (Path path : paths) {
+            Segment segment = map(path, firstLsnOf(path));
+            if (expected != 0 && segment.firstLsn != expected) {
+                // Un segmento que no continúa al anterior quedó de una escritura incompleta.
+                segment.channel.close();
+                Files.delete(path);
+                continue;
+            }
+            int valid = validRecords(segment);
+            if (active != null) {
+                closedSegments.add(active);
+            }
+            active = segment;
+            position = valid;
+            lastLsn = segment.firstLsn + valid - 1;
+            expected = segment.firstLsn + segmentRecords;
+            if (valid < segmentRecords) {
+                // Escritura incompleta: lo que sigue (segmentos posteriores) no es válido.
+                expected = -1;
+            }
+        }
+        if (active == null) {
+            active = map(pathFor(1), 1);
+            position = 0;
+            lastLsn = 0;
+        }
+        forcedLsn = lastLsn;
+    }
+
+    private int validRecords(Segment segment) {
+        long expectedLsn = segment.firstLsn;
+        for (int i = 0; i < segmentRecords; i++) {
+            JournalRecord record = readChecked(segment.buffer, i * RECORD_SIZE);
+            if (record == null || record.lsn() != expectedLsn) {
+                // Se limpia el resto para que un registro viejo más adelante nunca parezca válido.
+                for (int offset = i * RECORD_SIZE; offset < segmentRecords * RECORD_SIZE; offset += Long.BYTES) {
+                    if (segment.buffer.getLong(offset) != 0L) {
+                        segment.buffer.putLong(offset, 0L);
+                    }
+                }
+                return i;
+            }
+            expectedLsn++;
+        }
+        return segmentRecords;
+    }
+
+    private void roll() {
+        active.buffer.force();
+        closedSegments.add(active);
+        long firstLsn = lastLsn + 1;
+        try {
+            active = map(pathFor(firstLsn), firstLsn);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        position = 0;
+    }
+
+    private Segment map(Path path, long firstLsn) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        return new Segment(path, firstLsn, channel, buffer);
+    }
+
+    private Path pathFor(long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+    }
+
+    private static long firstLsnOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void write(ByteBuffer buffer, int offset, JournalRecord record) {
+        buffer.putLong(offset, record.lsn());
+        buffer.putLong(offset + 8, record.transactionId());
+        buffer.putLong(offset + 16, record.sourceAccountId());
+        buffer.putLong(offset + 24, record.targetAccountId());
+        buffer.putLong(offset + 32, record.amountCents());
+        buffer.putLong(offset + 40, record.dateNanos());
+        buffer.putInt(offset + 48, record.kind().ordinal());
+        buffer.putInt(offset + 52, record.creditPending() ? 1 : 0);
+        buffer.putInt(offset + 56, 0);
+        buffer.putInt(offset + 60, checksum(buffer, offset));
+    }
+
+    private static JournalRecord readChecked(ByteBuffer buffer, int offset) {
+        if (buffer.getInt(offset + 60) != checksum(buffer, offset)) {
+            return null;
+        }
+        int kind = buffer.getInt(offset + 48);
+        if (kind < 0 || kind >= JournalRecord.Kind.values().length) {
+            return null;
+        }
+        return read(buffer, offset);
+    }
+
+    private static JournalRecord read(ByteBuffer buffer, int offset) {
+        return new JournalRecord(
+                buffer.getLong(offset),
+                JournalRecord.Kind.values()[buffer.getInt(offset + 48)],
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                buffer.getLong(offset + 40),
+                buffer.getInt(offset + 52) != 0);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, RECORD_SIZE - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    private record Segment(Path path, long firstLsn, FileChannel channel, MappedByteBuffer buffer) {
+    }
+}
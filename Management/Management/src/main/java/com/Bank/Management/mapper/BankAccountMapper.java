@@ -4,13 +4,15 @@ import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.UpdateBankAccountDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
 import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.projection.AccountSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring", uses = {TransactionMapper.class})
+@Mapper(componentModel = "spring", uses = {TransactionMapper.class, Money.class})
 public interface BankAccountMapper {
 
     @Mapping(target = "id", ignore = true)
@@ -18,17 +20,34 @@ public interface BankAccountMapper {
     @Mapping(target = "accountNumber", ignore = true)
     @Mapping(target = "outgoingTransactions", ignore = true)
     @Mapping(target = "incomingTransactions", ignore = true)
-    @Mapping(target = "balance", source = "dto.balance")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "balanceCents", source = "dto.balance")
     BankAccount toBankAccount(BankAccountRequestDto dto);
 
+    // Sin transacciones: recorrer las colecciones dispararía su carga perezosa completa.
+    @Mapping(target = "balance", source = "balanceCents")
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "outgoingTransactions", ignore = true)
+    @Mapping(target = "incomingTransactions", ignore = true)
     BankAccountResponseDto toBankAccountResponseDto(BankAccount entity);
 
     List<BankAccountResponseDto> toBankAccountResponseDtoList(List<BankAccount> bankAccounts);
 
+    @Mapping(target = "balance", source = "balanceCents")
+    @Mapping(target = "outgoingTransactions", ignore = true)
+    @Mapping(target = "incomingTransactions", ignore = true)
+    BankAccountResponseDto toBankAccountResponseDto(AccountSummary summary);
+
+    List<BankAccountResponseDto> toBankAccountResponseDtos(List<AccountSummary> summaries);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "accountNumber", ignore = true)
     @Mapping(target = "outgoingTransactions", ignore = true)
     @Mapping(target = "incomingTransactions", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "balanceCents", source = "balance")
     void updateBankAccountFromDto(UpdateBankAccountDto dto, @MappingTarget BankAccount entity);
 }
\ No newline at end of file
@@ -2,17 +2,28 @@ package com.Bank.Management.mapper;
 
 import com.Bank.Management.dto.response.TransactionResponseDto;
 import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.projection.TransactionSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = Money.class)
 public interface TransactionMapper {
 
-    @Mapping(target = "sourceAccountNumber", source = "sourceAccount.accountNumber")
-    @Mapping(target = "targetAccountNumber", source = "targetAccount.accountNumber")
+    // En una transferencia entre shards la cuenta del otro shard no es una asociación: se informa su número.
+    @Mapping(target = "sourceAccountNumber", source = "sourceAccount.accountNumber",
+            defaultExpression = "java(transaction.getCounterpartAccountNumber())")
+    @Mapping(target = "targetAccountNumber", source = "targetAccount.accountNumber",
+            defaultExpression = "java(transaction.getCounterpartAccountNumber())")
+    @Mapping(target = "amount", source = "amountCents")
     TransactionResponseDto toTransactionResponseDto(Transaction transaction);
 
     List<TransactionResponseDto> toTransactionResponseDtoList(List<Transaction> transactions);
+
+    @Mapping(target = "amount", source = "amountCents")
+    TransactionResponseDto toTransactionResponseDto(TransactionSummary summary);
+
+    List<TransactionResponseDto> toTransactionResponseDtos(List<TransactionSummary> summaries);
 }
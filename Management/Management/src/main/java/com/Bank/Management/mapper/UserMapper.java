@@ -4,6 +4,7 @@ import com.Bank.Management.dto.request.UserRegistrationDto;
 import com.Bank.Management.dto.request.UpdateUserDTO;
 import com.Bank.Management.dto.response.UserResponseDto;
 import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.projection.UserSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -21,6 +22,12 @@ public interface UserMapper {
 // debo actualizar el mapper sin afectar el UserServiceImpl
 
     List<UserResponseDto> toUserResponseDtoList(List<User> userList);
+
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "bankAccounts", ignore = true)
+    UserResponseDto toUserResponseDto(UserSummary summary);
+
+    List<UserResponseDto> toUserResponseDtos(List<UserSummary> summaries);
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "bankAccounts", ignore = true)
     void updateUserFromDto(UpdateUserDTO dto, @MappingTarget User user);
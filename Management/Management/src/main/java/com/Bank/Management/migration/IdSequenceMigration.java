@@ -0,0 +1,46 @@
+package com.Bank.Management.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Las bases creadas cuando BANK_ACCOUNTS y TRANSACTION usaban IDENTITY ya tienen filas, pero
+// ddl-auto=update crea las secuencias nuevas empezando en 1. Al arrancar se adelanta cada secuencia
+// por encima del mayor id existente para que el optimizador "pooled" nunca entregue un id repetido.
+// Corre después de LedgerJournal, que al reaplicar el diario inserta movimientos con su id original.
+@Component
+@DependsOn("ledgerJournal")
+public class IdSequenceMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "BANK_ACCOUNTS_SEQ", "BANK_ACCOUNTS",
+            "TRANSACTION_SEQ", "TRANSACTION"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // El EntityManagerFactory se recibe solo para que el esquema ya esté actualizado por Hibernate.
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where sequence_name = ?", Long.class, sequence);
+
+            // "pooled" usa el rango (valor - ALLOCATION_SIZE, valor], que debe quedar por encima de maxId.
+            if (nextValue != null && maxId != null && nextValue - ALLOCATION_SIZE < maxId) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + ALLOCATION_SIZE + 1));
+            }
+        });
+    }
+}
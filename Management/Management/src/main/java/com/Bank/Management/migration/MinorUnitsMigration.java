@@ -0,0 +1,73 @@
+package com.Bank.Management.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Saldos y montos pasaron de DOUBLE (BALANCE, AMOUNT) a BIGINT en centavos (BALANCE_CENTS, AMOUNT_CENTS).
+// ddl-auto=update agrega las columnas nuevas en 0 pero no toca las viejas. Al arrancar, por tabla:
+//   1. En una transacción se copian los valores redondeados a centavos y se comprueba que cada fila, convertida de
+//      vuelta, coincida con su valor viejo; si alguna no coincide (o la copia falla) se revierte todo y el arranque
+//      se detiene con la tabla intacta.
+//   2. La columna vieja no se borra: pasa a admitir NULL (los INSERT nuevos no la llenan) y se renombra a
+//      <columna>_LEGACY como respaldo.
+// Cada paso puede repetirse: si el proceso cae en medio, el próximo arranque encuentra la columna vieja con su
+// nombre original y vuelve a empezar desde la copia.
+@Component
+public class MinorUnitsMigration {
+
+    static final String LEGACY_SUFFIX = "_LEGACY";
+
+    private static final List<String[]> COLUMNS = List.of(
+            new String[]{"BANK_ACCOUNTS", "BALANCE", "BALANCE_CENTS"},
+            new String[]{"TRANSACTION", "AMOUNT", "AMOUNT_CENTS"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // El EntityManagerFactory se recibe solo para que el esquema ya esté actualizado por Hibernate.
+    public MinorUnitsMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (String[] column : COLUMNS) {
+            String table = column[0];
+            String legacyColumn = column[1];
+            String minorUnitsColumn = column[2];
+
+            if (!columnExists(table, legacyColumn)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("update " + table + " set " + minorUnitsColumn + " = cast(round(" + legacyColumn + " * 100) as bigint)");
+                // Vuelta atrás: los centavos divididos por 100 no pueden diferir del valor viejo en más de medio centavo.
+                Integer mismatches = jdbcTemplate.queryForObject("select count(*) from " + table + " where " + legacyColumn + " is not null and ("
+                        + minorUnitsColumn + " is null or abs(" + minorUnitsColumn + " / 100.0 - " + legacyColumn + ") > 0.005)", Integer.class);
+                if (mismatches == null || mismatches > 0) {
+                    throw new IllegalStateException(String.format("Migración a centavos de %s.%s: %s filas no coinciden con el valor original.",
+                            table, legacyColumn, mismatches));
+                }
+            });
+            // DDL: H2 confirma cada sentencia por separado; ambas se pueden repetir sin efecto.
+            jdbcTemplate.execute("alter table " + table + " alter column " + legacyColumn + " set null");
+            jdbcTemplate.execute("alter table " + table + " alter column " + legacyColumn + " rename to " + legacyColumn + LEGACY_SUFFIX);
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where table_name = ? and column_name = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.Bank.Management.money;
+
+import com.Bank.Management.exception.InvalidOperationException;
+
+import java.math.BigDecimal;
+
+// Los saldos y montos se guardan y operan como long en unidades menores (centavos).
+// BigDecimal solo aparece en los DTO: la conversión se hace una vez al entrar y una vez al responder.
+// También se usa desde los mappers de MapStruct (métodos estáticos seleccionados por tipo).
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    // Convierte un monto decimal a centavos. Rechaza más de dos decimales y valores fuera del rango de long.
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new InvalidOperationException("El monto es obligatorio.");
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            if (amount.stripTrailingZeros().scale() > SCALE) {
+                throw new InvalidOperationException("El monto no puede tener más de dos decimales.");
+            }
+            throw new InvalidOperationException("El monto excede el máximo permitido.");
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
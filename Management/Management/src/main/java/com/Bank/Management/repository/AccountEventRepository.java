@@ -0,0 +1,66 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.AccountEvent;
+import com.Bank.Management.entity.AccountEventId;
+import com.Bank.Management.repository.projection.AccountEventTail;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Los eventos se agregan con SQL nativo y el hint de "query spaces" en ACCOUNT_EVENTS: los INSERT pendientes de
+// TRANSACTION no se fuerzan en cada evento (ver BankAccountRepository). Quien agrega eventos de una cuenta ya
+// actualizó su fila en la misma transacción, así que el siguiente número de secuencia no puede competir con otro.
+@Repository
+public interface AccountEventRepository extends JpaRepository<AccountEvent, AccountEventId> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ACCOUNT_EVENTS"))
+    @Query(value = "select coalesce(max(e.sequence), 0) from ACCOUNT_EVENTS e where e.account_id = :accountId", nativeQuery = true)
+    long findLastSequence(@Param("accountId") Long accountId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ACCOUNT_EVENTS"))
+    @Query(value = "insert into ACCOUNT_EVENTS (account_id, sequence, type, delta_cents, transaction_id, occurred_at) " +
+            "values (:accountId, :sequence, :type, :deltaCents, :transactionId, :occurredAt)", nativeQuery = true)
+    int append(@Param("accountId") Long accountId, @Param("sequence") long sequence, @Param("type") String type,
+               @Param("deltaCents") long deltaCents, @Param("transactionId") Long transactionId,
+               @Param("occurredAt") LocalDateTime occurredAt);
+
+    // Créditos ya aplicados al saldo de una cuenta caliente o de destino entre shards: un evento por movimiento,
+    // en orden de id, a partir de "afterSequence". Lee TRANSACTION, así que se fuerza el flush completo.
+    @Modifying
+    @Query(value = "insert into ACCOUNT_EVENTS (account_id, sequence, type, delta_cents, transaction_id, occurred_at) " +
+            "select t.target_account_id, :afterSequence + row_number() over (order by t.id), " +
+            "case when t.source_account_id is null then 'DEPOSIT' else 'TRANSFER_IN' end, t.amount_cents, t.id, t.transaction_date " +
+            "from TRANSACTION t where t.target_account_id = :accountId and t.id in :transactionIds", nativeQuery = true)
+    int appendCredits(@Param("accountId") Long accountId, @Param("afterSequence") long afterSequence,
+                      @Param("transactionIds") Collection<Long> transactionIds);
+
+    // Lo mismo para todos los créditos que la cuenta tiene marcados como pendientes (recuperación al arrancar).
+    @Modifying
+    @Query(value = "insert into ACCOUNT_EVENTS (account_id, sequence, type, delta_cents, transaction_id, occurred_at) " +
+            "select t.target_account_id, :afterSequence + row_number() over (order by t.id), " +
+            "case when t.source_account_id is null then 'DEPOSIT' else 'TRANSFER_IN' end, t.amount_cents, t.id, t.transaction_date " +
+            "from TRANSACTION t where t.target_account_id = :accountId and t.credit_pending = true", nativeQuery = true)
+    int appendPendingCredits(@Param("accountId") Long accountId, @Param("afterSequence") long afterSequence);
+
+    // Primer evento de las cuentas que ya tenían saldo antes del modo de eventos: un ajuste por el saldo actual.
+    @Modifying
+    @Query(value = "insert into ACCOUNT_EVENTS (account_id, sequence, type, delta_cents, transaction_id, occurred_at) " +
+            "select a.id, 1, 'ADJUSTMENT', a.balance_cents, null, :occurredAt from BANK_ACCOUNTS a " +
+            "where a.balance_cents <> 0 and not exists (select 1 from ACCOUNT_EVENTS e where e.account_id = a.id)", nativeQuery = true)
+    int appendOpeningBalances(@Param("occurredAt") LocalDateTime occurredAt);
+
+    // Eventos posteriores a "afterSequence": cantidad, suma de los deltas y último número de secuencia.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ACCOUNT_EVENTS"))
+    @Query(value = "select count(*) as events, coalesce(sum(e.delta_cents), 0) as deltaCents, coalesce(max(e.sequence), :afterSequence) as lastSequence " +
+            "from ACCOUNT_EVENTS e where e.account_id = :accountId and e.sequence > :afterSequence", nativeQuery = true)
+    AccountEventTail findTail(@Param("accountId") Long accountId, @Param("afterSequence") long afterSequence);
+}
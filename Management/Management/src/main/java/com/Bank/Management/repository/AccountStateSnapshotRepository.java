@@ -0,0 +1,64 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.AccountStateSnapshot;
+import com.Bank.Management.repository.projection.AccountStateView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountStateSnapshotRepository extends JpaRepository<AccountStateSnapshot, Long> {
+
+    // Nueva foto de la cuenta en "sequence": la foto anterior más los eventos entre ambas (a lo sumo un intervalo),
+    // sin leer el historial completo.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ACCOUNT_STATE_SNAPSHOTS"))
+    @Query(value = "merge into ACCOUNT_STATE_SNAPSHOTS (account_id, sequence, balance_cents, taken_at) key (account_id) values (" +
+            ":accountId, :sequence, " +
+            "coalesce((select s.balance_cents from ACCOUNT_STATE_SNAPSHOTS s where s.account_id = :accountId), 0)" +
+            " + (select coalesce(sum(e.delta_cents), 0) from ACCOUNT_EVENTS e where e.account_id = :accountId " +
+            "and e.sequence > coalesce((select s.sequence from ACCOUNT_STATE_SNAPSHOTS s where s.account_id = :accountId), 0) " +
+            "and e.sequence <= :sequence), :takenAt)", nativeQuery = true)
+    int advance(@Param("accountId") Long accountId, @Param("sequence") long sequence, @Param("takenAt") LocalDateTime takenAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "ACCOUNT_STATE_SNAPSHOTS"))
+    @Query(value = "merge into ACCOUNT_STATE_SNAPSHOTS (account_id, sequence, balance_cents, taken_at) key (account_id) " +
+            "values (:accountId, :sequence, :balanceCents, :takenAt)", nativeQuery = true)
+    int put(@Param("accountId") Long accountId, @Param("sequence") long sequence, @Param("balanceCents") long balanceCents,
+            @Param("takenAt") LocalDateTime takenAt);
+
+    // Siguiente bloque de cuentas de una partición (id mod partitions) para la reconstrucción, en orden de id.
+    @Query(value = "select a.id from BANK_ACCOUNTS a where mod(a.id, :partitions) = :partition and a.id > :afterId " +
+            "order by a.id limit :limit", nativeQuery = true)
+    List<Long> findAccountIdsInPartition(@Param("partitions") int partitions, @Param("partition") int partition,
+                                         @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Bloquea las filas del bloque hasta el commit: mientras se reconstruyen no se les agregan eventos.
+    @Query(value = "select a.id from BANK_ACCOUNTS a where a.id in :ids order by a.id for update", nativeQuery = true)
+    List<Long> lockAccounts(@Param("ids") Collection<Long> ids);
+
+    // Estado de cada cuenta del bloque: la foto (o nada, con fromScratch) más los eventos posteriores,
+    // con un solo recorrido por el índice (account_id, sequence) de ACCOUNT_EVENTS.
+    @Query(value = "select a.id as accountId, a.balance_cents as storedCents, " +
+            "coalesce(s.balance_cents, 0) + coalesce(sum(e.delta_cents), 0) as balanceCents, " +
+            "coalesce(max(e.sequence), s.sequence, 0) as lastSequence, count(e.sequence) as events " +
+            "from BANK_ACCOUNTS a " +
+            "left join ACCOUNT_STATE_SNAPSHOTS s on s.account_id = a.id and :fromScratch = false " +
+            "left join ACCOUNT_EVENTS e on e.account_id = a.id and e.sequence > coalesce(s.sequence, 0) " +
+            "where a.id in :ids group by a.id, a.balance_cents, s.sequence, s.balance_cents order by a.id", nativeQuery = true)
+    List<AccountStateView> findStates(@Param("ids") Collection<Long> ids, @Param("fromScratch") boolean fromScratch);
+
+    @Modifying
+    @Query(value = "update BANK_ACCOUNTS set balance_cents = :balanceCents, version = version + 1 where id = :id", nativeQuery = true)
+    int overwriteBalance(@Param("id") Long id, @Param("balanceCents") long balanceCents);
+}
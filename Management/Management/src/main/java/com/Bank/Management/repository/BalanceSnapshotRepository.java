@@ -0,0 +1,58 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.BalanceSnapshot;
+import com.Bank.Management.entity.BalanceSnapshotId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshotId> {
+
+    // Foto más cercana anterior o igual a la fecha, y la más cercana posterior (para consultas a una fecha).
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(Long accountId, LocalDate snapshotDate);
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotDateGreaterThanOrderBySnapshotDateAsc(Long accountId, LocalDate snapshotDate);
+
+    long countBySnapshotDate(LocalDate snapshotDate);
+
+    // Siguiente bloque de cuentas de una partición (id mod partitions) que todavía no tienen la foto del día.
+    // Solo cuentas que ya existían al cierre del día. Al reintentar un día interrumpido, las cuentas que ya
+    // tienen foto se saltan sin volver a calcularlas.
+    @Query(value = "select a.id from BANK_ACCOUNTS a where mod(a.id, :partitions) = :partition and a.id > :afterId " +
+            "and (a.created_at is null or a.created_at < :dayEnd) " +
+            "and not exists (select 1 from ACCOUNT_BALANCE_SNAPSHOTS s where s.account_id = a.id and s.snapshot_date = :day) " +
+            "order by a.id limit :limit", nativeQuery = true)
+    List<Long> findAccountIdsWithoutSnapshot(@Param("partitions") int partitions, @Param("partition") int partition,
+                                             @Param("afterId") long afterId, @Param("day") LocalDate day,
+                                             @Param("dayEnd") LocalDateTime dayEnd, @Param("limit") int limit);
+
+    // Foto del día para un bloque de cuentas, en un solo INSERT ... SELECT:
+    //   - si la cuenta tiene la foto del día anterior, se le suman los movimientos del día (recorrido acotado a un día);
+    //   - si no, se parte del saldo actual (con los créditos diferidos de cuentas calientes) y se restan los
+    //     movimientos posteriores al cierre del día.
+    // Cada suma usa los índices (cuenta, transaction_date) de TRANSACTION.
+    @Modifying
+    @Query(value = "insert into ACCOUNT_BALANCE_SNAPSHOTS (account_id, snapshot_date, balance_cents) " +
+            "select a.id, :day, coalesce(" +
+            "(select p.balance_cents from ACCOUNT_BALANCE_SNAPSHOTS p where p.account_id = a.id and p.snapshot_date = :previousDay)" +
+            " + (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = a.id " +
+            "and t.transaction_date >= :dayStart and t.transaction_date < :dayEnd)" +
+            " - (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.source_account_id = a.id " +
+            "and t.transaction_date >= :dayStart and t.transaction_date < :dayEnd), " +
+            "a.balance_cents" +
+            " + (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = a.id and t.credit_pending = true)" +
+            " - (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = a.id and t.transaction_date >= :dayEnd)" +
+            " + (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.source_account_id = a.id and t.transaction_date >= :dayEnd)) " +
+            "from BANK_ACCOUNTS a where a.id in :ids", nativeQuery = true)
+    int insertSnapshots(@Param("ids") Collection<Long> ids, @Param("day") LocalDate day, @Param("previousDay") LocalDate previousDay,
+                        @Param("dayStart") LocalDateTime dayStart, @Param("dayEnd") LocalDateTime dayEnd);
+}
@@ -0,0 +1,18 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.BalanceSnapshotRun;
+import com.Bank.Management.entity.BalanceSnapshotRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRunRepository extends JpaRepository<BalanceSnapshotRun, LocalDate> {
+
+    Optional<BalanceSnapshotRun> findFirstByStatusOrderBySnapshotDateDesc(BalanceSnapshotRunStatus status);
+
+    List<BalanceSnapshotRun> findByStatusOrderBySnapshotDateAsc(BalanceSnapshotRunStatus status);
+}
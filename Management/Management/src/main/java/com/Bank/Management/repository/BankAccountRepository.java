@@ -1,9 +1,23 @@
 package com.Bank.Management.repository;
 
 import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.repository.projection.AccountNumberView;
+import com.Bank.Management.repository.projection.AccountSummary;
+import com.Bank.Management.repository.projection.StatementAccountView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +25,73 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
 
 
     Optional<BankAccount> findByAccountNumber(String accountNumber);
+
+    @Query("select a.id from BankAccount a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Listado por keyset sobre la clave primaria: cada página lee solo sus filas, sin OFFSET ni transacciones.
+    @Query("select new com.Bank.Management.repository.projection.AccountSummary(a.id, a.accountNumber, a.balanceCents, a.user.id) " +
+            "from BankAccount a where a.id > :afterId order by a.id")
+    List<AccountSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select new com.Bank.Management.repository.projection.AccountSummary(a.id, a.accountNumber, a.balanceCents, a.user.id) " +
+            "from BankAccount a where a.id = :id")
+    Optional<AccountSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("select new com.Bank.Management.repository.projection.AccountSummary(a.id, a.accountNumber, a.balanceCents, a.user.id) " +
+            "from BankAccount a where a.user.id in :userIds order by a.id")
+    List<AccountSummary> findSummariesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Las actualizaciones de saldo son un único UPDATE condicional; devuelven la cantidad de filas afectadas.
+    // También incrementan la versión para que un UPDATE optimista concurrente detecte el cambio.
+    // Los montos están en centavos. El crédito no se aplica si el saldo desbordaría un BIGINT (0 filas).
+    // El hint de "query spaces" limita el flush automático a BANK_ACCOUNTS: los INSERT pendientes de TRANSACTION
+    // no se fuerzan en cada UPDATE y pueden agruparse en batches JDBC. No se limpia el contexto de persistencia,
+    // así que quien necesite el saldo nuevo debe leerlo después del UPDATE.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "BANK_ACCOUNTS"))
+    @Query(value = "update BANK_ACCOUNTS set balance_cents = balance_cents + :amount, version = version + 1 " +
+            "where id = :id and balance_cents <= 9223372036854775807 - :amount",
+            nativeQuery = true)
+    int addToBalance(@Param("id") Long id, @Param("amount") long amount);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "BANK_ACCOUNTS"))
+    @Query(value = "update BANK_ACCOUNTS set balance_cents = balance_cents - :amount, version = version + 1 " +
+            "where id = :id and balance_cents >= :amount", nativeQuery = true)
+    int subtractFromBalanceIfSufficient(@Param("id") Long id, @Param("amount") long amount);
+
+    // Saldo más los créditos diferidos (credit_pending) de una cuenta caliente, leídos en la misma sentencia.
+    @Query(value = "select a.balance_cents + coalesce((select sum(t.amount_cents) from TRANSACTION t " +
+            "where t.target_account_id = a.id and t.credit_pending = true), 0) from BANK_ACCOUNTS a where a.id = :id",
+            nativeQuery = true)
+    Optional<Long> findBalanceWithPendingCreditsById(@Param("id") Long id);
+
+    @Query("select a.accountNumber from BankAccount a where a.id = :id")
+    Optional<String> findAccountNumberById(@Param("id") Long id);
+
+    @Query("select a.accountNumber from BankAccount a where a.user.id = :userId")
+    List<String> findAccountNumbersByUserId(@Param("userId") Long userId);
+
+    @Query("select a.id as id, a.accountNumber as accountNumber from BankAccount a where a.id in :ids")
+    List<AccountNumberView> findAccountNumbersByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ids de las cuentas que ya existían antes de "until", en orden (plan de particiones de los extractos).
+    @Query(value = "select a.id from BANK_ACCOUNTS a where a.created_at is null or a.created_at < :until order by a.id",
+            nativeQuery = true)
+    List<Long> findIdsCreatedBefore(@Param("until") LocalDateTime until);
+
+    // Cuentas de un rango de ids con su saldo al inicio del mes: la foto diaria del día anterior si existe
+    // (ver BalanceSnapshotJob); si no, el saldo actual con los créditos diferidos menos los movimientos desde "from".
+    @Query(value = "select a.id as accountId, a.account_number as accountNumber, coalesce(" +
+            "(select s.balance_cents from ACCOUNT_BALANCE_SNAPSHOTS s where s.account_id = a.id and s.snapshot_date = :previousDay), " +
+            "a.balance_cents" +
+            " + (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = a.id and t.credit_pending = true)" +
+            " - (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = a.id and t.transaction_date >= :from)" +
+            " + (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.source_account_id = a.id and t.transaction_date >= :from)" +
+            ") as openingCents from BANK_ACCOUNTS a where a.id between :firstId and :lastId " +
+            "and (a.created_at is null or a.created_at < :until) order by a.id", nativeQuery = true)
+    List<StatementAccountView> findStatementAccounts(@Param("firstId") long firstId, @Param("lastId") long lastId,
+                                                     @Param("previousDay") LocalDate previousDay, @Param("from") LocalDateTime from,
+                                                     @Param("until") LocalDateTime until);
 }
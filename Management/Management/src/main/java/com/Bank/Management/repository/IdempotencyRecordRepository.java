@@ -0,0 +1,37 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // INSERT explícito (save() haría un merge sobre una clave existente): si la clave ya está reservada,
+    // la clave primaria lo rechaza con DataIntegrityViolationException, también entre instancias.
+    @Modifying
+    @Transactional
+    @Query(value = "insert into IDEMPOTENCY_KEYS (idempotency_key, operation, request_hash, status, created_at) " +
+            "values (:key, :operation, :requestHash, 'PENDING', :createdAt)", nativeQuery = true)
+    int reserve(@Param("key") String key, @Param("operation") String operation,
+                @Param("requestHash") String requestHash, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.status = com.Bank.Management.entity.IdempotencyStatus.COMPLETED, " +
+            "r.responseBody = :responseBody where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("responseBody") String responseBody);
+
+    // Solo borra la reserva si sigue en PENDING con la misma fecha que se consideró vencida.
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key " +
+            "and r.status = com.Bank.Management.entity.IdempotencyStatus.PENDING and r.createdAt = :createdAt")
+    int releaseStale(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt);
+}
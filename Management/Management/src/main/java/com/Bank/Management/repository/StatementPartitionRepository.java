@@ -0,0 +1,14 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.StatementPartition;
+import com.Bank.Management.entity.StatementPartitionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StatementPartitionRepository extends JpaRepository<StatementPartition, StatementPartitionId> {
+
+    List<StatementPartition> findByStatementMonthOrderByPartitionIndex(String statementMonth);
+}
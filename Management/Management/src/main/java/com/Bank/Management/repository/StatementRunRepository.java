@@ -0,0 +1,9 @@
+package com.Bank.Management.repository;
+
+import com.Bank.Management.entity.StatementRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatementRunRepository extends JpaRepository<StatementRun, String> {
+}
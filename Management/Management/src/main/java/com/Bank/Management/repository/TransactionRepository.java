@@ -1,10 +1,167 @@
 package com.Bank.Management.repository;
 
 import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.repository.projection.PendingCreditTotal;
+import com.Bank.Management.repository.projection.PendingTransferView;
+import com.Bank.Management.repository.projection.StatementLine;
+import com.Bank.Management.repository.projection.TransactionExportRow;
+import com.Bank.Management.repository.projection.TransactionSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // Créditos a cuentas calientes cuyo monto todavía no se sumó al saldo (ver HotAccountCreditBuffer).
+    // Las transferencias entre shards pendientes no tienen cuenta de destino en este shard y las retoma
+    // CrossShardTransferCoordinator.
+    @Query("select t.targetAccount.id as accountId, sum(t.amountCents) as total from Transaction t " +
+            "where t.creditPending = true and t.targetAccount.id is not null group by t.targetAccount.id")
+    List<PendingCreditTotal> findPendingCreditTotals();
+
+    @Modifying
+    @Query("update Transaction t set t.creditPending = false where t.id in :ids")
+    int clearCreditPending(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Transaction t set t.creditPending = false where t.creditPending = true and t.targetAccount.id = :accountId")
+    int clearCreditPendingForAccount(@Param("accountId") Long accountId);
+
+    // Historial paginado por keyset: ids de las transacciones anteriores a (date, id) en orden
+    // (transactionDate, id) descendente. Salientes y entrantes van en consultas separadas para que cada una
+    // recorra su índice ya ordenado y lea solo las filas de la página:
+    //   - "transactionDate <= :date" permite empezar la lectura del índice en el cursor; con solo el OR
+    //     H2 recorre desde la transacción más reciente y el costo crece con la profundidad.
+    //   - "transactionDate >= :from" corta la lectura al salir del rango de fechas pedido.
+    //   - el ORDER BY empieza por la columna de la cuenta, igual que el índice.
+    //   - sin JOIN: con un JOIN en la consulta H2 ordena todo el rango en lugar de recorrer el índice.
+    // Monto y dirección se evalúan sobre las filas del rango: transfers/cash eligen las transferencias y/o las
+    // operaciones sin contraparte (retiros en las salientes, depósitos en las entrantes). Una transferencia
+    // entre shards tiene la contraparte como número en lugar de asociación.
+    @Query("select t.id from Transaction t where t.sourceAccount.id = :accountId " +
+            "and t.transactionDate >= :from and t.transactionDate <= :date and (t.transactionDate < :date or t.id < :id) " +
+            "and t.amountCents between :minCents and :maxCents " +
+            "and ((:transfers = true and (t.targetAccount.id is not null or t.counterpartAccountNumber is not null)) " +
+            "or (:cash = true and t.targetAccount.id is null and t.counterpartAccountNumber is null)) " +
+            "order by t.sourceAccount.id, t.transactionDate desc, t.id desc")
+    List<Long> findOutgoingIdsBefore(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                     @Param("date") LocalDateTime date, @Param("id") Long id,
+                                     @Param("minCents") long minCents, @Param("maxCents") long maxCents,
+                                     @Param("transfers") boolean transfers, @Param("cash") boolean cash, Pageable pageable);
+
+    @Query("select t.id from Transaction t where t.targetAccount.id = :accountId " +
+            "and t.transactionDate >= :from and t.transactionDate <= :date and (t.transactionDate < :date or t.id < :id) " +
+            "and t.amountCents between :minCents and :maxCents " +
+            "and ((:transfers = true and (t.sourceAccount.id is not null or t.counterpartAccountNumber is not null)) " +
+            "or (:cash = true and t.sourceAccount.id is null and t.counterpartAccountNumber is null)) " +
+            "order by t.targetAccount.id, t.transactionDate desc, t.id desc")
+    List<Long> findIncomingIdsBefore(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                     @Param("date") LocalDateTime date, @Param("id") Long id,
+                                     @Param("minCents") long minCents, @Param("maxCents") long maxCents,
+                                     @Param("transfers") boolean transfers, @Param("cash") boolean cash, Pageable pageable);
+
+    // Filas de la página ya con la forma de TransactionResponseDto: sin cargar entidades ni disparar
+    // cargas perezosas de sourceAccount/targetAccount al mapear. Solo una de las dos cuentas puede estar en
+    // otro shard, así que counterpartAccountNumber completa la que falte.
+    @Query("select t.id as id, t.amountCents as amountCents, t.transactionDate as transactionDate, t.description as description, " +
+            "coalesce(sa.accountNumber, t.counterpartAccountNumber) as sourceAccountNumber, " +
+            "coalesce(ta.accountNumber, t.counterpartAccountNumber) as targetAccountNumber " +
+            "from Transaction t left join t.sourceAccount sa left join t.targetAccount ta " +
+            "where t.id in :ids order by t.transactionDate desc, t.id desc")
+    List<TransactionSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Transacciones de varias cuentas con ambas cuentas en la misma consulta (respuestas con includeTransactions):
+    // una sentencia por dirección para toda la página de cuentas, en lugar de una carga perezosa por cuenta.
+    @Query("select t from Transaction t left join fetch t.sourceAccount left join fetch t.targetAccount " +
+            "where t.sourceAccount.id in :accountIds order by t.transactionDate desc, t.id desc")
+    List<Transaction> findOutgoingWithAccounts(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query("select t from Transaction t left join fetch t.sourceAccount left join fetch t.targetAccount " +
+            "where t.targetAccount.id in :accountIds order by t.transactionDate desc, t.id desc")
+    List<Transaction> findIncomingWithAccounts(@Param("accountIds") Collection<Long> accountIds);
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Historial completo de una dirección como cursor de base de datos, en el mismo orden del índice que el
+    // historial paginado. Se leen de a EXPORT_FETCH_SIZE filas; el Stream debe cerrarse dentro de una transacción.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t.id as id, t.amountCents as amountCents, t.transactionDate as transactionDate, t.description as description, " +
+            "t.sourceAccount.id as sourceAccountId, t.targetAccount.id as targetAccountId, " +
+            "t.counterpartAccountNumber as counterpartAccountNumber " +
+            "from Transaction t where t.sourceAccount.id = :accountId " +
+            "order by t.sourceAccount.id, t.transactionDate desc, t.id desc")
+    Stream<TransactionExportRow> streamOutgoing(@Param("accountId") Long accountId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t.id as id, t.amountCents as amountCents, t.transactionDate as transactionDate, t.description as description, " +
+            "t.sourceAccount.id as sourceAccountId, t.targetAccount.id as targetAccountId, " +
+            "t.counterpartAccountNumber as counterpartAccountNumber " +
+            "from Transaction t where t.targetAccount.id = :accountId " +
+            "order by t.targetAccount.id, t.transactionDate desc, t.id desc")
+    Stream<TransactionExportRow> streamIncoming(@Param("accountId") Long accountId);
+
+    // Variación neta del saldo (entrantes menos salientes, en centavos) por los movimientos con fecha en [from, to).
+    // Cada dirección es una suma sobre el rango de su índice (cuenta, transaction_date).
+    @Query(value = "select cast((select coalesce(sum(t.amount_cents), 0) from TRANSACTION t where t.target_account_id = :accountId " +
+            "and t.transaction_date >= :from and t.transaction_date < :to) - (select coalesce(sum(t.amount_cents), 0) from TRANSACTION t " +
+            "where t.source_account_id = :accountId and t.transaction_date >= :from and t.transaction_date < :to) as bigint)",
+            nativeQuery = true)
+    long sumNetChangeBetween(@Param("accountId") Long accountId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Movimientos del mes de todas las cuentas de un rango de ids: una consulta por dirección, cada una un rango
+    // de su índice (cuenta, transaction_date). Sin JOIN ni UNION: con cualquiera de los dos H2 tarda varias veces
+    // más en armar el resultado; el motor de extractos mezcla ambas listas y resuelve los números de cuenta aparte.
+    @Query("select new com.Bank.Management.repository.projection.StatementLine(t.sourceAccount.id, t.id, t.transactionDate, " +
+            "-t.amountCents, t.description, t.targetAccount.id, t.counterpartAccountNumber) " +
+            "from Transaction t where t.sourceAccount.id between :firstId and :lastId " +
+            "and t.transactionDate >= :from and t.transactionDate < :until " +
+            "order by t.sourceAccount.id, t.transactionDate, t.id")
+    List<StatementLine> findOutgoingStatementLines(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                                                       @Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    @Query("select new com.Bank.Management.repository.projection.StatementLine(t.targetAccount.id, t.id, t.transactionDate, " +
+            "t.amountCents, t.description, t.sourceAccount.id, t.counterpartAccountNumber) " +
+            "from Transaction t where t.targetAccount.id between :firstId and :lastId " +
+            "and t.transactionDate >= :from and t.transactionDate < :until " +
+            "order by t.targetAccount.id, t.transactionDate, t.id")
+    List<StatementLine> findIncomingStatementLines(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                                                       @Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    // Transferencias entre shards con el crédito sin confirmar, cuyo origen está en este shard.
+    @Query("select t.id as id, t.amountCents as amountCents, t.transactionDate as transactionDate, t.description as description, " +
+            "sa.id as sourceAccountId, sa.accountNumber as sourceAccountNumber, t.counterpartAccountNumber as targetAccountNumber " +
+            "from Transaction t join t.sourceAccount sa " +
+            "where t.creditPending = true and t.targetAccount.id is null and t.counterpartAccountNumber is not null order by t.id")
+    List<PendingTransferView> findPendingCrossShardTransfers();
+
+    // Copia en el shard de destino de una transferencia entre shards, con el mismo id que en el origen.
+    @Modifying
+    @Query(value = "insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+            "source_account_id, target_account_id, counterpart_account_number) " +
+            "values (:id, :amount, :date, :description, false, null, :targetId, :sourceAccountNumber)", nativeQuery = true)
+    int insertIncomingCopy(@Param("id") Long id, @Param("amount") long amount, @Param("date") LocalDateTime date,
+                           @Param("description") String description, @Param("targetId") Long targetId,
+                           @Param("sourceAccountNumber") String sourceAccountNumber);
+
+    // Movimiento grabado por la solicitud con esa Idempotency-Key (ver IdempotencyService).
+    Optional<Transaction> findFirstByIdempotencyKey(String idempotencyKey);
 }
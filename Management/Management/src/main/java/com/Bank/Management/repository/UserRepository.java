@@ -1,7 +1,16 @@
 package com.Bank.Management.repository;
 
 import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.projection.UserSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -11,6 +20,35 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByDni(String dni);
+
+    // Listado por keyset sobre la clave primaria: una sentencia por página, sin entidades ni colecciones.
+    @Query("select new com.Bank.Management.repository.projection.UserSummary(u.id, u.dni, u.username, u.email) " +
+            "from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Usuarios con sus cuentas en una sola sentencia (entity graph). No se pagina aquí: con un fetch de colección
+    // Hibernate paginaría en memoria, así que los ids de la página salen de findSummariesAfter.
+    @EntityGraph(attributePaths = "bankAccounts")
+    @Query("select u from User u where u.id in :ids order by u.id")
+    List<User> findWithBankAccountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "bankAccounts")
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findWithBankAccountsById(@Param("id") Long id);
+
+    // Copia de un usuario del shard 0 en otro shard, con el mismo id (ver ShardRouter). Crea o reemplaza la fila.
+    @Modifying
+    @Query(value = "merge into USERS (id, username, email, password, dni) key (id) " +
+            "values (:id, :username, :email, :password, :dni)", nativeQuery = true)
+    int saveCopy(@Param("id") Long id, @Param("username") String username, @Param("email") String email,
+                 @Param("password") String password, @Param("dni") String dni);
+
+    // Actualiza la copia si el shard la tiene; si no, no hace nada.
+    @Modifying
+    @Query(value = "update USERS set username = :username, email = :email, password = :password, dni = :dni " +
+            "where id = :id", nativeQuery = true)
+    int updateCopy(@Param("id") Long id, @Param("username") String username, @Param("email") String email,
+                   @Param("password") String password, @Param("dni") String dni);
 }
 
 // S: Contener la logica de persistencia de los usuarios (DB)
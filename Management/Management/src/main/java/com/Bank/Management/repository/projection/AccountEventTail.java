@@ -0,0 +1,11 @@
+package com.Bank.Management.repository.projection;
+
+// Eventos de una cuenta posteriores a un número de secuencia: cantidad, suma de deltas (centavos) y último número.
+public interface AccountEventTail {
+
+    Long getEvents();
+
+    Long getDeltaCents();
+
+    Long getLastSequence();
+}
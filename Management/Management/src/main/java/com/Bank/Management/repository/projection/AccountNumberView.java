@@ -0,0 +1,9 @@
+package com.Bank.Management.repository.projection;
+
+// Número de una cuenta a partir de su id.
+public interface AccountNumberView {
+
+    Long getId();
+
+    String getAccountNumber();
+}
@@ -0,0 +1,15 @@
+package com.Bank.Management.repository.projection;
+
+// Estado de una cuenta reconstruido desde sus eventos, junto al saldo guardado en BANK_ACCOUNTS (centavos).
+public interface AccountStateView {
+
+    Long getAccountId();
+
+    Long getStoredCents();
+
+    Long getBalanceCents();
+
+    Long getLastSequence();
+
+    Long getEvents();
+}
@@ -0,0 +1,5 @@
+package com.Bank.Management.repository.projection;
+
+// Datos de una cuenta sin sus transacciones (listado y consulta por id); se arma con un "select new" en JPQL.
+public record AccountSummary(Long id, String accountNumber, long balanceCents, Long userId) {
+}
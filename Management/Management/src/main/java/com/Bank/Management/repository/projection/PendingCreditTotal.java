@@ -0,0 +1,9 @@
+package com.Bank.Management.repository.projection;
+
+// Suma en centavos de los créditos diferidos (credit_pending) que aún no se aplicaron al saldo de una cuenta.
+public interface PendingCreditTotal {
+
+    Long getAccountId();
+
+    Long getTotal();
+}
@@ -0,0 +1,22 @@
+package com.Bank.Management.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Transferencia entre shards debitada en el shard de origen cuyo crédito todavía no se confirmó (ver
+// CrossShardTransferCoordinator).
+public interface PendingTransferView {
+
+    Long getId();
+
+    long getAmountCents();
+
+    LocalDateTime getTransactionDate();
+
+    String getDescription();
+
+    Long getSourceAccountId();
+
+    String getSourceAccountNumber();
+
+    String getTargetAccountNumber();
+}
@@ -0,0 +1,11 @@
+package com.Bank.Management.repository.projection;
+
+// Cuenta de un extracto mensual con su saldo (en centavos) al inicio del mes.
+public interface StatementAccountView {
+
+    Long getAccountId();
+
+    String getAccountNumber();
+
+    Long getOpeningCents();
+}
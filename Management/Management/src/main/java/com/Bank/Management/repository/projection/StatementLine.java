@@ -0,0 +1,11 @@
+package com.Bank.Management.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Movimiento de un extracto visto desde una cuenta: el monto en centavos es positivo si entra y negativo si sale,
+// y la contraparte es el id de la otra cuenta (null en depósitos y retiros) o, si está en otro shard, su número.
+// Record en lugar de interfaz: el motor de extractos lee cientos de miles de filas y una proyección por interfaz
+// crea un proxy por fila, con cada getter resuelto por reflexión.
+public record StatementLine(Long accountId, Long id, LocalDateTime transactionDate, long amountCents,
+                            String description, Long counterpartAccountId, String counterpartAccountNumber) {
+}
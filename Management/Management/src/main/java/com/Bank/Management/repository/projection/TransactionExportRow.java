@@ -0,0 +1,23 @@
+package com.Bank.Management.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Fila de exportación leída solo de TRANSACTION (sin JOIN), para que la consulta recorra el índice en orden.
+// Los números de cuenta se resuelven aparte por id.
+public interface TransactionExportRow {
+
+    Long getId();
+
+    long getAmountCents();
+
+    LocalDateTime getTransactionDate();
+
+    String getDescription();
+
+    Long getSourceAccountId();
+
+    Long getTargetAccountId();
+
+    // Transferencia entre shards: número de la cuenta del otro shard (la que no tiene id aquí).
+    String getCounterpartAccountNumber();
+}
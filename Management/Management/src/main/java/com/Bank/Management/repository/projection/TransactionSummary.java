@@ -0,0 +1,19 @@
+package com.Bank.Management.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Columnas de TransactionResponseDto leídas en una sola consulta, con los números de cuenta ya unidos.
+public interface TransactionSummary {
+
+    Long getId();
+
+    long getAmountCents();
+
+    LocalDateTime getTransactionDate();
+
+    String getDescription();
+
+    String getSourceAccountNumber();
+
+    String getTargetAccountNumber();
+}
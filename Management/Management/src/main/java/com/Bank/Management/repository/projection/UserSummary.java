@@ -0,0 +1,5 @@
+package com.Bank.Management.repository.projection;
+
+// Datos básicos de un usuario para el listado, sin contraseña ni cuentas; se arma con un "select new" en JPQL.
+public record UserSummary(Long id, String dni, String username, String email) {
+}
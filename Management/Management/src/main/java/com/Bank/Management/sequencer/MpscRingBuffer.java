@@ -0,0 +1,86 @@
+package com.Bank.Management.sequencer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Cola circular acotada sin bloqueos: varios productores, un único consumidor.
+// Cada celda lleva un número de secuencia que indica si está libre para el productor del turno
+// (secuencia == posición) o lista para el consumidor (secuencia == posición + 1). Los productores
+// compiten solo por el CAS sobre "tail"; el consumidor avanza "head" sin sincronización porque es uno solo.
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MpscRingBuffer(int requestedCapacity) {
+        int size = 2;
+        while (size < requestedCapacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Devuelve false si la cola está llena; quien produce decide si espera o rechaza.
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    // Solo debe llamarlo el hilo consumidor.
+    public E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.set(index, null);
+        sequences.lazySet(index, head + capacity);
+        head++;
+        return element;
+    }
+
+    // Solo debe llamarlo el hilo consumidor. Devuelve cuántos elementos agregó a la lista.
+    public int drainTo(List<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Aproximado: productores y consumidor pueden estar moviéndose mientras se calcula.
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+}
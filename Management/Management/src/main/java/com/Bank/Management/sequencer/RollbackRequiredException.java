@@ -0,0 +1,16 @@
+package com.Bank.Management.sequencer;
+
+// La lanza un comando que ya escribió en la base de datos y luego encontró un error de negocio.
+// Dentro de un lote no puede reportarse solo ese comando: el lote se revierte completo, cada comando
+// se vuelve a ejecutar en su propia transacción y el llamador recibe la causa original.
+public class RollbackRequiredException extends RuntimeException {
+
+    public RollbackRequiredException(RuntimeException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+        return (RuntimeException) super.getCause();
+    }
+}
@@ -0,0 +1,293 @@
+package com.Bank.Management.sequencer;
+
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.response.SequencerMetricsDto;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.idempotency.IdempotencyScope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Modo de ejecución "sequencer": cada cuenta pertenece a un único shard (por hash del número de cuenta)
+// y un solo hilo por shard aplica todos los comandos que modifican saldos de sus cuentas. Los comandos
+// llegan por una cola circular sin bloqueos y el hilo los aplica en lotes, uno por transacción, así que
+// no hace falta bloquear filas ni stripes: nadie más escribe esas cuentas.
+// Un comando que falla con un error de negocio se reporta solo a su llamador sin afectar al lote,
+// porque esos errores se detectan antes de escribir. Cualquier otro fallo revierte el lote completo
+// y sus comandos se reintentan uno por uno.
+// Con batch-window-us > 0 el shard funciona como escritor con "group commit": después del primer
+// comando espera hasta esa ventana (o hasta max-batch comandos) a que lleguen más, y confirma todos
+// en un solo commit. Cada llamador recibe su respuesta recién cuando ese commit terminó.
+@Component
+public class ShardedCommandSequencer {
+
+    public static final String MODE = "sequencer";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long batchWindowNanos;
+    private final Shard[] shards;
+
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchFallbacks = new LongAdder();
+
+    private volatile boolean running;
+
+    public ShardedCommandSequencer(OptimisticRetryExecutor optimisticRetryExecutor, ReadYourWritesTracker readYourWritesTracker,
+                                   @Value("${bank.execution.mode:locking}") String executionMode,
+                                   @Value("${bank.sequencer.shards:4}") int shardCount,
+                                   @Value("${bank.sequencer.ring-capacity:1024}") int ringCapacity,
+                                   @Value("${bank.sequencer.max-batch:64}") int maxBatch,
+                                   @Value("${bank.sequencer.batch-window-us:0}") long batchWindowMicros) {
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.enabled = MODE.equalsIgnoreCase(executionMode.trim());
+        this.maxBatch = Math.max(1, maxBatch);
+        this.batchWindowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, batchWindowMicros));
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, new MpscRingBuffer<>(ringCapacity));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (Shard shard : shards) {
+            shard.worker = new Thread(() -> runShard(shard), "sequencer-shard-" + shard.index);
+            shard.worker.setDaemon(true);
+            shard.worker.start();
+        }
+    }
+
+    // Los hilos terminan de aplicar lo que ya está encolado antes de salir.
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Shard shard : shards) {
+            if (shard.worker != null) {
+                LockSupport.unpark(shard.worker);
+                try {
+                    shard.worker.join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int shardFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    public boolean sameShard(String firstAccountNumber, String secondAccountNumber) {
+        return shardFor(firstAccountNumber) == shardFor(secondAccountNumber);
+    }
+
+    // Encola el comando en el shard de la cuenta y espera su resultado (ya confirmado en la base de datos).
+    // Un comando que ya corre en el hilo del mismo shard se ejecuta directamente dentro de su lote.
+    public <T> T execute(String accountNumber, Supplier<T> action) {
+        Shard shard = shards[shardFor(accountNumber)];
+        if (Thread.currentThread() == shard.worker) {
+            return action.get();
+        }
+        if (!running) {
+            throw new IllegalStateException("El modo de ejecución por shards no está activo.");
+        }
+        if (isShardThread()) {
+            throw new IllegalStateException("Un shard no puede esperar el resultado de otro shard.");
+        }
+
+        // El comando corre en el hilo del shard: la clave de idempotencia y la sesión del llamador viajan con él,
+        // y el commit del lote queda anotado en esa sesión.
+        String idempotencyKey = IdempotencyScope.current();
+        ReadYourWritesTracker.Session session = readYourWritesTracker.currentSession();
+        Command<T> command = new Command<>(() -> readYourWritesTracker.call(session, () -> IdempotencyScope.call(idempotencyKey, action)));
+        while (!shard.ring.offer(command)) {
+            // Cola llena: se espera a que el hilo del shard libere espacio (contrapresión).
+            LockSupport.unpark(shard.worker);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        LockSupport.unpark(shard.worker);
+
+        try {
+            return command.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public SequencerMetricsDto getMetrics() {
+        long totalCommands = commands.sum();
+        long totalBatches = batches.sum();
+        long queued = 0;
+        for (Shard shard : shards) {
+            queued += shard.ring.size();
+        }
+        return new SequencerMetricsDto(
+                enabled,
+                shards.length,
+                maxBatch,
+                TimeUnit.NANOSECONDS.toMicros(batchWindowNanos),
+                totalCommands,
+                totalBatches,
+                totalBatches == 0 ? 0.0 : (double) totalCommands / totalBatches,
+                batchFallbacks.sum(),
+                queued
+        );
+    }
+
+    private boolean isShardThread() {
+        Thread current = Thread.currentThread();
+        for (Shard shard : shards) {
+            if (current == shard.worker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runShard(Shard shard) {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        while (running || shard.ring.size() > 0) {
+            batch.clear();
+            if (shard.ring.drainTo(batch, maxBatch) == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            fillWithinWindow(shard, batch);
+            try {
+                applyBatch(batch);
+            } catch (Throwable ex) {
+                // Un error inesperado no debe detener el hilo del shard ni dejar llamadores esperando.
+                for (Command<?> command : batch) {
+                    command.result.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    // Los productores despiertan al hilo del shard en cada offer, así que la espera termina apenas
+    // llega otro comando; la ventana se cuenta desde el primero, que es el que más espera.
+    private void fillWithinWindow(Shard shard, List<Command<?>> batch) {
+        if (batchWindowNanos == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < maxBatch && running) {
+            if (shard.ring.drainTo(batch, maxBatch - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void applyBatch(List<Command<?>> batch) {
+        commands.add(batch.size());
+        batches.increment();
+        try {
+            optimisticRetryExecutor.execute(() -> {
+                for (Command<?> command : batch) {
+                    command.applyInBatch();
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            batchFallbacks.increment();
+            for (Command<?> command : batch) {
+                command.applyAlone(optimisticRetryExecutor);
+            }
+            return;
+        }
+        for (Command<?> command : batch) {
+            command.complete();
+        }
+    }
+
+    private static final class Shard {
+
+        private final int index;
+        private final MpscRingBuffer<Command<?>> ring;
+        private volatile Thread worker;
+
+        private Shard(int index, MpscRingBuffer<Command<?>> ring) {
+            this.index = index;
+            this.ring = ring;
+        }
+    }
+
+    private static final class Command<T> {
+
+        private final Supplier<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private RuntimeException rejection;
+
+        private Command(Supplier<T> action) {
+            this.action = action;
+        }
+
+        // Se llama una vez por intento del lote; un reintento por concurrencia vuelve a empezar de cero.
+        private void applyInBatch() {
+            value = null;
+            rejection = null;
+            try {
+                value = action.get();
+            } catch (InvalidOperationException | DataNotFoundException | InsufficientFundsException ex) {
+                rejection = ex;
+            }
+        }
+
+        private void complete() {
+            if (rejection != null) {
+                result.completeExceptionally(rejection);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        private void applyAlone(OptimisticRetryExecutor retryExecutor) {
+            try {
+                result.complete(retryExecutor.execute(action));
+            } catch (RollbackRequiredException ex) {
+                result.completeExceptionally(ex.getCause());
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -3,18 +3,24 @@ package com.Bank.Management.service;
 import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.UpdateBankAccountDto;
 import com.Bank.Management.dto.request.AccountOperationDto; // Nueva importación para Depósito/Retiro
+import com.Bank.Management.dto.response.BankAccountPageDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.PointInTimeBalanceDto;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 public interface BankAccountService {
 
 
     BankAccountResponseDto createAccount(BankAccountRequestDto bankAccountRequestDto);
-    List<BankAccountResponseDto> getAllAccounts();
-    BankAccountResponseDto getAccountById(Long id);
+    BankAccountPageDto getAccounts(Long afterId, Integer size, boolean includeTransactions);
+    BankAccountResponseDto getAccountById(Long id, boolean includeTransactions);
     BankAccountResponseDto updateAccount(UpdateBankAccountDto updateBankAccountDto);
     void deleteAccount(Long id);
     BankAccountResponseDto deposit(AccountOperationDto operationDto);
     BankAccountResponseDto withdraw(AccountOperationDto operationDto);
+    PointInTimeBalanceDto getBalanceAt(Long id, LocalDateTime at);
+    // Estado de la cuenta si ya se grabó un depósito o retiro con esa Idempotency-Key.
+    Optional<BankAccountResponseDto> findOperationResult(String accountNumber, String idempotencyKey);
 }
\ No newline at end of file
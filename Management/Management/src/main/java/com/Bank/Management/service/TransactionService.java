@@ -1,13 +1,20 @@
 package com.Bank.Management.service;
 
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
 import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
 import com.Bank.Management.dto.response.TransactionResponseDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionService {
 
     TransactionResponseDto transfer(TransferRequestDto transferRequestDto);
+    List<BatchTransferResultDto> transferBatch(List<TransferRequestDto> transfers);
     TransactionResponseDto getTransactionById(Long id);
-    List<TransactionResponseDto> getHistoryByAccountNumber(String accountNumber);
+    // Transferencia ya grabada con esa Idempotency-Key, buscada en el shard de la cuenta de origen.
+    Optional<TransactionResponseDto> findByIdempotencyKey(String sourceAccountNumber, String idempotencyKey);
+    TransactionHistoryPageDto getHistoryByAccountNumber(String accountNumber, String cursor, Integer size, TransactionHistoryFilterDto filter);
 }
\ No newline at end of file
@@ -2,14 +2,14 @@ package com.Bank.Management.service;
 
 import com.Bank.Management.dto.request.UserRegistrationDto;
 import com.Bank.Management.dto.request.UpdateUserDTO;
+import com.Bank.Management.dto.response.UserPageDto;
 import com.Bank.Management.dto.response.UserResponseDto;
-import java.util.List;
 
 public interface UserService {
 
 
     UserResponseDto registerUser(UserRegistrationDto userRegistrationDto);
-    List<UserResponseDto> getAllUsers();
+    UserPageDto getUsers(Long afterId, Integer size, boolean includeAccounts);
     UserResponseDto getUserById(Long id);
     UserResponseDto update(UpdateUserDTO updateUserDTO);
     void delete(Long id);
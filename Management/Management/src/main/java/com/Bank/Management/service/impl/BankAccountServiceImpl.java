@@ -1,185 +1,475 @@
 package com.Bank.Management.service.impl;
 
 
+import com.Bank.Management.accountnumber.AccountNumberAllocator;
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.DuplicatedDataException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.idempotency.IdempotencyScope;
 import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.UpdateBankAccountDto;
 import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.PointInTimeBalanceDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.entity.BalanceSnapshot;
 import com.Bank.Management.entity.BankAccount;
 import com.Bank.Management.entity.User;
+import com.Bank.Management.eventsourcing.AccountEventStore;
 import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.journal.LedgerJournal;
 import com.Bank.Management.mapper.BankAccountMapper;
+import com.Bank.Management.mapper.TransactionMapper;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.BalanceSnapshotRepository;
 import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.UserRepository;
 import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.AccountSummary;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import com.Bank.Management.sharding.ShardRouter;
+import com.Bank.Management.sharding.ShardTransactions;
 import com.Bank.Management.service.BankAccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 @Service
 public class BankAccountServiceImpl implements BankAccountService {
 
+    // Cota superior para "todos los movimientos posteriores" en las sumas por rango de fecha.
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final BankAccountRepository bankAccountRepository;
     private final UserRepository userRepository;
     private final BankAccountMapper bankAccountMapper;
     private final TransactionRepository transactionRepository;
-
-    public BankAccountServiceImpl(BankAccountRepository bankAccountRepository, UserRepository userRepository, BankAccountMapper bankAccountMapper, TransactionRepository transactionRepository) {
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final HotAccountCreditBuffer hotAccountCreditBuffer;
+    private final ShardedCommandSequencer commandSequencer;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionMapper transactionMapper;
+    private final AccountLookupCache accountLookupCache;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final LedgerJournal ledgerJournal;
+    private final AccountEventStore accountEventStore;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+    private final int accountsDefaultPageSize;
+    private final int accountsMaxPageSize;
+
+    public BankAccountServiceImpl(BankAccountRepository bankAccountRepository, UserRepository userRepository, BankAccountMapper bankAccountMapper, TransactionRepository transactionRepository, AccountLockManager accountLockManager, OptimisticRetryExecutor optimisticRetryExecutor, HotAccountCreditBuffer hotAccountCreditBuffer, ShardedCommandSequencer commandSequencer, BalanceSnapshotRepository balanceSnapshotRepository,
+                                  TransactionMapper transactionMapper,
+                                  AccountLookupCache accountLookupCache,
+                                  AccountNumberAllocator accountNumberAllocator,
+                                  LedgerJournal ledgerJournal,
+                                  AccountEventStore accountEventStore,
+                                  ShardRouter shardRouter,
+                                  ShardTransactions shardTransactions,
+                                  @Value("${bank.accounts.default-page-size:50}") int accountsDefaultPageSize,
+                                  @Value("${bank.accounts.max-page-size:500}") int accountsMaxPageSize) {
         this.bankAccountRepository = bankAccountRepository;
         this.userRepository = userRepository;
         this.bankAccountMapper = bankAccountMapper;
         this.transactionRepository = transactionRepository;
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.hotAccountCreditBuffer = hotAccountCreditBuffer;
+        this.commandSequencer = commandSequencer;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.transactionMapper = transactionMapper;
+        this.accountLookupCache = accountLookupCache;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.ledgerJournal = ledgerJournal;
+        this.accountEventStore = accountEventStore;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+        this.accountsDefaultPageSize = accountsDefaultPageSize;
+        this.accountsMaxPageSize = accountsMaxPageSize;
     }
 
     @Override
     @Transactional
     public BankAccountResponseDto createAccount(BankAccountRequestDto bankAccountRequestDto) {
 
-        if (bankAccountRequestDto.getBalance() < 0) {
+        if (Money.toMinorUnits(bankAccountRequestDto.getBalance()) < 0) {
             throw new InvalidOperationException("El saldo inicial de la cuenta no puede ser negativo.");
         }
 
         User user = userRepository.findById(bankAccountRequestDto.getUserId())
                 .orElseThrow(() -> new DataNotFoundException(bankAccountRequestDto.getUserId(), "Usuario"));
 
-        String newAccountNumber = generateUniqueAccountNumber();
+        // El número sale de un bloque reservado en la secuencia: es único sin consultar la tabla.
+        String newAccountNumber = accountNumberAllocator.next();
+        if (!shardRouter.isEnabled()) {
+            return openAccount(bankAccountRequestDto, user, newAccountNumber);
+        }
+
+        // Con shards el usuario vive en el shard 0 y la cuenta en el de su número: fuera del shard 0 se guarda
+        // antes una copia del usuario (mismo id) para la clave foránea.
+        int shard = shardRouter.shardOfAccount(newAccountNumber);
+        return shardTransactions.write(shard, () -> {
+            if (shard != 0) {
+                userRepository.saveCopy(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getDni());
+            }
+            return openAccount(bankAccountRequestDto, userRepository.getReferenceById(user.getId()), newAccountNumber);
+        });
+    }
 
+    private BankAccountResponseDto openAccount(BankAccountRequestDto bankAccountRequestDto, User user, String newAccountNumber) {
         BankAccount bankAccount = bankAccountMapper.toBankAccount(bankAccountRequestDto);
         bankAccount.setUser(user);
         bankAccount.setAccountNumber(newAccountNumber);
 
         BankAccount savedAccount = bankAccountRepository.save(bankAccount);
+        accountEventStore.recordOpening(savedAccount.getId(), savedAccount.getBalanceCents());
         return bankAccountMapper.toBankAccountResponseDto(savedAccount);
     }
 
+    // Listado paginado por id: una consulta de proyección por página (sin entidades ni colecciones perezosas).
+    // Con includeTransactions se agregan dos consultas para toda la página, una por dirección.
     @Override
     @Transactional(readOnly = true)
-    public List<BankAccountResponseDto> getAllAccounts() {
-        return bankAccountRepository.findAll()
-                .stream()
-                .map(bankAccountMapper::toBankAccountResponseDto)
-                .toList();
+    public BankAccountPageDto getAccounts(Long afterId, Integer size, boolean includeTransactions) {
+        int pageSize = accountsPageSize(size);
+        long after = afterId == null ? 0L : afterId;
+        List<AccountSummary> summaries = shardRouter.isEnabled()
+                ? findSummariesAcrossShards(after, pageSize + 1)
+                : bankAccountRepository.findSummariesAfter(after, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = summaries.size() > pageSize;
+        List<AccountSummary> page = hasMore ? summaries.subList(0, pageSize) : summaries;
+        List<BankAccountResponseDto> accounts = bankAccountMapper.toBankAccountResponseDtos(page);
+        accounts.forEach(this::withPendingCredits);
+        if (includeTransactions && shardRouter.isEnabled()) {
+            accounts.stream()
+                    .collect(Collectors.groupingBy(account -> shardRouter.shardOfId(account.getId())))
+                    .forEach((shard, group) -> shardTransactions.read(shard, () -> {
+                        embedTransactions(group);
+                        return null;
+                    }));
+        } else if (includeTransactions) {
+            embedTransactions(accounts);
+        }
+        Long nextAfterId = hasMore ? page.get(page.size() - 1).id() : null;
+        return new BankAccountPageDto(accounts, nextAfterId, pageSize);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public BankAccountResponseDto getAccountById(Long id) {
-        BankAccount account = bankAccountRepository.findById(id)
-                .orElseThrow(() -> new DataNotFoundException(id, "Cuenta bancaria"));
-        return bankAccountMapper.toBankAccountResponseDto(account);
+    // Los ids de cada shard son mayores que los de los anteriores: la página sigue en orden de id leyendo los
+    // shards en orden desde el del cursor, cada uno en su propia transacción, hasta juntar "limit" filas.
+    private List<AccountSummary> findSummariesAcrossShards(long afterId, int limit) {
+        List<AccountSummary> summaries = new ArrayList<>();
+        for (int shard = shardRouter.shardOfId(afterId); shard < shardRouter.size() && summaries.size() < limit; shard++) {
+            int remaining = limit - summaries.size();
+            summaries.addAll(shardTransactions.read(shard, () ->
+                    bankAccountRepository.findSummariesAfter(afterId, PageRequest.of(0, remaining))));
+        }
+        return summaries;
     }
 
     @Override
-    @Transactional
-    public BankAccountResponseDto updateAccount(UpdateBankAccountDto updateBankAccountDto) {
-        BankAccount accountToUpdate = bankAccountRepository.findById(updateBankAccountDto.getId())
-                .orElseThrow(() -> new DataNotFoundException(updateBankAccountDto.getId(), "Cuenta bancaria"));
-
-        bankAccountMapper.updateBankAccountFromDto(updateBankAccountDto, accountToUpdate);
+    @Transactional(readOnly = true)
+    public BankAccountResponseDto getAccountById(Long id, boolean includeTransactions) {
+        return shardRouter.call(shardRouter.shardOfId(id), () -> {
+            BankAccountResponseDto account = bankAccountRepository.findSummaryById(id)
+                    .map(bankAccountMapper::toBankAccountResponseDto)
+                    .orElseThrow(() -> new DataNotFoundException(id, "Cuenta bancaria"));
+            withPendingCredits(account);
+            if (includeTransactions) {
+                embedTransactions(List.of(account));
+            }
+            return account;
+        });
+    }
 
-        BankAccount updatedAccount = bankAccountRepository.save(accountToUpdate);
-        return bankAccountMapper.toBankAccountResponseDto(updatedAccount);
+    private int accountsPageSize(Integer size) {
+        if (size == null) {
+            return accountsDefaultPageSize;
+        }
+        if (size < 1 || size > accountsMaxPageSize) {
+            throw new InvalidOperationException(String.format("El tamaño de página debe estar entre 1 y %d.", accountsMaxPageSize));
+        }
+        return size;
     }
 
-    @Override
-    @Transactional
-    public void deleteAccount(Long id) {
-        if (!bankAccountRepository.existsById(id)) {
-            throw new DataNotFoundException(id, "Cuenta bancaria");
+    // Transacciones salientes y entrantes de todas las cuentas en dos consultas, agrupadas por cuenta
+    // (de la más reciente a la más antigua). Las cuentas sin movimientos quedan con listas vacías.
+    private void embedTransactions(List<BankAccountResponseDto> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = accounts.stream().map(BankAccountResponseDto::getId).toList();
+        Map<Long, List<TransactionResponseDto>> outgoing = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findOutgoingWithAccounts(ids)) {
+            outgoing.computeIfAbsent(transaction.getSourceAccount().getId(), key -> new ArrayList<>())
+                    .add(transactionMapper.toTransactionResponseDto(transaction));
+        }
+        Map<Long, List<TransactionResponseDto>> incoming = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findIncomingWithAccounts(ids)) {
+            incoming.computeIfAbsent(transaction.getTargetAccount().getId(), key -> new ArrayList<>())
+                    .add(transactionMapper.toTransactionResponseDto(transaction));
+        }
+        for (BankAccountResponseDto account : accounts) {
+            account.setOutgoingTransactions(outgoing.getOrDefault(account.getId(), new ArrayList<>()));
+            account.setIncomingTransactions(incoming.getOrDefault(account.getId(), new ArrayList<>()));
         }
-        bankAccountRepository.deleteById(id);
     }
 
-    // Método privado para generar un número de cuenta único y con formato realista
-    private String generateUniqueAccountNumber() {
-        String newAccountNumber;
-        do {
-            newAccountNumber = generateRandomAccountNumber();
-        } while (bankAccountRepository.findByAccountNumber(newAccountNumber).isPresent());
-        return newAccountNumber;
+    @Override
+    public BankAccountResponseDto updateAccount(UpdateBankAccountDto updateBankAccountDto) {
+        Long id = updateBankAccountDto.getId();
+        return shardRouter.call(shardRouter.shardOfId(id), () -> {
+            // Como depósitos y retiros, el reemplazo de saldo corre con el bloqueo de la cuenta o en el hilo de su shard.
+            String accountNumber = bankAccountRepository.findAccountNumberById(id)
+                    .orElseThrow(() -> new DataNotFoundException(id, "Cuenta bancaria"));
+            if (commandSequencer.isEnabled()) {
+                return sequenced(accountNumber, () -> applyUpdate(updateBankAccountDto));
+            }
+            return accountLockManager.callWithLocks(() ->
+                    optimisticRetryExecutor.execute(() -> toResponse(applyUpdate(updateBankAccountDto))), accountNumber);
+        });
     }
 
-    private String generateRandomAccountNumber() {
-        Random random = new Random();
-        StringBuilder sb = new StringBuilder();
+    private Long applyUpdate(UpdateBankAccountDto updateBankAccountDto) {
+        // El saldo indicado reemplaza al actual, así que los créditos pendientes de una cuenta caliente
+        // se aplican antes de cargar la entidad (y no se suman después sobre el saldo nuevo).
+        hotAccountCreditBuffer.flushInCurrentTransaction(updateBankAccountDto.getId());
 
-        sb.append("45");
+        BankAccount accountToUpdate = bankAccountRepository.findById(updateBankAccountDto.getId())
+                .orElseThrow(() -> new DataNotFoundException(updateBankAccountDto.getId(), "Cuenta bancaria"));
 
-        for (int i = 0; i < 8; i++) {
-            sb.append(random.nextInt(10));
+        long previousBalance = accountToUpdate.getBalanceCents();
+        bankAccountMapper.updateBankAccountFromDto(updateBankAccountDto, accountToUpdate);
+
+        // El UPDATE se ejecuta antes de registrar el ajuste: el evento queda ordenado por el bloqueo de la fila.
+        BankAccount updatedAccount = bankAccountRepository.saveAndFlush(accountToUpdate);
+        long delta = updatedAccount.getBalanceCents() - previousBalance;
+        if (delta != 0) {
+            Transaction adjustment = recordAdjustmentMovement(updatedAccount, delta);
+            ledgerJournal.recordMovement(adjustment);
+            accountEventStore.recordAdjustment(updatedAccount.getId(), delta);
         }
+        return updatedAccount.getId();
+    }
 
-        sb.append("-");
-        sb.append(random.nextInt(10));
-        sb.append(random.nextInt(10));
+    // El cambio de saldo queda como un movimiento sin contraparte (un crédito o un débito de la cuenta), así las
+    // instantáneas, el saldo a una fecha y los extractos lo suman como cualquier otro movimiento.
+    private Transaction recordAdjustmentMovement(BankAccount account, long delta) {
+        Transaction transaction = new Transaction();
+        transaction.setAmountCents(Math.abs(delta));
+        transaction.setDescription("Ajuste de saldo de la cuenta " + account.getAccountNumber());
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setSourceAccount(delta < 0 ? account : null);
+        transaction.setTargetAccount(delta > 0 ? account : null);
+        transaction.setCreditPending(false);
+        transaction.setIdempotencyKey(IdempotencyScope.current());
+        return transactionRepository.saveAndFlush(transaction);
+    }
 
-        return sb.toString();
+    @Override
+    @Transactional
+    public void deleteAccount(Long id) {
+        shardRouter.run(shardRouter.shardOfId(id), () -> {
+            String accountNumber = bankAccountRepository.findAccountNumberById(id)
+                    .orElseThrow(() -> new DataNotFoundException(id, "Cuenta bancaria"));
+            bankAccountRepository.deleteById(id);
+            accountLookupCache.invalidateAfterCommit(accountNumber);
+        });
     }
 
-    private BankAccount findAndValidateAccount(String accountNumber, BigDecimal amount) {
+    private Long findAndValidateAccountId(String accountNumber, long amount) {
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount <= 0) {
             throw new InvalidOperationException("El monto debe ser un valor positivo.");
         }
 
-        return bankAccountRepository.findByAccountNumber(accountNumber)
+        return accountLookupCache.findId(accountNumber)
                 .orElseThrow(() -> new DataNotFoundException(accountNumber, "Cuenta bancaria"));
     }
 
     @Override
-    @Transactional
     public BankAccountResponseDto deposit(AccountOperationDto operationDto) {
-        BankAccount account = findAndValidateAccount(operationDto.getAccountNumber(), operationDto.getAmount());
+        return shardRouter.call(shardRouter.shardOfAccount(operationDto.getAccountNumber()), () -> applyDepositCommand(operationDto));
+    }
 
-        BigDecimal currentBalance = BigDecimal.valueOf(account.getBalance());
+    private BankAccountResponseDto applyDepositCommand(AccountOperationDto operationDto) {
+        boolean deferred = hotAccountCreditBuffer.isHot(operationDto.getAccountNumber());
+        if (commandSequencer.isEnabled()) {
+            return sequenced(operationDto.getAccountNumber(), () -> applyDeposit(operationDto, deferred));
+        }
+        // En una cuenta caliente el depósito no toca la fila de la cuenta: no necesita su bloqueo.
+        if (deferred) {
+            return optimisticRetryExecutor.execute(() -> toResponse(applyDeposit(operationDto, true)));
+        }
+        return accountLockManager.callWithLocks(() ->
+                optimisticRetryExecutor.execute(() -> toResponse(applyDeposit(operationDto, false))), operationDto.getAccountNumber());
+    }
 
-        account.setBalance(currentBalance.add(operationDto.getAmount()).doubleValue());
-        BankAccount updatedAccount = bankAccountRepository.save(account);
+    private Long applyDeposit(AccountOperationDto operationDto, boolean deferred) {
+        long amount = Money.toMinorUnits(operationDto.getAmount());
+        Long accountId = findAndValidateAccountId(operationDto.getAccountNumber(), amount);
+
+        // Un solo UPDATE atómico: el saldo se suma en la base de datos, sin leer la entidad antes.
+        // 0 filas con la cuenta existente significa que el saldo desbordaría.
+        if (!deferred && bankAccountRepository.addToBalance(accountId, amount) == 0) {
+            if (bankAccountRepository.existsById(accountId)) {
+                throw new InvalidOperationException("El saldo resultante excede el máximo permitido.");
+            }
+            throw new DataNotFoundException(operationDto.getAccountNumber(), "Cuenta bancaria");
+        }
 
         Transaction transaction = new Transaction();
-        transaction.setAmount(operationDto.getAmount().doubleValue());
-        transaction.setDescription("Depósito en efectivo a la cuenta " + account.getAccountNumber());
+        transaction.setAmountCents(amount);
+        transaction.setDescription("Depósito en efectivo a la cuenta " + operationDto.getAccountNumber());
         transaction.setTransactionDate(LocalDateTime.now());
         transaction.setSourceAccount(null);
-        transaction.setTargetAccount(account);
+        transaction.setTargetAccount(bankAccountRepository.getReferenceById(accountId));
+        transaction.setCreditPending(deferred);
+        transaction.setIdempotencyKey(IdempotencyScope.current());
 
-        transactionRepository.save(transaction);
+        // Con ids por secuencia el INSERT se difiere; se fuerza para que la respuesta incluya el movimiento.
+        transactionRepository.saveAndFlush(transaction);
+        ledgerJournal.recordMovement(transaction);
+        accountEventStore.recordMovement(transaction);
 
-        return bankAccountMapper.toBankAccountResponseDto(updatedAccount);
+        if (deferred) {
+            hotAccountCreditBuffer.deferCredit(operationDto.getAccountNumber(), accountId, transaction.getId(), amount);
+        }
+        return accountId;
     }
 
     @Override
-    @Transactional
     public BankAccountResponseDto withdraw(AccountOperationDto operationDto) {
-        BankAccount account = findAndValidateAccount(operationDto.getAccountNumber(), operationDto.getAmount());
+        return shardRouter.call(shardRouter.shardOfAccount(operationDto.getAccountNumber()), () -> applyWithdrawCommand(operationDto));
+    }
+
+    private BankAccountResponseDto applyWithdrawCommand(AccountOperationDto operationDto) {
+        if (commandSequencer.isEnabled()) {
+            return sequenced(operationDto.getAccountNumber(), () -> applyWithdraw(operationDto));
+        }
+        return accountLockManager.callWithLocks(() ->
+                optimisticRetryExecutor.execute(() -> toResponse(applyWithdraw(operationDto))), operationDto.getAccountNumber());
+    }
+
+    private Long applyWithdraw(AccountOperationDto operationDto) {
+        long amount = Money.toMinorUnits(operationDto.getAmount());
+        Long accountId = findAndValidateAccountId(operationDto.getAccountNumber(), amount);
 
-        BigDecimal currentBalance = BigDecimal.valueOf(account.getBalance());
+        // Los créditos pendientes de una cuenta caliente se aplican antes, así el saldo validado es el real.
+        hotAccountCreditBuffer.flushInCurrentTransaction(accountId);
 
-        if (currentBalance.compareTo(operationDto.getAmount()) < 0) {
+        // El UPDATE solo afecta la fila si el saldo alcanza; 0 filas significa fondos insuficientes.
+        if (bankAccountRepository.subtractFromBalanceIfSufficient(accountId, amount) == 0) {
             throw new InsufficientFundsException("Saldo insuficiente para realizar el retiro.");
         }
 
-        account.setBalance(currentBalance.subtract(operationDto.getAmount()).doubleValue());
-        BankAccount updatedAccount = bankAccountRepository.save(account);
-
         Transaction transaction = new Transaction();
-        transaction.setAmount(operationDto.getAmount().doubleValue());
-        transaction.setDescription("Retiro de efectivo de la cuenta " + account.getAccountNumber());
+        transaction.setAmountCents(amount);
+        transaction.setDescription("Retiro de efectivo de la cuenta " + operationDto.getAccountNumber());
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setSourceAccount(account);
+        transaction.setSourceAccount(bankAccountRepository.getReferenceById(accountId));
         transaction.setTargetAccount(null);
+        transaction.setIdempotencyKey(IdempotencyScope.current());
+
+        // Con ids por secuencia el INSERT se difiere; se fuerza para que la respuesta incluya el movimiento.
+        transactionRepository.saveAndFlush(transaction);
+        ledgerJournal.recordMovement(transaction);
+        accountEventStore.recordMovement(transaction);
 
-        transactionRepository.save(transaction);
+        return accountId;
+    }
 
-        return bankAccountMapper.toBankAccountResponseDto(updatedAccount);
+    // Saldo en el instante "at" a partir de la foto diaria más cercana (ver BalanceSnapshotJob): solo se suman
+    // los movimientos entre el cierre de esa foto y "at", no todo el historial de la cuenta.
+    //   - Foto de un día cerrado antes de "at": foto + movimientos desde su cierre hasta "at".
+    //   - Si no, la primera foto posterior: foto - movimientos desde "at" hasta su cierre.
+    //   - Sin fotos: saldo actual (con créditos diferidos) - movimientos desde "at".
+    @Override
+    @Transactional(readOnly = true)
+    public PointInTimeBalanceDto getBalanceAt(Long id, LocalDateTime at) {
+        return shardRouter.call(shardRouter.shardOfId(id), () -> balanceAt(id, at));
+    }
+
+    private PointInTimeBalanceDto balanceAt(Long id, LocalDateTime at) {
+        BankAccount account = bankAccountRepository.findById(id)
+                .orElseThrow(() -> new DataNotFoundException(id, "Cuenta bancaria"));
+        if (account.getCreatedAt() != null && at.isBefore(account.getCreatedAt())) {
+            throw new InvalidOperationException("La cuenta no existía en la fecha indicada.");
+        }
+
+        // La foto del día D incluye los movimientos anteriores a D+1 00:00.
+        LocalDate lastClosedDay = at.toLocalDate().minusDays(1);
+        Optional<BalanceSnapshot> before = balanceSnapshotRepository
+                .findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(id, lastClosedDay);
+        long balance;
+        LocalDate snapshotDate = null;
+        if (before.isPresent()) {
+            snapshotDate = before.get().getSnapshotDate();
+            balance = before.get().getBalanceCents()
+                    + transactionRepository.sumNetChangeBetween(id, snapshotDate.plusDays(1).atStartOfDay(), at);
+        } else {
+            Optional<BalanceSnapshot> after = balanceSnapshotRepository
+                    .findFirstByAccountIdAndSnapshotDateGreaterThanOrderBySnapshotDateAsc(id, lastClosedDay);
+            if (after.isPresent()) {
+                snapshotDate = after.get().getSnapshotDate();
+                balance = after.get().getBalanceCents()
+                        - transactionRepository.sumNetChangeBetween(id, at, snapshotDate.plusDays(1).atStartOfDay());
+            } else {
+                long current = bankAccountRepository.findBalanceWithPendingCreditsById(id).orElse(account.getBalanceCents());
+                balance = current - transactionRepository.sumNetChangeBetween(id, at, END_OF_TIME);
+            }
+        }
+        return new PointInTimeBalanceDto(id, account.getAccountNumber(), at, Money.toDecimal(balance), snapshotDate);
+    }
+
+    // La respuesta es el estado actual de la cuenta: los movimientos posteriores a la operación también se ven.
+    @Override
+    public Optional<BankAccountResponseDto> findOperationResult(String accountNumber, String idempotencyKey) {
+        return shardRouter.call(shardRouter.shardOfAccount(accountNumber), () -> optimisticRetryExecutor.execute(() ->
+                transactionRepository.findFirstByIdempotencyKey(idempotencyKey)
+                        .map(transaction -> toResponse(transaction.getTargetAccount() != null
+                                ? transaction.getTargetAccount().getId() : transaction.getSourceAccount().getId()))));
+    }
+
+    // En modo "sequencer" el hilo del shard solo aplica el cambio de saldo; la respuesta (que carga el
+    // historial de la cuenta) se arma después del commit, en una transacción propia del llamador.
+    private BankAccountResponseDto sequenced(String accountNumber, Supplier<Long> command) {
+        Long accountId = commandSequencer.execute(accountNumber, command);
+        return optimisticRetryExecutor.execute(() -> toResponse(accountId));
+    }
+
+    private BankAccountResponseDto toResponse(Long accountId) {
+        BankAccount updatedAccount = bankAccountRepository.findById(accountId)
+                .orElseThrow(() -> new DataNotFoundException(accountId, "Cuenta bancaria"));
+        return withPendingCredits(bankAccountMapper.toBankAccountResponseDto(updatedAccount));
+    }
+
+    // Las lecturas de una cuenta caliente incluyen los créditos que aún no se aplicaron a la fila.
+    // Saldo y pendientes se leen en una sola consulta: un flush que confirma en medio no cambia el resultado.
+    private BankAccountResponseDto withPendingCredits(BankAccountResponseDto dto) {
+        if (dto != null && hotAccountCreditBuffer.isHot(dto.getAccountNumber())) {
+            bankAccountRepository.findBalanceWithPendingCreditsById(dto.getId())
+                    .map(Money::toDecimal)
+                    .ifPresent(dto::setBalance);
+        }
+        return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.exception.InvalidOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Posición en el historial de una cuenta, ordenado por (transactionDate, id) descendente.
+// Se entrega al cliente como texto opaco (Base64 URL) y la página siguiente empieza justo después.
+record HistoryCursor(LocalDateTime transactionDate, long id) {
+
+    // Posición anterior a cualquier transacción: la primera página usa la misma consulta que las demás.
+    static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(decoded.substring(0, separator)), Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException ex) {
+            throw new InvalidOperationException("El cursor de paginación no es válido.");
+        }
+    }
+
+    String encode() {
+        String raw = transactionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.money.Money;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Filtros del historial ya validados y con valores concretos para las consultas: sin parámetros nulos,
+// H2 sigue usando el rango (cuenta, transaction_date) del índice.
+//   - incoming/outgoing: transferencias recibidas/enviadas; deposit/withdrawal: operaciones sin contraparte.
+//   - el límite "to" se aplica como un cursor más: la lectura del índice empieza en el menor de los dos.
+record HistoryFilter(LocalDateTime from, LocalDateTime to, long minCents, long maxCents, Set<Direction> directions) {
+
+    enum Direction {
+        INCOMING, OUTGOING, DEPOSIT, WITHDRAWAL;
+
+        static Direction fromParameter(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidOperationException(String.format(
+                        "Dirección no soportada: %s. Use incoming, outgoing, deposit o withdrawal.", value));
+            }
+        }
+    }
+
+    // Anterior a cualquier transacción.
+    static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    static final HistoryFilter NONE = new HistoryFilter(EARLIEST, null, 0, Long.MAX_VALUE, EnumSet.allOf(Direction.class));
+
+    static HistoryFilter of(TransactionHistoryFilterDto dto) {
+        if (dto == null) {
+            return NONE;
+        }
+        LocalDateTime from = dto.getFrom() == null ? EARLIEST : dto.getFrom();
+        if (dto.getTo() != null && !from.isBefore(dto.getTo())) {
+            throw new InvalidOperationException("La fecha inicial debe ser anterior a la fecha final.");
+        }
+        long minCents = dto.getMinAmount() == null ? 0 : Money.toMinorUnits(dto.getMinAmount());
+        long maxCents = dto.getMaxAmount() == null ? Long.MAX_VALUE : Money.toMinorUnits(dto.getMaxAmount());
+        if (minCents < 0 || minCents > maxCents) {
+            throw new InvalidOperationException("El rango de montos no es válido.");
+        }
+        Set<Direction> directions = EnumSet.noneOf(Direction.class);
+        if (dto.getDirection() != null) {
+            for (String value : dto.getDirection()) {
+                if (value != null && !value.isBlank()) {
+                    directions.add(Direction.fromParameter(value));
+                }
+            }
+        }
+        return new HistoryFilter(from, dto.getTo(), minCents, maxCents,
+                directions.isEmpty() ? EnumSet.allOf(Direction.class) : directions);
+    }
+
+    // Salientes: transferencias enviadas (con destino) y/o retiros (sin destino).
+    boolean outgoing() {
+        return directions.contains(Direction.OUTGOING) || directions.contains(Direction.WITHDRAWAL);
+    }
+
+    boolean incoming() {
+        return directions.contains(Direction.INCOMING) || directions.contains(Direction.DEPOSIT);
+    }
+
+    // Posición desde la que se lee: el cursor del cliente o, si es posterior, el límite "to" (exclusivo).
+    HistoryCursor upperBound(HistoryCursor cursor) {
+        if (to != null && !cursor.transactionDate().isBefore(to)) {
+            return new HistoryCursor(to, Long.MIN_VALUE);
+        }
+        return cursor;
+    }
+}
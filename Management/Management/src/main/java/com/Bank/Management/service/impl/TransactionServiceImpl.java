@@ -1,22 +1,43 @@
 package com.Bank.Management.service.impl;
 
 
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.idempotency.IdempotencyScope;
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
 import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
 import com.Bank.Management.dto.response.TransactionResponseDto;
 import com.Bank.Management.entity.BankAccount;
 import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.journal.LedgerJournal;
 import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.TransactionSummary;
 import com.Bank.Management.mapper.TransactionMapper;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.sequencer.RollbackRequiredException;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
 import com.Bank.Management.service.TransactionService;
+import com.Bank.Management.sharding.CrossShardTransferCoordinator;
+import com.Bank.Management.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Service
@@ -25,80 +46,406 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
     private final TransactionMapper transactionMapper;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final HotAccountCreditBuffer hotAccountCreditBuffer;
+    private final ShardedCommandSequencer commandSequencer;
+    private final AccountLookupCache accountLookupCache;
+    private final LedgerJournal ledgerJournal;
+    private final AccountEventStore accountEventStore;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransferCoordinator crossShardTransferCoordinator;
+    private final int batchChunkSize;
+    private final int batchMaxSize;
+    private final int historyDefaultPageSize;
+    private final int historyMaxPageSize;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository, TransactionMapper transactionMapper) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository, TransactionMapper transactionMapper, AccountLockManager accountLockManager, OptimisticRetryExecutor optimisticRetryExecutor, HotAccountCreditBuffer hotAccountCreditBuffer, ShardedCommandSequencer commandSequencer,
+                                  AccountLookupCache accountLookupCache,
+                                  LedgerJournal ledgerJournal,
+                                  AccountEventStore accountEventStore,
+                                  ShardRouter shardRouter,
+                                  CrossShardTransferCoordinator crossShardTransferCoordinator,
+                                  @Value("${bank.batch.chunk-size:100}") int batchChunkSize,
+                                  @Value("${bank.batch.max-size:10000}") int batchMaxSize,
+                                  @Value("${bank.history.default-page-size:50}") int historyDefaultPageSize,
+                                  @Value("${bank.history.max-page-size:500}") int historyMaxPageSize) {
         this.transactionRepository = transactionRepository;
         this.bankAccountRepository = bankAccountRepository;
         this.transactionMapper = transactionMapper;
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.hotAccountCreditBuffer = hotAccountCreditBuffer;
+        this.commandSequencer = commandSequencer;
+        this.accountLookupCache = accountLookupCache;
+        this.ledgerJournal = ledgerJournal;
+        this.accountEventStore = accountEventStore;
+        this.shardRouter = shardRouter;
+        this.crossShardTransferCoordinator = crossShardTransferCoordinator;
+        this.batchChunkSize = Math.max(1, batchChunkSize);
+        this.batchMaxSize = batchMaxSize;
+        this.historyMaxPageSize = Math.max(1, historyMaxPageSize);
+        this.historyDefaultPageSize = Math.min(Math.max(1, historyDefaultPageSize), this.historyMaxPageSize);
     }
 
     @Override
-    @Transactional
     public TransactionResponseDto transfer(TransferRequestDto dto) {
-        if (dto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        validateTransfer(dto);
+
+        if (commandSequencer.isEnabled()) {
+            return transferSequenced(dto);
+        }
+
+        // Con shards, una transferencia dentro de un shard es una transacción local de ese shard; entre shards
+        // la coordina CrossShardTransferCoordinator.
+        if (shardRouter.isEnabled()) {
+            int sourceShard = shardRouter.shardOfAccount(dto.getSourceAccountNumber());
+            if (sourceShard != shardRouter.shardOfAccount(dto.getDestinationAccountNumber())) {
+                return crossShardTransferCoordinator.transfer(dto);
+            }
+            return shardRouter.call(sourceShard, () -> accountLockManager.callWithLocks(() ->
+                    optimisticRetryExecutor.execute(() -> applyTransfer(dto)), dto.getSourceAccountNumber(), dto.getDestinationAccountNumber()));
+        }
+
+        // Si el destino es una cuenta caliente su fila no se modifica, así que solo se bloquea el origen.
+        if (hotAccountCreditBuffer.isHot(dto.getDestinationAccountNumber())) {
+            return accountLockManager.callWithLocks(() -> optimisticRetryExecutor.execute(() -> applyTransfer(dto)),
+                    dto.getSourceAccountNumber());
+        }
+        return accountLockManager.callWithLocks(() -> optimisticRetryExecutor.execute(() -> applyTransfer(dto)),
+                dto.getSourceAccountNumber(), dto.getDestinationAccountNumber());
+    }
+
+    private void validateTransfer(TransferRequestDto dto) {
+        if (dto.getAmount() == null || dto.getSourceAccountNumber() == null || dto.getDestinationAccountNumber() == null) {
+            throw new InvalidOperationException("La cuenta de origen, la cuenta de destino y el monto son obligatorios.");
+        }
+
+        if (Money.toMinorUnits(dto.getAmount()) <= 0) {
             throw new InvalidOperationException("El monto a transferir debe ser positivo.");
         }
 
         if (dto.getSourceAccountNumber().equals(dto.getDestinationAccountNumber())) {
             throw new InvalidOperationException("La cuenta de origen y destino no pueden ser la misma.");
         }
+    }
 
-        BankAccount sourceAccount = bankAccountRepository.findByAccountNumber(dto.getSourceAccountNumber())
-                .orElseThrow(() -> new DataNotFoundException(dto.getSourceAccountNumber(), "Cuenta de origen"));
+    private TransactionResponseDto applyTransfer(TransferRequestDto dto) {
+        Long sourceId = findSourceAccountId(dto);
+        Long targetId = findTargetAccountId(dto);
 
-        BankAccount targetAccount = bankAccountRepository.findByAccountNumber(dto.getDestinationAccountNumber())
-                .orElseThrow(() -> new DataNotFoundException(dto.getDestinationAccountNumber(), "Cuenta de destino"));
+        long amount = Money.toMinorUnits(dto.getAmount());
+        boolean deferredCredit = hotAccountCreditBuffer.isHot(dto.getDestinationAccountNumber());
 
-        BigDecimal sourceBalance = BigDecimal.valueOf(sourceAccount.getBalance());
+        // Las filas se actualizan siempre en orden de id para que dos transferencias cruzadas
+        // no se bloqueen mutuamente en la base de datos. Si el débito falla se lanza la excepción
+        // y el crédito ya aplicado se revierte junto con la transacción.
+        if (deferredCredit) {
+            debit(sourceId, amount);
+        } else if (sourceId < targetId) {
+            debit(sourceId, amount);
+            credit(targetId, amount, dto.getDestinationAccountNumber());
+        } else {
+            credit(targetId, amount, dto.getDestinationAccountNumber());
+            debit(sourceId, amount);
+        }
 
-        if (sourceBalance.compareTo(dto.getAmount()) < 0) {
-            throw new InsufficientFundsException("Saldo insuficiente en la cuenta de origen.");
+        return recordTransfer(dto, sourceId, targetId, amount, deferredCredit);
+    }
+
+    // Modo "sequencer". Si ambas cuentas están en el mismo shard, la transferencia es un solo comando.
+    // Si no, se aplica en dos pasos:
+    //   1. En el shard de origen: débito y registro del movimiento con el crédito marcado como pendiente.
+    //   2. En el shard de destino: crédito y limpieza de la marca.
+    // Si el paso 2 falla, se compensa en el shard de origen (reintegro y borrado del movimiento).
+    // Si el proceso cae entre ambos pasos, la marca credit_pending hace que el crédito se aplique al arrancar.
+    private TransactionResponseDto transferSequenced(TransferRequestDto dto) {
+        if (commandSequencer.sameShard(dto.getSourceAccountNumber(), dto.getDestinationAccountNumber())) {
+            return commandSequencer.execute(dto.getSourceAccountNumber(), () -> applySequencedTransfer(dto));
+        }
+
+        PendingCreditIntent intent = commandSequencer.execute(dto.getSourceAccountNumber(), () -> debitWithPendingCredit(dto));
+        try {
+            commandSequencer.execute(dto.getDestinationAccountNumber(), () -> completePendingCredit(dto, intent));
+        } catch (RuntimeException ex) {
+            commandSequencer.execute(dto.getSourceAccountNumber(), () -> compensateDebit(intent));
+            throw ex;
+        }
+        return intent.response();
+    }
+
+    // Dentro de un lote del shard un error de negocio solo puede reportarse antes de escribir:
+    // si el crédito falla después del débito, el lote completo debe revertirse.
+    private TransactionResponseDto applySequencedTransfer(TransferRequestDto dto) {
+        Long sourceId = findSourceAccountId(dto);
+        Long targetId = findTargetAccountId(dto);
+        long amount = Money.toMinorUnits(dto.getAmount());
+        boolean deferredCredit = hotAccountCreditBuffer.isHot(dto.getDestinationAccountNumber());
+
+        debit(sourceId, amount);
+        if (!deferredCredit) {
+            try {
+                credit(targetId, amount, dto.getDestinationAccountNumber());
+            } catch (DataNotFoundException | InvalidOperationException ex) {
+                throw new RollbackRequiredException(ex);
+            }
+        }
+        return recordTransfer(dto, sourceId, targetId, amount, deferredCredit);
+    }
+
+    private PendingCreditIntent debitWithPendingCredit(TransferRequestDto dto) {
+        Long sourceId = findSourceAccountId(dto);
+        Long targetId = findTargetAccountId(dto);
+        long amount = Money.toMinorUnits(dto.getAmount());
+
+        debit(sourceId, amount);
+
+        Transaction transaction = newTransfer(dto, sourceId, targetId, amount);
+        transaction.setCreditPending(true);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerJournal.recordMovement(savedTransaction);
+        accountEventStore.recordMovement(savedTransaction);
+
+        return new PendingCreditIntent(savedTransaction.getId(), sourceId, targetId, amount,
+                transactionMapper.toTransactionResponseDto(savedTransaction));
+    }
+
+    private Void completePendingCredit(TransferRequestDto dto, PendingCreditIntent intent) {
+        // Una cuenta caliente conserva la marca: el buffer aplica el crédito junto con los demás.
+        if (hotAccountCreditBuffer.isHot(dto.getDestinationAccountNumber())) {
+            hotAccountCreditBuffer.deferCredit(dto.getDestinationAccountNumber(), intent.targetId(), intent.transactionId(), intent.amount());
+            return null;
+        }
+        credit(intent.targetId(), intent.amount(), dto.getDestinationAccountNumber());
+        accountEventStore.recordCredits(intent.targetId(), List.of(intent.transactionId()));
+        transactionRepository.clearCreditPending(List.of(intent.transactionId()));
+        return null;
+    }
+
+    private Void compensateDebit(PendingCreditIntent intent) {
+        bankAccountRepository.addToBalance(intent.sourceId(), intent.amount());
+        accountEventStore.recordReversal(intent.sourceId(), intent.transactionId(), intent.amount());
+        transactionRepository.deleteById(intent.transactionId());
+        ledgerJournal.recordCancel(intent.transactionId());
+        return null;
+    }
+
+    private record PendingCreditIntent(Long transactionId, Long sourceId, Long targetId, long amount,
+                                       TransactionResponseDto response) {
+    }
+
+    @Override
+    public List<BatchTransferResultDto> transferBatch(List<TransferRequestDto> transfers) {
+        if (transfers == null || transfers.isEmpty()) {
+            throw new InvalidOperationException("El lote de transferencias no puede estar vacío.");
+        }
+
+        if (transfers.size() > batchMaxSize) {
+            throw new InvalidOperationException(String.format("El lote admite como máximo %d transferencias.", batchMaxSize));
+        }
+
+        List<BatchTransferResultDto> results = new ArrayList<>(transfers.size());
+
+        // En modo "sequencer" cada transferencia pasa por su shard, que ya agrupa los comandos en lotes.
+        // Con shards de base de datos un grupo no cabe en una transacción si mezcla shards: también una por una.
+        if (commandSequencer.isEnabled() || shardRouter.isEnabled()) {
+            for (int i = 0; i < transfers.size(); i++) {
+                results.add(applyIndividually(i, transfers.get(i)));
+            }
+            return results;
         }
 
-        sourceAccount.setBalance(sourceBalance.subtract(dto.getAmount()).doubleValue());
+        for (int start = 0; start < transfers.size(); start += batchChunkSize) {
+            int end = Math.min(start + batchChunkSize, transfers.size());
+            results.addAll(applyChunk(transfers.subList(start, end), start));
+        }
+        return results;
+    }
+
+    // Cada grupo se aplica en una sola transacción, con los bloqueos de todas sus cuentas tomados a la vez.
+    // Si el grupo falla por algo que no es un error de negocio, se revierte completo y sus transferencias
+    // se reintentan una por una para aislar la que falla.
+    private List<BatchTransferResultDto> applyChunk(List<TransferRequestDto> chunk, int offset) {
+        String[] accountNumbers = chunk.stream()
+                .flatMap(dto -> Stream.of(dto.getSourceAccountNumber(), dto.getDestinationAccountNumber()))
+                .filter(Objects::nonNull)
+                .toArray(String[]::new);
+
+        try {
+            return accountLockManager.callWithLocks(() -> optimisticRetryExecutor.execute(() -> {
+                List<BatchTransferResultDto> chunkResults = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkResults.add(applyBatchItem(offset + i, chunk.get(i)));
+                }
+                return chunkResults;
+            }), accountNumbers);
+        } catch (RuntimeException ex) {
+            List<BatchTransferResultDto> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkResults.add(applyIndividually(offset + i, chunk.get(i)));
+            }
+            return chunkResults;
+        }
+    }
 
+    // Los errores de negocio se detectan antes de escribir (el débito condicional no modifica nada si falla),
+    // así que pueden reportarse por ítem sin revertir el resto del grupo.
+    private BatchTransferResultDto applyBatchItem(int index, TransferRequestDto dto) {
+        Long sourceId;
+        Long targetId;
+        long amount;
+        try {
+            validateTransfer(dto);
+            amount = Money.toMinorUnits(dto.getAmount());
+            sourceId = findSourceAccountId(dto);
+            targetId = findTargetAccountId(dto);
+            debit(sourceId, amount);
+        } catch (InvalidOperationException | DataNotFoundException | InsufficientFundsException ex) {
+            return BatchTransferResultDto.failed(index, ex.getMessage());
+        }
 
-        BigDecimal targetBalance = BigDecimal.valueOf(targetAccount.getBalance());
-        targetAccount.setBalance(targetBalance.add(dto.getAmount()).doubleValue());
+        boolean deferredCredit = hotAccountCreditBuffer.isHot(dto.getDestinationAccountNumber());
+        if (!deferredCredit) {
+            credit(targetId, amount, dto.getDestinationAccountNumber());
+        }
+        return BatchTransferResultDto.completed(index, recordTransfer(dto, sourceId, targetId, amount, deferredCredit));
+    }
 
-        bankAccountRepository.save(sourceAccount);
-        bankAccountRepository.save(targetAccount);
+    private BatchTransferResultDto applyIndividually(int index, TransferRequestDto dto) {
+        try {
+            return BatchTransferResultDto.completed(index, transfer(dto));
+        } catch (RuntimeException ex) {
+            return BatchTransferResultDto.failed(index, ex.getMessage());
+        }
+    }
 
+    private Long findSourceAccountId(TransferRequestDto dto) {
+        return accountLookupCache.findId(dto.getSourceAccountNumber())
+                .orElseThrow(() -> new DataNotFoundException(dto.getSourceAccountNumber(), "Cuenta de origen"));
+    }
+
+    private Long findTargetAccountId(TransferRequestDto dto) {
+        return accountLookupCache.findId(dto.getDestinationAccountNumber())
+                .orElseThrow(() -> new DataNotFoundException(dto.getDestinationAccountNumber(), "Cuenta de destino"));
+    }
+
+    private TransactionResponseDto recordTransfer(TransferRequestDto dto, Long sourceId, Long targetId, long amount, boolean deferredCredit) {
+        Transaction transaction = newTransfer(dto, sourceId, targetId, amount);
+        transaction.setCreditPending(deferredCredit);
+
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerJournal.recordMovement(savedTransaction);
+        accountEventStore.recordMovement(savedTransaction);
+
+        if (deferredCredit) {
+            hotAccountCreditBuffer.deferCredit(dto.getDestinationAccountNumber(), targetId, savedTransaction.getId(), amount);
+        }
+
+        return transactionMapper.toTransactionResponseDto(savedTransaction);
+    }
+
+    private Transaction newTransfer(TransferRequestDto dto, Long sourceId, Long targetId, long amount) {
         Transaction transaction = new Transaction();
-        transaction.setAmount(dto.getAmount().doubleValue());
+        transaction.setAmountCents(amount);
 
         transaction.setDescription("Transferencia de " + dto.getSourceAccountNumber() + " a " + dto.getDestinationAccountNumber());
 
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setSourceAccount(sourceAccount);
-        transaction.setTargetAccount(targetAccount);
+        transaction.setSourceAccount(bankAccountRepository.getReferenceById(sourceId));
+        transaction.setTargetAccount(bankAccountRepository.getReferenceById(targetId));
+        transaction.setIdempotencyKey(IdempotencyScope.current());
+        return transaction;
+    }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
+    // Si el origen es una cuenta caliente, sus créditos pendientes se aplican antes del débito condicional.
+    private void debit(Long accountId, long amount) {
+        hotAccountCreditBuffer.flushInCurrentTransaction(accountId);
+        if (bankAccountRepository.subtractFromBalanceIfSufficient(accountId, amount) == 0) {
+            throw new InsufficientFundsException("Saldo insuficiente en la cuenta de origen.");
+        }
+    }
 
-        return transactionMapper.toTransactionResponseDto(savedTransaction);
+    // 0 filas con la cuenta existente significa que el saldo de destino desbordaría.
+    private void credit(Long accountId, long amount, String accountNumber) {
+        if (bankAccountRepository.addToBalance(accountId, amount) == 0) {
+            if (bankAccountRepository.existsById(accountId)) {
+                throw new InvalidOperationException("El saldo resultante excede el máximo permitido.");
+            }
+            throw new DataNotFoundException(accountNumber, "Cuenta de destino");
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public TransactionResponseDto getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new DataNotFoundException(id, "Transacción"));
+        return shardRouter.call(shardRouter.shardOfId(id), () -> {
+            Transaction transaction = transactionRepository.findById(id)
+                    .orElseThrow(() -> new DataNotFoundException(id, "Transacción"));
+
+            return transactionMapper.toTransactionResponseDto(transaction);
+        });
+    }
 
-        return transactionMapper.toTransactionResponseDto(transaction);
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TransactionResponseDto> findByIdempotencyKey(String sourceAccountNumber, String idempotencyKey) {
+        return shardRouter.call(shardRouter.shardOfAccount(sourceAccountNumber), () ->
+                transactionRepository.findFirstByIdempotencyKey(idempotencyKey).map(transactionMapper::toTransactionResponseDto));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TransactionResponseDto> getHistoryByAccountNumber(String accountNumber) {
-        BankAccount account = bankAccountRepository.findByAccountNumber(accountNumber)
+    public TransactionHistoryPageDto getHistoryByAccountNumber(String accountNumber, String cursor, Integer size, TransactionHistoryFilterDto filter) {
+        return shardRouter.call(shardRouter.shardOfAccount(accountNumber), () -> historyPage(accountNumber, cursor, size, filter));
+    }
+
+    private TransactionHistoryPageDto historyPage(String accountNumber, String cursor, Integer size, TransactionHistoryFilterDto filter) {
+        int pageSize = historyPageSize(size);
+        HistoryFilter criteria = HistoryFilter.of(filter);
+        HistoryCursor position = criteria.upperBound(HistoryCursor.decode(cursor));
+        Long accountId = accountLookupCache.findId(accountNumber)
                 .orElseThrow(() -> new DataNotFoundException(accountNumber, "Cuenta Bancaria"));
 
+        // Se pide un elemento de más en cada dirección para saber si existe una página siguiente.
+        // Cada consulta lee como máximo pageSize + 1 entradas del índice, sin importar lo profundo de la página;
+        // después una sola consulta trae esas filas ya proyectadas y ordenadas, con los números de cuenta.
+        // En total son 3 sentencias SQL por página (4 si el número de cuenta no está en AccountLookupCache),
+        // sin importar el tamaño del historial; si los filtros excluyen una dirección completa su consulta
+        // no se ejecuta.
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Long> ids = new ArrayList<>();
+        if (criteria.outgoing()) {
+            ids.addAll(transactionRepository.findOutgoingIdsBefore(accountId, criteria.from(), position.transactionDate(), position.id(),
+                    criteria.minCents(), criteria.maxCents(),
+                    criteria.directions().contains(HistoryFilter.Direction.OUTGOING),
+                    criteria.directions().contains(HistoryFilter.Direction.WITHDRAWAL), limit));
+        }
+        if (criteria.incoming()) {
+            ids.addAll(transactionRepository.findIncomingIdsBefore(accountId, criteria.from(), position.transactionDate(), position.id(),
+                    criteria.minCents(), criteria.maxCents(),
+                    criteria.directions().contains(HistoryFilter.Direction.INCOMING),
+                    criteria.directions().contains(HistoryFilter.Direction.DEPOSIT), limit));
+        }
+        List<TransactionSummary> merged = ids.isEmpty() ? List.of() : transactionRepository.findSummariesByIdIn(ids);
 
-        List<Transaction> outgoing = account.getOutgoingTransactions();
-        List<Transaction> incoming = account.getIncomingTransactions();
+        boolean hasMore = merged.size() > pageSize;
+        List<TransactionSummary> page = hasMore ? merged.subList(0, pageSize) : merged;
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionSummary last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+
+        return new TransactionHistoryPageDto(transactionMapper.toTransactionResponseDtos(page), nextCursor, pageSize);
+    }
 
-        return Stream.concat(outgoing.stream(), incoming.stream())
-                .map(transactionMapper::toTransactionResponseDto)
-                .toList();
+    private int historyPageSize(Integer size) {
+        if (size == null) {
+            return historyDefaultPageSize;
+        }
+        if (size < 1 || size > historyMaxPageSize) {
+            throw new InvalidOperationException(String.format("El tamaño de página debe estar entre 1 y %d.", historyMaxPageSize));
+        }
+        return size;
     }
-}
\ No newline at end of file
+}
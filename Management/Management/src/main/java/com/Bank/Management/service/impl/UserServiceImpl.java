@@ -1,28 +1,61 @@
 package com.Bank.Management.service.impl;
 
+import com.Bank.Management.cache.AccountLookupCache;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.DuplicatedDataException;
+import com.Bank.Management.exception.InvalidOperationException;
 import com.Bank.Management.dto.request.UserRegistrationDto;
 import com.Bank.Management.dto.request.UpdateUserDTO;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.UserPageDto;
 import com.Bank.Management.dto.response.UserResponseDto;
 import com.Bank.Management.entity.User;
+import com.Bank.Management.mapper.BankAccountMapper;
 import com.Bank.Management.mapper.UserMapper;
+import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.repository.projection.AccountSummary;
+import com.Bank.Management.repository.projection.UserSummary;
 import com.Bank.Management.service.UserService;
+import com.Bank.Management.sharding.ShardRouter;
+import com.Bank.Management.sharding.ShardTransactions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // 👈 1. Importación necesaria
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper) {
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountLookupCache accountLookupCache;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+    private final BankAccountMapper bankAccountMapper;
+    private final int usersDefaultPageSize;
+    private final int usersMaxPageSize;
+
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper,
+                           BankAccountRepository bankAccountRepository, AccountLookupCache accountLookupCache,
+                           ShardRouter shardRouter, ShardTransactions shardTransactions, BankAccountMapper bankAccountMapper,
+                           @Value("${bank.users.default-page-size:50}") int usersDefaultPageSize,
+                           @Value("${bank.users.max-page-size:500}") int usersMaxPageSize) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountLookupCache = accountLookupCache;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+        this.bankAccountMapper = bankAccountMapper;
+        this.usersDefaultPageSize = usersDefaultPageSize;
+        this.usersMaxPageSize = usersMaxPageSize;
     }
 
     @Override
@@ -41,19 +74,68 @@ public class UserServiceImpl implements UserService {
         return userMapper.toUserResponseDto(savedUser);
     }
 
+    // Listado paginado por id. Sin includeAccounts es una sola consulta de proyección por página; con
+    // includeAccounts se suma una consulta con entity graph para los usuarios de la página y sus cuentas
+    // (las transacciones de las cuentas nunca se cargan aquí). Son 1 o 2 sentencias sin importar los datos.
     @Override
-    public List<UserResponseDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-                .map(userMapper::toUserResponseDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public UserPageDto getUsers(Long afterId, Integer size, boolean includeAccounts) {
+        int pageSize = usersPageSize(size);
+        List<UserSummary> summaries = userRepository.findSummariesAfter(afterId == null ? 0L : afterId, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = summaries.size() > pageSize;
+        List<UserSummary> page = hasMore ? summaries.subList(0, pageSize) : summaries;
+        List<UserResponseDto> users;
+        if (includeAccounts && !page.isEmpty()) {
+            users = userMapper.toUserResponseDtoList(userRepository.findWithBankAccountsByIdIn(page.stream().map(UserSummary::id).toList()));
+            addAccountsFromOtherShards(users);
+        } else {
+            users = userMapper.toUserResponseDtos(page);
+        }
+        Long nextAfterId = hasMore ? page.get(page.size() - 1).id() : null;
+        return new UserPageDto(users, nextAfterId, pageSize);
+    }
+
+    private int usersPageSize(Integer size) {
+        if (size == null) {
+            return usersDefaultPageSize;
+        }
+        if (size < 1 || size > usersMaxPageSize) {
+            throw new InvalidOperationException(String.format("El tamaño de página debe estar entre 1 y %d.", usersMaxPageSize));
+        }
+        return size;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponseDto getUserById(Long id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithBankAccountsById(id)
                 .orElseThrow(() -> new DataNotFoundException(id, "Usuario"));
-        return userMapper.toUserResponseDto(user);
+        UserResponseDto response = userMapper.toUserResponseDto(user);
+        addAccountsFromOtherShards(List.of(response));
+        return response;
+    }
+
+    // Con shards, el entity graph del shard 0 solo trae las cuentas de ese shard: las demás se leen con una
+    // consulta por shard para todos los usuarios a la vez.
+    private void addAccountsFromOtherShards(List<UserResponseDto> users) {
+        if (!shardRouter.isEnabled() || users.isEmpty()) {
+            return;
+        }
+        Map<Long, UserResponseDto> byId = new HashMap<>();
+        for (UserResponseDto user : users) {
+            if (user.getBankAccounts() == null) {
+                user.setBankAccounts(new ArrayList<>());
+            }
+            byId.put(user.getId(), user);
+        }
+        for (int shard = 1; shard < shardRouter.size(); shard++) {
+            List<AccountSummary> summaries = shardTransactions.read(shard, () -> bankAccountRepository.findSummariesByUserIdIn(byId.keySet()));
+            for (BankAccountResponseDto account : bankAccountMapper.toBankAccountResponseDtos(summaries)) {
+                byId.get(account.getUserId()).getBankAccounts().add(account);
+            }
+        }
+        users.forEach(user -> user.getBankAccounts().sort(Comparator.comparing(BankAccountResponseDto::getId)));
     }
 
     @Override
@@ -73,15 +155,35 @@ public class UserServiceImpl implements UserService {
         userMapper.updateUserFromDto(updateUserDTO, userToUpdate);
 
         User updatedUser = userRepository.save(userToUpdate);
+        // Las copias del usuario en los demás shards (ver BankAccountServiceImpl.createAccount) siguen al original.
+        for (int shard = 1; shard < shardRouter.size(); shard++) {
+            shardTransactions.write(shard, () -> userRepository.updateCopy(updatedUser.getId(), updatedUser.getUsername(),
+                    updatedUser.getEmail(), updatedUser.getPassword(), updatedUser.getDni()));
+        }
         return userMapper.toUserResponseDto(updatedUser);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         if (!userRepository.existsById(id)) {
             throw new DataNotFoundException(id, "Usuario");
         }
+        // Las cuentas del usuario se borran en cascada: sus números dejan de resolverse al confirmar.
+        // Con shards se borran primero la copia del usuario y sus cuentas en los demás shards.
+        for (int shard = 1; shard < shardRouter.size(); shard++) {
+            shardTransactions.write(shard, () -> {
+                if (userRepository.existsById(id)) {
+                    List<String> shardAccountNumbers = bankAccountRepository.findAccountNumbersByUserId(id);
+                    userRepository.deleteById(id);
+                    accountLookupCache.invalidateAfterCommit(shardAccountNumbers);
+                }
+                return null;
+            });
+        }
+        List<String> accountNumbers = bankAccountRepository.findAccountNumbersByUserId(id);
         userRepository.deleteById(id);
+        accountLookupCache.invalidateAfterCommit(accountNumbers);
     }
 }
 
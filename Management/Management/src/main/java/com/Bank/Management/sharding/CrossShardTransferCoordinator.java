@@ -0,0 +1,177 @@
+package com.Bank.Management.sharding;
+
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.idempotency.IdempotencyScope;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.PendingTransferView;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Transferencias entre cuentas de distintos shards. Cada paso es una transacción local de un shard:
+//   1. Origen: débito y movimiento con el crédito pendiente (credit_pending). La cuenta de destino queda como
+//      número (counterpart_account_number): su fila está en otro shard.
+//   2. Destino: crédito y copia del movimiento con el mismo id, con la cuenta de origen como número.
+//   3. Origen: se limpia la marca.
+// Si el paso 2 falla y la copia no está en el destino, se compensa en el origen (reintegro y borrado del
+// movimiento). Un fallo ambiguo (el commit del destino pudo haber ocurrido) se resuelve buscando la copia: si existe
+// el crédito está hecho y no se compensa; si no se puede consultar, la marca queda. Si el proceso cae entre pasos,
+// al arrancar se retoma cada movimiento marcado; el paso 2 ya está hecho si la copia existe.
+@Component
+@DependsOn("shardSchemaInitializer")
+public class CrossShardTransferCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossShardTransferCoordinator.class);
+
+    private final ShardRouter shardRouter;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountLookupCache accountLookupCache;
+    private final AccountLockManager accountLockManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    public CrossShardTransferCoordinator(ShardRouter shardRouter, BankAccountRepository bankAccountRepository,
+                                         TransactionRepository transactionRepository, AccountLookupCache accountLookupCache,
+                                         AccountLockManager accountLockManager, OptimisticRetryExecutor optimisticRetryExecutor) {
+        this.shardRouter = shardRouter;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountLookupCache = accountLookupCache;
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+    }
+
+    // Los créditos que quedaron a medias se aplican antes de atender operaciones nuevas.
+    @PostConstruct
+    public void recoverPendingTransfers() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            int sourceShard = shard;
+            for (PendingTransferView view : shardRouter.call(shard, transactionRepository::findPendingCrossShardTransfers)) {
+                PendingTransfer transfer = new PendingTransfer(view.getId(), view.getSourceAccountId(), view.getSourceAccountNumber(),
+                        view.getTargetAccountNumber(), view.getAmountCents(), view.getTransactionDate(), view.getDescription());
+                try {
+                    complete(sourceShard, transfer);
+                } catch (RuntimeException ex) {
+                    // Compensada, o con la marca todavía puesta para la próxima pasada.
+                    log.warn("No se pudo completar la transferencia entre shards {}: {}", transfer.id(), ex.toString());
+                }
+            }
+        }
+    }
+
+    // Las cuentas se validan antes de escribir: sin destino no se debita el origen.
+    public TransactionResponseDto transfer(TransferRequestDto dto) {
+        int sourceShard = shardRouter.shardOfAccount(dto.getSourceAccountNumber());
+        Long sourceId = findId(sourceShard, dto.getSourceAccountNumber(), "Cuenta de origen");
+        findId(shardRouter.shardOfAccount(dto.getDestinationAccountNumber()), dto.getDestinationAccountNumber(), "Cuenta de destino");
+        long amount = Money.toMinorUnits(dto.getAmount());
+
+        PendingTransfer transfer = shardRouter.call(sourceShard, () -> accountLockManager.callWithLocks(() ->
+                optimisticRetryExecutor.execute(() -> debit(dto, sourceId, amount)), dto.getSourceAccountNumber()));
+        complete(sourceShard, transfer);
+        return new TransactionResponseDto(transfer.id(), Money.toDecimal(transfer.amount()), transfer.transactionDate(),
+                transfer.description(), transfer.sourceAccountNumber(), transfer.targetAccountNumber());
+    }
+
+    private void complete(int sourceShard, PendingTransfer transfer) {
+        int targetShard = shardRouter.shardOfAccount(transfer.targetAccountNumber());
+        try {
+            Long targetId = findId(targetShard, transfer.targetAccountNumber(), "Cuenta de destino");
+            shardRouter.call(targetShard, () -> accountLockManager.callWithLocks(() ->
+                    optimisticRetryExecutor.execute(() -> credit(transfer, targetId)), transfer.targetAccountNumber()));
+        } catch (RuntimeException ex) {
+            if (!isCredited(targetShard, transfer, ex)) {
+                shardRouter.call(sourceShard, () -> accountLockManager.callWithLocks(() ->
+                        optimisticRetryExecutor.execute(() -> compensate(transfer)), transfer.sourceAccountNumber()));
+                throw ex;
+            }
+        }
+        // Con el crédito confirmado la transferencia ya está hecha: si no se puede limpiar la marca, queda para
+        // recoverPendingTransfers, que encuentra la copia y solo la limpia.
+        try {
+            shardRouter.call(sourceShard, () -> optimisticRetryExecutor.execute(() ->
+                    transactionRepository.clearCreditPending(List.of(transfer.id()))));
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    // La copia con el mismo id en el destino es la prueba de que el crédito se confirmó. Si ni eso se puede consultar
+    // no se sabe si compensar: se relanza el error original y la marca queda para recoverPendingTransfers.
+    private boolean isCredited(int targetShard, PendingTransfer transfer, RuntimeException failure) {
+        try {
+            return shardRouter.call(targetShard, () -> transactionRepository.existsById(transfer.id()));
+        } catch (RuntimeException lookupFailure) {
+            failure.addSuppressed(lookupFailure);
+            throw failure;
+        }
+    }
+
+    private Long findId(int shard, String accountNumber, String label) {
+        return shardRouter.call(shard, () -> accountLookupCache.findId(accountNumber))
+                .orElseThrow(() -> new DataNotFoundException(accountNumber, label));
+    }
+
+    private PendingTransfer debit(TransferRequestDto dto, Long sourceId, long amount) {
+        if (bankAccountRepository.subtractFromBalanceIfSufficient(sourceId, amount) == 0) {
+            throw new InsufficientFundsException("Saldo insuficiente en la cuenta de origen.");
+        }
+        Transaction transaction = new Transaction();
+        transaction.setAmountCents(amount);
+        transaction.setDescription("Transferencia de " + dto.getSourceAccountNumber() + " a " + dto.getDestinationAccountNumber());
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setSourceAccount(bankAccountRepository.getReferenceById(sourceId));
+        transaction.setCounterpartAccountNumber(dto.getDestinationAccountNumber());
+        transaction.setCreditPending(true);
+        transaction.setIdempotencyKey(IdempotencyScope.current());
+        Transaction saved = transactionRepository.save(transaction);
+        return new PendingTransfer(saved.getId(), sourceId, dto.getSourceAccountNumber(), dto.getDestinationAccountNumber(),
+                amount, saved.getTransactionDate(), saved.getDescription());
+    }
+
+    // 0 filas con la cuenta existente significa que el saldo de destino desbordaría.
+    private Void credit(PendingTransfer transfer, Long targetId) {
+        if (transactionRepository.existsById(transfer.id())) {
+            return null;
+        }
+        if (bankAccountRepository.addToBalance(targetId, transfer.amount()) == 0) {
+            if (bankAccountRepository.existsById(targetId)) {
+                throw new InvalidOperationException("El saldo resultante excede el máximo permitido.");
+            }
+            throw new DataNotFoundException(transfer.targetAccountNumber(), "Cuenta de destino");
+        }
+        transactionRepository.insertIncomingCopy(transfer.id(), transfer.amount(), transfer.transactionDate(),
+                transfer.description(), targetId, transfer.sourceAccountNumber());
+        return null;
+    }
+
+    // Sin exactamente una fila reintegrada la transacción se revierte y la marca queda.
+    private Void compensate(PendingTransfer transfer) {
+        if (bankAccountRepository.addToBalance(transfer.sourceId(), transfer.amount()) != 1) {
+            throw new IllegalStateException("No se pudo reintegrar la transferencia entre shards " + transfer.id() + " en la cuenta de origen.");
+        }
+        transactionRepository.deleteById(transfer.id());
+        return null;
+    }
+
+    private record PendingTransfer(Long id, Long sourceId, String sourceAccountNumber, String targetAccountNumber,
+                                   long amount, LocalDateTime transactionDate, String description) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.Bank.Management.sharding;
+
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.InitialValueAwareOptimizer;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledOptimizer;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Optimizador "pooled" con un bloque de ids por shard. Con un único bloque en memoria, un id reservado de la
+// secuencia de un shard podría usarse para insertar en otro y dejaría de indicar dónde está la fila.
+// Hibernate lo usa en lugar del "pooled" estándar solo con shards (hibernate.id.optimizer.pooled.preferred).
+public class ShardAwarePooledOptimizer implements Optimizer, InitialValueAwareOptimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+    private final Map<Integer, PooledOptimizer> shards = new ConcurrentHashMap<>();
+    private volatile long initialValue = -1;
+
+    public ShardAwarePooledOptimizer(Class<?> returnClass, int incrementSize) {
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        return current().generate(callback);
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return current().getLastSourceValue();
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    @Override
+    public void injectInitialValue(long initialValue) {
+        this.initialValue = initialValue;
+    }
+
+    private PooledOptimizer current() {
+        return shards.computeIfAbsent(ShardRouter.currentShard(), shard -> {
+            PooledOptimizer optimizer = new PooledOptimizer(returnClass, incrementSize);
+            optimizer.injectInitialValue(initialValue);
+            return optimizer;
+        });
+    }
+}
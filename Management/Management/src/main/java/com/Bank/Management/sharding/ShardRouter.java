@@ -0,0 +1,110 @@
+package com.Bank.Management.sharding;
+
+import com.Bank.Management.accountnumber.AccountNumbers;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Shards de BANK_ACCOUNTS, USERS y TRANSACTION, y de lo que se deriva de ellos (fotos de saldo, extractos). El
+// shard 0 es la base de spring.datasource.url y guarda además las tablas globales (secuencia de números de cuenta,
+// idempotencia, etc.); cada URL de bank.sharding.shards agrega un shard con el mismo esquema.
+//   - Una cuenta vive en el shard "correlativo de su número mod N"; sus movimientos, en el mismo shard.
+//   - Los ids de cada shard empiezan en shard << ID_SHARD_SHIFT (ver ShardSchemaInitializer), así que el id
+//     también indica el shard.
+// El shard de cada hilo se fija con call/run. La conexión se pide con la primera sentencia de la transacción
+// (LazyConnectionDataSourceProxy), por lo que alcanza con fijarlo al comienzo de un método @Transactional,
+// antes de cualquier consulta. Una transacción usa un solo shard.
+public class ShardRouter implements Closeable {
+
+    public static final int ID_SHARD_SHIFT = 48;
+
+    // Estático porque también lo lee ShardAwarePooledOptimizer, que instancia Hibernate.
+    private static final ThreadLocal<Integer> CURRENT = ThreadLocal.withInitial(() -> 0);
+
+    private final DataSource primary;
+    private final List<HikariDataSource> shards;
+
+    // primary es el shard 0 (su pool lo cierra ReadWriteRoutingDataSource); shards son los demás, en orden.
+    public ShardRouter(DataSource primary, List<HikariDataSource> shards) {
+        this.primary = primary;
+        this.shards = List.copyOf(shards);
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int size() {
+        return shards.size() + 1;
+    }
+
+    public int shardOfAccount(String accountNumber) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long key = AccountNumbers.isValid(accountNumber) ? AccountNumbers.serialOf(accountNumber) : accountNumber.hashCode();
+        return (int) Math.floorMod(key, (long) size());
+    }
+
+    // Un id fuera de los rangos asignados se busca en el shard 0 (y no se encuentra).
+    public int shardOfId(Long id) {
+        if (!isEnabled() || id == null || id < 0) {
+            return 0;
+        }
+        long shard = id >>> ID_SHARD_SHIFT;
+        return shard < size() ? (int) shard : 0;
+    }
+
+    public static long firstIdOf(int shard) {
+        return (long) shard << ID_SHARD_SHIFT;
+    }
+
+    public static int currentShard() {
+        return CURRENT.get();
+    }
+
+    public <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Pool del shard, para accesos fuera de la transacción en curso.
+    public DataSource dataSource(int shard) {
+        return shard == 0 ? primary : shards.get(shard - 1);
+    }
+
+    public DataSource routingDataSource() {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < size(); shard++) {
+            targets.put(shard, dataSource(shard));
+        }
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,13 @@
+package com.Bank.Management.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Entrega conexiones del shard fijado en el hilo (ver ShardRouter). Va detrás de un LazyConnectionDataSourceProxy
+// para que la conexión se elija con la primera sentencia y no al empezar la transacción.
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+}
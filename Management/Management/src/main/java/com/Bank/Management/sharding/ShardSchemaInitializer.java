@@ -0,0 +1,72 @@
+package com.Bank.Management.sharding;
+
+import jakarta.annotation.PostConstruct;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Prepara los shards al arrancar, después de que Hibernate procesó el shard 0:
+//   1. En los demás shards aplica la misma acción de esquema (spring.jpa.hibernate.ddl-auto) con el modelo de
+//      Hibernate, así que las tablas evolucionan igual que en el shard 0.
+//   2. Reinicia cada secuencia de ids del shard k en k << ID_SHARD_SHIFT (solo si todavía está por debajo):
+//      los ids de un shard no se repiten en otro e indican el shard (ver ShardRouter.shardOfId).
+// El shard 0 conserva sus ids, así que una base existente puede pasar a ser el shard 0.
+@Component
+@DependsOn("entityManagerFactory")
+public class ShardSchemaInitializer {
+
+    private final ShardRouter shardRouter;
+    private final ShardSchemaMetadata shardSchemaMetadata;
+
+    public ShardSchemaInitializer(ShardRouter shardRouter, ShardSchemaMetadata shardSchemaMetadata) {
+        this.shardRouter = shardRouter;
+        this.shardSchemaMetadata = shardSchemaMetadata;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        Metadata metadata = shardSchemaMetadata.getMetadata();
+        SessionFactoryImplementor sessionFactory = shardSchemaMetadata.getSessionFactory();
+        if (metadata == null || sessionFactory == null) {
+            throw new IllegalStateException("Hibernate no entregó el modelo para crear el esquema de los shards.");
+        }
+        List<Sequence> sequences = new ArrayList<>();
+        for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+            namespace.getSequences().forEach(sequences::add);
+        }
+
+        for (int shard = 1; shard < shardRouter.size(); shard++) {
+            // Las conexiones de Hibernate pasan por el DataSource con ruteo: toman el shard del hilo.
+            shardRouter.run(shard, () -> SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                    sessionFactory.getProperties(), action -> {
+                    }));
+            positionSequences(shard, sequences);
+        }
+    }
+
+    private void positionSequences(int shard, List<Sequence> sequences) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRouter.dataSource(shard));
+        long firstId = ShardRouter.firstIdOf(shard);
+        for (Sequence sequence : sequences) {
+            String name = sequence.getName().getSequenceName().getText();
+            Long current = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where upper(sequence_name) = upper(?)", Long.class, name);
+            if (current == null || current > firstId) {
+                continue;
+            }
+            // Con el optimizador "pooled" el valor leído es el final del bloque: el primer id queda en firstId + 1.
+            jdbcTemplate.execute("alter sequence " + name + " restart with " + (firstId + sequence.getIncrementSize()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.Bank.Management.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+// Guarda el modelo que Hibernate armó al iniciar, para aplicar el mismo esquema en los demás shards.
+public class ShardSchemaMetadata implements Integrator {
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public SessionFactoryImplementor getSessionFactory() {
+        return sessionFactory;
+    }
+}
@@ -0,0 +1,35 @@
+package com.Bank.Management.sharding;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Transacción propia en un shard, para operaciones que recorren varios shards: cada una suspende la transacción
+// en curso (que queda atada a la conexión de su shard) y pide una conexión nueva del shard indicado.
+@Component
+public class ShardTransactions {
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public ShardTransactions(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T read(int shard, Supplier<T> action) {
+        return shardRouter.call(shard, () -> readTransaction.execute(status -> action.get()));
+    }
+
+    public <T> T write(int shard, Supplier<T> action) {
+        return shardRouter.call(shard, () -> writeTransaction.execute(status -> action.get()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.Bank.Management.sharding;
+
+import com.Bank.Management.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cada URL de bank.sharding.shards es un shard más (1, 2, ...) con su propio pool, armado con los mismos
+// spring.datasource.hikari.*, usuario y contraseña que el primario (shard 0). Sin URLs no hay shards y todo
+// queda como antes. Para probar localmente cada shard puede ser otra base H2 en archivo o en memoria.
+// Las funciones que suponen una sola base no se combinan con shards: se valida al arrancar.
+@Configuration
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardRouter shardRouter(ReadWriteRoutingDataSource readWriteRoutingDataSource, DataSourceProperties properties,
+                                   Environment environment,
+                                   @Value("${bank.sharding.shards:}") List<String> shardUrls) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (String url : shardUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + (shards.size() + 1));
+            shards.add(shard);
+        }
+        if (!shards.isEmpty()) {
+            try {
+                checkCompatible(environment, readWriteRoutingDataSource);
+            } catch (IllegalStateException ex) {
+                shards.forEach(HikariDataSource::close);
+                throw ex;
+            }
+        }
+        return new ShardRouter(readWriteRoutingDataSource.getPrimary(), shards);
+    }
+
+    // Con shards: un bloque de ids por shard (ver ShardAwarePooledOptimizer) y el modelo de Hibernate a mano para
+    // crear el esquema en los demás shards (ver ShardSchemaInitializer).
+    @Bean
+    public ShardSchemaMetadata shardSchemaMetadata() {
+        return new ShardSchemaMetadata();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateProperties(ShardRouter shardRouter, ShardSchemaMetadata shardSchemaMetadata) {
+        return hibernateProperties -> {
+            if (!shardRouter.isEnabled()) {
+                return;
+            }
+            hibernateProperties.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, ShardAwarePooledOptimizer.class.getName());
+            hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(shardSchemaMetadata));
+        };
+    }
+
+    private void checkCompatible(Environment environment, ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        List<String> conflicts = new ArrayList<>();
+        if (readWriteRoutingDataSource.hasReplicas()) {
+            conflicts.add("bank.datasource.replicas");
+        }
+        if ("sequencer".equalsIgnoreCase(environment.getProperty("bank.execution.mode", "locking"))) {
+            conflicts.add("bank.execution.mode=sequencer");
+        }
+        if (!environment.getProperty("bank.hot-accounts.numbers", "").isBlank()) {
+            conflicts.add("bank.hot-accounts.numbers");
+        }
+        if (environment.getProperty("bank.journal.enabled", Boolean.class, false)) {
+            conflicts.add("bank.journal.enabled");
+        }
+        if (environment.getProperty("bank.event-sourcing.enabled", Boolean.class, false)) {
+            conflicts.add("bank.event-sourcing.enabled");
+        }
+        // Con el EntityManager abierto durante toda la solicitud, una transferencia entre shards reutilizaría
+        // la conexión del primer shard en el segundo.
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            conflicts.add("spring.jpa.open-in-view (debe ser false)");
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("bank.sharding.shards no se puede combinar con: " + String.join(", ", conflicts));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.Bank.Management.snapshot;
+
+import com.Bank.Management.dto.response.BalanceSnapshotRunDto;
+import com.Bank.Management.entity.BalanceSnapshotRun;
+import com.Bank.Management.entity.BalanceSnapshotRunStatus;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.BalanceSnapshotRepository;
+import com.Bank.Management.repository.BalanceSnapshotRunRepository;
+import com.Bank.Management.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fotos diarias del saldo de cada cuenta (ACCOUNT_BALANCE_SNAPSHOTS), para responder "saldo de la cuenta X
+// a la fecha D" sin recorrer todo su historial.
+// Cada día a bank.snapshots.close-time se genera la foto del día anterior: la foto de cada cuenta es la del día
+// previo más los movimientos del día, así que el trabajo diario no crece con la antigüedad de la cuenta.
+// Las cuentas se reparten en particiones (id mod partitions) que se procesan en paralelo, en bloques con su
+// propia transacción. El estado del día queda en BALANCE_SNAPSHOT_RUNS: si el proceso cae, el día queda en
+// RUNNING y la próxima pasada (al arrancar o al siguiente cierre) lo retoma generando solo las fotos que faltan.
+// Con shards cada shard guarda las fotos y el estado de sus propias cuentas, y los días se generan shard por shard.
+@Component
+public class BalanceSnapshotJob {
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final BalanceSnapshotRunRepository balanceSnapshotRunRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final LocalTime closeTime;
+    private final int partitions;
+    private final int chunkSize;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final ExecutorService partitionExecutor;
+    private ScheduledExecutorService scheduler;
+
+    public BalanceSnapshotJob(BalanceSnapshotRepository balanceSnapshotRepository,
+                              BalanceSnapshotRunRepository balanceSnapshotRunRepository,
+                              PlatformTransactionManager transactionManager,
+                              ShardRouter shardRouter,
+                              @Value("${bank.snapshots.enabled:true}") boolean enabled,
+                              @Value("${bank.snapshots.close-time:00:05}") String closeTime,
+                              @Value("${bank.snapshots.partitions:4}") int partitions,
+                              @Value("${bank.snapshots.chunk-size:500}") int chunkSize) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.balanceSnapshotRunRepository = balanceSnapshotRunRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.closeTime = LocalTime.parse(closeTime);
+        this.partitions = Math.max(1, partitions);
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.partitionExecutor = Executors.newFixedThreadPool(this.partitions, runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshot-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Al arrancar se completan los días pendientes (incluido uno interrumpido) y se programa el próximo cierre.
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshot-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::catchUpQuietly);
+        scheduleNextClose();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        partitionExecutor.shutdownNow();
+    }
+
+    // Genera los días que faltan hasta ayer en cada shard: primero los interrumpidos y luego los posteriores al
+    // último día completo. Sin ningún día completo se empieza por ayer.
+    public List<BalanceSnapshotRunDto> catchUp() {
+        List<BalanceSnapshotRunDto> runs = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            runs.addAll(shardRouter.call(shard, this::catchUpShard));
+        }
+        return runs;
+    }
+
+    // Genera (o completa) las fotos de un día ya cerrado en todos los shards. Volver a ejecutar un día no
+    // modifica las fotos existentes.
+    public BalanceSnapshotRunDto run(LocalDate day) {
+        if (!day.isBefore(LocalDate.now())) {
+            throw new InvalidOperationException("Solo se pueden generar fotos de saldo de días ya cerrados.");
+        }
+        List<BalanceSnapshotRunDto> runs = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            runs.add(shardRouter.call(shard, () -> runShard(day)));
+        }
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        return new BalanceSnapshotRunDto(day, BalanceSnapshotRunStatus.COMPLETED,
+                runs.stream().mapToLong(BalanceSnapshotRunDto::getAccounts).sum(),
+                runs.get(0).getStartedAt(), runs.get(runs.size() - 1).getFinishedAt());
+    }
+
+    private List<BalanceSnapshotRunDto> catchUpShard() {
+        LocalDate lastClosedDay = LocalDate.now().minusDays(1);
+        List<BalanceSnapshotRunDto> runs = new ArrayList<>();
+        for (BalanceSnapshotRun interrupted : balanceSnapshotRunRepository.findByStatusOrderBySnapshotDateAsc(BalanceSnapshotRunStatus.RUNNING)) {
+            runs.add(runShard(interrupted.getSnapshotDate()));
+        }
+
+        LocalDate day = balanceSnapshotRunRepository.findFirstByStatusOrderBySnapshotDateDesc(BalanceSnapshotRunStatus.COMPLETED)
+                .map(completed -> completed.getSnapshotDate().plusDays(1))
+                .orElse(lastClosedDay);
+        for (; !day.isAfter(lastClosedDay); day = day.plusDays(1)) {
+            if (!isCompleted(day)) {
+                runs.add(runShard(day));
+            }
+        }
+        return runs;
+    }
+
+    // Fotos del día en el shard del hilo; las particiones corren en otros hilos con el mismo shard.
+    private BalanceSnapshotRunDto runShard(LocalDate day) {
+        int shard = ShardRouter.currentShard();
+        runLock.lock();
+        try {
+            BalanceSnapshotRun run = balanceSnapshotRunRepository.findById(day).orElseGet(BalanceSnapshotRun::new);
+            run.setSnapshotDate(day);
+            run.setStatus(BalanceSnapshotRunStatus.RUNNING);
+            run.setStartedAt(LocalDateTime.now());
+            run.setFinishedAt(null);
+            balanceSnapshotRunRepository.save(run);
+
+            List<Future<?>> running = new ArrayList<>();
+            for (int partition = 0; partition < partitions; partition++) {
+                int current = partition;
+                running.add(partitionExecutor.submit(() -> shardRouter.run(shard, () -> snapshotPartition(day, current))));
+            }
+            awaitAll(running);
+
+            run.setAccounts(balanceSnapshotRepository.countBySnapshotDate(day));
+            run.setStatus(BalanceSnapshotRunStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            balanceSnapshotRunRepository.save(run);
+            return toDto(run);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // Recorre las cuentas de la partición en orden de id. Si otra instancia insertó alguna foto del bloque
+    // al mismo tiempo, la clave primaria rechaza el bloque entero y se vuelve a pedir sin esas cuentas.
+    private void snapshotPartition(LocalDate day, int partition) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = balanceSnapshotRepository.findAccountIdsWithoutSnapshot(partitions, partition, afterId, day, dayEnd, chunkSize);
+            if (ids.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        balanceSnapshotRepository.insertSnapshots(ids, day, day.minusDays(1), dayStart, dayEnd));
+            } catch (DataIntegrityViolationException concurrentInsert) {
+                continue;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void awaitAll(List<Future<?>> running) {
+        RuntimeException failure = null;
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new IllegalStateException("No se pudieron generar las fotos de saldo.", ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Generación de fotos de saldo interrumpida.", ex);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean isCompleted(LocalDate day) {
+        return balanceSnapshotRunRepository.findById(day)
+                .map(run -> run.getStatus() == BalanceSnapshotRunStatus.COMPLETED)
+                .orElse(false);
+    }
+
+    private void scheduleNextClose() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(closeTime);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        scheduler.schedule(() -> {
+            catchUpQuietly();
+            scheduleNextClose();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // En el hilo de fondo un fallo no cancela el cierre diario: el día queda en RUNNING y se retoma
+    // en la próxima pasada.
+    private void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private BalanceSnapshotRunDto toDto(BalanceSnapshotRun run) {
+        return new BalanceSnapshotRunDto(run.getSnapshotDate(), run.getStatus(), run.getAccounts(), run.getStartedAt(), run.getFinishedAt());
+    }
+}
@@ -0,0 +1,307 @@
+package com.Bank.Management.statement;
+
+import com.Bank.Management.dto.response.StatementRunReportDto;
+import com.Bank.Management.entity.StatementPartition;
+import com.Bank.Management.entity.StatementRun;
+import com.Bank.Management.entity.StatementRunStatus;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.export.TransactionHistoryExporter;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.StatementPartitionRepository;
+import com.Bank.Management.repository.StatementRunRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.AccountNumberView;
+import com.Bank.Management.repository.projection.StatementAccountView;
+import com.Bank.Management.repository.projection.StatementLine;
+import com.Bank.Management.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+// Motor de extractos mensuales de todas las cuentas.
+// Las cuentas existentes al cierre del mes se dividen en particiones de partition-size ids consecutivos y el
+// plan se guarda en STATEMENT_PARTITIONS antes de empezar. Las particiones se procesan en un ForkJoinPool:
+// cada una lee los saldos iniciales de sus cuentas y los movimientos del mes con consultas por rango de ids
+// (no una consulta por cuenta) y escribe un archivo comprimido <directory>/<yyyy-MM>/statements-<yyyy-MM>-<n>.csv.gz.
+// El archivo se escribe con un nombre temporal y se renombra al terminar; recién entonces la partición se marca
+// completa. Si el proceso cae, volver a ejecutar el mismo mes solo procesa las particiones pendientes.
+// Con shards cada shard planifica y registra las particiones de sus cuentas, y sus archivos llevan el número de
+// shard (statements-<yyyy-MM>-s<shard>-<n>.csv.gz); todas las particiones comparten el mismo pool.
+//
+// Formato del archivo (CSV, una cuenta seguida de sus movimientos en orden cronológico):
+//   A,<número de cuenta>,<saldo inicial>,<saldo final>,<cantidad de movimientos>
+//   T,<fecha>,<id>,<monto: positivo si entra, negativo si sale>,<cuenta contraparte>,<descripción>
+@Component
+public class MonthlyStatementEngine {
+
+    private static final int ACCOUNT_NUMBER_BATCH = 1_000;
+    // Números de cuenta de contrapartes compartidos por las particiones de una ejecución; al llegar al límite
+    // se dejan de agregar y los que falten se consultan en cada partición.
+    private static final int ACCOUNT_NUMBER_CACHE_SIZE = 200_000;
+    private static final Comparator<StatementLine> BY_ACCOUNT_AND_DATE = Comparator.comparing(StatementLine::accountId)
+            .thenComparing(StatementLine::transactionDate)
+            .thenComparing(StatementLine::id);
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final StatementRunRepository statementRunRepository;
+    private final StatementPartitionRepository statementPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Path directory;
+    private final int partitionSize;
+    private final int parallelism;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public MonthlyStatementEngine(BankAccountRepository bankAccountRepository,
+                                  TransactionRepository transactionRepository,
+                                  StatementRunRepository statementRunRepository,
+                                  StatementPartitionRepository statementPartitionRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ShardRouter shardRouter,
+                                  @Value("${bank.statements.directory:./data/statements}") String directory,
+                                  @Value("${bank.statements.partition-size:500}") int partitionSize,
+                                  @Value("${bank.statements.parallelism:0}") int parallelism) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.statementRunRepository = statementRunRepository;
+        this.statementPartitionRepository = statementPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.directory = Path.of(directory);
+        this.partitionSize = Math.max(1, partitionSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Genera (o retoma) los extractos de un mes ya cerrado. Un mes completo no se vuelve a generar.
+    public StatementRunReportDto generate(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new InvalidOperationException("Solo se pueden generar extractos de meses ya cerrados.");
+        }
+        runLock.lock();
+        try {
+            String key = month.toString();
+            List<StatementRun> runs = new ArrayList<>();
+            List<ShardPartition> partitions = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.size(); shard++) {
+                int current = shard;
+                runs.add(shardRouter.call(shard, () -> statementRunRepository.findById(key).orElseGet(() -> plan(month))));
+                shardRouter.call(shard, () -> statementPartitionRepository.findByStatementMonthOrderByPartitionIndex(key))
+                        .forEach(partition -> partitions.add(new ShardPartition(current, partition)));
+            }
+            List<ShardPartition> pending = partitions.stream().filter(partition -> partition.partition().getCompletedAt() == null).toList();
+
+            Path monthDirectory = directory.resolve(key);
+            createDirectories(monthDirectory);
+
+            long start = System.nanoTime();
+            long processedAccounts = processAll(month, monthDirectory, pending, new ConcurrentHashMap<>());
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            for (int shard = 0; shard < runs.size(); shard++) {
+                StatementRun run = runs.get(shard);
+                if (run.getStatus() != StatementRunStatus.COMPLETED) {
+                    run.setStatus(StatementRunStatus.COMPLETED);
+                    run.setFinishedAt(LocalDateTime.now());
+                    shardRouter.run(shard, () -> statementRunRepository.save(run));
+                }
+            }
+
+            long accounts = partitions.stream().mapToLong(partition -> partition.partition().getAccounts()).sum();
+            long transactions = partitions.stream().mapToLong(partition -> partition.partition().getTransactions()).sum();
+            return new StatementRunReportDto(key, StatementRunStatus.COMPLETED, monthDirectory.toString(), partitions.size(),
+                    partitions.size() - pending.size(), pending.size(), accounts, transactions, processedAccounts, elapsedMs,
+                    elapsedMs == 0 ? processedAccounts * 1_000.0 : processedAccounts * 1_000.0 / elapsedMs);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // El mes y su plan de particiones (del shard del hilo) se guardan juntos: una caída no deja un mes sin plan.
+    private StatementRun plan(YearMonth month) {
+        String key = month.toString();
+        List<Long> ids = bankAccountRepository.findIdsCreatedBefore(month.plusMonths(1).atDay(1).atStartOfDay());
+        List<StatementPartition> partitions = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += partitionSize) {
+            int to = Math.min(from + partitionSize, ids.size()) - 1;
+            partitions.add(new StatementPartition(key, partitions.size(), ids.get(from), ids.get(to), 0, 0, null, null));
+        }
+        StatementRun run = new StatementRun(key, StatementRunStatus.RUNNING, partitions.size(), LocalDateTime.now(), null);
+        transactionTemplate.executeWithoutResult(status -> {
+            statementPartitionRepository.saveAll(partitions);
+            statementRunRepository.save(run);
+        });
+        return run;
+    }
+
+    private long processAll(YearMonth month, Path monthDirectory, List<ShardPartition> pending, Map<Long, String> counterparts) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<StatementPartition>> running = new ArrayList<>();
+            for (ShardPartition partition : pending) {
+                running.add(pool.submit(() -> shardRouter.call(partition.shard(),
+                        () -> process(month, monthDirectory, partition.partition(), counterparts))));
+            }
+
+            long accounts = 0;
+            RuntimeException failure = null;
+            for (Future<StatementPartition> future : running) {
+                try {
+                    accounts += future.get().getAccounts();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof RuntimeException cause
+                                ? cause
+                                : new IllegalStateException("No se pudieron generar los extractos.", ex.getCause());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Generación de extractos interrumpida.", ex);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return accounts;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private StatementPartition process(YearMonth month, Path monthDirectory, StatementPartition partition, Map<Long, String> counterparts) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime until = month.plusMonths(1).atDay(1).atStartOfDay();
+        List<StatementAccountView> accounts = bankAccountRepository.findStatementAccounts(
+                partition.getFirstAccountId(), partition.getLastAccountId(), month.atDay(1).minusDays(1), from, until);
+        List<StatementLine> lines = new ArrayList<>(transactionRepository.findOutgoingStatementLines(
+                partition.getFirstAccountId(), partition.getLastAccountId(), from, until));
+        lines.addAll(transactionRepository.findIncomingStatementLines(
+                partition.getFirstAccountId(), partition.getLastAccountId(), from, until));
+        // Dos tramos ya ordenados: el ordenamiento solo los intercala.
+        lines.sort(BY_ACCOUNT_AND_DATE);
+        Map<Long, String> accountNumbers = accountNumbers(accounts, lines, counterparts);
+
+        String fileName = shardRouter.isEnabled()
+                ? String.format("statements-%s-s%d-%05d.csv.gz", month, ShardRouter.currentShard(), partition.getPartitionIndex())
+                : String.format("statements-%s-%05d.csv.gz", month, partition.getPartitionIndex());
+        Path temporary = monthDirectory.resolve(fileName + ".tmp");
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8))) {
+                writeStatements(accounts, lines, accountNumbers, writer);
+            }
+            Files.move(temporary, monthDirectory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        partition.setAccounts(accounts.size());
+        partition.setTransactions(lines.size());
+        partition.setFileName(fileName);
+        partition.setCompletedAt(LocalDateTime.now());
+        return statementPartitionRepository.save(partition);
+    }
+
+    // Cuentas y movimientos vienen ordenados por id de cuenta: se recorren juntos en una sola pasada.
+    private void writeStatements(List<StatementAccountView> accounts, List<StatementLine> lines,
+                                 Map<Long, String> accountNumbers, Writer writer) throws IOException {
+        int next = 0;
+        for (StatementAccountView account : accounts) {
+            while (next < lines.size() && lines.get(next).accountId() < account.getAccountId()) {
+                next++;
+            }
+            int first = next;
+            long closing = account.getOpeningCents();
+            while (next < lines.size() && lines.get(next).accountId().equals(account.getAccountId())) {
+                closing += lines.get(next).amountCents();
+                next++;
+            }
+
+            writer.write("A," + TransactionHistoryExporter.csvField(account.getAccountNumber()) + ','
+                    + Money.toDecimal(account.getOpeningCents()).toPlainString() + ','
+                    + Money.toDecimal(closing).toPlainString() + ',' + (next - first) + '\n');
+            for (StatementLine line : lines.subList(first, next)) {
+                writer.write("T," + line.transactionDate() + ',' + line.id() + ','
+                        + Money.toDecimal(line.amountCents()).toPlainString() + ','
+                        + TransactionHistoryExporter.csvField(counterpartNumber(line, accountNumbers)) + ','
+                        + TransactionHistoryExporter.csvField(line.description()) + '\n');
+            }
+        }
+    }
+
+    // Números de las cuentas de la partición (ya leídos) y de las contrapartes: primero del caché de la ejecución,
+    // los demás en consultas IN por bloques.
+    private Map<Long, String> accountNumbers(List<StatementAccountView> accounts, List<StatementLine> lines, Map<Long, String> counterparts) {
+        Map<Long, String> numbers = new HashMap<>();
+        for (StatementAccountView account : accounts) {
+            numbers.put(account.getAccountId(), account.getAccountNumber());
+        }
+        List<Long> missing = new ArrayList<>();
+        for (StatementLine line : lines) {
+            Long id = line.counterpartAccountId();
+            if (id == null || numbers.containsKey(id)) {
+                continue;
+            }
+            String cached = counterparts.get(id);
+            numbers.put(id, cached);
+            if (cached == null) {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += ACCOUNT_NUMBER_BATCH) {
+            for (AccountNumberView view : bankAccountRepository.findAccountNumbersByIdIn(
+                    missing.subList(from, Math.min(from + ACCOUNT_NUMBER_BATCH, missing.size())))) {
+                numbers.put(view.getId(), view.getAccountNumber());
+                if (counterparts.size() < ACCOUNT_NUMBER_CACHE_SIZE) {
+                    counterparts.put(view.getId(), view.getAccountNumber());
+                }
+            }
+        }
+        return numbers;
+    }
+
+    // Una contraparte de otro shard no tiene fila local: el movimiento guarda su número.
+    private String counterpartNumber(StatementLine line, Map<Long, String> accountNumbers) {
+        if (line.counterpartAccountId() == null) {
+            return line.counterpartAccountNumber();
+        }
+        return accountNumbers.get(line.counterpartAccountId());
+    }
+
+    private void createDirectories(Path path) {
+        try {
+            Files.createDirectories(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record ShardPartition(int shard, StatementPartition partition) {
+    }
+}
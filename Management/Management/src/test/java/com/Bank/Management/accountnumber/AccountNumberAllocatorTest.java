@@ -0,0 +1,112 @@
+package com.Bank.Management.accountnumber;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountNumberAllocatorTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:account-number-allocator;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table BANK_ACCOUNTS (id bigint primary key, account_number varchar(255) not null unique)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    // Objetivo: Los números salen en orden dentro de un bloque y solo se consulta la secuencia al agotarlo.
+    @Test
+    void next_handsOutConsecutiveSerialsFromReservedBlocks() {
+        AccountNumberAllocator allocator = allocator(10);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            numbers.add(allocator.next());
+        }
+
+        for (int i = 0; i < numbers.size(); i++) {
+            assertEquals(i + 1, AccountNumbers.serialOf(numbers.get(i)));
+            assertTrue(AccountNumbers.isValid(numbers.get(i)));
+        }
+        assertEquals(31L, jdbcTemplate.queryForObject("select base_value from information_schema.sequences where sequence_name = 'ACCOUNT_NUMBER_SEQ'", Long.class));
+    }
+
+    // Objetivo: Varias instancias y varios hilos sobre la misma secuencia nunca reciben el mismo número.
+    @Test
+    void next_isUniqueAcrossInstancesAndThreads() throws Exception {
+        List<AccountNumberAllocator> allocators = List.of(allocator(7), allocator(7), allocator(7));
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Callable<List<String>>> workers = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            AccountNumberAllocator allocator = allocators.get(t % allocators.size());
+            workers.add(() -> {
+                List<String> numbers = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    numbers.add(allocator.next());
+                }
+                return numbers;
+            });
+        }
+
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> worker : executor.invokeAll(workers)) {
+            all.addAll(worker.get());
+        }
+        executor.shutdown();
+
+        assertEquals(3_000, all.size());
+    }
+
+    // Objetivo: Un número aleatorio anterior que coincide con el esquema y está por delante de la secuencia se salta.
+    @Test
+    void next_skipsLegacyNumbersThatPassTheCheck() {
+        jdbcTemplate.update("insert into BANK_ACCOUNTS values (1, ?), (2, ?), (3, ?)",
+                AccountNumbers.format(2L), AccountNumbers.format(3L), "4500000004-00");
+        AccountNumberAllocator allocator = allocator(10);
+
+        assertEquals(AccountNumbers.format(1L), allocator.next());
+        assertEquals(AccountNumbers.format(4L), allocator.next());
+        assertEquals(AccountNumbers.format(5L), allocator.next());
+    }
+
+    // Objetivo: Al cambiar el tamaño de bloque los bloques nuevos empiezan después de los ya reservados.
+    @Test
+    void initialize_changingBlockSizeDoesNotOverlapReservedBlocks() {
+        AccountNumberAllocator first = allocator(100);
+        String fromFirst = first.next();
+
+        AccountNumberAllocator second = allocator(10);
+        Set<Long> serials = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            serials.add(AccountNumbers.serialOf(second.next()));
+        }
+
+        assertEquals(1L, AccountNumbers.serialOf(fromFirst));
+        assertTrue(serials.stream().allMatch(serial -> serial > 100));
+        assertEquals(101L, serials.stream().mapToLong(Long::longValue).min().orElseThrow());
+    }
+
+    private AccountNumberAllocator allocator(int blockSize) {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(jdbcTemplate, null, blockSize);
+        allocator.initialize();
+        return allocator;
+    }
+}
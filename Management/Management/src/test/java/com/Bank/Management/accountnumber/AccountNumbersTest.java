@@ -0,0 +1,61 @@
+package com.Bank.Management.accountnumber;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountNumbersTest {
+
+    // Objetivo: El número conserva el formato 45XXXXXXXX-YY y los dígitos de control dejan resto 1 módulo 97.
+    @Test
+    void format_usesExistingShapeWithMod97CheckDigits() {
+        String number = AccountNumbers.format(1L);
+
+        assertTrue(number.matches("45\\d{8}-\\d{2}"));
+        assertEquals("4500000001", number.substring(0, 10));
+        assertEquals(1L, Long.parseLong(number.replace("-", "")) % 97);
+        assertTrue(AccountNumbers.isValid(number));
+        assertEquals(1L, AccountNumbers.serialOf(number));
+        assertTrue(AccountNumbers.isValid(AccountNumbers.format(AccountNumbers.MAX_SERIAL)));
+    }
+
+    // Objetivo: Cambiar cualquier dígito o intercambiar dos dígitos adyacentes distintos invalida el número.
+    @Test
+    void isValid_detectsSingleDigitErrorsAndTranspositions() {
+        for (long serial : new long[]{0L, 7L, 12_345_678L, 98_765_432L}) {
+            char[] digits = AccountNumbers.format(serial).toCharArray();
+            for (int i = 0; i < digits.length; i++) {
+                if (digits[i] == '-') {
+                    continue;
+                }
+                char original = digits[i];
+                for (char replacement = '0'; replacement <= '9'; replacement++) {
+                    if (replacement != original) {
+                        digits[i] = replacement;
+                        assertFalse(AccountNumbers.isValid(new String(digits)), new String(digits));
+                    }
+                }
+                digits[i] = original;
+
+                int next = i + 1 < digits.length && digits[i + 1] == '-' ? i + 2 : i + 1;
+                if (next < digits.length && digits[next] != original) {
+                    char[] swapped = digits.clone();
+                    swapped[i] = digits[next];
+                    swapped[next] = original;
+                    assertFalse(AccountNumbers.isValid(new String(swapped)), new String(swapped));
+                }
+            }
+        }
+    }
+
+    // Objetivo: Textos con otro formato se consideran inválidos sin lanzar excepciones.
+    @Test
+    void isValid_rejectsMalformedNumbers() {
+        assertFalse(AccountNumbers.isValid(null));
+        assertFalse(AccountNumbers.isValid("ACC-1"));
+        assertFalse(AccountNumbers.isValid("4600000001-14"));
+        assertFalse(AccountNumbers.isValid("45000000a1-14"));
+        assertFalse(AccountNumbers.isValid("450000000114"));
+        assertThrows(IllegalArgumentException.class, () -> AccountNumbers.format(AccountNumbers.MAX_SERIAL + 1));
+    }
+}
@@ -0,0 +1,154 @@
+package com.Bank.Management.async;
+
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.AsyncTransferStatusDto;
+import com.Bank.Management.dto.response.OperationStatus;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.exception.TooManyRequestsException;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransferQueueTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private AsyncTransferQueue queue;
+
+    private final TransferRequestDto transfer = new TransferRequestDto("111111", "222222", BigDecimal.TEN);
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    // Objetivo: La transferencia se acepta como PENDING y al terminar queda COMPLETED con su resultado.
+    @Test
+    void submit_RunsTransferAndCompletes() throws Exception {
+        TransactionResponseDto response = new TransactionResponseDto(7L, BigDecimal.TEN, LocalDateTime.now(), "Transferencia", "111111", "222222");
+        when(transactionService.transfer(any(TransferRequestDto.class))).thenReturn(response);
+        queue = new AsyncTransferQueue(transactionService, new ReadYourWritesTracker(1000), 1, 10, 100);
+
+        AsyncTransferStatusDto submitted = queue.submit(transfer);
+        assertNotNull(submitted.getTrackingId());
+
+        AsyncTransferStatusDto finished = awaitFinished(submitted.getTrackingId());
+        assertEquals(OperationStatus.COMPLETED, finished.getStatus());
+        assertEquals(7L, finished.getTransaction().getId());
+        assertNotNull(finished.getFinishedAt());
+        assertEquals(1, queue.getMetrics().getCompleted());
+    }
+
+    // Objetivo: Un error de negocio deja la transferencia FAILED con el mensaje del error.
+    @Test
+    void submit_BusinessError_IsReportedAsFailed() throws Exception {
+        when(transactionService.transfer(any(TransferRequestDto.class)))
+                .thenThrow(new InsufficientFundsException("Saldo insuficiente en la cuenta de origen."));
+        queue = new AsyncTransferQueue(transactionService, new ReadYourWritesTracker(1000), 1, 10, 100);
+
+        AsyncTransferStatusDto finished = awaitFinished(queue.submit(transfer).getTrackingId());
+
+        assertEquals(OperationStatus.FAILED, finished.getStatus());
+        assertEquals("Saldo insuficiente en la cuenta de origen.", finished.getError());
+        assertEquals(1, queue.getMetrics().getFailed());
+    }
+
+    // Objetivo: Con el hilo ocupado y la cola llena, la siguiente transferencia se rechaza (429) sin quedar registrada.
+    @Test
+    void submit_WhenQueueIsFull_Rejects() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.transfer(any(TransferRequestDto.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        queue = new AsyncTransferQueue(transactionService, new ReadYourWritesTracker(1000), 1, 1, 100);
+
+        queue.submit(transfer);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AsyncTransferStatusDto queued = queue.submit(transfer);
+        assertEquals(OperationStatus.PENDING, queue.getStatus(queued.getTrackingId()).getStatus());
+
+        assertThrows(TooManyRequestsException.class, () -> queue.submit(transfer));
+        assertEquals(1, queue.getMetrics().getRejected());
+        assertEquals(2, queue.getMetrics().getTrackedStatuses());
+
+        release.countDown();
+    }
+
+    // Objetivo: Solo se conservan los últimos resultados terminados según la retención.
+    @Test
+    void finishedStatuses_AreEvictedBeyondRetention() throws Exception {
+        when(transactionService.transfer(any(TransferRequestDto.class))).thenReturn(null);
+        queue = new AsyncTransferQueue(transactionService, new ReadYourWritesTracker(1000), 1, 10, 2);
+
+        String first = queue.submit(transfer).getTrackingId();
+        awaitFinished(first);
+        String second = queue.submit(transfer).getTrackingId();
+        awaitFinished(second);
+        String third = queue.submit(transfer).getTrackingId();
+        awaitFinished(third);
+
+        assertThrows(DataNotFoundException.class, () -> queue.getStatus(first));
+        assertEquals(OperationStatus.COMPLETED, queue.getStatus(third).getStatus());
+    }
+
+    // Objetivo: El hilo que aplica la transferencia corre con la sesión del cliente que la encoló, para que su
+    // commit quede anotado en esa sesión.
+    @Test
+    void submit_RunsTransferWithTheCallerSession() throws Exception {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(1000);
+        ReadYourWritesTracker.Session session = new ReadYourWritesTracker.Session("cliente-1", true);
+        AtomicReference<ReadYourWritesTracker.Session> seen = new AtomicReference<>();
+        when(transactionService.transfer(any(TransferRequestDto.class))).thenAnswer(invocation -> {
+            seen.set(tracker.currentSession());
+            return null;
+        });
+        queue = new AsyncTransferQueue(transactionService, tracker, 1, 10, 100);
+
+        awaitFinished(tracker.call(session, () -> queue.submit(transfer)).getTrackingId());
+
+        assertEquals(session, seen.get());
+    }
+
+    // Objetivo: Un identificador desconocido lanza DataNotFoundException.
+    @Test
+    void getStatus_UnknownId_Throws() {
+        queue = new AsyncTransferQueue(transactionService, new ReadYourWritesTracker(1000), 1, 10, 100);
+        assertThrows(DataNotFoundException.class, () -> queue.getStatus("no-existe"));
+    }
+
+    private AsyncTransferStatusDto awaitFinished(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            AsyncTransferStatusDto status = queue.getStatus(trackingId);
+            if (status.getStatus() != OperationStatus.PENDING) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        fail("La transferencia no terminó a tiempo.");
+        return null;
+    }
+}
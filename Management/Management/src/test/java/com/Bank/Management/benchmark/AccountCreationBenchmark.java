@@ -0,0 +1,96 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.accountnumber.AccountNumbers;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Crea un millón de cuentas con BankAccountService.createAccount desde varios hilos y muestra el
+// throughput de cada tramo de 100.000: con números asignados por bloques no hay consultas de unicidad,
+// así que el ritmo no debería caer a medida que la tabla se llena. Al final se verifica que no hay
+// números repetidos y que todos tienen dígitos de control válidos.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class AccountCreationBenchmark {
+
+    private static final int ACCOUNTS = 1_000_000;
+    private static final int STEP = 100_000;
+    private static final int THREADS = 8;
+
+    @Test
+    void createOneMillionAccounts() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:account-creation-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bank.snapshots.enabled=false")) {
+
+            User user = new User();
+            user.setUsername("benchmark");
+            user.setEmail("benchmark@bank.com");
+            user.setPassword("password123");
+            user.setDni("88888888");
+            Long userId = context.getBean(UserRepository.class).save(user).getId();
+            BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+
+            System.out.printf("%-20s %12s %12s%n", "cuentas", "cuentas/s", "total (s)");
+            long begin = System.nanoTime();
+            AtomicInteger created = new AtomicInteger();
+            for (int step = STEP; step <= ACCOUNTS; step += STEP) {
+                int target = step;
+                long start = System.nanoTime();
+                ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    workers.add(executor.submit(() -> {
+                        while (created.getAndIncrement() < target) {
+                            bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                executor.shutdown();
+                created.set(target);
+
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("%-20s %12.0f %12.1f%n",
+                        String.format("%,d - %,d", target - STEP, target),
+                        STEP * 1_000_000_000.0 / elapsed,
+                        (System.nanoTime() - begin) / 1_000_000_000.0);
+            }
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals(ACCOUNTS, jdbcTemplate.queryForObject("select count(distinct account_number) from BANK_ACCOUNTS", Integer.class));
+            List<String> invalid = new ArrayList<>();
+            jdbcTemplate.query("select account_number from BANK_ACCOUNTS", rs -> {
+                String number = rs.getString(1);
+                if (!AccountNumbers.isValid(number)) {
+                    invalid.add(number);
+                }
+            });
+            assertEquals(List.of(), invalid);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.dto.response.LockMetricsDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Mide el throughput de AccountLockManager con 1, 8 y 64 cuentas "calientes".
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class AccountLockContentionBenchmark {
+
+    private static final int THREADS = 16;
+    private static final long DURATION_MS = 2_000;
+    private static final long INITIAL_BALANCE = 1_000_000;
+
+    @Test
+    void throughputByHotAccountCount() throws Exception {
+        System.out.printf("%-14s %14s %14s %16s %14s%n", "cuentas", "ops/s", "contención", "espera prom(us)", "espera max(us)");
+        for (int hotAccounts : new int[]{1, 8, 64}) {
+            run(hotAccounts);
+        }
+    }
+
+    private void run(int hotAccounts) throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(1024, true);
+        String[] accountNumbers = new String[hotAccounts];
+        long[] balances = new long[hotAccounts];
+        for (int i = 0; i < hotAccounts; i++) {
+            accountNumbers[i] = String.format("45%08d-00", i);
+            balances[i] = INITIAL_BALANCE;
+        }
+
+        LongAdder operations = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(hotAccounts);
+                    int to = random.nextInt(hotAccounts);
+                    lockManager.callWithLocks(() -> {
+                        // Sección crítica similar a leer-calcular-guardar un saldo.
+                        balances[from] -= 1;
+                        balances[to] += 1;
+                        return null;
+                    }, accountNumbers[from], accountNumbers[to]);
+                    operations.increment();
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (long balance : balances) {
+            total += balance;
+        }
+        assertEquals(INITIAL_BALANCE * hotAccounts, total);
+
+        LockMetricsDto metrics = lockManager.getMetrics();
+        double opsPerSecond = operations.sum() * 1_000.0 / DURATION_MS;
+        double contentionRatio = metrics.getAcquisitions() == 0 ? 0 : (double) metrics.getContendedAcquisitions() / metrics.getAcquisitions();
+        System.out.printf("%-14d %14.0f %13.2f%% %16.2f %14d%n",
+                hotAccounts, opsPerSecond, contentionRatio * 100, metrics.getAverageWaitMicros(), metrics.getMaxWaitMicros());
+    }
+}
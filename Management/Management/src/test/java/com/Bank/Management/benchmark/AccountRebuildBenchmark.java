@@ -0,0 +1,154 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.response.AccountStateRebuildDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.eventsourcing.AccountStateRebuildJob;
+import com.Bank.Management.repository.AccountStateSnapshotRepository;
+import com.Bank.Management.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Reconstrucción de saldos desde los eventos con ~1M y ~10M eventos sintéticos (105 por cuenta, foto en el 100):
+// tiempo y pico de heap reconstruyendo desde cero y desde las fotos, con 1, 2, 4 y 8 particiones en paralelo.
+// Antes de cada corrida se altera el saldo de una de cada 100 cuentas y se dejan las fotos en el evento 100.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class AccountRebuildBenchmark {
+
+    private static final int EVENTS_PER_ACCOUNT = 105;
+    private static final int SNAPSHOT_INTERVAL = 100;
+    private static final int CHUNK_SIZE = 500;
+
+    @Test
+    void rebuildTimeAndMemoryByLedgerSize() throws Exception {
+        for (int accounts : new int[]{10_000, 100_000}) {
+            Path directory = Files.createTempDirectory("account-rebuild-benchmark");
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("bankdb").toAbsolutePath(),
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.root=WARN",
+                            "--spring.main.banner-mode=off",
+                            "--bank.snapshots.enabled=false",
+                            "--bank.event-sourcing.enabled=true",
+                            "--bank.event-sourcing.snapshot-interval=" + SNAPSHOT_INTERVAL)) {
+
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                long start = System.nanoTime();
+                createLedger(context, jdbcTemplate, accounts);
+                long expectedTotal = totalBalance(jdbcTemplate);
+                System.out.printf("%n%,d cuentas, %,d eventos (generados en %.1f s)%n",
+                        accounts, (long) accounts * EVENTS_PER_ACCOUNT, (System.nanoTime() - start) / 1e9);
+                System.out.printf("%-12s %12s %14s %12s %12s %14s %16s%n",
+                        "modo", "particiones", "eventos", "corregidas", "total (ms)", "eventos/s", "pico heap (MB)");
+
+                for (boolean fromScratch : new boolean[]{true, false}) {
+                    for (int partitions : new int[]{1, 2, 4, 8}) {
+                        resetSnapshots(jdbcTemplate);
+                        jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = balance_cents + 1 where mod(id, 100) = 0");
+                        AccountStateRebuildJob job = new AccountStateRebuildJob(
+                                context.getBean(AccountEventStore.class),
+                                context.getBean(AccountStateSnapshotRepository.class),
+                                context.getBean(PlatformTransactionManager.class),
+                                partitions, CHUNK_SIZE);
+                        try {
+                            long heapBefore = resetHeapPeak();
+                            AccountStateRebuildDto result = job.rebuild(fromScratch);
+                            long heapPeak = heapPeak() - heapBefore;
+
+                            System.out.printf("%-12s %12d %,14d %,12d %12d %,14.0f %16.1f%n",
+                                    fromScratch ? "desde cero" : "desde fotos", partitions, result.getEvents(),
+                                    result.getCorrectedAccounts(), result.getMillis(),
+                                    result.getEvents() * 1000.0 / Math.max(1, result.getMillis()), heapPeak / 1048576.0);
+                            assertEquals(accounts, result.getAccounts());
+                            assertEquals(accounts / 100, result.getCorrectedAccounts());
+                            assertEquals((long) accounts * (fromScratch ? EVENTS_PER_ACCOUNT : EVENTS_PER_ACCOUNT - SNAPSHOT_INTERVAL),
+                                    result.getEvents());
+                            assertEquals(expectedTotal, totalBalance(jdbcTemplate));
+                        } finally {
+                            job.stop();
+                        }
+                    }
+                }
+            }
+            deleteRecursively(directory);
+        }
+    }
+
+    // Cuentas con saldo al día y sus eventos: un depósito inicial y luego movimientos de -10,00 a +10,00.
+    private void createLedger(ConfigurableApplicationContext context, JdbcTemplate jdbcTemplate, int accounts) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, account_number, balance_cents, version, user_id, created_at) " +
+                "select x, 'EV' || x, 0, 0, ?, current_timestamp from system_range(1, ?)", userId, accounts);
+        jdbcTemplate.update("insert into ACCOUNT_EVENTS (account_id, sequence, type, delta_cents, transaction_id, occurred_at) " +
+                "select a.x, s.x, case when s.x = 1 then 'DEPOSIT' when mod(a.x + s.x, 2) = 0 then 'TRANSFER_IN' else 'WITHDRAW' end, " +
+                "case when s.x = 1 then 1000000 else mod(a.x * 31 + s.x * 17, 2001) - 1000 end, null, current_timestamp " +
+                "from system_range(1, ?) a cross join system_range(1, ?) s", accounts, EVENTS_PER_ACCOUNT);
+        jdbcTemplate.update("update BANK_ACCOUNTS a set balance_cents = " +
+                "(select sum(e.delta_cents) from ACCOUNT_EVENTS e where e.account_id = a.id)");
+        jdbcTemplate.execute("analyze");
+    }
+
+    // Fotos en el evento 100 de cada cuenta, como las dejaría AccountEventStore.
+    private void resetSnapshots(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("delete from ACCOUNT_STATE_SNAPSHOTS");
+        jdbcTemplate.update("insert into ACCOUNT_STATE_SNAPSHOTS (account_id, sequence, balance_cents, taken_at) " +
+                "select e.account_id, ?, sum(e.delta_cents), current_timestamp from ACCOUNT_EVENTS e " +
+                "where e.sequence <= ? group by e.account_id", SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL);
+    }
+
+    private long totalBalance(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select sum(balance_cents) from BANK_ACCOUNTS", Long.class);
+    }
+
+    // Heap en uso después de un GC, con los picos de los pools reiniciados a ese valor.
+    private long resetHeapPeak() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
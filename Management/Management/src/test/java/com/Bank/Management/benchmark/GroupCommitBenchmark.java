@@ -0,0 +1,155 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Curvas de throughput contra latencia del "group commit": un commit por operación (modo locking)
+// contra un único escritor (sequencer con 1 shard) que agrupa hasta 1, 16, 64 o 256 transferencias por
+// commit con una ventana de 2 ms. Cada configuración se mide con 4, 16 y 64 clientes concurrentes.
+// La base es un archivo H2 con WRITE_DELAY=0, así cada commit se escribe al disco antes de responder.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class GroupCommitBenchmark {
+
+    private static final int ACCOUNTS = 256;
+    private static final int[] CLIENTS = {4, 16, 64};
+    private static final int[] GROUP_SIZES = {1, 16, 64, 256};
+    private static final long WINDOW_US = 2_000;
+    private static final long WARMUP_MS = 1_000;
+    private static final long DURATION_MS = 3_000;
+
+    @Test
+    void throughputVersusLatencyByGroupSize() throws Exception {
+        Path directory = Files.createTempDirectory("group-commit-benchmark");
+        System.out.printf("%-14s %-8s %10s %10s %10s %10s%n", "modo", "clientes", "ops/s", "p50 (ms)", "p99 (ms)", "max (ms)");
+        run(directory, "locking", 0);
+        for (int groupSize : GROUP_SIZES) {
+            run(directory, "group-" + groupSize, groupSize);
+        }
+        deleteRecursively(directory);
+    }
+
+    private void run(Path directory, String label, int groupSize) throws Exception {
+        String mode = groupSize == 0 ? "locking" : "sequencer";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve(label).toAbsolutePath() + ";WRITE_DELAY=0;LOCK_TIMEOUT=10000",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bank.snapshots.enabled=false",
+                        "--bank.execution.mode=" + mode,
+                        "--bank.sequencer.shards=1",
+                        "--bank.sequencer.ring-capacity=1024",
+                        "--bank.sequencer.max-batch=" + Math.max(1, groupSize),
+                        "--bank.sequencer.batch-window-us=" + (groupSize > 1 ? WINDOW_US : 0),
+                        "--bank.retry.max-attempts=20")) {
+
+            List<String> numbers = createAccounts(context);
+            TransactionService transactionService = context.getBean(TransactionService.class);
+
+            for (int clients : CLIENTS) {
+                measure(transactionService, numbers, clients, WARMUP_MS);
+                long[] latencies = measure(transactionService, numbers, clients, DURATION_MS);
+
+                Arrays.sort(latencies);
+                System.out.printf("%-14s %-8d %10.0f %10.2f %10.2f %10.2f%n",
+                        label,
+                        clients,
+                        latencies.length * 1_000.0 / DURATION_MS,
+                        percentile(latencies, 0.50),
+                        percentile(latencies, 0.99),
+                        latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1_000_000.0);
+            }
+        }
+    }
+
+    private List<String> createAccounts(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            numbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000_000.00), userId)).getAccountNumber());
+        }
+        return numbers;
+    }
+
+    // Devuelve la latencia en nanosegundos de cada transferencia confirmada dentro del intervalo.
+    private long[] measure(TransactionService transactionService, List<String> numbers, int clients, long durationMs) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int t = 0; t < clients; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1_024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(numbers.size());
+                    int to = (from + 1 + random.nextInt(numbers.size() - 1)) % numbers.size();
+                    long start = System.nanoTime();
+                    try {
+                        transactionService.transfer(new TransferRequestDto(numbers.get(from), numbers.get(to), BigDecimal.ONE));
+                    } catch (InsufficientFundsException ignored) {
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+
+        List<long[]> results = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            results.add(worker.get());
+        }
+        executor.shutdown();
+        return results.stream().flatMapToLong(Arrays::stream).toArray();
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
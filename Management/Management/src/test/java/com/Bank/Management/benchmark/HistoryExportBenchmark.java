@@ -0,0 +1,147 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.export.ExportFormat;
+import com.Bank.Management.export.TransactionHistoryExporter;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Exportación del historial completo de cuentas con 10.000, 100.000 y 300.000 transacciones:
+// tiempo hasta el primer byte, tiempo total y pico de la generación vieja del heap durante la exportación.
+// El tiempo al primer byte y la memoria retenida deben mantenerse casi constantes al crecer el historial
+// (el eden se llena y se vacía con la basura de cada bloque; lo que se acumula termina en la generación vieja).
+// La base H2 en memoria vive en el mismo heap, así que se informa el crecimiento sobre lo ocupado antes de exportar.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class HistoryExportBenchmark {
+
+    @Test
+    void exportTimeAndMemoryByHistorySize() throws Exception {
+        System.out.printf("%-10s %-8s %18s %14s %14s %16s%n", "filas", "formato", "primer byte (ms)", "total (ms)", "MB escritos", "+old gen (MB)");
+        for (int history : new int[]{10_000, 100_000, 300_000}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:mem:export-benchmark-" + history + ";DB_CLOSE_DELAY=-1",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.root=WARN",
+                            "--spring.main.banner-mode=off")) {
+
+                String account = createHistory(context, history);
+                TransactionHistoryExporter exporter = context.getBean(TransactionHistoryExporter.class);
+                for (ExportFormat format : ExportFormat.values()) {
+                    exporter.export(account, format).writeTo(OutputStream.nullOutputStream());
+
+                    System.gc();
+                    resetPeakOldGen();
+                    long baseline = usedOldGen();
+                    CountingOutputStream out = new CountingOutputStream();
+                    long start = System.nanoTime();
+                    exporter.export(account, format).writeTo(out);
+                    long total = System.nanoTime() - start;
+                    System.out.printf("%-10d %-8s %18.2f %14.1f %14.1f %16.1f%n", history, format.getExtension(),
+                            (out.firstByteAt - start) / 1_000_000.0, total / 1_000_000.0,
+                            out.count / 1_048_576.0, (peakOldGen() - baseline) / 1_048_576.0);
+                }
+            }
+        }
+    }
+
+    private String createHistory(ConfigurableApplicationContext context, int history) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("33333333");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        String account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        List<Long> others = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String other = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+            others.add(jdbcTemplate.queryForObject("select id from BANK_ACCOUNTS where account_number = ?", Long.class, other));
+        }
+        Long accountId = jdbcTemplate.queryForObject("select id from BANK_ACCOUNTS where account_number = ?", Long.class, account);
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= history; i++) {
+            boolean outgoing = i % 2 == 0;
+            Long counterpart = others.get(i % others.size());
+            rows.add(new Object[]{(long) i, 100L + i, Timestamp.valueOf(start.plusSeconds(i)), "Transferencia",
+                    outgoing ? accountId : counterpart, outgoing ? counterpart : accountId});
+            if (rows.size() == 5_000) {
+                insert(jdbcTemplate, rows);
+            }
+        }
+        insert(jdbcTemplate, rows);
+        jdbcTemplate.execute("analyze");
+        return account;
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void resetPeakOldGen() {
+        oldGenPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private long peakOldGen() {
+        return oldGenPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private long usedOldGen() {
+        return oldGenPools().stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+
+    private List<MemoryPoolMXBean> oldGenPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"))
+                .toList();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+        private long firstByteAt;
+
+        @Override
+        public void write(int b) {
+            mark(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mark(len);
+        }
+
+        private void mark(int len) {
+            if (count == 0 && len > 0) {
+                firstByteAt = System.nanoTime();
+            }
+            count += len;
+        }
+    }
+}
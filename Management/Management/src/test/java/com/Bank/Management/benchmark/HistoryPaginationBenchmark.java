@@ -0,0 +1,117 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+// Latencia de una página del historial según su profundidad, en una cuenta con 200.000 transacciones:
+// paginación por cursor (keyset) contra LIMIT/OFFSET sobre la misma consulta.
+// Con keyset la latencia debe mantenerse igual en la primera página y en la última.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class HistoryPaginationBenchmark {
+
+    private static final int HISTORY = 200_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void keysetVersusOffsetByDepth() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:history-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.main.banner-mode=off")) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            String account = createHistory(context, jdbcTemplate);
+            Long accountId = jdbcTemplate.queryForObject("select id from BANK_ACCOUNTS where account_number = ?", Long.class, account);
+
+            System.out.printf("%-12s %16s %16s%n", "profundidad", "keyset (ms)", "offset (ms)");
+            for (int depth : new int[]{0, 1_000, 50_000, 100_000, 199_000}) {
+                Map<String, Object> row = jdbcTemplate.queryForMap(
+                        "select transaction_date, id from TRANSACTION where source_account_id = ? or target_account_id = ? " +
+                                "order by transaction_date desc, id desc limit 1 offset ?", accountId, accountId, Math.max(0, depth - 1));
+                String cursor = depth == 0 ? null : cursor(((Timestamp) row.get("TRANSACTION_DATE")).toLocalDateTime(), ((Number) row.get("ID")).longValue());
+
+                double keyset = average(() -> transactionService.getHistoryByAccountNumber(account, cursor, PAGE_SIZE, null));
+                double offset = average(() -> jdbcTemplate.queryForList(
+                        "select id from TRANSACTION where source_account_id = ? or target_account_id = ? " +
+                                "order by transaction_date desc, id desc limit ? offset ?", accountId, accountId, PAGE_SIZE, depth));
+                System.out.printf("%-12d %16.3f %16.3f%n", depth, keyset, offset);
+            }
+        }
+    }
+
+    // La mitad salientes y la mitad entrantes, insertadas por JDBC en lotes.
+    private String createHistory(ConfigurableApplicationContext context, JdbcTemplate jdbcTemplate) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("55555555");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        String account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        String other = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        Long accountId = jdbcTemplate.queryForObject("select id from BANK_ACCOUNTS where account_number = ?", Long.class, account);
+        Long otherId = jdbcTemplate.queryForObject("select id from BANK_ACCOUNTS where account_number = ?", Long.class, other);
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= HISTORY; i++) {
+            boolean outgoing = i % 2 == 0;
+            rows.add(new Object[]{(long) i, 100L, Timestamp.valueOf(start.plusSeconds(i)), "Transferencia",
+                    outgoing ? accountId : otherId, outgoing ? otherId : accountId});
+            if (rows.size() == 5_000) {
+                insert(jdbcTemplate, rows);
+            }
+        }
+        insert(jdbcTemplate, rows);
+        jdbcTemplate.execute("analyze");
+        return account;
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private double average(Runnable page) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            page.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            page.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    // Mismo formato opaco que devuelve la API en nextCursor.
+    private String cursor(LocalDateTime transactionDate, long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((transactionDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.response.JournalMetricsDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.journal.JournalRecord;
+import com.Bank.Management.journal.LedgerJournal;
+import com.Bank.Management.journal.MappedJournal;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Escritura y recuperación del diario de movimientos con 10M registros:
+// - throughput de append sin forzar (grupos de 256) y forzando a disco cada grupo de 1 y de 256 registros,
+// - tiempo de reabrir el diario (validar los CRC de todos los registros) y de recorrerlo,
+// - tiempo de arranque de la aplicación cuando la base perdió los 10M movimientos y hay que reaplicarlos.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class LedgerJournalBenchmark {
+
+    private static final int RECORDS = 10_000_000;
+    private static final int GROUP = 256;
+    private static final int FORCED_RECORDS = 100_000;
+    private static final int SEGMENT_RECORDS = 1 << 20;
+    private static final int ACCOUNTS = 16;
+    private static final long FIRST_TRANSACTION_ID = 1_000_000_000L;
+
+    @Test
+    void appendThroughputAndRecoveryTime() throws Exception {
+        Path directory = Files.createTempDirectory("ledger-journal-benchmark");
+        Path journalDirectory = directory.resolve("journal");
+
+        List<Long> accounts;
+        long balanceBefore;
+        try (ConfigurableApplicationContext context = start(directory)) {
+            accounts = createAccounts(context);
+            balanceBefore = totalBalance(context);
+        }
+
+        // El diario se escribe directamente: equivale a 10M transferencias confirmadas que la base no guardó.
+        long start = System.nanoTime();
+        try (MappedJournal journal = new MappedJournal(journalDirectory, SEGMENT_RECORDS)) {
+            List<JournalRecord> group = new ArrayList<>(GROUP);
+            long date = System.currentTimeMillis() * 1_000_000L;
+            for (int i = 0; i < RECORDS; i++) {
+                long source = accounts.get(i % ACCOUNTS);
+                long target = accounts.get((i + 1) % ACCOUNTS);
+                group.add(JournalRecord.movement(FIRST_TRANSACTION_ID + i, source, target, 1, date + i, false));
+                if (group.size() == GROUP) {
+                    journal.append(group);
+                    group.clear();
+                }
+            }
+            journal.append(group);
+        }
+        report("append sin force (grupos de " + GROUP + ")", RECORDS, System.nanoTime() - start);
+
+        forcedAppends(directory.resolve("forced-1"), 1);
+        forcedAppends(directory.resolve("forced-" + GROUP), GROUP);
+
+        start = System.nanoTime();
+        try (MappedJournal journal = new MappedJournal(journalDirectory, SEGMENT_RECORDS)) {
+            report("reabrir y validar CRC", RECORDS, System.nanoTime() - start);
+            assertEquals(RECORDS, journal.lastLsn());
+
+            long[] amount = new long[1];
+            start = System.nanoTime();
+            journal.scan(0, record -> amount[0] += record.amountCents());
+            report("recorrer", RECORDS, System.nanoTime() - start);
+            assertEquals(RECORDS, amount[0]);
+        }
+
+        start = System.nanoTime();
+        try (ConfigurableApplicationContext context = start(directory)) {
+            long startupNanos = System.nanoTime() - start;
+            JournalMetricsDto metrics = context.getBean(LedgerJournal.class).getMetrics();
+            report("reaplicar en H2 (replay)", metrics.getReplayedRecords(), metrics.getReplayMillis() * 1_000_000L);
+            System.out.printf("arranque completo de la aplicación: %.1f s (segmentos después del checkpoint: %d)%n",
+                    startupNanos / 1e9, metrics.getSegments());
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals(RECORDS, metrics.getReplayedRecords());
+            assertEquals((long) RECORDS, jdbcTemplate.queryForObject("select count(*) from TRANSACTION where id >= ?", Long.class, FIRST_TRANSACTION_ID));
+            assertEquals(balanceBefore, totalBalance(context));
+        }
+
+        deleteRecursively(directory);
+    }
+
+    // Cada grupo se escribe y se lleva a disco antes del siguiente, como hace un commit con force-on-commit.
+    private void forcedAppends(Path directory, int groupSize) {
+        long start = System.nanoTime();
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_RECORDS)) {
+            List<JournalRecord> group = new ArrayList<>(groupSize);
+            for (int i = 0; i < FORCED_RECORDS; i++) {
+                group.add(JournalRecord.movement(i + 1, 1, 2, 1, i, false));
+                if (group.size() == groupSize) {
+                    journal.force(journal.append(group));
+                    group.clear();
+                }
+            }
+        }
+        report("append con force (grupos de " + groupSize + ")", FORCED_RECORDS, System.nanoTime() - start);
+    }
+
+    private ConfigurableApplicationContext start(Path directory) {
+        return new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("bankdb").toAbsolutePath(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bank.snapshots.enabled=false",
+                        "--bank.journal.enabled=true",
+                        "--bank.journal.directory=" + directory.resolve("journal").toAbsolutePath(),
+                        "--bank.journal.segment-records=" + SEGMENT_RECORDS);
+    }
+
+    private List<Long> createAccounts(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(10_000_000.00), userId)).getId());
+        }
+        return ids;
+    }
+
+    private long totalBalance(ConfigurableApplicationContext context) {
+        return context.getBean(JdbcTemplate.class).queryForObject("select sum(balance_cents) from BANK_ACCOUNTS", Long.class);
+    }
+
+    private void report(String label, long records, long nanos) {
+        System.out.printf("%-38s %,12d registros %10.2f s %,14.0f registros/s%n",
+                label, records, nanos / 1e9, records * 1e9 / Math.max(1, nanos));
+    }
+
+    private void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.money.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Compara la aritmética de saldos anterior (double con ida y vuelta por BigDecimal) contra centavos en long:
+// throughput, bytes asignados por operación y diferencia del total final contra el valor exacto.
+// Cada operación es una transferencia de 0.10 entre dos de 64 cuentas; el monto llega como BigDecimal (DTO).
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class MoneyRepresentationBenchmark {
+
+    private static final int ACCOUNTS = 64;
+    private static final long WARMUP_MS = 1_000;
+    private static final long DURATION_MS = 2_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.10");
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void doubleWithBigDecimalVersusLongMinorUnits() {
+        System.out.printf("%-28s %14s %12s %22s%n", "representación", "ops/s", "bytes/op", "desvío del total");
+        run("double + BigDecimal", new LegacyDoubleLedger());
+        run("long (centavos)", new MinorUnitsLedger());
+    }
+
+    private void run(String name, Ledger ledger) {
+        measure(ledger, WARMUP_MS);
+        ledger.reset();
+
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long operations = measure(ledger, DURATION_MS);
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        // Las transferencias no crean ni destruyen dinero: el total debería seguir siendo exacto.
+        BigDecimal expected = INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS));
+        System.out.printf("%-28s %14.0f %12.1f %22s%n",
+                name,
+                operations * 1_000.0 / DURATION_MS,
+                (double) allocated / operations,
+                ledger.total().subtract(expected).toPlainString());
+    }
+
+    private long measure(Ledger ledger, long durationMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        long operations = 0;
+        while (System.nanoTime() < deadline) {
+            // Se revisa el reloj cada 1024 operaciones para no medir System.nanoTime().
+            for (int i = 0; i < 1_024; i++) {
+                int from = (int) (operations % ACCOUNTS);
+                int to = (int) ((operations * 7 + 1) % ACCOUNTS);
+                ledger.transfer(from, to == from ? (to + 1) % ACCOUNTS : to, AMOUNT);
+                operations++;
+            }
+        }
+        return operations;
+    }
+
+    private interface Ledger {
+
+        void transfer(int from, int to, BigDecimal amount);
+
+        BigDecimal total();
+
+        void reset();
+    }
+
+    // Enfoque anterior: el saldo es double y cada operación pasa por BigDecimal.valueOf(...) y .doubleValue().
+    private static final class LegacyDoubleLedger implements Ledger {
+
+        private final double[] balances = new double[ACCOUNTS];
+
+        private LegacyDoubleLedger() {
+            reset();
+        }
+
+        @Override
+        public void transfer(int from, int to, BigDecimal amount) {
+            BigDecimal sourceBalance = BigDecimal.valueOf(balances[from]);
+            if (sourceBalance.compareTo(amount) < 0) {
+                return;
+            }
+            balances[from] = sourceBalance.subtract(amount).doubleValue();
+            balances[to] = BigDecimal.valueOf(balances[to]).add(amount).doubleValue();
+        }
+
+        @Override
+        public BigDecimal total() {
+            double total = 0.0;
+            for (double balance : balances) {
+                total += balance;
+            }
+            return BigDecimal.valueOf(total);
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(balances, INITIAL_BALANCE.doubleValue());
+        }
+    }
+
+    // Enfoque actual: el monto se convierte una vez a centavos y la aritmética es sobre long.
+    private static final class MinorUnitsLedger implements Ledger {
+
+        private final long[] balances = new long[ACCOUNTS];
+
+        private MinorUnitsLedger() {
+            reset();
+        }
+
+        @Override
+        public void transfer(int from, int to, BigDecimal amount) {
+            long cents = Money.toMinorUnits(amount);
+            if (balances[from] < cents) {
+                return;
+            }
+            balances[from] -= cents;
+            balances[to] = Math.addExact(balances[to], cents);
+        }
+
+        @Override
+        public BigDecimal total() {
+            long total = 0;
+            for (long balance : balances) {
+                total = Math.addExact(total, balance);
+            }
+            return Money.toDecimal(total);
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(balances, Money.toMinorUnits(INITIAL_BALANCE));
+        }
+    }
+}
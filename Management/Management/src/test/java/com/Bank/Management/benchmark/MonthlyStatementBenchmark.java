@@ -0,0 +1,121 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.response.StatementRunReportDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.StatementPartitionRepository;
+import com.Bank.Management.repository.StatementRunRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.sharding.ShardRouter;
+import com.Bank.Management.statement.MonthlyStatementEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Extractos mensuales de 20.000 cuentas con 200.000 movimientos en el mes: cuentas por segundo según el
+// paralelismo del ForkJoinPool. Cada configuración genera el mes desde cero sobre los mismos datos.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class MonthlyStatementBenchmark {
+
+    private static final int ACCOUNTS = 20_000;
+    private static final int TRANSACTIONS = 200_000;
+    private static final int PARTITION_SIZE = 500;
+
+    @Test
+    void accountsPerSecondByParallelism() throws Exception {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        Path directory = Files.createTempDirectory("statements-benchmark");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:statement-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.main.banner-mode=off",
+                        "--bank.snapshots.enabled=false")) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            createData(context, jdbcTemplate, month);
+
+            System.out.printf("%-12s %12s %14s %14s %14s%n", "paralelismo", "particiones", "movimientos", "total (ms)", "cuentas/s");
+            for (int parallelism : new int[]{1, 2, 4, 8}) {
+                jdbcTemplate.update("delete from STATEMENT_PARTITIONS");
+                jdbcTemplate.update("delete from STATEMENT_RUNS");
+                MonthlyStatementEngine engine = new MonthlyStatementEngine(
+                        context.getBean(BankAccountRepository.class),
+                        context.getBean(TransactionRepository.class),
+                        context.getBean(StatementRunRepository.class),
+                        context.getBean(StatementPartitionRepository.class),
+                        context.getBean(PlatformTransactionManager.class),
+                        context.getBean(ShardRouter.class),
+                        directory.resolve("p" + parallelism).toString(), PARTITION_SIZE, parallelism);
+
+                StatementRunReportDto report = engine.generate(month);
+                System.out.printf("%-12d %12d %14d %14d %14.0f%n", parallelism, report.getPartitions(),
+                        report.getTransactions(), report.getElapsedMs(), report.getAccountsPerSecond());
+            }
+        }
+    }
+
+    private void createData(ConfigurableApplicationContext context, JdbcTemplate jdbcTemplate, YearMonth month) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("99999999");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        Timestamp opened = Timestamp.valueOf(month.minusMonths(1).atDay(1).atStartOfDay());
+        List<Object[]> accounts = new ArrayList<>();
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            accounts.add(new Object[]{(long) i, String.format("46%08d-00", i), 1_000_000L, userId, opened});
+            if (accounts.size() == 5_000) {
+                insertAccounts(jdbcTemplate, accounts);
+            }
+        }
+        insertAccounts(jdbcTemplate, accounts);
+
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        long monthSeconds = month.lengthOfMonth() * 86_400L;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= TRANSACTIONS; i++) {
+            long source = 1 + random.nextInt(ACCOUNTS);
+            long target = 1 + (source + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            rows.add(new Object[]{(long) i, 100L + random.nextInt(10_000), Timestamp.valueOf(from.plusSeconds(random.nextLong(monthSeconds))),
+                    "Transferencia", source, target});
+            if (rows.size() == 5_000) {
+                insertTransactions(jdbcTemplate, rows);
+            }
+        }
+        insertTransactions(jdbcTemplate, rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    private void insertAccounts(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into BANK_ACCOUNTS (id, account_number, balance_cents, version, user_id, created_at) " +
+                "values (?, ?, ?, 0, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertTransactions(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+        rows.clear();
+    }
+}
@@ -0,0 +1,153 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.ConcurrentUpdateException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+// Compara transferencias con versión optimista + reintentos (servicio real, sin bloqueos en memoria)
+// contra la misma operación con SELECT ... FOR UPDATE sobre ambas filas.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimistic-benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "bank.locks.enabled=false",
+        "bank.retry.max-attempts=20"
+})
+class OptimisticVsPessimisticBenchmark {
+
+    private static final int THREADS = 16;
+    private static final long DURATION_MS = 3_000;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void optimisticVersusPessimisticThroughput() throws Exception {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = userRepository.save(user).getId();
+
+        System.out.printf("%-12s %-8s %12s %12s %10s%n", "estrategia", "cuentas", "ops/s", "reintentos", "abortos");
+        for (int accounts : new int[]{4, 64}) {
+            List<String> numbers = createAccounts(userId, accounts);
+            long retriesBefore = optimisticRetryExecutor.getMetrics().getRetries();
+            long abortsBefore = optimisticRetryExecutor.getMetrics().getAborts();
+            double optimistic = run(numbers, (from, to) ->
+                    transactionService.transfer(new TransferRequestDto(from, to, BigDecimal.ONE)));
+            System.out.printf("%-12s %-8d %12.0f %12d %10d%n", "optimista", accounts, optimistic,
+                    optimisticRetryExecutor.getMetrics().getRetries() - retriesBefore,
+                    optimisticRetryExecutor.getMetrics().getAborts() - abortsBefore);
+
+            double pessimistic = run(numbers, this::pessimisticTransfer);
+            System.out.printf("%-12s %-8d %12.0f %12s %10s%n", "pesimista", accounts, pessimistic, "-", "-");
+        }
+    }
+
+    private List<String> createAccounts(Long userId, int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000_000.00), userId)).getAccountNumber());
+        }
+        return numbers;
+    }
+
+    private double run(List<String> numbers, BiConsumer<String, String> transfer) throws Exception {
+        LongAdder operations = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(numbers.size());
+                    int to = (from + 1 + random.nextInt(numbers.size() - 1)) % numbers.size();
+                    try {
+                        transfer.accept(numbers.get(from), numbers.get(to));
+                        operations.increment();
+                    } catch (InsufficientFundsException | ConcurrentUpdateException ignored) {
+                        // Solo se cuentan las transferencias confirmadas.
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return operations.sum() * 1_000.0 / DURATION_MS;
+    }
+
+    // Bloqueo de filas en orden de número de cuenta para evitar interbloqueos en la base de datos.
+    private void pessimisticTransfer(String sourceNumber, String targetNumber) {
+        transactionTemplate.executeWithoutResult(status -> {
+            boolean sourceFirst = sourceNumber.compareTo(targetNumber) < 0;
+            BankAccount first = lockAccount(sourceFirst ? sourceNumber : targetNumber);
+            BankAccount second = lockAccount(sourceFirst ? targetNumber : sourceNumber);
+            BankAccount source = sourceFirst ? first : second;
+            BankAccount target = sourceFirst ? second : first;
+
+            if (source.getBalanceCents() < 100) {
+                throw new InsufficientFundsException("Saldo insuficiente en la cuenta de origen.");
+            }
+            source.setBalanceCents(source.getBalanceCents() - 100);
+            target.setBalanceCents(target.getBalanceCents() + 100);
+
+            Transaction transaction = new Transaction();
+            transaction.setAmountCents(100);
+            transaction.setDescription("Transferencia de " + sourceNumber + " a " + targetNumber);
+            transaction.setTransactionDate(LocalDateTime.now());
+            transaction.setSourceAccount(source);
+            transaction.setTargetAccount(target);
+            entityManager.persist(transaction);
+        });
+    }
+
+    private BankAccount lockAccount(String accountNumber) {
+        return entityManager.createQuery("select a from BankAccount a where a.accountNumber = :accountNumber", BankAccount.class)
+                .setParameter("accountNumber", accountNumber)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getSingleResult();
+    }
+}
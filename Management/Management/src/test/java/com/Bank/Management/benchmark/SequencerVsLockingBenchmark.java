@@ -0,0 +1,134 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compara el camino actual (transacción por operación + bloqueos por cuenta) contra el modo "sequencer"
+// con 1, 2, 4 y 8 shards: throughput y latencias p50/p99 de transferencias concurrentes.
+// Cada configuración arranca su propio contexto con una base H2 en memoria nueva.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class SequencerVsLockingBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int ACCOUNTS = 64;
+    private static final long WARMUP_MS = 1_000;
+    private static final long DURATION_MS = 3_000;
+
+    @Test
+    void lockingVersusShardedSequencer() throws Exception {
+        System.out.printf("%-12s %-7s %10s %10s %10s %10s%n", "modo", "shards", "ops/s", "p50 (ms)", "p99 (ms)", "max (ms)");
+        run("locking", 0);
+        for (int shards : new int[]{1, 2, 4, 8}) {
+            run("sequencer", shards);
+        }
+    }
+
+    private void run(String mode, int shards) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:sequencer-benchmark-" + mode + shards + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--bank.execution.mode=" + mode,
+                        "--bank.sequencer.shards=" + Math.max(1, shards),
+                        "--bank.retry.max-attempts=20")) {
+
+            List<String> numbers = createAccounts(context);
+            TransactionService transactionService = context.getBean(TransactionService.class);
+
+            measure(transactionService, numbers, WARMUP_MS);
+            long[] latencies = measure(transactionService, numbers, DURATION_MS);
+
+            Arrays.sort(latencies);
+            System.out.printf("%-12s %-7s %10.0f %10.2f %10.2f %10.2f%n",
+                    mode,
+                    shards == 0 ? "-" : String.valueOf(shards),
+                    latencies.length * 1_000.0 / DURATION_MS,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1_000_000.0);
+        }
+    }
+
+    private List<String> createAccounts(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            numbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000_000.00), userId)).getAccountNumber());
+        }
+        return numbers;
+    }
+
+    // Devuelve la latencia en nanosegundos de cada transferencia confirmada dentro del intervalo.
+    private long[] measure(TransactionService transactionService, List<String> numbers, long durationMs) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1_024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(numbers.size());
+                    int to = (from + 1 + random.nextInt(numbers.size() - 1)) % numbers.size();
+                    long start = System.nanoTime();
+                    try {
+                        transactionService.transfer(new TransferRequestDto(numbers.get(from), numbers.get(to), BigDecimal.ONE));
+                    } catch (InsufficientFundsException ignored) {
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+
+        List<long[]> results = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            results.add(worker.get());
+        }
+        executor.shutdown();
+        return results.stream().flatMapToLong(Arrays::stream).toArray();
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.Bank.Management.benchmark;
+
+import com.Bank.Management.ManagementApplication;
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import com.Bank.Management.sharding.ShardRouter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Throughput con 1 (sin shards), 2, 4 y 8 shards, cada uno una base H2 en archivo: la mitad de las operaciones son
+// depósitos y la otra mitad transferencias entre cuentas al azar (dentro de un shard o entre shards).
+// Cada configuración arranca su propio contexto sobre un directorio nuevo.
+// Se ejecuta con: ./gradlew benchmark
+@Tag("benchmark")
+class ShardScalingBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int ACCOUNTS = 256;
+    private static final long WARMUP_MS = 1_000;
+    private static final long DURATION_MS = 4_000;
+
+    @Test
+    void throughputByShardCount() throws Exception {
+        System.out.printf("%-7s %10s %12s %14s%n", "shards", "ops/s", "depósitos/s", "transfer./s");
+        for (int shards : new int[]{1, 2, 4, 8}) {
+            run(shards);
+        }
+    }
+
+    private void run(int shards) throws Exception {
+        Path directory = Files.createTempDirectory("shard-benchmark-");
+        List<String> shardUrls = new ArrayList<>();
+        for (int shard = 1; shard < shards; shard++) {
+            shardUrls.add(url(directory, shard));
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url(directory, 0),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.level.root=WARN",
+                        "--bank.sharding.shards=" + String.join(",", shardUrls),
+                        "--bank.retry.max-attempts=20")) {
+
+            List<String> numbers = createAccounts(context);
+            BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            ShardRouter shardRouter = context.getBean(ShardRouter.class);
+
+            measure(bankAccountService, transactionService, shardRouter, numbers, WARMUP_MS);
+            long[] counts = measure(bankAccountService, transactionService, shardRouter, numbers, DURATION_MS);
+
+            double seconds = DURATION_MS / 1_000.0;
+            System.out.printf("%-7d %10.0f %12.0f %14.0f  (entre shards: %.0f%%)%n",
+                    shards,
+                    (counts[0] + counts[1]) / seconds,
+                    counts[0] / seconds,
+                    counts[1] / seconds,
+                    counts[1] == 0 ? 0.0 : counts[2] * 100.0 / counts[1]);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    private String url(Path directory, int shard) {
+        return "jdbc:h2:file:" + directory.resolve("shard-" + shard).toAbsolutePath() + ";LOCK_TIMEOUT=10000";
+    }
+
+    private List<String> createAccounts(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@bank.com");
+        user.setPassword("password123");
+        user.setDni("88888888");
+        Long userId = context.getBean(UserRepository.class).save(user).getId();
+
+        BankAccountService bankAccountService = context.getBean(BankAccountService.class);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            numbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000_000.00), userId)).getAccountNumber());
+        }
+        return numbers;
+    }
+
+    // Devuelve {depósitos, transferencias, transferencias entre shards} confirmados dentro del intervalo.
+    private long[] measure(BankAccountService bankAccountService, TransactionService transactionService, ShardRouter shardRouter,
+                           List<String> numbers, long durationMs) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] counts = new long[3];
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(numbers.size());
+                    if (random.nextBoolean()) {
+                        bankAccountService.deposit(new AccountOperationDto(numbers.get(from), BigDecimal.ONE));
+                        counts[0]++;
+                        continue;
+                    }
+                    int to = (from + 1 + random.nextInt(numbers.size() - 1)) % numbers.size();
+                    try {
+                        transactionService.transfer(new TransferRequestDto(numbers.get(from), numbers.get(to), BigDecimal.ONE));
+                    } catch (InsufficientFundsException ignored) {
+                        continue;
+                    }
+                    counts[1]++;
+                    if (shardRouter.shardOfAccount(numbers.get(from)) != shardRouter.shardOfAccount(numbers.get(to))) {
+                        counts[2]++;
+                    }
+                }
+                return counts;
+            }));
+        }
+
+        long[] totals = new long[3];
+        for (Future<long[]> worker : workers) {
+            long[] counts = worker.get();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+        }
+        executor.shutdown();
+        return totals;
+    }
+}
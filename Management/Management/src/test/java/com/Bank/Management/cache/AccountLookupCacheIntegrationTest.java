@@ -0,0 +1,83 @@
+package com.Bank.Management.cache;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import com.Bank.Management.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account-lookup-cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class AccountLookupCacheIntegrationTest {
+
+    @Autowired
+    private AccountLookupCache accountLookupCache;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("cache");
+        user.setEmail("cache@bank.com");
+        user.setPassword("password123");
+        user.setDni("33333333");
+        userId = userRepository.save(user).getId();
+    }
+
+    // Objetivo: Las operaciones repetidas sobre las mismas cuentas resuelven el número desde la caché, y al borrar
+    // la cuenta (o su usuario) la entrada se invalida al confirmar: la operación siguiente ya no la encuentra.
+    @Test
+    void operationsHitTheCacheAndDeletesInvalidateOnCommit() {
+        BankAccountResponseDto first = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId));
+        String second = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getAccountNumber();
+
+        long hitsBefore = accountLookupCache.getMetrics().getHits();
+        for (int i = 0; i < 5; i++) {
+            bankAccountService.deposit(new AccountOperationDto(first.getAccountNumber(), BigDecimal.ONE));
+            transactionService.transfer(new TransferRequestDto(first.getAccountNumber(), second, BigDecimal.ONE));
+        }
+        assertTrue(accountLookupCache.getMetrics().getHits() - hitsBefore >= 12);
+
+        bankAccountService.deleteAccount(first.getId());
+        assertThrows(DataNotFoundException.class,
+                () -> bankAccountService.deposit(new AccountOperationDto(first.getAccountNumber(), BigDecimal.ONE)));
+
+        userService.delete(userId);
+        assertThrows(DataNotFoundException.class,
+                () -> bankAccountService.withdraw(new AccountOperationDto(second, BigDecimal.ONE)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.Bank.Management.cache;
+
+import com.Bank.Management.dto.response.AccountCacheMetricsDto;
+import com.Bank.Management.repository.BankAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountLookupCacheTest {
+
+    private static final String NUMBER = "4512345678-01";
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    private AccountLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AccountLookupCache(bankAccountRepository, 16);
+    }
+
+    // Objetivo: La primera búsqueda va a la base de datos y las siguientes salen de la caché
+    @Test
+    void findId_secondLookupIsAHit() {
+        when(bankAccountRepository.findIdByAccountNumber(NUMBER)).thenReturn(Optional.of(7L));
+
+        assertEquals(Optional.of(7L), cache.findId(NUMBER));
+        assertEquals(Optional.of(7L), cache.findId(NUMBER));
+
+        verify(bankAccountRepository, times(1)).findIdByAccountNumber(NUMBER);
+        AccountCacheMetricsDto metrics = cache.getMetrics();
+        assertEquals(1, metrics.getHits());
+        assertEquals(1, metrics.getMisses());
+        assertEquals(0.5, metrics.getHitRate());
+        assertEquals(1, metrics.getSize());
+    }
+
+    // Objetivo: Un número inexistente no se guarda: una cuenta creada después se encuentra
+    @Test
+    void findId_missingAccountIsNotCached() {
+        when(bankAccountRepository.findIdByAccountNumber(NUMBER)).thenReturn(Optional.empty()).thenReturn(Optional.of(7L));
+
+        assertTrue(cache.findId(NUMBER).isEmpty());
+        assertEquals(Optional.of(7L), cache.findId(NUMBER));
+
+        verify(bankAccountRepository, times(2)).findIdByAccountNumber(NUMBER);
+    }
+
+    // Objetivo: Fuera de una transacción la invalidación es inmediata y la siguiente búsqueda vuelve a la base de datos
+    @Test
+    void invalidate_withoutTransaction_removesEntry() {
+        when(bankAccountRepository.findIdByAccountNumber(NUMBER)).thenReturn(Optional.of(7L)).thenReturn(Optional.empty());
+        cache.findId(NUMBER);
+
+        cache.invalidateAfterCommit(NUMBER);
+
+        assertTrue(cache.findId(NUMBER).isEmpty());
+        assertEquals(1, cache.getMetrics().getInvalidations());
+    }
+
+    // Objetivo: Una carga que leyó la fila antes de una invalidación no deja la entrada obsoleta en la caché
+    @Test
+    void findId_loadRacingInvalidation_isNotStored() {
+        when(bankAccountRepository.findIdByAccountNumber(NUMBER)).thenAnswer(invocation -> {
+            cache.invalidateAfterCommit(NUMBER);
+            return Optional.of(7L);
+        }).thenReturn(Optional.empty());
+
+        assertEquals(Optional.of(7L), cache.findId(NUMBER));
+        assertTrue(cache.findId(NUMBER).isEmpty());
+        assertEquals(0, cache.getMetrics().getSize());
+    }
+
+    // Objetivo: Al superar la capacidad se desaloja la entrada menos usada y el tamaño queda acotado
+    @Test
+    void findId_beyondCapacity_evictsLeastRecentlyUsed() {
+        for (long i = 0; i < 200; i++) {
+            when(bankAccountRepository.findIdByAccountNumber("n" + i)).thenReturn(Optional.of(i));
+            cache.findId("n" + i);
+        }
+
+        AccountCacheMetricsDto metrics = cache.getMetrics();
+        assertTrue(metrics.getSize() <= 16);
+        assertEquals(200 - metrics.getSize(), metrics.getEvictions());
+        cache.invalidateAfterCommit(List.of());
+        assertEquals(0, cache.getMetrics().getInvalidations());
+    }
+}
@@ -0,0 +1,81 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.dto.response.LockMetricsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    private AccountLockManager lockManager;
+
+    private final String ACCOUNT_A = "4512345678-01";
+    private final String ACCOUNT_B = "4587654321-02";
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new AccountLockManager(64, true);
+    }
+
+    // Objetivo: La cantidad de stripes se redondea a la siguiente potencia de dos.
+    @Test
+    void stripeCount_isRoundedToPowerOfTwo() {
+        assertEquals(128, new AccountLockManager(100, true).getMetrics().getStripes());
+        assertEquals(64, lockManager.getMetrics().getStripes());
+    }
+
+    // Objetivo: Un mismo número de cuenta siempre cae en el mismo stripe.
+    @Test
+    void stripeFor_isStable() {
+        assertEquals(lockManager.stripeFor(ACCOUNT_A), lockManager.stripeFor(ACCOUNT_A));
+        assertTrue(lockManager.stripeFor(ACCOUNT_A) < 64);
+    }
+
+    // Objetivo: Sin transacción activa, los bloqueos se liberan al terminar la acción, incluso si falla.
+    @Test
+    void callWithLocks_releasesLocksAfterFailure() {
+        assertThrows(IllegalStateException.class, () -> lockManager.callWithLocks(() -> {
+            throw new IllegalStateException("fallo");
+        }, ACCOUNT_A, ACCOUNT_B));
+
+        String result = lockManager.callWithLocks(() -> "ok", ACCOUNT_A, ACCOUNT_B);
+
+        assertEquals("ok", result);
+    }
+
+    // Objetivo: Transferencias cruzadas A->B y B->A no generan interbloqueo y no pierden actualizaciones.
+    @Test
+    void callWithLocks_crossedTransfers_doNotDeadlock() throws InterruptedException {
+        long[] balances = {100_000, 100_000};
+        int operations = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(operations);
+
+        for (int i = 0; i < operations; i++) {
+            boolean forward = i % 2 == 0;
+            executor.execute(() -> {
+                lockManager.callWithLocks(() -> {
+                    int from = forward ? 0 : 1;
+                    balances[from] -= 1;
+                    balances[1 - from] += 1;
+                    return null;
+                }, forward ? ACCOUNT_A : ACCOUNT_B, forward ? ACCOUNT_B : ACCOUNT_A);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        LockMetricsDto metrics = lockManager.getMetrics();
+        assertEquals(200_000, balances[0] + balances[1]);
+        assertEquals(100_000, balances[0]);
+        assertTrue(metrics.getAcquisitions() >= operations);
+    }
+}
@@ -0,0 +1,150 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.response.NettingMetricsDto;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.journal.LedgerJournal;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import com.Bank.Management.repository.projection.PendingCreditTotal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountCreditBufferTest {
+
+    private static final String HOT = "4500000000-01";
+    private static final Long HOT_ID = 7L;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountEventStore accountEventStore;
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    private HotAccountCreditBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        OptimisticRetryExecutor retryExecutor = new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 0, 0);
+        buffer = new HotAccountCreditBuffer(bankAccountRepository, transactionRepository, new AccountLockManager(16, true), retryExecutor, new ShardedCommandSequencer(retryExecutor, new ReadYourWritesTracker(1000), "locking", 1, 16, 8, 0), accountEventStore, ledgerJournal, List.of(HOT, " "), 50, 100);
+    }
+
+    // Objetivo: Solo las cuentas configuradas se consideran calientes (los valores en blanco se ignoran).
+    @Test
+    void isHot_onlyConfiguredAccounts() {
+        assertTrue(buffer.isHot(HOT));
+        assertFalse(buffer.isHot("4500000000-02"));
+        assertFalse(buffer.isHot(null));
+        assertEquals(1, buffer.getMetrics().getHotAccounts());
+    }
+
+    // Objetivo: Varios créditos pendientes se aplican con un solo UPDATE por su suma.
+    @Test
+    void flush_appliesAggregatedCredit() {
+        buffer.deferCredit(HOT, HOT_ID, 1L, 1_000L);
+        buffer.deferCredit(HOT, HOT_ID, 2L, 1_500L);
+        buffer.deferCredit(HOT, HOT_ID, 3L, 500L);
+        assertEquals(new BigDecimal("30.00"), buffer.getMetrics().getPendingAmount());
+        when(bankAccountRepository.addToBalance(HOT_ID, 3_000L)).thenReturn(1);
+
+        buffer.flush(HOT_ID);
+
+        verify(bankAccountRepository, times(1)).addToBalance(HOT_ID, 3_000L);
+        verify(transactionRepository).clearCreditPending(List.of(1L, 2L, 3L));
+        verify(ledgerJournal).recordCredits(HOT_ID, List.of(1L, 2L, 3L));
+        NettingMetricsDto metrics = buffer.getMetrics();
+        assertEquals(new BigDecimal("0.00"), metrics.getPendingAmount());
+        assertEquals(3, metrics.getDeferredCredits());
+        assertEquals(1, metrics.getFlushes());
+        assertEquals(3, metrics.getFlushedCredits());
+    }
+
+    // Objetivo: Si el UPDATE falla, los créditos vuelven a quedar pendientes para la próxima pasada.
+    @Test
+    void flush_restoresCreditsOnFailure() {
+        buffer.deferCredit(HOT, HOT_ID, 1L, 1_000L);
+        when(bankAccountRepository.addToBalance(HOT_ID, 1_000L)).thenThrow(new DataAccessResourceFailureException("caída"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> buffer.flush(HOT_ID));
+
+        assertEquals(new BigDecimal("10.00"), buffer.getMetrics().getPendingAmount());
+        assertEquals(1, buffer.getMetrics().getPendingCredits());
+        assertEquals(0, buffer.getMetrics().getFlushes());
+    }
+
+    // Objetivo: Si el UPDATE no afecta la fila (desborde o cuenta borrada), los créditos no se pierden: vuelven a
+    // quedar pendientes y las marcas credit_pending no se limpian.
+    @Test
+    void flush_keepsCreditsWhenTheBalanceIsNotUpdated() {
+        buffer.deferCredit(HOT, HOT_ID, 1L, 1_000L);
+        buffer.deferCredit(HOT, HOT_ID, 2L, 500L);
+        when(bankAccountRepository.addToBalance(HOT_ID, 1_500L)).thenReturn(0);
+        when(bankAccountRepository.existsById(HOT_ID)).thenReturn(true);
+
+        assertThrows(InvalidOperationException.class, () -> buffer.flush(HOT_ID));
+
+        assertEquals(new BigDecimal("15.00"), buffer.getMetrics().getPendingAmount());
+        assertEquals(2, buffer.getMetrics().getPendingCredits());
+        verify(transactionRepository, never()).clearCreditPending(any());
+        verifyNoInteractions(accountEventStore);
+    }
+
+    // Objetivo: Al arrancar, un total pendiente que no se puede sumar deja sus movimientos marcados.
+    @Test
+    void recoverPendingCredits_keepsMarksWhenTheBalanceIsNotUpdated() {
+        PendingCreditTotal total = mock(PendingCreditTotal.class);
+        when(total.getAccountId()).thenReturn(HOT_ID);
+        when(total.getTotal()).thenReturn(4_200L);
+        when(transactionRepository.findPendingCreditTotals()).thenReturn(List.of(total));
+        when(bankAccountRepository.addToBalance(HOT_ID, 4_200L)).thenReturn(0);
+
+        buffer.recoverPendingCredits();
+
+        verify(transactionRepository, never()).clearCreditPendingForAccount(any());
+    }
+
+    // Objetivo: Sin créditos pendientes no se ejecuta ningún UPDATE.
+    @Test
+    void flushInCurrentTransaction_noPendingCredits_doesNothing() {
+        buffer.flushInCurrentTransaction(HOT_ID);
+
+        verifyNoInteractions(bankAccountRepository, transactionRepository);
+    }
+
+    // Objetivo: Al arrancar se aplican los créditos marcados como pendientes que quedaron sin aplicar.
+    @Test
+    void recoverPendingCredits_appliesPersistedTotals() {
+        PendingCreditTotal total = mock(PendingCreditTotal.class);
+        when(total.getAccountId()).thenReturn(HOT_ID);
+        when(total.getTotal()).thenReturn(4_200L);
+        when(transactionRepository.findPendingCreditTotals()).thenReturn(List.of(total));
+        when(bankAccountRepository.addToBalance(HOT_ID, 4_200L)).thenReturn(1);
+
+        buffer.recoverPendingCredits();
+
+        verify(bankAccountRepository).addToBalance(eq(HOT_ID), eq(4_200L));
+        verify(transactionRepository).clearCreditPendingForAccount(HOT_ID);
+        verify(bankAccountRepository, times(1)).addToBalance(any(), anyLong());
+    }
+}
@@ -0,0 +1,70 @@
+package com.Bank.Management.concurrency;
+
+import com.Bank.Management.dto.response.RetryMetricsDto;
+import com.Bank.Management.exception.ConcurrentUpdateException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryExecutorTest {
+
+    private OptimisticRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        retryExecutor = new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 1, 2);
+    }
+
+    // Objetivo: Un conflicto de versión se reintenta y la operación termina con éxito.
+    @Test
+    void execute_retriesOnOptimisticLockFailure() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryExecutor.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("BankAccount", 1L);
+            }
+            return "ok";
+        });
+
+        RetryMetricsDto metrics = retryExecutor.getMetrics();
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(0, metrics.getAborts());
+    }
+
+    // Objetivo: Al agotar los intentos se aborta con ConcurrentUpdateException.
+    @Test
+    void execute_abortsAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> retryExecutor.execute(() -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("BankAccount", 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1, retryExecutor.getMetrics().getAborts());
+    }
+
+    // Objetivo: Los errores de negocio no se reintentan.
+    @Test
+    void execute_doesNotRetryBusinessErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(InsufficientFundsException.class, () -> retryExecutor.execute(() -> {
+            calls.incrementAndGet();
+            throw new InsufficientFundsException("Saldo insuficiente.");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, retryExecutor.getMetrics().getRetries());
+    }
+}
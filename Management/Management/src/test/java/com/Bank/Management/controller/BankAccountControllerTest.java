@@ -2,12 +2,20 @@ package com.Bank.Management.controller;
 
 import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.AccountStateDto;
+import com.Bank.Management.dto.response.PointInTimeBalanceDto;
 
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.eventsourcing.AccountStateRebuildJob;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.GlobalExceptionHandler;
+import com.Bank.Management.idempotency.IdempotencyService;
+import com.Bank.Management.repository.IdempotencyRecordRepository;
 import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.snapshot.BalanceSnapshotJob;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +29,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,9 +43,21 @@ class BankAccountControllerTest {
 
     private MockMvc mockMvc;
 
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Mock
     private BankAccountService bankAccountService;
 
+    @Mock
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Mock
+    private AccountEventStore accountEventStore;
+
+    @Mock
+    private AccountStateRebuildJob accountStateRebuildJob;
+
     private BankAccountController bankAccountController;
 
     private ObjectMapper objectMapper;
@@ -50,17 +73,19 @@ class BankAccountControllerTest {
 
     @BeforeEach
     void setUp() {
-        bankAccountController = new BankAccountController(bankAccountService);
+        bankAccountController = new BankAccountController(bankAccountService,
+                new IdempotencyService(idempotencyRecordRepository, new ObjectMapper().findAndRegisterModules(), 100, 300),
+                balanceSnapshotJob, accountEventStore, accountStateRebuildJob);
         mockMvc = MockMvcBuilders.standaloneSetup(bankAccountController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
 
         objectMapper = new ObjectMapper();
-        createAccountDto = new BankAccountRequestDto(1L, DEFAULT_ACCOUNT_TYPE_ID);
+        createAccountDto = new BankAccountRequestDto(BigDecimal.ONE, DEFAULT_ACCOUNT_TYPE_ID);
         accountResponseDto = new BankAccountResponseDto();
         accountResponseDto.setId(TEST_ID);
         accountResponseDto.setAccountNumber(TEST_ACCOUNT_NUM);
-        accountResponseDto.setBalance(INITIAL_BALANCE);
+        accountResponseDto.setBalance(BigDecimal.valueOf(INITIAL_BALANCE));
         operationDto = new AccountOperationDto(TEST_ACCOUNT_NUM, BigDecimal.valueOf(OPERATION_AMOUNT_DOUBLE));
     }
 
@@ -90,7 +115,7 @@ class BankAccountControllerTest {
         // 1. Datos de salida simulados (balance después del depósito)
         double newBalance = INITIAL_BALANCE + OPERATION_AMOUNT_DOUBLE;
         BankAccountResponseDto updatedAccount = new BankAccountResponseDto();
-        updatedAccount.setBalance(newBalance);
+        updatedAccount.setBalance(BigDecimal.valueOf(newBalance));
 
         // 2. Establecer comportamientos simulados
         Mockito.when(bankAccountService.deposit(any(AccountOperationDto.class))).thenReturn(updatedAccount);
@@ -106,6 +131,25 @@ class BankAccountControllerTest {
         verify(bankAccountService).deposit(any(AccountOperationDto.class));
     }
 
+    // Objetivo: Un depósito reintentado con el mismo Idempotency-Key devuelve la misma respuesta sin depositar dos veces.
+    @Test
+    void deposit_RepeatedIdempotencyKey_ExecutesOnce() throws Exception {
+        BankAccountResponseDto updatedAccount = new BankAccountResponseDto();
+        updatedAccount.setBalance(BigDecimal.valueOf(INITIAL_BALANCE + OPERATION_AMOUNT_DOUBLE));
+        Mockito.when(bankAccountService.deposit(any(AccountOperationDto.class))).thenReturn(updatedAccount);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(put("/api/accounts/deposit")
+                            .header(IdempotencyService.HEADER, "deposito-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(operationDto)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(INITIAL_BALANCE + OPERATION_AMOUNT_DOUBLE));
+        }
+
+        verify(bankAccountService, Mockito.times(1)).deposit(any(AccountOperationDto.class));
+    }
+
     // Objetivo: Fallo al retirar por fondos insuficientes (InsufficientFundsException)
     @Test
     void withdraw_Fails_InsufficientFunds() throws Exception {
@@ -127,7 +171,7 @@ class BankAccountControllerTest {
     @Test
     void getAccountById_Fails_NotFound() throws Exception {
         // 2. Establecer comportamientos simulados (Lanza excepción 404)
-        Mockito.when(bankAccountService.getAccountById(NON_EXISTENT_ID))
+        Mockito.when(bankAccountService.getAccountById(NON_EXISTENT_ID, false))
                 .thenThrow(new DataNotFoundException(NON_EXISTENT_ID, "Cuenta Bancaria"));
 
         // 3. y 4. Llamar al metodo a probar y verificar
@@ -135,7 +179,67 @@ class BankAccountControllerTest {
                 .andExpect(status().isNotFound()); // Espera 404 Not Found
 
         // 5. Verificar interacciones
-        verify(bankAccountService).getAccountById(NON_EXISTENT_ID);
+        verify(bankAccountService).getAccountById(NON_EXISTENT_ID, false);
+    }
+
+    //Objetivo: Listar cuentas paginadas (GET /api/accounts?afterId=&size=) sin transacciones en el JSON
+    @Test
+    void getAccounts_Success_OmitsTransactions() throws Exception {
+        Mockito.when(bankAccountService.getAccounts(5L, 20, false))
+                .thenReturn(new BankAccountPageDto(List.of(accountResponseDto), TEST_ID, 20));
+
+        mockMvc.perform(get("/api/accounts").param("afterId", "5").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].accountNumber").value(TEST_ACCOUNT_NUM))
+                .andExpect(jsonPath("$.accounts[0].outgoingTransactions").doesNotExist())
+                .andExpect(jsonPath("$.nextAfterId").value(TEST_ID));
+
+        verify(bankAccountService).getAccounts(5L, 20, false);
+    }
+
+    //Objetivo: Obtener una cuenta con sus transacciones solo cuando se pide includeTransactions=true
+    @Test
+    void getAccountById_IncludeTransactions() throws Exception {
+        accountResponseDto.setOutgoingTransactions(List.of());
+        accountResponseDto.setIncomingTransactions(List.of());
+        Mockito.when(bankAccountService.getAccountById(TEST_ID, true)).thenReturn(accountResponseDto);
+
+        mockMvc.perform(get("/api/accounts/{id}", TEST_ID).param("includeTransactions", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outgoingTransactions").isArray())
+                .andExpect(jsonPath("$.incomingTransactions").isArray());
+
+        verify(bankAccountService).getAccountById(TEST_ID, true);
+    }
+
+    //Objetivo: Consultar el saldo a una fecha (GET /api/accounts/{id}/balance?at=...)
+    @Test
+    void getBalanceAt_Success() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 10, 15, 0);
+        Mockito.when(bankAccountService.getBalanceAt(TEST_ID, at))
+                .thenReturn(new PointInTimeBalanceDto(TEST_ID, TEST_ACCOUNT_NUM, at, new BigDecimal("65.00"), LocalDate.of(2024, 3, 9)));
+
+        mockMvc.perform(get("/api/accounts/{id}/balance", TEST_ID).param("at", "2024-03-10T15:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(65.00))
+                .andExpect(jsonPath("$.accountNumber").value(TEST_ACCOUNT_NUM));
+
+        verify(bankAccountService).getBalanceAt(TEST_ID, at);
+    }
+
+    //Objetivo: Consultar el saldo derivado de los eventos (GET /api/accounts/{id}/state)
+    @Test
+    void getAccountState_Success() throws Exception {
+        Mockito.when(accountEventStore.currentState(TEST_ID))
+                .thenReturn(new AccountStateDto(TEST_ID, new BigDecimal("42.50"), 7L, 5L, 2L));
+
+        mockMvc.perform(get("/api/accounts/{id}/state", TEST_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(42.50))
+                .andExpect(jsonPath("$.sequence").value(7))
+                .andExpect(jsonPath("$.replayedEvents").value(2));
+
+        verify(accountEventStore).currentState(TEST_ID);
     }
 
     @Test void getAllAccounts() {}
@@ -1,10 +1,20 @@
 package com.Bank.Management.controller;
 
+import com.Bank.Management.async.AsyncTransferQueue;
 import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.AsyncTransferStatusDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.OperationStatus;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
 import com.Bank.Management.dto.response.TransactionResponseDto;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.GlobalExceptionHandler;
+import com.Bank.Management.exception.TooManyRequestsException;
+import com.Bank.Management.export.ExportFormat;
+import com.Bank.Management.export.TransactionHistoryExporter;
+import com.Bank.Management.idempotency.IdempotencyService;
+import com.Bank.Management.repository.IdempotencyRecordRepository;
 import com.Bank.Management.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +25,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
@@ -25,6 +36,7 @@ import java.util.List;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,9 +46,18 @@ class TransactionControllerTest {
 
     private MockMvc mockMvc;
 
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private AsyncTransferQueue asyncTransferQueue;
+
+    @Mock
+    private TransactionHistoryExporter transactionHistoryExporter;
+
     private TransactionController transactionController;
 
     private ObjectMapper objectMapper;
@@ -56,7 +77,9 @@ class TransactionControllerTest {
 
     @BeforeEach
     void setUp() {
-        transactionController = new TransactionController(transactionService);
+        transactionController = new TransactionController(transactionService,
+                new IdempotencyService(idempotencyRecordRepository, new ObjectMapper().findAndRegisterModules(), 100, 300),
+                asyncTransferQueue, transactionHistoryExporter);
         mockMvc = MockMvcBuilders.standaloneSetup(transactionController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -70,7 +93,7 @@ class TransactionControllerTest {
 
         transactionResponseDto = new TransactionResponseDto(
                 TEST_TRANSACTION_ID,
-                TRANSFER_AMOUNT_DOUBLE,
+                BigDecimal.valueOf(TRANSFER_AMOUNT_DOUBLE),
                 LocalDateTime.now(),
                 TRANSACTION_DESCRIPTION,
                 SOURCE_ACCOUNT,
@@ -98,20 +121,145 @@ class TransactionControllerTest {
         verify(transactionService).transfer(any(TransferRequestDto.class));
     }
 
+    //Objetivo: Realizar un lote de transferencias (POST /api/transactions/transfer/batch)
+    @Test
+    void transferBatch_Success() throws Exception {
+        List<BatchTransferResultDto> results = List.of(
+                BatchTransferResultDto.completed(0, transactionResponseDto),
+                BatchTransferResultDto.failed(1, "Saldo insuficiente en la cuenta de origen.")
+        );
+        when(transactionService.transferBatch(any())).thenReturn(results);
+
+        mockMvc.perform(post("/api/transactions/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transferRequestDto, transferRequestDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"));
+
+        verify(transactionService).transferBatch(any());
+    }
+
+    //Objetivo: Encolar una transferencia asíncrona devuelve 202 con el identificador de seguimiento
+    @Test
+    void transferAsync_Accepted() throws Exception {
+        when(asyncTransferQueue.submit(any(TransferRequestDto.class)))
+                .thenReturn(new AsyncTransferStatusDto("abc-123", OperationStatus.PENDING, null, null, LocalDateTime.now(), null));
+
+        mockMvc.perform(post("/api/transactions/transfer/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.trackingId").value("abc-123"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(asyncTransferQueue).submit(any(TransferRequestDto.class));
+    }
+
+    //Objetivo: Con la cola llena la transferencia asíncrona se rechaza con 429
+    @Test
+    void transferAsync_QueueFull_TooManyRequests() throws Exception {
+        when(asyncTransferQueue.submit(any(TransferRequestDto.class)))
+                .thenThrow(new TooManyRequestsException("La cola de transferencias está llena, intente nuevamente en unos segundos."));
+
+        mockMvc.perform(post("/api/transactions/transfer/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto)))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    //Objetivo: Consultar el estado de una transferencia asíncrona terminada (GET /api/transactions/transfer/async/{trackingId})
+    @Test
+    void getAsyncTransferStatus_Completed() throws Exception {
+        when(asyncTransferQueue.getStatus(eq("abc-123")))
+                .thenReturn(new AsyncTransferStatusDto("abc-123", OperationStatus.COMPLETED, transactionResponseDto, null, LocalDateTime.now(), LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/transactions/transfer/async/{trackingId}", "abc-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.transaction.id").value(TEST_TRANSACTION_ID.intValue()));
+    }
+
+    //Objetivo: Un identificador de seguimiento desconocido devuelve 404
+    @Test
+    void getAsyncTransferStatus_NotFound() throws Exception {
+        when(asyncTransferQueue.getStatus(eq("desconocido")))
+                .thenThrow(new DataNotFoundException("desconocido", "Transferencia asíncrona"));
+
+        mockMvc.perform(get("/api/transactions/transfer/async/{trackingId}", "desconocido"))
+                .andExpect(status().isNotFound());
+    }
+
     //Objetivo: Obtener el historial de transacciones de una cuenta (GET /api/transactions/history/{accountNumber})
     @Test
     void getHistoryByAccountNumber_Success() throws Exception {
         // 2. Establecer comportamientos simulados
-        when(transactionService.getHistoryByAccountNumber(eq(SOURCE_ACCOUNT))).thenReturn(transactionList);
+        when(transactionService.getHistoryByAccountNumber(eq(SOURCE_ACCOUNT), eq("cursor-1"), eq(20), any()))
+                .thenReturn(new TransactionHistoryPageDto(transactionList, "cursor-2", 20));
 
         // 3. y 4. Llamar al metodo a probar y verificar
-        mockMvc.perform(get("/api/transactions/history/{accountNumber}", SOURCE_ACCOUNT))
+        mockMvc.perform(get("/api/transactions/history/{accountNumber}", SOURCE_ACCOUNT)
+                        .param("cursor", "cursor-1")
+                        .param("size", "20"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(1))
-                .andExpect(jsonPath("$[0].sourceAccountNumber").value(SOURCE_ACCOUNT));
+                .andExpect(jsonPath("$.transactions.size()").value(1))
+                .andExpect(jsonPath("$.transactions[0].sourceAccountNumber").value(SOURCE_ACCOUNT))
+                .andExpect(jsonPath("$.nextCursor").value("cursor-2"));
 
         // 5. Verificar interacciones
-        verify(transactionService).getHistoryByAccountNumber(eq(SOURCE_ACCOUNT));
+        verify(transactionService).getHistoryByAccountNumber(eq(SOURCE_ACCOUNT), eq("cursor-1"), eq(20), any());
+    }
+
+    //Objetivo: Los filtros de fecha, monto y dirección llegan al servicio como un TransactionHistoryFilterDto
+    @Test
+    void getHistoryByAccountNumber_WithFilters_BindsFilter() throws Exception {
+        when(transactionService.getHistoryByAccountNumber(eq(SOURCE_ACCOUNT), eq(null), eq(null), any()))
+                .thenReturn(new TransactionHistoryPageDto(transactionList, null, 50));
+
+        mockMvc.perform(get("/api/transactions/history/{accountNumber}", SOURCE_ACCOUNT)
+                        .param("from", "2024-03-01T00:00:00")
+                        .param("to", "2024-04-01T00:00:00")
+                        .param("minAmount", "10.00")
+                        .param("maxAmount", "250.50")
+                        .param("direction", "incoming", "deposit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.size()").value(1));
+
+        verify(transactionService).getHistoryByAccountNumber(eq(SOURCE_ACCOUNT), eq(null), eq(null), argThat(filter ->
+                filter.getFrom().equals(LocalDateTime.of(2024, 3, 1, 0, 0))
+                        && filter.getTo().equals(LocalDateTime.of(2024, 4, 1, 0, 0))
+                        && filter.getMinAmount().compareTo(new BigDecimal("10.00")) == 0
+                        && filter.getMaxAmount().compareTo(new BigDecimal("250.50")) == 0
+                        && filter.getDirection().equals(List.of("incoming", "deposit"))));
+    }
+
+    //Objetivo: Exportar el historial en CSV (GET /api/transactions/history/{accountNumber}/export?format=csv)
+    @Test
+    void exportHistory_Csv_StreamsBody() throws Exception {
+        when(transactionHistoryExporter.export(eq(SOURCE_ACCOUNT), eq(ExportFormat.CSV)))
+                .thenReturn(out -> out.write("id,amount\n50,500.00\n".getBytes()));
+
+        MvcResult started = mockMvc.perform(get("/api/transactions/history/{accountNumber}/export", SOURCE_ACCOUNT)
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"historial-" + SOURCE_ACCOUNT + ".csv\""))
+                .andExpect(content().string("id,amount\n50,500.00\n"));
+    }
+
+    //Objetivo: Un formato de exportación desconocido responde 400 sin consultar el historial
+    @Test
+    void exportHistory_UnknownFormat_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions/history/{accountNumber}/export", SOURCE_ACCOUNT)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(transactionHistoryExporter);
     }
 
     //Objetivo: Fallo en la transferencia por fondos insuficientes (InsufficientFundsException)
@@ -135,7 +283,7 @@ class TransactionControllerTest {
     @Test
     void getHistoryByAccountNumber_Fails_AccountNotFound() throws Exception {
         // 2. Establecer comportamientos simulados (Lanza excepción 404)
-        when(transactionService.getHistoryByAccountNumber(eq(NON_EXISTENT_ACCOUNT)))
+        when(transactionService.getHistoryByAccountNumber(eq(NON_EXISTENT_ACCOUNT), eq(null), eq(null), any()))
                 .thenThrow(new DataNotFoundException(NON_EXISTENT_ACCOUNT, "Cuenta Bancaria"));
 
         // 3. y 4. Llamar al metodo a probar y verificar
@@ -143,7 +291,7 @@ class TransactionControllerTest {
                 .andExpect(status().isNotFound());
 
         // 5. Verificar interacciones
-        verify(transactionService).getHistoryByAccountNumber(eq(NON_EXISTENT_ACCOUNT));
+        verify(transactionService).getHistoryByAccountNumber(eq(NON_EXISTENT_ACCOUNT), eq(null), eq(null), any());
     }
 
     @Test void transfer() {}
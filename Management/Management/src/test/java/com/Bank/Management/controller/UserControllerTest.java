@@ -2,6 +2,7 @@ package com.Bank.Management.controller;
 
 import com.Bank.Management.dto.request.UserRegistrationDto;
 import com.Bank.Management.dto.request.UpdateUserDTO;
+import com.Bank.Management.dto.response.UserPageDto;
 import com.Bank.Management.dto.response.UserResponseDto;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.DuplicatedDataException;
@@ -19,6 +20,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -118,6 +120,34 @@ class UserControllerTest {
         Mockito.verifyNoInteractions(userService);
     }
 
+    //Objetivo: Listar usuarios paginados (GET /api/users?afterId=&size=): sin contraseña ni cuentas en el listado básico
+    @Test
+    void getUsers_Success_SlimPage() throws Exception {
+        UserResponseDto slim = new UserResponseDto(TEST_ID, TEST_DNI, TEST_USERNAME, TEST_EMAIL, null, null);
+        Mockito.when(userService.getUsers(0L, 10, false)).thenReturn(new UserPageDto(List.of(slim), TEST_ID, 10));
+
+        mockMvc.perform(get("/api/users").param("afterId", "0").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value(TEST_USERNAME))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.users[0].bankAccounts").doesNotExist())
+                .andExpect(jsonPath("$.nextAfterId").value(TEST_ID));
+
+        verify(userService).getUsers(0L, 10, false);
+    }
+
+    //Objetivo: Con includeAccounts el listado trae las cuentas de cada usuario
+    @Test
+    void getUsers_IncludeAccounts() throws Exception {
+        Mockito.when(userService.getUsers(null, null, true)).thenReturn(new UserPageDto(List.of(responseDto), null, 50));
+
+        mockMvc.perform(get("/api/users").param("includeAccounts", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].bankAccounts").isArray());
+
+        verify(userService).getUsers(null, null, true);
+    }
+
     //Objetivo: Eliminar un usuario exitosamente (DELETE /api/users/{id})
     @Test
     void deleteUser_Success() throws Exception {
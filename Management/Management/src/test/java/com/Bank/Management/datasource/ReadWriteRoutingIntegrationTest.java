@@ -0,0 +1,169 @@
+package com.Bank.Management.datasource;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.DataSourceRoutingMetricsDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// La réplica es otra base H2 en memoria cargada con una copia del primario (SCRIPT / RUNSCRIPT). Como nada la
+// mantiene al día, muestra los datos del momento de la copia: así se ve a qué base fue cada lectura.
+// Los latidos se disparan a mano (heartbeat-interval-ms muy grande).
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.datasource.replicas=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "bank.datasource.max-lag-ms=60000",
+        "bank.datasource.heartbeat-interval-ms=3600000"
+})
+class ReadWriteRoutingIntegrationTest {
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private BankAccountResponseDto account;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplicas().get(0));
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("replica");
+        user.setEmail("replica@bank.com");
+        user.setPassword("password123");
+        user.setDni("77777777");
+        Long userId = userRepository.save(user).getId();
+        account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId));
+
+        copyPrimaryToReplica();
+        // Después de la copia: el primario tiene 150,00 y la réplica sigue en 100,00.
+        bankAccountService.deposit(new AccountOperationDto(account.getAccountNumber(), BigDecimal.valueOf(50.00)));
+    }
+
+    // Objetivo: Las transacciones readOnly leen de la réplica al día; las de escritura y las lecturas sin
+    // transacción de solo lectura usan el primario.
+    @Test
+    void readOnlyTransactions_goToAnUpToDateReplica() {
+        DataSourceRoutingMetricsDto before = routingDataSource.getMetrics();
+
+        assertEquals(new BigDecimal("100.00"), balanceReadOnly());
+        Long writeSideCents = transactionTemplate.execute(status ->
+                bankAccountRepository.findById(account.getId()).orElseThrow().getBalanceCents());
+        assertEquals(150_00L, writeSideCents);
+
+        DataSourceRoutingMetricsDto after = routingDataSource.getMetrics();
+        assertEquals(before.getReplicaConnections() + 1, after.getReplicaConnections());
+        assertTrue(after.getReplicaStatus().get(0).isEligible());
+    }
+
+    // Objetivo: Si el último latido de la réplica supera max-lag-ms, las lecturas vuelven al primario.
+    @Test
+    void laggingReplica_fallsBackToPrimary() {
+        replica.update("update REPLICATION_HEARTBEAT set beat_millis = ?", System.currentTimeMillis() - 120_000);
+        replicaLagMonitor.beat();
+        long fallbacksBefore = routingDataSource.getMetrics().getLagFallbacks();
+
+        assertEquals(new BigDecimal("150.00"), balanceReadOnly());
+
+        DataSourceRoutingMetricsDto metrics = routingDataSource.getMetrics();
+        assertEquals(fallbacksBefore + 1, metrics.getLagFallbacks());
+        assertFalse(metrics.getReplicaStatus().get(0).isEligible());
+    }
+
+    // Objetivo: Después de escribir, la sesión lee del primario (y las demás siguen en la réplica) hasta que la
+    // réplica aplica un latido posterior a esa escritura.
+    @Test
+    void sessionThatWrote_readsItsWritesUntilTheReplicaCatchesUp() {
+        inRequest("POST", "cliente-1", () -> bankAccountService.deposit(
+                new AccountOperationDto(account.getAccountNumber(), BigDecimal.valueOf(25.00))));
+
+        assertEquals(new BigDecimal("175.00"), inRequest("GET", "cliente-1", this::balanceReadOnly));
+        assertEquals(new BigDecimal("100.00"), inRequest("GET", "cliente-2", this::balanceReadOnly));
+
+        copyPrimaryToReplica();
+        long replicaConnections = routingDataSource.getMetrics().getReplicaConnections();
+
+        assertEquals(new BigDecimal("175.00"), inRequest("GET", "cliente-1", this::balanceReadOnly));
+        assertEquals(replicaConnections + 1, routingDataSource.getMetrics().getReplicaConnections());
+    }
+
+    // Objetivo: Una escritura que confirma en otro hilo después de terminada la solicitud (transferencia asíncrona)
+    // queda anotada en la sesión que la originó con el momento de su commit, no con el fin de la solicitud.
+    @Test
+    void writeCommittedOnAnotherThread_isRecordedForTheSession() throws Exception {
+        ReadYourWritesTracker.Session session = inRequest("POST", "cliente-3", readYourWritesTracker::currentSession);
+        copyPrimaryToReplica();
+        Thread.sleep(5);
+
+        Thread worker = new Thread(() -> readYourWritesTracker.call(session, () -> bankAccountService.deposit(
+                new AccountOperationDto(account.getAccountNumber(), BigDecimal.valueOf(25.00)))));
+        worker.start();
+        worker.join();
+
+        assertEquals(new BigDecimal("175.00"), inRequest("GET", "cliente-3", this::balanceReadOnly));
+        assertEquals(new BigDecimal("150.00"), inRequest("GET", "cliente-4", this::balanceReadOnly));
+    }
+
+    private BigDecimal balanceReadOnly() {
+        return bankAccountService.getAccountById(account.getId(), false).getBalance();
+    }
+
+    // Copia completa del primario en la réplica, con el latido escrito justo antes (réplica al día).
+    private void copyPrimaryToReplica() {
+        replicaLagMonitor.beat();
+        replica.execute("drop all objects");
+        primary.query("script", row -> {
+            replica.execute(row.getString(1));
+        });
+        replicaLagMonitor.beat();
+    }
+
+    private <T> T inRequest(String method, String session, Supplier<T> action) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/accounts");
+        request.addHeader(ReadYourWritesTracker.HEADER, session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        readYourWritesTracker.preHandle(request, response, new Object());
+        try {
+            return action.get();
+        } finally {
+            readYourWritesTracker.afterCompletion(request, response, new Object(), null);
+        }
+    }
+}
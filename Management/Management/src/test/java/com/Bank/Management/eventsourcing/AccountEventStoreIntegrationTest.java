@@ -0,0 +1,155 @@
+package com.Bank.Management.eventsourcing;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.request.UpdateBankAccountDto;
+import com.Bank.Management.dto.response.AccountStateDto;
+import com.Bank.Management.dto.response.AccountStateRebuildDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.AccountEventRepository;
+import com.Bank.Management.repository.AccountStateSnapshotRepository;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-sourcing;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.event-sourcing.enabled=true",
+        "bank.event-sourcing.snapshot-interval=5",
+        "bank.event-sourcing.partitions=3",
+        "bank.event-sourcing.chunk-size=2"
+})
+class AccountEventStoreIntegrationTest {
+
+    @Autowired
+    private AccountEventStore accountEventStore;
+    @Autowired
+    private AccountStateRebuildJob accountStateRebuildJob;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private AccountEventRepository accountEventRepository;
+    @Autowired
+    private AccountStateSnapshotRepository accountStateSnapshotRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        accountStateSnapshotRepository.deleteAll();
+        accountEventRepository.deleteAll();
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("eventos");
+        user.setEmail("eventos@bank.com");
+        user.setPassword("password123");
+        user.setDni("66666666");
+        userId = userRepository.save(user).getId();
+    }
+
+    // Objetivo: Cada cambio de saldo deja un evento con su tipo y su delta, en secuencia por cuenta.
+    @Test
+    void operations_appendTypedEventsPerAccount() {
+        BankAccountResponseDto source = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId));
+        BankAccountResponseDto target = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId));
+
+        bankAccountService.deposit(new AccountOperationDto(source.getAccountNumber(), BigDecimal.valueOf(20.00)));
+        bankAccountService.withdraw(new AccountOperationDto(source.getAccountNumber(), BigDecimal.valueOf(5.00)));
+        transactionService.transfer(new TransferRequestDto(source.getAccountNumber(), target.getAccountNumber(), BigDecimal.valueOf(30.00)));
+        bankAccountService.updateAccount(new UpdateBankAccountDto(target.getId(), BigDecimal.valueOf(50.00)));
+
+        assertEquals(List.of("DEPOSIT:10000:1", "DEPOSIT:2000:2", "WITHDRAW:-500:3", "TRANSFER_OUT:-3000:4"), events(source.getId()));
+        assertEquals(List.of("TRANSFER_IN:3000:1", "ADJUSTMENT:2000:2"), events(target.getId()));
+        assertEquals(new BigDecimal("85.00"), accountEventStore.currentState(source.getId()).getBalance());
+        assertEquals(new BigDecimal("50.00"), accountEventStore.currentState(target.getId()).getBalance());
+    }
+
+    // Objetivo: Cada 5 eventos se guarda una foto; el estado se arma desde ella con menos de 5 eventos.
+    @Test
+    void currentState_replaysOnlyEventsAfterTheLastSnapshot() {
+        BankAccountResponseDto account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(10.00), userId));
+        for (int i = 0; i < 12; i++) {
+            bankAccountService.deposit(new AccountOperationDto(account.getAccountNumber(), BigDecimal.ONE));
+        }
+
+        AccountStateDto state = accountEventStore.currentState(account.getId());
+
+        assertEquals(13, state.getSequence());
+        assertEquals(10, state.getSnapshotSequence());
+        assertEquals(3, state.getReplayedEvents());
+        assertEquals(new BigDecimal("22.00"), state.getBalance());
+        assertEquals(1_900L, accountStateSnapshotRepository.findById(account.getId()).orElseThrow().getBalanceCents());
+        assertEquals(2_200L, bankAccountRepository.findById(account.getId()).orElseThrow().getBalanceCents());
+    }
+
+    // Objetivo: La reconstrucción (desde las fotos o desde cero) devuelve a cada cuenta el saldo que dicen sus eventos.
+    @Test
+    void rebuild_restoresBalancesFromEvents() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            BankAccountResponseDto account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(10.00 * (i + 1)), userId));
+            for (int j = 0; j < i; j++) {
+                bankAccountService.deposit(new AccountOperationDto(account.getAccountNumber(), BigDecimal.ONE));
+            }
+            ids.add(account.getId());
+        }
+        List<Long> expected = balances(ids);
+
+        jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = balance_cents + 7 where id in (?, ?)", ids.get(1), ids.get(6));
+        AccountStateRebuildDto fromSnapshots = accountStateRebuildJob.rebuild(false);
+
+        assertEquals(7, fromSnapshots.getAccounts());
+        assertEquals(2, fromSnapshots.getCorrectedAccounts());
+        assertEquals(expected, balances(ids));
+        // Las cuentas con 6 o 7 eventos solo reaplican los posteriores a su foto (sequence 5).
+        assertEquals(1 + 2 + 3 + 4 + 0 + 1 + 2, fromSnapshots.getEvents());
+
+        jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = 0 where id = ?", ids.get(3));
+        AccountStateRebuildDto fromScratch = accountStateRebuildJob.rebuild(true);
+
+        assertEquals(1, fromScratch.getCorrectedAccounts());
+        assertEquals(1 + 2 + 3 + 4 + 5 + 6 + 7, fromScratch.getEvents());
+        assertEquals(expected, balances(ids));
+        for (Long id : ids) {
+            assertEquals(0, accountEventStore.currentState(id).getReplayedEvents());
+        }
+    }
+
+    private List<String> events(Long accountId) {
+        return jdbcTemplate.queryForList("select type || ':' || delta_cents || ':' || sequence from ACCOUNT_EVENTS " +
+                "where account_id = ? order by sequence", String.class, accountId);
+    }
+
+    private List<Long> balances(List<Long> ids) {
+        return ids.stream().map(id -> bankAccountRepository.findById(id).orElseThrow().getBalanceCents()).toList();
+    }
+}
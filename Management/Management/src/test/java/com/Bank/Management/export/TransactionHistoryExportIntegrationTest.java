@@ -0,0 +1,136 @@
+package com.Bank.Management.export;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-export;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class TransactionHistoryExportIntegrationTest {
+
+    // Más de un bloque de escritura, con fechas repetidas para que el id decida el orden.
+    private static final int HISTORY = TransactionHistoryExporter.CHUNK_SIZE * 2 + 37;
+
+    @Autowired
+    private TransactionHistoryExporter exporter;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String account;
+    private String other;
+    private String third;
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("exportacion");
+        user.setEmail("exportacion@bank.com");
+        user.setPassword("password123");
+        user.setDni("44444444");
+        Long userId = userRepository.save(user).getId();
+
+        account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        other = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        third = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        accountId = bankAccountRepository.findIdByAccountNumber(account).orElseThrow();
+        Long otherId = bankAccountRepository.findIdByAccountNumber(other).orElseThrow();
+        Long thirdId = bankAccountRepository.findIdByAccountNumber(third).orElseThrow();
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= HISTORY; i++) {
+            Long counterpart = i % 3 == 0 ? thirdId : otherId;
+            boolean outgoing = i % 2 == 0;
+            rows.add(new Object[]{1_000_000L + i, 100L + i, Timestamp.valueOf(start.plusMinutes(i / 4)), "Pago " + i + ", ref",
+                    outgoing ? accountId : counterpart, outgoing ? counterpart : accountId});
+        }
+        // Transacción ajena a la cuenta: no debe aparecer en la exportación.
+        rows.add(new Object[]{2_000_000L, 1L, Timestamp.valueOf(start), "Ajena", otherId, thirdId});
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+    }
+
+    // Objetivo: El CSV contiene cada transacción de la cuenta una sola vez, en el mismo orden que el historial,
+    // con los números de cuenta de ambas partes resueltos y las descripciones escapadas.
+    @Test
+    void exportCsv_containsWholeHistoryInOrder() throws Exception {
+        List<String> lines = export(ExportFormat.CSV);
+
+        assertEquals(HISTORY + 1, lines.size());
+        assertEquals("id,amount,transactionDate,description,sourceAccountNumber,targetAccountNumber", lines.get(0));
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            exported.add(Long.parseLong(line.substring(0, line.indexOf(','))));
+            assertTrue(line.contains(",\"Pago "), line);
+            assertTrue(line.endsWith("," + account + "," + other) || line.endsWith("," + account + "," + third)
+                    || line.endsWith("," + other + "," + account) || line.endsWith("," + third + "," + account), line);
+        }
+        assertEquals(expectedOrder(), exported);
+    }
+
+    // Objetivo: Cada línea NDJSON es un objeto JSON completo con los mismos datos que el historial.
+    @Test
+    void exportNdjson_emitsOneObjectPerTransaction() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON);
+
+        assertEquals(HISTORY, lines.size());
+        List<Long> exported = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            exported.add(node.get("id").asLong());
+            assertEquals(0, new BigDecimal(node.get("amount").asText()).compareTo(
+                    BigDecimal.valueOf(100 + node.get("id").asLong() - 1_000_000L, 2)));
+        }
+        assertEquals(expectedOrder(), exported);
+    }
+
+    private List<String> export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(account, format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private List<Long> expectedOrder() {
+        return jdbcTemplate.queryForList(
+                "select id from TRANSACTION where source_account_id = ? or target_account_id = ? order by transaction_date desc, id desc",
+                Long.class, accountId, accountId);
+    }
+}
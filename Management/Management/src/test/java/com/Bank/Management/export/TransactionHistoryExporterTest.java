@@ -0,0 +1,161 @@
+package com.Bank.Management.export;
+
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.exception.DataNotFoundException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.AccountNumberView;
+import com.Bank.Management.repository.projection.TransactionExportRow;
+import com.Bank.Management.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryExporterTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionHistoryExporter exporter;
+
+    private final String ACCOUNT = "4500000001-01";
+    private final String OTHER = "4500000002-02";
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TransactionHistoryExporter(transactionRepository, bankAccountRepository,
+                new AccountLookupCache(bankAccountRepository, 100), jdbcTemplate,
+                new ObjectMapper().findAndRegisterModules(), transactionManager, new ShardRouter(null, List.of()), new ReadYourWritesTracker(1000));
+    }
+
+    // Objetivo: Salientes y entrantes se mezclan de la más reciente a la más antigua (empates por id).
+    @Test
+    void merge_InterleavesNewestFirst() {
+        Iterator<TransactionExportRow> merged = TransactionHistoryExporter.merge(
+                List.of(row(5L, 3, 1L, 2L), row(2L, 1, 1L, 2L)).iterator(),
+                List.of(row(4L, 3, 2L, 1L), row(3L, 2, 2L, 1L), row(1L, 0, 2L, 1L)).iterator());
+
+        List<Long> ids = new ArrayList<>();
+        merged.forEachRemaining(row -> ids.add(row.getId()));
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids);
+    }
+
+    // Objetivo: Los campos CSV con comas, comillas o saltos de línea se encierran entre comillas.
+    @Test
+    void csvField_EscapesSpecialCharacters() {
+        assertEquals("Transferencia", TransactionHistoryExporter.csvField("Transferencia"));
+        assertEquals("\"Pago, enero\"", TransactionHistoryExporter.csvField("Pago, enero"));
+        assertEquals("\"Dijo \"\"hola\"\"\"", TransactionHistoryExporter.csvField("Dijo \"hola\""));
+        assertEquals("", TransactionHistoryExporter.csvField(null));
+    }
+
+    // Objetivo: El formato se elige sin distinguir mayúsculas y uno desconocido se rechaza.
+    @Test
+    void exportFormat_FromParameter() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("CSV"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.fromParameter("ndjson"));
+        assertThrows(InvalidOperationException.class, () -> ExportFormat.fromParameter("xml"));
+    }
+
+    // Objetivo: Una cuenta inexistente falla antes de empezar a escribir la respuesta.
+    @Test
+    void export_UnknownAccount_ThrowsBeforeStreaming() {
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT)).thenReturn(Optional.empty());
+
+        assertThrows(DataNotFoundException.class, () -> exporter.export(ACCOUNT, ExportFormat.CSV));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    // Objetivo: El CSV trae encabezado y una línea por transacción; los números de la contraparte se
+    // resuelven con una sola consulta por bloque y la ejecución diferida de H2 se desactiva al terminar.
+    @Test
+    void export_Csv_WritesHeaderAndRowsWithResolvedAccounts() throws Exception {
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT)).thenReturn(Optional.of(1L));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(transactionRepository.streamOutgoing(1L)).thenReturn(Stream.of(row(2L, 2, 1L, 2L)));
+        when(transactionRepository.streamIncoming(1L)).thenReturn(Stream.of(row(1L, 1, 2L, 1L)));
+        when(bankAccountRepository.findAccountNumbersByIdIn(anyCollection())).thenReturn(List.of(accountNumber(2L, OTHER)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(ACCOUNT, ExportFormat.CSV).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,amount,transactionDate,description,sourceAccountNumber,targetAccountNumber", lines[0]);
+        assertEquals("2,1.50,2024-01-01T10:02,\"Pago, servicios\"," + ACCOUNT + "," + OTHER, lines[1]);
+        assertEquals("1,1.50,2024-01-01T10:01,\"Pago, servicios\"," + OTHER + "," + ACCOUNT, lines[2]);
+        verify(bankAccountRepository, times(1)).findAccountNumbersByIdIn(anyCollection());
+        verify(jdbcTemplate).execute("SET LAZY_QUERY_EXECUTION FALSE");
+    }
+
+    // Objetivo: NDJSON escribe un objeto JSON por línea.
+    @Test
+    void export_Ndjson_WritesOneJsonObjectPerLine() throws Exception {
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT)).thenReturn(Optional.of(1L));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(transactionRepository.streamOutgoing(1L)).thenReturn(Stream.of(row(2L, 2, 1L, 2L)));
+        when(transactionRepository.streamIncoming(1L)).thenReturn(Stream.empty());
+        when(bankAccountRepository.findAccountNumbersByIdIn(anyCollection())).thenReturn(List.of(accountNumber(2L, OTHER)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(ACCOUNT, ExportFormat.NDJSON).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":2,\"amount\":1.50"));
+        assertTrue(lines[0].contains("\"targetAccountNumber\":\"" + OTHER + "\""));
+    }
+
+    private TransactionExportRow row(Long id, int minute, Long sourceId, Long targetId) {
+        return new ExportRow(id, 150L, LocalDateTime.of(2024, 1, 1, 10, minute), "Pago, servicios", sourceId, targetId, null);
+    }
+
+    private AccountNumberView accountNumber(Long id, String number) {
+        return new AccountNumberView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getAccountNumber() {
+                return number;
+            }
+        };
+    }
+
+    private record ExportRow(Long getId, long getAmountCents, LocalDateTime getTransactionDate, String getDescription,
+                             Long getSourceAccountId, Long getTargetAccountId,
+                             String getCounterpartAccountNumber) implements TransactionExportRow {
+    }
+}
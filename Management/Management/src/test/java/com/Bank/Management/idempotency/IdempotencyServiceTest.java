@@ -0,0 +1,283 @@
+package com.Bank.Management.idempotency;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.entity.IdempotencyRecord;
+import com.Bank.Management.entity.IdempotencyStatus;
+import com.Bank.Management.exception.IdempotencyConflictException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "pago-123";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private IdempotencyService idempotencyService;
+
+    private final AccountOperationDto request = new AccountOperationDto("4512345678-01", BigDecimal.TEN);
+    private final BankAccountResponseDto response = new BankAccountResponseDto(1L, "4512345678-01", new BigDecimal("110.00"), 1L, null, null);
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, objectMapper, 2, 300);
+    }
+
+    // Objetivo: Sin Idempotency-Key cada solicitud se ejecuta y no se usa la tabla.
+    @Test
+    void execute_withoutKey_alwaysRunsAction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        idempotencyService.execute(null, "deposit", request, BankAccountResponseDto.class, () -> count(calls));
+        idempotencyService.execute(" ", "deposit", request, BankAccountResponseDto.class, () -> count(calls));
+
+        assertEquals(2, calls.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    // Objetivo: Un reintento con la misma clave devuelve la respuesta guardada desde el LRU, sin volver a ejecutar.
+    @Test
+    void execute_repeatedKey_returnsCachedResponse() {
+        AtomicInteger calls = new AtomicInteger();
+
+        BankAccountResponseDto first = idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> count(calls));
+        BankAccountResponseDto second = idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> count(calls));
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        verify(idempotencyRecordRepository, times(1)).reserve(eq(KEY), eq("deposit"), anyString(), any());
+        verify(idempotencyRecordRepository).complete(eq(KEY), contains("110.00"));
+        assertEquals(1, idempotencyService.getMetrics().getCacheHits());
+    }
+
+    // Objetivo: La misma clave con otra operación o con otro cuerpo se rechaza como conflicto.
+    @Test
+    void execute_sameKeyDifferentRequest_conflicts() {
+        idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> response);
+
+        AccountOperationDto otherAmount = new AccountOperationDto("4512345678-01", BigDecimal.ONE);
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(KEY, "deposit", otherAmount, BankAccountResponseDto.class, () -> response));
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(KEY, "withdraw", request, BankAccountResponseDto.class, () -> response));
+        assertEquals(2, idempotencyService.getMetrics().getConflicts());
+    }
+
+    // Objetivo: Si la clave ya está completada en la tabla (por ejemplo, tras un reinicio), se responde con lo guardado.
+    @Test
+    void execute_keyCompletedInStore_returnsStoredResponse() throws Exception {
+        // La huella guardada se obtiene ejecutando una vez en otra instancia (como antes de un reinicio).
+        IdempotencyRecordRepository previousRepository = mock(IdempotencyRecordRepository.class);
+        new IdempotencyService(previousRepository, objectMapper, 2, 300)
+                .execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> response);
+        ArgumentCaptor<String> storedHash = ArgumentCaptor.forClass(String.class);
+        verify(previousRepository).reserve(eq(KEY), eq("deposit"), storedHash.capture(), any());
+
+        when(idempotencyRecordRepository.reserve(eq(KEY), eq("deposit"), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("clave duplicada"));
+        when(idempotencyRecordRepository.findById(KEY)).thenAnswer(invocation -> Optional.of(new IdempotencyRecord(
+                KEY, "deposit", storedHash.getValue(), IdempotencyStatus.COMPLETED,
+                objectMapper.writeValueAsString(response), LocalDateTime.now())));
+
+        AtomicInteger calls = new AtomicInteger();
+        BankAccountResponseDto result = idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> count(calls));
+
+        assertEquals(0, calls.get());
+        assertEquals(response, result);
+        assertEquals(1, idempotencyService.getMetrics().getStoreHits());
+    }
+
+    // Objetivo: Una clave reservada pero sin respuesta (operación en curso o interrumpida) no vuelve a ejecutarse.
+    @Test
+    void execute_keyPendingInStore_conflicts() {
+        when(idempotencyRecordRepository.reserve(eq(KEY), eq("deposit"), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("clave duplicada"));
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> count(calls)));
+        assertEquals(0, calls.get());
+    }
+
+    // Objetivo: Una reserva PENDING vencida cuya operación dejó su movimiento se completa con la respuesta
+    // reconstruida, sin volver a ejecutar.
+    @Test
+    void execute_stalePendingKeyWithMovement_completesWithoutRunning() {
+        stalePendingReservation();
+
+        AtomicInteger calls = new AtomicInteger();
+        BankAccountResponseDto result = idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class,
+                () -> count(calls), key -> Optional.of(response));
+
+        assertEquals(0, calls.get());
+        assertSame(response, result);
+        verify(idempotencyRecordRepository).complete(eq(KEY), contains("110.00"));
+        verify(idempotencyRecordRepository, never()).releaseStale(any(), any());
+        assertEquals(1, idempotencyService.getMetrics().getRecoveredReservations());
+    }
+
+    // Objetivo: Una reserva PENDING vencida sin movimiento se libera y la operación se ejecuta con una reserva nueva.
+    @Test
+    void execute_stalePendingKeyWithoutMovement_releasesAndRuns() {
+        LocalDateTime reservedAt = stalePendingReservation();
+        when(idempotencyRecordRepository.releaseStale(KEY, reservedAt)).thenReturn(1);
+
+        AtomicInteger calls = new AtomicInteger();
+        BankAccountResponseDto result = idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class,
+                () -> count(calls), key -> Optional.empty());
+
+        assertEquals(1, calls.get());
+        assertSame(response, result);
+        verify(idempotencyRecordRepository, times(2)).reserve(eq(KEY), eq("deposit"), anyString(), any());
+        verify(idempotencyRecordRepository).complete(eq(KEY), contains("110.00"));
+        assertEquals(1, idempotencyService.getMetrics().getReleasedReservations());
+    }
+
+    // Objetivo: Una reserva PENDING reciente no se revisa: puede ser una operación todavía en curso.
+    @Test
+    void execute_recentPendingKey_conflictsWithoutLookingForMovements() {
+        pendingReservation(LocalDateTime.now());
+
+        AtomicInteger lookups = new AtomicInteger();
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(KEY, "deposit", request,
+                BankAccountResponseDto.class, () -> response, key -> {
+                    lookups.incrementAndGet();
+                    return Optional.of(response);
+                }));
+        assertEquals(0, lookups.get());
+    }
+
+    // Objetivo: La acción ve su clave en IdempotencyScope (para grabarla en los movimientos) y al terminar se limpia.
+    @Test
+    void execute_exposesKeyToTheAction() {
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> {
+            seen.set(IdempotencyScope.current());
+            return response;
+        });
+
+        assertEquals(KEY, seen.get());
+        assertNull(IdempotencyScope.current());
+    }
+
+    // Objetivo: Si la operación falla se libera la reserva y la misma clave puede reintentarse.
+    @Test
+    void execute_failedAction_releasesKey() {
+        assertThrows(InsufficientFundsException.class, () -> idempotencyService.execute(KEY, "withdraw", request,
+                BankAccountResponseDto.class, () -> {
+                    throw new InsufficientFundsException("Saldo insuficiente para realizar el retiro.");
+                }));
+
+        verify(idempotencyRecordRepository).deleteById(KEY);
+        verify(idempotencyRecordRepository, never()).complete(any(), any());
+
+        BankAccountResponseDto retried = idempotencyService.execute(KEY, "withdraw", request, BankAccountResponseDto.class, () -> response);
+        assertSame(response, retried);
+    }
+
+    // Objetivo: Solicitudes concurrentes con la misma clave se colapsan en una sola ejecución.
+    @Test
+    void execute_concurrentDuplicates_runOnce() throws Exception {
+        int threads = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Future<BankAccountResponseDto>> results = new ArrayList<>();
+        results.add(executor.submit(() -> idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> {
+            started.countDown();
+            await(release);
+            return count(calls);
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < threads; i++) {
+            results.add(executor.submit(() -> idempotencyService.execute(KEY, "deposit", request, BankAccountResponseDto.class, () -> count(calls))));
+        }
+        // Se da tiempo a que los duplicados queden esperando a la primera ejecución.
+        while (idempotencyService.getMetrics().getCollapsedDuplicates() < threads - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<BankAccountResponseDto> result : results) {
+            assertSame(response, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository, times(1)).reserve(eq(KEY), eq("deposit"), anyString(), any());
+    }
+
+    // Objetivo: El LRU conserva como máximo la cantidad configurada de claves.
+    @Test
+    void execute_cacheIsBounded() {
+        idempotencyService.execute("a", "deposit", request, BankAccountResponseDto.class, () -> response);
+        idempotencyService.execute("b", "deposit", request, BankAccountResponseDto.class, () -> response);
+        idempotencyService.execute("c", "deposit", request, BankAccountResponseDto.class, () -> response);
+
+        assertEquals(2, idempotencyService.getMetrics().getCachedKeys());
+    }
+
+    // La primera reserva choca con una fila PENDING de hace una hora (misma solicitud); la siguiente se acepta.
+    private LocalDateTime stalePendingReservation() {
+        LocalDateTime reservedAt = LocalDateTime.now().minusHours(1);
+        pendingReservation(reservedAt);
+        return reservedAt;
+    }
+
+    private void pendingReservation(LocalDateTime reservedAt) {
+        AtomicReference<String> requestHash = new AtomicReference<>();
+        when(idempotencyRecordRepository.reserve(eq(KEY), eq("deposit"), anyString(), any())).thenAnswer(invocation -> {
+            requestHash.set(invocation.getArgument(2));
+            throw new DataIntegrityViolationException("clave duplicada");
+        }).thenReturn(1);
+        when(idempotencyRecordRepository.findById(KEY)).thenAnswer(invocation -> Optional.of(new IdempotencyRecord(
+                KEY, "deposit", requestHash.get(), IdempotencyStatus.PENDING, null, reservedAt)));
+    }
+
+    private BankAccountResponseDto count(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return response;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
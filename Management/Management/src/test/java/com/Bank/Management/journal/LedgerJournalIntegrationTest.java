@@ -0,0 +1,240 @@
+package com.Bank.Management.journal;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.request.UpdateBankAccountDto;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger-journal;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.journal.enabled=true",
+        "bank.journal.segment-records=64",
+        "bank.journal.checkpoint-interval-ms=3600000"
+})
+class LedgerJournalIntegrationTest {
+
+    @Autowired
+    private LedgerJournal ledgerJournal;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("ledger-journal-test").toString();
+        registry.add("bank.journal.directory", () -> directory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Lo anterior queda reflejado: cada prueba solo reaplica lo que escribe.
+        ledgerJournal.checkpoint();
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("diario");
+        user.setEmail("diario@bank.com");
+        user.setPassword("password123");
+        user.setDni("55555555");
+        userId = userRepository.save(user).getId();
+    }
+
+    // Objetivo: Si la base pierde los últimos commits (filas y cambios de saldo), reaplicar el diario deja
+    // saldos y movimientos exactamente como estaban, con los mismos ids, sin duplicar lo que sí quedó.
+    @Test
+    void replay_restoresCommitsTheDatabaseLost() {
+        String first = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(500.00), userId)).getAccountNumber();
+        String second = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getAccountNumber();
+        for (int i = 0; i < 40; i++) {
+            bankAccountService.deposit(new AccountOperationDto(first, BigDecimal.valueOf(2.50)));
+            transactionService.transfer(new TransferRequestDto(first, second, BigDecimal.valueOf(3.00)));
+            bankAccountService.withdraw(new AccountOperationDto(second, BigDecimal.ONE));
+        }
+        List<Map<String, Object>> accountsBefore = accounts();
+        List<Map<String, Object>> transactionsBefore = transactions();
+
+        loseMovementsAfter(transactionsBefore.size() / 2);
+        assertNotEquals(accountsBefore, accounts());
+
+        ledgerJournal.replay();
+
+        assertEquals(accountsBefore.stream().map(row -> row.get("BALANCE_CENTS")).toList(),
+                accounts().stream().map(row -> row.get("BALANCE_CENTS")).toList());
+        assertEquals(transactionsBefore, transactions());
+        assertEquals(transactionsBefore.size() - transactionsBefore.size() / 2, ledgerJournal.getMetrics().getReplayedRecords());
+
+        ledgerJournal.replay();
+        assertEquals(0, ledgerJournal.getMetrics().getReplayedRecords());
+    }
+
+    // Objetivo: Si el commit falla después de escribir en el diario, la entrada se cancela y no se reaplica.
+    @Test
+    void replay_skipsMovementsWhoseCommitFailed() {
+        Long accountId = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getId();
+        long cancelledBefore = ledgerJournal.getMetrics().getCancelledRecords();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            bankAccountRepository.addToBalance(accountId, 1_000L);
+            Transaction transaction = new Transaction();
+            transaction.setAmountCents(1_000L);
+            transaction.setDescription("Depósito que no llega a confirmarse");
+            transaction.setTargetAccount(bankAccountRepository.getReferenceById(accountId));
+            ledgerJournal.recordMovement(transactionRepository.save(transaction));
+            // Se registra después que el diario: falla en beforeCommit, con la entrada ya escrita.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit fallido");
+                }
+            });
+        }));
+
+        ledgerJournal.replay();
+
+        assertEquals(cancelledBefore + 1, ledgerJournal.getMetrics().getCancelledRecords());
+        assertEquals(0, ledgerJournal.getMetrics().getReplayedRecords());
+        assertEquals(10_000L, bankAccountRepository.findById(accountId).orElseThrow().getBalanceCents());
+        assertEquals(0, transactionRepository.count());
+    }
+
+    // Objetivo: Un reemplazo de saldo (updateAccount) que la base perdió se reaplica una sola vez junto con su
+    // fila de ajuste, y uno que quedó en la base no se vuelve a sumar.
+    @Test
+    void replay_restoresLostBalanceAdjustments() {
+        Long lostId = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getId();
+        Long keptId = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getId();
+
+        bankAccountService.updateAccount(new UpdateBankAccountDto(lostId, BigDecimal.valueOf(250.00)));
+        bankAccountService.updateAccount(new UpdateBankAccountDto(keptId, BigDecimal.valueOf(40.00)));
+        // La base pierde el primer ajuste: el saldo vuelve al de antes y la fila de ajuste desaparece.
+        jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = 10000 where id = ?", lostId);
+        jdbcTemplate.update("delete from TRANSACTION where target_account_id = ?", lostId);
+
+        ledgerJournal.replay();
+
+        assertEquals(25_000L, bankAccountRepository.findById(lostId).orElseThrow().getBalanceCents());
+        assertEquals(4_000L, bankAccountRepository.findById(keptId).orElseThrow().getBalanceCents());
+        assertEquals(1, ledgerJournal.getMetrics().getReplayedRecords());
+        assertEquals(2, transactionRepository.count());
+
+        ledgerJournal.replay();
+        assertEquals(0, ledgerJournal.getMetrics().getReplayedRecords());
+        assertEquals(25_000L, bankAccountRepository.findById(lostId).orElseThrow().getBalanceCents());
+    }
+
+    // Objetivo: Si la base perdió el flush de créditos diferidos (el movimiento volvió a quedar pendiente), el
+    // crédito se suma al saldo y la marca se limpia; si el flush quedó, no se suma de nuevo.
+    @Test
+    void replay_restoresLostHotAccountFlushes() {
+        Long accountId = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getId();
+        Long transactionId = transactionTemplate.execute(status -> {
+            Transaction transaction = new Transaction();
+            transaction.setAmountCents(700L);
+            transaction.setDescription("Depósito en efectivo a la cuenta caliente");
+            transaction.setTargetAccount(bankAccountRepository.getReferenceById(accountId));
+            transaction.setCreditPending(true);
+            ledgerJournal.recordMovement(transactionRepository.save(transaction));
+            return transaction.getId();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            bankAccountRepository.addToBalance(accountId, 700L);
+            transactionRepository.clearCreditPending(List.of(transactionId));
+            ledgerJournal.recordCredits(accountId, List.of(transactionId));
+        });
+
+        ledgerJournal.replay();
+        assertEquals(10_700L, bankAccountRepository.findById(accountId).orElseThrow().getBalanceCents());
+
+        // La base pierde el flush: el movimiento vuelve a estar pendiente y el saldo sin el crédito.
+        jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = 10000 where id = ?", accountId);
+        jdbcTemplate.update("update TRANSACTION set credit_pending = true where id = ?", transactionId);
+
+        ledgerJournal.replay();
+
+        assertEquals(10_700L, bankAccountRepository.findById(accountId).orElseThrow().getBalanceCents());
+        assertEquals(false, jdbcTemplate.queryForObject("select credit_pending from TRANSACTION where id = ?", Boolean.class, transactionId));
+        assertEquals(1, ledgerJournal.getMetrics().getReplayedRecords());
+    }
+
+    // Objetivo: Después de un checkpoint lo anterior se considera reflejado en la base y ya no se relee.
+    @Test
+    void checkpoint_movesTheReplayStartingPoint() {
+        String number = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        bankAccountService.deposit(new AccountOperationDto(number, BigDecimal.TEN));
+        long last = ledgerJournal.getMetrics().getLastLsn();
+
+        ledgerJournal.checkpoint();
+        transactionRepository.deleteAll();
+        ledgerJournal.replay();
+
+        assertEquals(last, ledgerJournal.getMetrics().getCheckpointLsn());
+        assertEquals(0, ledgerJournal.getMetrics().getReplayedRecords());
+        assertEquals(0, transactionRepository.count());
+    }
+
+    // Simula una caída en la que la base no llegó a guardar los movimientos desde la posición "keep":
+    // se borran sus filas y se deshacen sus cambios de saldo.
+    private void loseMovementsAfter(int keep) {
+        List<Map<String, Object>> lost = transactions().subList(keep, transactions().size());
+        for (Map<String, Object> row : lost) {
+            long amount = ((Number) row.get("AMOUNT_CENTS")).longValue();
+            if (row.get("SOURCE_ACCOUNT_ID") != null) {
+                jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = balance_cents + ? where id = ?", amount, row.get("SOURCE_ACCOUNT_ID"));
+            }
+            if (row.get("TARGET_ACCOUNT_ID") != null) {
+                jdbcTemplate.update("update BANK_ACCOUNTS set balance_cents = balance_cents - ? where id = ?", amount, row.get("TARGET_ACCOUNT_ID"));
+            }
+            jdbcTemplate.update("delete from TRANSACTION where id = ?", row.get("ID"));
+        }
+    }
+
+    private List<Map<String, Object>> accounts() {
+        return jdbcTemplate.queryForList("select id, balance_cents from BANK_ACCOUNTS order by id");
+    }
+
+    private List<Map<String, Object>> transactions() {
+        return jdbcTemplate.queryForList("select id, amount_cents, transaction_date, description, credit_pending, source_account_id, target_account_id " +
+                "from TRANSACTION order by id");
+    }
+}
@@ -0,0 +1,109 @@
+package com.Bank.Management.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedJournalTest {
+
+    @TempDir
+    Path directory;
+
+    // Objetivo: Lo escrito se lee igual al reabrir el diario y los lsn siguen desde el último registro.
+    @Test
+    void append_survivesReopenAndContinuesSequence() {
+        try (MappedJournal journal = new MappedJournal(directory, 16)) {
+            assertEquals(3, journal.append(List.of(movement(10), movement(11), JournalRecord.cancel(10))));
+        }
+
+        try (MappedJournal journal = new MappedJournal(directory, 16)) {
+            List<JournalRecord> records = readAll(journal, 0);
+            assertEquals(3, records.size());
+            assertEquals(movement(11).withLsn(2), records.get(1));
+            assertEquals(JournalRecord.Kind.CANCEL, records.get(2).kind());
+            assertEquals(4, journal.append(List.of(movement(12))));
+        }
+    }
+
+    // Objetivo: Al llenarse un segmento se abre el siguiente y la lectura los recorre en orden.
+    @Test
+    void append_rollsSegmentsAndScanCrossesThem() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 4)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(List.of(movement(i)));
+            }
+            assertEquals(3, journal.segmentCount());
+            assertEquals(List.of(7L, 8L, 9L, 10L), readAll(journal, 6).stream().map(JournalRecord::transactionId).toList());
+        }
+        assertEquals(3, segmentFiles().size());
+    }
+
+    // Objetivo: Un registro con CRC inválido (escritura a medias) marca el final: al reabrir se descarta
+    // junto con lo que sigue y la próxima escritura reutiliza su lsn.
+    @Test
+    void open_stopsAtTornRecord() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 16)) {
+            journal.append(List.of(movement(1), movement(2), movement(3), movement(4)));
+        }
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * MappedJournal.RECORD_SIZE + 40);
+        }
+
+        try (MappedJournal journal = new MappedJournal(directory, 16)) {
+            assertEquals(2, journal.lastLsn());
+            assertEquals(List.of(1L, 2L), readAll(journal, 0).stream().map(JournalRecord::transactionId).toList());
+            assertEquals(3, journal.append(List.of(movement(30))));
+        }
+        try (MappedJournal journal = new MappedJournal(directory, 16)) {
+            assertEquals(List.of(1L, 2L, 30L), readAll(journal, 0).stream().map(JournalRecord::transactionId).toList());
+        }
+    }
+
+    // Objetivo: Solo se borran segmentos cerrados que quedaron completos por debajo del lsn indicado.
+    @Test
+    void truncateUpTo_deletesOnlyClosedSegmentsBelowTheLsn() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 4)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(List.of(movement(i)));
+            }
+
+            assertEquals(1, journal.truncateUpTo(6));
+            assertEquals(1, journal.truncateUpTo(10));
+            assertEquals(0, journal.truncateUpTo(10));
+            assertEquals(List.of(9L, 10L), readAll(journal, 0).stream().map(JournalRecord::transactionId).toList());
+        }
+        assertEquals(1, segmentFiles().size());
+
+        try (MappedJournal journal = new MappedJournal(directory, 4)) {
+            assertEquals(10, journal.lastLsn());
+            assertEquals(11, journal.append(List.of(movement(11))));
+        }
+    }
+
+    private static JournalRecord movement(long transactionId) {
+        return JournalRecord.movement(transactionId, 1, 2, 500, 1_700_000_000_000_000_000L + transactionId, false);
+    }
+
+    private static List<JournalRecord> readAll(MappedJournal journal, long afterLsn) {
+        List<JournalRecord> records = new ArrayList<>();
+        journal.scan(afterLsn, records::add);
+        return records;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.Bank.Management.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinorUnitsMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MinorUnitsMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:minor-units-migration;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Esquema como lo deja ddl-auto=update sobre una base anterior: columna DOUBLE vieja + columna en centavos nueva.
+        jdbcTemplate.execute("create table BANK_ACCOUNTS (id bigint primary key, balance double not null, balance_cents bigint default 0 not null)");
+        jdbcTemplate.execute("create table TRANSACTION (id bigint primary key, amount double not null, amount_cents bigint default 0 not null)");
+        migration = new MinorUnitsMigration(jdbcTemplate, new DataSourceTransactionManager(dataSource), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    // Objetivo: Los saldos y montos DOUBLE existentes se copian redondeados a centavos y la columna vieja queda como
+    // respaldo renombrada y sin NOT NULL.
+    @Test
+    void migrate_copiesLegacyValuesAndKeepsABackupColumn() {
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, balance) values (1, 100.1), (2, 0.3)");
+        jdbcTemplate.update("insert into TRANSACTION (id, amount) values (1, 19.99), (2, 0.1)");
+
+        migration.migrate();
+
+        assertEquals(10_010L, jdbcTemplate.queryForObject("select balance_cents from BANK_ACCOUNTS where id = 1", Long.class));
+        assertEquals(30L, jdbcTemplate.queryForObject("select balance_cents from BANK_ACCOUNTS where id = 2", Long.class));
+        assertEquals(1_999L, jdbcTemplate.queryForObject("select amount_cents from TRANSACTION where id = 1", Long.class));
+        assertEquals(10L, jdbcTemplate.queryForObject("select amount_cents from TRANSACTION where id = 2", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where column_name in ('BALANCE', 'AMOUNT')", Integer.class));
+        assertEquals(100.1, jdbcTemplate.queryForObject("select balance_legacy from BANK_ACCOUNTS where id = 1", Double.class));
+        assertEquals(19.99, jdbcTemplate.queryForObject("select amount_legacy from TRANSACTION where id = 1", Double.class));
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, balance_cents) values (3, 700)");
+    }
+
+    // Objetivo: Si la copia falla en alguna fila, la tabla queda como estaba: sin centavos a medio copiar y con la
+    // columna vieja en su lugar, para reintentar en el próximo arranque.
+    @Test
+    void migrate_failure_leavesTheTableUntouched() {
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, balance) values (1, 100.1), (2, 1e20)");
+
+        assertThrows(DataAccessException.class, () -> migration.migrate());
+
+        assertEquals(0L, jdbcTemplate.queryForObject("select balance_cents from BANK_ACCOUNTS where id = 1", Long.class));
+        assertEquals(100.1, jdbcTemplate.queryForObject("select balance from BANK_ACCOUNTS where id = 1", Double.class));
+    }
+
+    // Objetivo: Si el proceso cayó después de quitar el NOT NULL pero antes de renombrar, se retoma sin errores.
+    @Test
+    void migrate_resumesAfterAPartialRun() {
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, balance) values (1, 12.34)");
+        jdbcTemplate.execute("alter table BANK_ACCOUNTS alter column balance set null");
+
+        migration.migrate();
+
+        assertEquals(1_234L, jdbcTemplate.queryForObject("select balance_cents from BANK_ACCOUNTS where id = 1", Long.class));
+        assertEquals(12.34, jdbcTemplate.queryForObject("select balance_legacy from BANK_ACCOUNTS where id = 1", Double.class));
+    }
+
+    // Objetivo: Sin columnas viejas la migración no modifica nada (arranques posteriores).
+    @Test
+    void migrate_isNoOpOnceMigrated() {
+        migration.migrate();
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, balance_cents) values (1, 500)");
+
+        migration.migrate();
+
+        assertEquals(500L, jdbcTemplate.queryForObject("select balance_cents from BANK_ACCOUNTS where id = 1", Long.class));
+    }
+}
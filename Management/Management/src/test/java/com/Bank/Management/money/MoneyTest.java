@@ -0,0 +1,52 @@
+package com.Bank.Management.money;
+
+import com.Bank.Management.exception.InvalidOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    // Objetivo: Los montos con hasta dos decimales se convierten a centavos sin pérdida, con cualquier escala.
+    @Test
+    void toMinorUnits_convertsExactly() {
+        assertEquals(1_050L, Money.toMinorUnits(new BigDecimal("10.5")));
+        assertEquals(1_050L, Money.toMinorUnits(new BigDecimal("10.500")));
+        assertEquals(10L, Money.toMinorUnits(new BigDecimal("0.10")));
+        assertEquals(-5_000L, Money.toMinorUnits(BigDecimal.valueOf(-50.00)));
+        assertEquals(100L, Money.toMinorUnits(new BigDecimal("1E+0")));
+    }
+
+    // Objetivo: Fracciones de centavo, montos fuera de rango y montos nulos se rechazan como operación inválida.
+    @Test
+    void toMinorUnits_rejectsInvalidAmounts() {
+        InvalidOperationException subCent = assertThrows(InvalidOperationException.class,
+                () -> Money.toMinorUnits(new BigDecimal("0.001")));
+        assertTrue(subCent.getMessage().contains("dos decimales"));
+
+        InvalidOperationException tooLarge = assertThrows(InvalidOperationException.class,
+                () -> Money.toMinorUnits(new BigDecimal("92233720368547758.08")));
+        assertTrue(tooLarge.getMessage().contains("máximo"));
+
+        assertThrows(InvalidOperationException.class, () -> Money.toMinorUnits(null));
+    }
+
+    // Objetivo: La conversión de vuelta a decimal siempre tiene dos decimales.
+    @Test
+    void toDecimal_usesTwoDecimals() {
+        assertEquals(new BigDecimal("10.50"), Money.toDecimal(1_050L));
+        assertEquals(new BigDecimal("0.00"), Money.toDecimal(0L));
+    }
+
+    // Objetivo: Sumar 0.10 diez veces da exactamente 1.00 (con double da 0.9999999999999999).
+    @Test
+    void minorUnits_sumExactly() {
+        long total = 0;
+        for (int i = 0; i < 10; i++) {
+            total += Money.toMinorUnits(new BigDecimal("0.10"));
+        }
+        assertEquals(new BigDecimal("1.00"), Money.toDecimal(total));
+    }
+}
@@ -0,0 +1,98 @@
+package com.Bank.Management.sequencer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    // Objetivo: Los elementos salen en el mismo orden en que entraron.
+    @Test
+    void pollReturnsElementsInFifoOrder() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(2));
+        assertTrue(ring.offer(3));
+
+        assertEquals(1, ring.poll());
+        assertEquals(2, ring.poll());
+        assertEquals(3, ring.poll());
+        assertNull(ring.poll());
+    }
+
+    // Objetivo: Con la cola llena offer devuelve false y vuelve a aceptar cuando el consumidor libera una celda.
+    @Test
+    void offerFailsWhenFullAndRecoversAfterPoll() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+        assertEquals(4, ring.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(99));
+        assertEquals(4, ring.size());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, ring.drainTo(drained, 10));
+        assertEquals(List.of(1, 2, 3, 4), drained);
+    }
+
+    // Objetivo: Con varios productores concurrentes no se pierde ni se duplica ningún elemento,
+    // y los de un mismo productor conservan su orden.
+    @Test
+    void concurrentProducersDeliverEveryElementOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(nextExpected[(int) element[0]], element[1]);
+            nextExpected[(int) element[0]]++;
+            received++;
+        }
+        executor.shutdown();
+
+        assertEquals(producers * perProducer, received);
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,163 @@
+package com.Bank.Management.sequencer;
+
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.exception.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCommandSequencerTest {
+
+    private ShardedCommandSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        sequencer = new ShardedCommandSequencer(
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 0, 0), new ReadYourWritesTracker(1000), "sequencer", 4, 8, 16, 0);
+        sequencer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.stop();
+    }
+
+    // Objetivo: Todos los comandos de una cuenta corren en el mismo hilo de shard, en el orden de llegada.
+    @Test
+    void execute_runsCommandsOfAnAccountOnOneShardThread() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> order = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            sequencer.execute("4511111111-11", () -> {
+                threads.add(Thread.currentThread().getName());
+                order.add(value);
+                return null;
+            });
+        }
+
+        assertEquals(1, threads.stream().distinct().count());
+        assertTrue(threads.get(0).startsWith("sequencer-shard-"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    // Objetivo: Comandos concurrentes sobre una misma cuenta nunca se ejecutan en paralelo (un solo escritor).
+    @Test
+    void execute_neverRunsCommandsOfAShardConcurrently() throws InterruptedException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger total = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 2_000; i++) {
+            executor.execute(() -> sequencer.execute("4522222222-22", () -> {
+                if (active.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                total.incrementAndGet();
+                active.decrementAndGet();
+                return null;
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(2_000, total.get());
+        assertEquals(0, overlaps.get());
+        assertTrue(sequencer.getMetrics().getAverageBatchSize() >= 1.0);
+    }
+
+    // Objetivo: Un error de negocio llega solo a su llamador y el shard sigue atendiendo.
+    @Test
+    void execute_propagatesBusinessErrorsToTheCaller() {
+        assertThrows(InsufficientFundsException.class, () -> sequencer.execute("4533333333-33", () -> {
+            throw new InsufficientFundsException("Saldo insuficiente.");
+        }));
+
+        assertEquals("ok", sequencer.execute("4533333333-33", () -> "ok"));
+        assertEquals(0, sequencer.getMetrics().getBatchFallbacks());
+    }
+
+    // Objetivo: RollbackRequiredException revierte el lote, reintenta el comando solo y entrega la causa original.
+    @Test
+    void execute_unwrapsRollbackRequiredAfterFallback() {
+        InsufficientFundsException cause = new InsufficientFundsException("Saldo insuficiente.");
+
+        InsufficientFundsException thrown = assertThrows(InsufficientFundsException.class,
+                () -> sequencer.execute("4544444444-44", () -> {
+                    throw new RollbackRequiredException(cause);
+                }));
+
+        assertSame(cause, thrown);
+        assertEquals(1, sequencer.getMetrics().getBatchFallbacks());
+    }
+
+    // Objetivo: En modo "locking" el sequencer no arranca hilos y rechaza comandos.
+    @Test
+    void execute_failsWhenModeIsNotSequencer() {
+        ShardedCommandSequencer locking = new ShardedCommandSequencer(
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 0, 0), new ReadYourWritesTracker(1000), "locking", 4, 8, 16, 0);
+        locking.start();
+
+        assertFalse(locking.isEnabled());
+        assertThrows(IllegalStateException.class, () -> locking.execute("4555555555-55", () -> "ok"));
+    }
+
+    // Objetivo: Con ventana de group commit, comandos concurrentes de un shard se confirman en un solo commit
+    // al llenar max-batch (sin esperar la ventana completa) y cada llamador vuelve después de ese commit.
+    @Test
+    void execute_groupsConcurrentCommandsIntoOneCommitWithinTheWindow() throws Exception {
+        AtomicInteger commits = new AtomicInteger();
+        TransactionOperations countingCommits = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                T result = action.doInTransaction(null);
+                commits.incrementAndGet();
+                return result;
+            }
+        };
+        ShardedCommandSequencer grouped = new ShardedCommandSequencer(
+                new OptimisticRetryExecutor(countingCommits, 3, 0, 0), new ReadYourWritesTracker(1000), "sequencer", 1, 64, 8, TimeUnit.SECONDS.toMicros(30));
+        grouped.start();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            long start = System.nanoTime();
+            List<Future<Integer>> callers = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                // Cada llamador devuelve cuántos commits veía al recibir su respuesta.
+                callers.add(executor.submit(() -> {
+                    grouped.execute("4566666666-66", () -> null);
+                    return commits.get();
+                }));
+            }
+            for (Future<Integer> caller : callers) {
+                assertTrue(caller.get(10, TimeUnit.SECONDS) >= 1);
+            }
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+            assertEquals(2, grouped.getMetrics().getBatches());
+            assertEquals(2, commits.get());
+            assertEquals(8.0, grouped.getMetrics().getAverageBatchSize());
+        } finally {
+            executor.shutdownNow();
+            grouped.stop();
+        }
+    }
+}
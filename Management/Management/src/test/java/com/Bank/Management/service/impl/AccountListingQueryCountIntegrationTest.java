@@ -0,0 +1,107 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account-listing-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AccountListingQueryCountIntegrationTest {
+
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("listado");
+        user.setEmail("listado@bank.com");
+        user.setPassword("password123");
+        user.setDni("55555555");
+        userId = userRepository.save(user).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Objetivo: El listado ejecuta una sola sentencia por página sin importar cuántas transacciones tengan las cuentas,
+    // y con includeTransactions solo agrega una sentencia por dirección (no una carga perezosa por cuenta).
+    @Test
+    void accountPages_runConstantNumberOfStatements() {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            numbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getAccountNumber());
+        }
+        for (int i = 0; i < numbers.size(); i++) {
+            transactionService.transfer(new TransferRequestDto(numbers.get(i), numbers.get((i + 1) % numbers.size()), BigDecimal.ONE));
+            transactionService.transfer(new TransferRequestDto(numbers.get(i), numbers.get((i + 2) % numbers.size()), BigDecimal.ONE));
+        }
+
+        BankAccountPageDto first = assertStatements(1, () -> bankAccountService.getAccounts(null, 10, false));
+        BankAccountPageDto second = assertStatements(1, () -> bankAccountService.getAccounts(first.getNextAfterId(), 10, false));
+        BankAccountPageDto last = assertStatements(3, () -> bankAccountService.getAccounts(second.getNextAfterId(), 10, true));
+
+        List<String> walked = new ArrayList<>();
+        for (BankAccountPageDto page : List.of(first, second, last)) {
+            page.getAccounts().stream().map(BankAccountResponseDto::getAccountNumber).forEach(walked::add);
+        }
+        assertEquals(numbers, walked);
+        assertNull(last.getNextAfterId());
+        assertTrue(first.getAccounts().stream().allMatch(a -> a.getOutgoingTransactions() == null && userId.equals(a.getUserId())));
+        assertTrue(last.getAccounts().stream().allMatch(a -> a.getOutgoingTransactions().size() == 2 && a.getIncomingTransactions().size() == 2));
+
+        Long id = first.getAccounts().get(0).getId();
+        BankAccountResponseDto summary = assertStatements(1, () -> bankAccountService.getAccountById(id, false));
+        BankAccountResponseDto full = assertStatements(3, () -> bankAccountService.getAccountById(id, true));
+        assertEquals(new BigDecimal("100.00"), summary.getBalance());
+        assertNull(summary.getIncomingTransactions());
+        assertEquals(2, full.getIncomingTransactions().size());
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
@@ -1,31 +1,63 @@
 package com.Bank.Management.service.impl;
 
+import com.Bank.Management.accountnumber.AccountNumberAllocator;
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
 import com.Bank.Management.dto.request.BankAccountRequestDto;
 import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.PointInTimeBalanceDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.entity.BalanceSnapshot;
 import com.Bank.Management.entity.BankAccount;
 import com.Bank.Management.entity.User;
 import com.Bank.Management.entity.Transaction;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.idempotency.IdempotencyScope;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.journal.LedgerJournal;
 import com.Bank.Management.mapper.BankAccountMapper;
+import com.Bank.Management.mapper.TransactionMapper;
+import com.Bank.Management.repository.BalanceSnapshotRepository;
 import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.UserRepository;
 import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.AccountSummary;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import com.Bank.Management.sharding.ShardRouter;
+import com.Bank.Management.sharding.ShardTransactions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 
@@ -44,6 +76,19 @@ class BankAccountServiceImplTest {
     private BankAccountMapper bankAccountMapper;
     @Mock
     private TransactionRepository transactionRepository;
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock
+    private TransactionMapper transactionMapper;
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    @Mock
+    private AccountEventStore accountEventStore;
+    @Mock
+    private ShardTransactions shardTransactions;
 
     private User testUser;
     private BankAccountRequestDto createDto;
@@ -54,17 +99,15 @@ class BankAccountServiceImplTest {
     private final Long USER_ID = 1L;
     private final Long ACCOUNT_ID = 1L;
     private final String ACCOUNT_NUMBER = "4512345678-01";
-    private final double INITIAL_BALANCE = 100.00;
+    private final String HOT_ACCOUNT_NUMBER = "4599999999-99";
+    private final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+    private final long INITIAL_BALANCE_CENTS = 10_000L;
     private final BigDecimal OPERATION_AMOUNT = BigDecimal.valueOf(50.00);
+    private final long OPERATION_CENTS = 5_000L;
 
     @BeforeEach
     void setUp() {
-        bankAccountService = new BankAccountServiceImpl(
-                bankAccountRepository,
-                userRepository,
-                bankAccountMapper,
-                transactionRepository
-        );
+        bankAccountService = newService(TransactionOperations.withoutTransaction());
 
         testUser = new User();
         testUser.setId(USER_ID);
@@ -74,16 +117,41 @@ class BankAccountServiceImplTest {
         accountEntity = new BankAccount();
         accountEntity.setId(ACCOUNT_ID);
         accountEntity.setAccountNumber(ACCOUNT_NUMBER);
-        accountEntity.setBalance(INITIAL_BALANCE);
+        accountEntity.setBalanceCents(INITIAL_BALANCE_CENTS);
         accountEntity.setUser(testUser);
 
-        responseDto = new BankAccountResponseDto(ACCOUNT_ID, ACCOUNT_NUMBER, INITIAL_BALANCE, null, null);
+        responseDto = new BankAccountResponseDto(ACCOUNT_ID, ACCOUNT_NUMBER, INITIAL_BALANCE, USER_ID, null, null);
+    }
+
+    private BankAccountServiceImpl newService(TransactionOperations transactionOperations) {
+        OptimisticRetryExecutor retryExecutor = new OptimisticRetryExecutor(transactionOperations, 3, 0, 0);
+        ShardedCommandSequencer sequencer = new ShardedCommandSequencer(retryExecutor, new ReadYourWritesTracker(1000), "locking", 1, 16, 8, 0);
+        return new BankAccountServiceImpl(
+                bankAccountRepository,
+                userRepository,
+                bankAccountMapper,
+                transactionRepository,
+                new AccountLockManager(16, true),
+                retryExecutor,
+                new HotAccountCreditBuffer(bankAccountRepository, transactionRepository, new AccountLockManager(16, true), retryExecutor, sequencer, accountEventStore, ledgerJournal, List.of(HOT_ACCOUNT_NUMBER), 50, 100),
+                sequencer,
+                balanceSnapshotRepository,
+                transactionMapper,
+                new AccountLookupCache(bankAccountRepository, 100),
+                accountNumberAllocator,
+                ledgerJournal,
+                accountEventStore,
+                new ShardRouter(null, List.of()),
+                shardTransactions,
+                50,
+                500
+        );
     }
 
     // Objetivo: Validar que la creación de cuenta falle si el saldo inicial es negativo.
     @Test
     void create_fails_on_negative_balance() {
-        BankAccountRequestDto negativeBalanceDto = new BankAccountRequestDto(-50.00, USER_ID);
+        BankAccountRequestDto negativeBalanceDto = new BankAccountRequestDto(BigDecimal.valueOf(-50.00), USER_ID);
 
         Exception exception = assertThrows(InvalidOperationException.class, () -> {
             bankAccountService.createAccount(negativeBalanceDto);
@@ -95,19 +163,20 @@ class BankAccountServiceImplTest {
         verifyNoInteractions(bankAccountRepository);
     }
 
-    // Objetivo: Validar que el retiro falle si los fondos son insuficientes.
+    // Objetivo: Validar que el retiro falle si los fondos son insuficientes (el UPDATE condicional no afecta filas).
     @Test
     void withdraw_fails_on_insufficient_funds() {
         BigDecimal largeWithdrawAmount = BigDecimal.valueOf(150.00);
         AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, largeWithdrawAmount);
 
-        when(bankAccountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(accountEntity));
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(ACCOUNT_ID, 15_000L)).thenReturn(0);
 
         assertThrows(InsufficientFundsException.class, () -> {
             bankAccountService.withdraw(operationDto);
         });
 
-        verify(bankAccountRepository).findByAccountNumber(ACCOUNT_NUMBER);
+        verify(bankAccountRepository).findIdByAccountNumber(ACCOUNT_NUMBER);
         verify(bankAccountRepository, never()).save(any());
         verifyNoInteractions(transactionRepository);
     }
@@ -117,7 +186,7 @@ class BankAccountServiceImplTest {
     void createAccount_success() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
         when(bankAccountMapper.toBankAccount(any(BankAccountRequestDto.class))).thenReturn(accountEntity);
-        when(bankAccountRepository.findByAccountNumber(anyString())).thenReturn(Optional.empty());
+        when(accountNumberAllocator.next()).thenReturn(ACCOUNT_NUMBER);
         when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(accountEntity);
         when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(responseDto);
 
@@ -128,7 +197,8 @@ class BankAccountServiceImplTest {
         assertEquals(INITIAL_BALANCE, result.getBalance());
 
         verify(userRepository).findById(USER_ID);
-        verify(bankAccountRepository, times(1)).save(any(BankAccount.class));
+        verify(bankAccountRepository, never()).findByAccountNumber(any());
+        verify(bankAccountRepository, times(1)).save(argThat(account -> ACCOUNT_NUMBER.equals(account.getAccountNumber())));
         verify(bankAccountMapper).toBankAccountResponseDto(any(BankAccount.class));
     }
 
@@ -144,6 +214,7 @@ class BankAccountServiceImplTest {
         verify(userRepository).findById(USER_ID);
         verifyNoInteractions(bankAccountRepository);
         verifyNoInteractions(bankAccountMapper);
+        verifyNoInteractions(accountNumberAllocator);
     }
 
     // Objetivo: Retiro exitoso
@@ -151,20 +222,23 @@ class BankAccountServiceImplTest {
     void withdraw_success() {
         AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
 
-        when(bankAccountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(accountEntity));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
-        when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(accountEntity);
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(ACCOUNT_ID, OPERATION_CENTS)).thenReturn(1);
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(new Transaction());
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
         when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(responseDto);
 
         BankAccountResponseDto result = bankAccountService.withdraw(operationDto);
-        double expectedBalance = INITIAL_BALANCE - OPERATION_AMOUNT.doubleValue();
 
         assertNotNull(result);
-        assertEquals(expectedBalance, accountEntity.getBalance());
 
-        verify(bankAccountRepository).findByAccountNumber(ACCOUNT_NUMBER);
-        verify(bankAccountRepository).save(accountEntity);
-        verify(transactionRepository).save(any(Transaction.class));
+        verify(bankAccountRepository).subtractFromBalanceIfSufficient(ACCOUNT_ID, OPERATION_CENTS);
+        verify(bankAccountRepository, never()).findByAccountNumber(any());
+        verify(bankAccountRepository, never()).save(any());
+        verify(transactionRepository).saveAndFlush(argThat(transaction ->
+                transaction.getSourceAccount() == accountEntity && transaction.getTargetAccount() == null));
+        verify(ledgerJournal).recordMovement(argThat(transaction -> transaction.getSourceAccount() == accountEntity));
     }
 
     // Objetivo: Retiro falla si la cuenta no existe.
@@ -172,14 +246,14 @@ class BankAccountServiceImplTest {
     void withdraw_fails_on_account_not_found() {
         AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
 
-        when(bankAccountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> {
             bankAccountService.withdraw(operationDto);
         });
 
-        verify(bankAccountRepository).findByAccountNumber(ACCOUNT_NUMBER);
-        verify(bankAccountRepository, never()).save(any());
+        verify(bankAccountRepository).findIdByAccountNumber(ACCOUNT_NUMBER);
+        verify(bankAccountRepository, never()).subtractFromBalanceIfSufficient(any(), anyLong());
         verifyNoInteractions(transactionRepository);
     }
 
@@ -188,20 +262,38 @@ class BankAccountServiceImplTest {
     void deposit_success() {
         AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
 
-        when(bankAccountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(accountEntity));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
-        when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(accountEntity);
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.addToBalance(ACCOUNT_ID, OPERATION_CENTS)).thenReturn(1);
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(new Transaction());
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
         when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(responseDto);
 
         BankAccountResponseDto result = bankAccountService.deposit(operationDto);
-        double expectedBalance = INITIAL_BALANCE + OPERATION_AMOUNT.doubleValue();
 
         assertNotNull(result);
-        assertEquals(expectedBalance, accountEntity.getBalance());
 
-        verify(bankAccountRepository).findByAccountNumber(ACCOUNT_NUMBER);
-        verify(bankAccountRepository).save(accountEntity);
-        verify(transactionRepository).save(any(Transaction.class));
+        verify(bankAccountRepository).addToBalance(ACCOUNT_ID, OPERATION_CENTS);
+        verify(bankAccountRepository, never()).save(any());
+        verify(transactionRepository).saveAndFlush(argThat(transaction ->
+                transaction.getTargetAccount() == accountEntity && transaction.getSourceAccount() == null));
+    }
+
+    // Objetivo: El movimiento guarda la Idempotency-Key de la solicitud, para revisar después una reserva interrumpida.
+    @Test
+    void deposit_recordsTheIdempotencyKeyOnTheMovement() {
+        AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
+
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.addToBalance(ACCOUNT_ID, OPERATION_CENTS)).thenReturn(1);
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(new Transaction());
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
+        when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(responseDto);
+
+        IdempotencyScope.call("pago-123", () -> bankAccountService.deposit(operationDto));
+
+        verify(transactionRepository).saveAndFlush(argThat(transaction -> "pago-123".equals(transaction.getIdempotencyKey())));
     }
 
     // Objetivo: Depósito falla si la cuenta no existe.
@@ -209,61 +301,251 @@ class BankAccountServiceImplTest {
     void deposit_fails_on_account_not_found() {
         AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
 
-        when(bankAccountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> {
             bankAccountService.deposit(operationDto);
         });
 
-        verify(bankAccountRepository).findByAccountNumber(ACCOUNT_NUMBER);
-        verify(bankAccountRepository, never()).save(any());
+        verify(bankAccountRepository).findIdByAccountNumber(ACCOUNT_NUMBER);
+        verify(bankAccountRepository, never()).addToBalance(any(), anyLong());
         verifyNoInteractions(transactionRepository);
     }
 
-    // Objetivo: Obtener todas las cuentas (caso de éxito)
+    // Objetivo: Un depósito que desbordaría el saldo se rechaza sin registrar el movimiento.
     @Test
-    void getAllAccounts_success() {
-        List<BankAccount> accountList = List.of(accountEntity);
+    void deposit_fails_on_balance_overflow() {
+        AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT);
 
-        when(bankAccountRepository.findAll()).thenReturn(accountList);
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.addToBalance(ACCOUNT_ID, OPERATION_CENTS)).thenReturn(0);
+        when(bankAccountRepository.existsById(ACCOUNT_ID)).thenReturn(true);
+
+        Exception exception = assertThrows(InvalidOperationException.class, () -> bankAccountService.deposit(operationDto));
+
+        assertTrue(exception.getMessage().contains("excede el máximo"));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    // Objetivo: El stripe de la cuenta se toma antes de abrir la transacción: los hilos que esperan una cuenta
+    // ocupada no tienen transacción (ni conexión del pool) abierta, así que nunca hay más de una a la vez.
+    @Test
+    void deposit_takesTheAccountLockBeforeOpeningTheTransaction() throws Exception {
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        BankAccountServiceImpl service = newService(new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    return action.doInTransaction(new SimpleTransactionStatus());
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    open.decrementAndGet();
+                }
+            }
+        });
+        when(bankAccountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.addToBalance(ACCOUNT_ID, OPERATION_CENTS)).thenReturn(1);
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(new Transaction());
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
         when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(responseDto);
 
-        List<BankAccountResponseDto> result = bankAccountService.getAllAccounts();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<BankAccountResponseDto>> deposits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            deposits.add(executor.submit(() -> service.deposit(new AccountOperationDto(ACCOUNT_NUMBER, OPERATION_AMOUNT))));
+        }
+        for (Future<BankAccountResponseDto> deposit : deposits) {
+            assertNotNull(deposit.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, maxOpen.get());
+    }
 
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(ACCOUNT_NUMBER, result.get(0).getAccountNumber());
+    // Objetivo: Un monto con más de dos decimales se rechaza antes de tocar la base de datos.
+    @Test
+    void deposit_fails_on_sub_cent_amount() {
+        AccountOperationDto operationDto = new AccountOperationDto(ACCOUNT_NUMBER, new BigDecimal("10.005"));
 
-        verify(bankAccountRepository).findAll();
-        verify(bankAccountMapper, times(accountList.size())).toBankAccountResponseDto(any(BankAccount.class));
+        assertThrows(InvalidOperationException.class, () -> bankAccountService.deposit(operationDto));
+
+        verifyNoInteractions(bankAccountRepository);
+        verifyNoInteractions(transactionRepository);
     }
 
-    // Objetivo: Obtener cuenta por ID (caso de éxito)
+    // Objetivo: El depósito a una cuenta caliente no actualiza la fila; queda pendiente y la respuesta lo incluye.
     @Test
-    void getAccountById_success() {
+    void deposit_hotAccount_defersCredit() {
+        AccountOperationDto operationDto = new AccountOperationDto(HOT_ACCOUNT_NUMBER, OPERATION_AMOUNT);
+        BankAccountResponseDto hotResponse = new BankAccountResponseDto(ACCOUNT_ID, HOT_ACCOUNT_NUMBER, INITIAL_BALANCE, USER_ID, null, null);
+
+        when(bankAccountRepository.findIdByAccountNumber(HOT_ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
+        when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class))).thenReturn(hotResponse);
+        when(bankAccountRepository.findBalanceWithPendingCreditsById(ACCOUNT_ID)).thenReturn(Optional.of(INITIAL_BALANCE_CENTS + OPERATION_CENTS));
+
+        BankAccountResponseDto result = bankAccountService.deposit(operationDto);
+
+        assertEquals(new BigDecimal("150.00"), result.getBalance());
+        verify(bankAccountRepository, never()).addToBalance(any(), anyLong());
+        verify(transactionRepository).saveAndFlush(argThat(Transaction::isCreditPending));
+    }
+
+    // Objetivo: Antes de un retiro en una cuenta caliente se aplican sus créditos pendientes, en un solo UPDATE.
+    @Test
+    void withdraw_hotAccount_flushesPendingCreditsFirst() {
+        when(bankAccountRepository.findIdByAccountNumber(HOT_ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(bankAccountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(accountEntity);
         when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
-        when(bankAccountMapper.toBankAccountResponseDto(accountEntity)).thenReturn(responseDto);
+        when(bankAccountMapper.toBankAccountResponseDto(any(BankAccount.class)))
+                .thenAnswer(invocation -> new BankAccountResponseDto(ACCOUNT_ID, HOT_ACCOUNT_NUMBER, INITIAL_BALANCE, USER_ID, null, null));
+        when(bankAccountRepository.addToBalance(ACCOUNT_ID, 10_000L)).thenReturn(1);
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(ACCOUNT_ID, 15_000L)).thenReturn(1);
+
+        bankAccountService.deposit(new AccountOperationDto(HOT_ACCOUNT_NUMBER, OPERATION_AMOUNT));
+        bankAccountService.deposit(new AccountOperationDto(HOT_ACCOUNT_NUMBER, OPERATION_AMOUNT));
+        bankAccountService.withdraw(new AccountOperationDto(HOT_ACCOUNT_NUMBER, BigDecimal.valueOf(150.00)));
+
+        InOrder inOrder = inOrder(bankAccountRepository, transactionRepository);
+        inOrder.verify(bankAccountRepository).addToBalance(ACCOUNT_ID, 10_000L);
+        inOrder.verify(transactionRepository).clearCreditPending(any());
+        inOrder.verify(bankAccountRepository).subtractFromBalanceIfSufficient(ACCOUNT_ID, 15_000L);
+    }
+
+    // Objetivo: El listado pide una fila de más para saber si hay otra página y no consulta transacciones por defecto
+    @Test
+    void getAccounts_success_returnsSummaryPageWithoutTransactions() {
+        AccountSummary first = new AccountSummary(ACCOUNT_ID, ACCOUNT_NUMBER, INITIAL_BALANCE_CENTS, USER_ID);
+        AccountSummary second = new AccountSummary(2L, "4512345678-02", 0L, USER_ID);
+        AccountSummary extra = new AccountSummary(3L, "4512345678-03", 0L, USER_ID);
+        when(bankAccountRepository.findSummariesAfter(eq(0L), argThat(pageable -> pageable.getPageSize() == 3)))
+                .thenReturn(List.of(first, second, extra));
+        when(bankAccountMapper.toBankAccountResponseDtos(List.of(first, second))).thenReturn(new ArrayList<>(List.of(responseDto,
+                new BankAccountResponseDto(2L, "4512345678-02", BigDecimal.ZERO, USER_ID, null, null))));
+
+        BankAccountPageDto result = bankAccountService.getAccounts(null, 2, false);
+
+        assertEquals(2, result.getAccounts().size());
+        assertEquals(2L, result.getNextAfterId());
+        assertEquals(2, result.getSize());
+        assertNull(result.getAccounts().get(0).getOutgoingTransactions());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    // Objetivo: Con includeTransactions las transacciones de toda la página se cargan en dos consultas y se agrupan por cuenta
+    @Test
+    void getAccounts_includeTransactions_loadsPageTransactionsInTwoQueries() {
+        AccountSummary summary = new AccountSummary(ACCOUNT_ID, ACCOUNT_NUMBER, INITIAL_BALANCE_CENTS, USER_ID);
+        BankAccount other = new BankAccount();
+        other.setId(2L);
+        Transaction outgoing = new Transaction();
+        outgoing.setSourceAccount(accountEntity);
+        outgoing.setTargetAccount(other);
+        TransactionResponseDto outgoingDto = new TransactionResponseDto();
+        when(bankAccountRepository.findSummariesAfter(eq(10L), any())).thenReturn(List.of(summary));
+        when(bankAccountMapper.toBankAccountResponseDtos(List.of(summary))).thenReturn(new ArrayList<>(List.of(responseDto)));
+        when(transactionRepository.findOutgoingWithAccounts(List.of(ACCOUNT_ID))).thenReturn(List.of(outgoing));
+        when(transactionRepository.findIncomingWithAccounts(List.of(ACCOUNT_ID))).thenReturn(List.of());
+        when(transactionMapper.toTransactionResponseDto(outgoing)).thenReturn(outgoingDto);
+
+        BankAccountPageDto result = bankAccountService.getAccounts(10L, null, true);
+
+        assertNull(result.getNextAfterId());
+        assertEquals(List.of(outgoingDto), result.getAccounts().get(0).getOutgoingTransactions());
+        assertEquals(List.of(), result.getAccounts().get(0).getIncomingTransactions());
+        verify(transactionRepository).findOutgoingWithAccounts(List.of(ACCOUNT_ID));
+        verify(transactionRepository).findIncomingWithAccounts(List.of(ACCOUNT_ID));
+    }
+
+    // Objetivo: Un tamaño de página fuera de rango se rechaza sin consultar cuentas
+    @Test
+    void getAccounts_invalidSize_throwsInvalidOperation() {
+        assertThrows(InvalidOperationException.class, () -> bankAccountService.getAccounts(null, 0, false));
+        assertThrows(InvalidOperationException.class, () -> bankAccountService.getAccounts(null, 501, false));
+
+        verifyNoInteractions(bankAccountRepository);
+    }
+
+    // Objetivo: Obtener cuenta por ID (caso de éxito) desde la proyección, sin cargar la entidad ni sus transacciones
+    @Test
+    void getAccountById_success() {
+        AccountSummary summary = new AccountSummary(ACCOUNT_ID, ACCOUNT_NUMBER, INITIAL_BALANCE_CENTS, USER_ID);
+        when(bankAccountRepository.findSummaryById(ACCOUNT_ID)).thenReturn(Optional.of(summary));
+        when(bankAccountMapper.toBankAccountResponseDto(summary)).thenReturn(responseDto);
 
-        BankAccountResponseDto result = bankAccountService.getAccountById(ACCOUNT_ID);
+        BankAccountResponseDto result = bankAccountService.getAccountById(ACCOUNT_ID, false);
 
         assertNotNull(result);
         assertEquals(ACCOUNT_NUMBER, result.getAccountNumber());
 
-        verify(bankAccountRepository).findById(ACCOUNT_ID);
-        verify(bankAccountMapper).toBankAccountResponseDto(accountEntity);
+        verify(bankAccountRepository).findSummaryById(ACCOUNT_ID);
+        verify(bankAccountRepository, never()).findById(any());
+        verifyNoInteractions(transactionRepository);
     }
 
     // Objetivo: Obtener cuenta por ID (caso de fallo - no encontrado)
     @Test
     void getAccountById_fails_on_not_found() {
-        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findSummaryById(ACCOUNT_ID)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> {
-            bankAccountService.getAccountById(ACCOUNT_ID);
+            bankAccountService.getAccountById(ACCOUNT_ID, true);
         });
 
-        verify(bankAccountRepository).findById(ACCOUNT_ID);
+        verify(bankAccountRepository).findSummaryById(ACCOUNT_ID);
         verifyNoInteractions(bankAccountMapper);
     }
+
+    // Objetivo: Con una foto de un día anterior, el saldo a una fecha es la foto más los movimientos
+    // desde su cierre hasta esa fecha (sin recorrer el historial completo).
+    @Test
+    void getBalanceAt_UsesNearestEarlierSnapshotPlusDelta() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 10, 15, 0);
+        accountEntity.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
+        when(balanceSnapshotRepository.findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(ACCOUNT_ID, LocalDate.of(2024, 3, 9)))
+                .thenReturn(Optional.of(new BalanceSnapshot(ACCOUNT_ID, LocalDate.of(2024, 3, 9), 7_000L)));
+        when(transactionRepository.sumNetChangeBetween(ACCOUNT_ID, LocalDateTime.of(2024, 3, 10, 0, 0), at)).thenReturn(-500L);
+
+        PointInTimeBalanceDto result = bankAccountService.getBalanceAt(ACCOUNT_ID, at);
+
+        assertEquals(0, new BigDecimal("65.00").compareTo(result.getBalance()));
+        assertEquals(LocalDate.of(2024, 3, 9), result.getSnapshotDate());
+        verify(bankAccountRepository, never()).findBalanceWithPendingCreditsById(anyLong());
+    }
+
+    // Objetivo: Sin foto anterior se usa la primera foto posterior y se restan los movimientos intermedios.
+    @Test
+    void getBalanceAt_UsesNextSnapshotMinusDelta() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 10, 15, 0);
+        accountEntity.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
+        when(balanceSnapshotRepository.findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(ACCOUNT_ID, LocalDate.of(2024, 3, 9)))
+                .thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.findFirstByAccountIdAndSnapshotDateGreaterThanOrderBySnapshotDateAsc(ACCOUNT_ID, LocalDate.of(2024, 3, 9)))
+                .thenReturn(Optional.of(new BalanceSnapshot(ACCOUNT_ID, LocalDate.of(2024, 3, 10), 9_000L)));
+        when(transactionRepository.sumNetChangeBetween(ACCOUNT_ID, at, LocalDateTime.of(2024, 3, 11, 0, 0))).thenReturn(1_000L);
+
+        PointInTimeBalanceDto result = bankAccountService.getBalanceAt(ACCOUNT_ID, at);
+
+        assertEquals(0, new BigDecimal("80.00").compareTo(result.getBalance()));
+        assertEquals(LocalDate.of(2024, 3, 10), result.getSnapshotDate());
+    }
+
+    // Objetivo: Una fecha anterior al alta de la cuenta se rechaza.
+    @Test
+    void getBalanceAt_BeforeAccountCreation_Throws() {
+        accountEntity.setCreatedAt(LocalDateTime.of(2024, 3, 1, 0, 0));
+        when(bankAccountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(accountEntity));
+
+        assertThrows(InvalidOperationException.class,
+                () -> bankAccountService.getBalanceAt(ACCOUNT_ID, LocalDateTime.of(2024, 2, 1, 0, 0)));
+        verifyNoInteractions(balanceSnapshotRepository);
+    }
 }
@@ -0,0 +1,103 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.OperationStatus;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.migration.IdSequenceMigration;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch-transfers;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.batch.chunk-size=100"
+})
+class BatchTransferIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private IdSequenceMigration idSequenceMigration;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("lote");
+        user.setEmail("lote@bank.com");
+        user.setPassword("password123");
+        user.setDni("77777777");
+        userId = userRepository.save(user).getId();
+    }
+
+    // Objetivo: Un lote de 250 transferencias se aplica en grupos y reporta el resultado de cada una.
+    @Test
+    void transferBatch_appliesChunksAndReportsFailures() {
+        String source = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(200.00), userId)).getAccountNumber();
+        String target = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(0.00), userId)).getAccountNumber();
+
+        List<TransferRequestDto> transfers = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            transfers.add(new TransferRequestDto(source, target, BigDecimal.ONE));
+        }
+        transfers.set(10, new TransferRequestDto(source, "4500000000-00", BigDecimal.ONE));
+        transfers.set(20, new TransferRequestDto(source, source, BigDecimal.ONE));
+
+        List<BatchTransferResultDto> results = transactionService.transferBatch(transfers);
+
+        long completed = results.stream().filter(r -> r.getStatus() == OperationStatus.COMPLETED).count();
+        assertEquals(250, results.size());
+        assertEquals(OperationStatus.FAILED, results.get(10).getStatus());
+        assertEquals(OperationStatus.FAILED, results.get(20).getStatus());
+        // 200 de saldo alcanzan para 200 transferencias de 1; el resto falla por fondos insuficientes.
+        assertEquals(200, completed);
+        assertEquals(OperationStatus.FAILED, results.get(249).getStatus());
+        assertEquals(0L, bankAccountRepository.findByAccountNumber(source).orElseThrow().getBalanceCents());
+        assertEquals(20_000L, bankAccountRepository.findByAccountNumber(target).orElseThrow().getBalanceCents());
+        assertEquals(200, transactionRepository.count());
+    }
+
+    // Objetivo: La secuencia de ids se adelanta por encima de filas creadas con el esquema IDENTITY anterior.
+    @Test
+    void idSequenceMigration_movesSequenceAboveExistingIds() {
+        jdbcTemplate.update("insert into BANK_ACCOUNTS (id, account_number, balance_cents, user_id, version) values (?, ?, ?, ?, ?)",
+                5_000L, "4599999999-99", 1_000L, userId, 0L);
+
+        idSequenceMigration.alignSequences();
+
+        Long nextValue = jdbcTemplate.queryForObject("select next value for BANK_ACCOUNTS_SEQ", Long.class);
+        // El optimizador "pooled" usa el rango (valor - 50, valor], que debe quedar por encima de 5000.
+        assertTrue(nextValue - 50 >= 5_000L);
+    }
+}
@@ -0,0 +1,110 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.exception.ConcurrentUpdateException;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin bloqueos en memoria, la única protección es la versión optimista más los reintentos:
+// miles de transferencias concurrentes no deben crear ni destruir dinero.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrent-transfers;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.locks.enabled=false",
+        "bank.retry.max-attempts=50"
+})
+class ConcurrentTransferIntegrationTest {
+
+    private static final int ACCOUNTS = 10;
+    private static final int TRANSFERS = 2_000;
+    private static final int THREADS = 16;
+    private static final double INITIAL_BALANCE = 1_000.00;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    // Objetivo: La suma de saldos se conserva después de transferencias concurrentes.
+    @Test
+    void concurrentTransfers_preserveTotalBalance() throws InterruptedException {
+        User user = new User();
+        user.setUsername("concurrencia");
+        user.setEmail("concurrencia@bank.com");
+        user.setPassword("password123");
+        user.setDni("99999999");
+        User owner = userRepository.save(user);
+
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(INITIAL_BALANCE), owner.getId())).getAccountNumber());
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger aborted = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                TransferRequestDto dto = new TransferRequestDto(accountNumbers.get(from), accountNumbers.get(to),
+                        BigDecimal.valueOf(1 + random.nextInt(100)));
+                try {
+                    transactionService.transfer(dto);
+                    completed.incrementAndGet();
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                } catch (ConcurrentUpdateException e) {
+                    aborted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    unexpected.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        long total = bankAccountRepository.findAll().stream()
+                .filter(account -> accountNumbers.contains(account.getAccountNumber()))
+                .mapToLong(BankAccount::getBalanceCents)
+                .sum();
+
+        assertEquals(0, unexpected.get());
+        assertEquals(TRANSFERS, completed.get() + rejected.get() + aborted.get());
+        assertEquals(ACCOUNTS * Money.toMinorUnits(BigDecimal.valueOf(INITIAL_BALANCE)), total);
+        assertTrue(completed.get() > 0);
+        assertEquals(aborted.get(), optimisticRetryExecutor.getMetrics().getAborts());
+    }
+}
@@ -0,0 +1,131 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot-accounts;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.hot-accounts.numbers=4500000000-77",
+        "bank.hot-accounts.flush-interval-ms=20",
+        "bank.hot-accounts.flush-threshold=25"
+})
+class HotAccountNettingIntegrationTest {
+
+    private static final String HOT = "4500000000-77";
+
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private HotAccountCreditBuffer hotAccountCreditBuffer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AccountLookupCache accountLookupCache;
+
+    private User owner;
+    private Long hotAccountId;
+
+    @BeforeEach
+    void setUp() {
+        hotAccountCreditBuffer.flushAll();
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+        // La cuenta caliente se vuelve a crear con el mismo número y otro id.
+        accountLookupCache.clear();
+
+        User user = new User();
+        user.setUsername("recaudo");
+        user.setEmail("recaudo@bank.com");
+        user.setPassword("password123");
+        user.setDni("55555555");
+        owner = userRepository.save(user);
+
+        BankAccount hot = new BankAccount();
+        hot.setAccountNumber(HOT);
+        hot.setBalanceCents(0);
+        hot.setUser(owner);
+        hotAccountId = bankAccountRepository.save(hot).getId();
+    }
+
+    // Objetivo: Depósitos y transferencias concurrentes a la cuenta caliente terminan reflejados en su saldo
+    // sin perder ni duplicar créditos, y las lecturas ven los créditos pendientes.
+    @Test
+    void concurrentCredits_areNettedIntoBalance() throws InterruptedException {
+        String payer = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), owner.getId())).getAccountNumber();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < 400; i++) {
+            boolean deposit = i % 2 == 0;
+            executor.execute(() -> {
+                try {
+                    if (deposit) {
+                        bankAccountService.deposit(new AccountOperationDto(HOT, BigDecimal.ONE));
+                    } else {
+                        transactionService.transfer(new TransferRequestDto(payer, HOT, BigDecimal.ONE));
+                    }
+                } catch (RuntimeException ex) {
+                    errors.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(0, errors.get());
+        assertEquals(new BigDecimal("400.00"), bankAccountService.getAccountById(hotAccountId, false).getBalance());
+
+        hotAccountCreditBuffer.flushAll();
+
+        assertEquals(40_000L, bankAccountRepository.findById(hotAccountId).orElseThrow().getBalanceCents());
+        assertEquals(80_000L, bankAccountRepository.findByAccountNumber(payer).orElseThrow().getBalanceCents());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from TRANSACTION where credit_pending = true", Integer.class));
+        assertEquals(400, transactionRepository.count());
+    }
+
+    // Objetivo: El retiro de una cuenta caliente valida contra el saldo que incluye sus créditos pendientes, y nunca lo supera.
+    @Test
+    void withdraw_seesPendingCreditsAndStaysStrict() {
+        bankAccountService.deposit(new AccountOperationDto(HOT, BigDecimal.valueOf(30)));
+        bankAccountService.deposit(new AccountOperationDto(HOT, BigDecimal.valueOf(20)));
+
+        assertEquals(new BigDecimal("10.00"), bankAccountService.withdraw(new AccountOperationDto(HOT, BigDecimal.valueOf(40))).getBalance());
+        assertThrows(InsufficientFundsException.class,
+                () -> bankAccountService.withdraw(new AccountOperationDto(HOT, BigDecimal.valueOf(11))));
+        assertEquals(1_000L, bankAccountRepository.findById(hotAccountId).orElseThrow().getBalanceCents());
+    }
+}
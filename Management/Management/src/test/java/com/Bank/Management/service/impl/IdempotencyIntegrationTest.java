@@ -0,0 +1,89 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.controller.BankAccountController;
+import com.Bank.Management.controller.TransactionController;
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.entity.IdempotencyStatus;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.IdempotencyRecordRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private TransactionController transactionController;
+    @Autowired
+    private BankAccountController bankAccountController;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    // Objetivo: Reintentos concurrentes de la misma transferencia (misma Idempotency-Key) la aplican una sola vez
+    // y todos reciben el mismo movimiento; la respuesta queda guardada en la tabla.
+    @Test
+    void concurrentRetries_transferOnlyOnce() throws Exception {
+        User user = new User();
+        user.setUsername("reintentos");
+        user.setEmail("reintentos@bank.com");
+        user.setPassword("password123");
+        user.setDni("44444444");
+        Long userId = userRepository.save(user).getId();
+
+        String source = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100), userId)).getAccountNumber();
+        String target = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+        TransferRequestDto transfer = new TransferRequestDto(source, target, new BigDecimal("25.50"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<TransactionResponseDto>> responses = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            responses.add(executor.submit(() -> transactionController.transfer(transfer, "transfer-retry-1").getBody()));
+        }
+        List<Long> transactionIds = new ArrayList<>();
+        for (Future<TransactionResponseDto> response : responses) {
+            transactionIds.add(response.get(30, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, transactionIds.stream().distinct().count());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(7_450L, bankAccountRepository.findByAccountNumber(source).orElseThrow().getBalanceCents());
+        assertEquals(2_550L, bankAccountRepository.findByAccountNumber(target).orElseThrow().getBalanceCents());
+        assertEquals(IdempotencyStatus.COMPLETED, idempotencyRecordRepository.findById("transfer-retry-1").orElseThrow().getStatus());
+
+        // Un depósito con otra clave sí se aplica; repetirlo con la misma clave no.
+        AccountOperationDto deposit = new AccountOperationDto(target, BigDecimal.ONE);
+        bankAccountController.deposit(deposit, "deposit-retry-1");
+        bankAccountController.deposit(deposit, "deposit-retry-1");
+        assertEquals(2_650L, bankAccountRepository.findByAccountNumber(target).orElseThrow().getBalanceCents());
+    }
+}
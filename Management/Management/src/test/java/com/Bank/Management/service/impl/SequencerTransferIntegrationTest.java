@@ -0,0 +1,166 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.request.UpdateBankAccountDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.entity.BankAccount;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.money.Money;
+import com.Bank.Management.exception.InsufficientFundsException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Con el modo "sequencer" no hay bloqueos en memoria: cada cuenta tiene un único hilo escritor y las
+// transferencias entre shards usan el protocolo de dos pasos. El dinero total debe conservarse igual.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sequencer-transfers;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.execution.mode=sequencer",
+        "bank.sequencer.shards=4",
+        "bank.locks.enabled=false"
+})
+class SequencerTransferIntegrationTest {
+
+    private static final int ACCOUNTS = 12;
+    private static final int OPERATIONS = 2_000;
+    private static final int THREADS = 16;
+    private static final double INITIAL_BALANCE = 1_000.00;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ShardedCommandSequencer commandSequencer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Objetivo: Transferencias, depósitos y retiros concurrentes por shards conservan el dinero
+    // (saldo final = inicial + depósitos - retiros) y no dejan créditos pendientes.
+    @Test
+    void concurrentOperations_preserveMoneyAcrossShards() throws InterruptedException {
+        User user = new User();
+        user.setUsername("shards");
+        user.setEmail("shards@bank.com");
+        user.setPassword("password123");
+        user.setDni("66666666");
+        Long userId = userRepository.save(user).getId();
+
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(INITIAL_BALANCE), userId)).getAccountNumber());
+        }
+        assertTrue(accountNumbers.stream().map(commandSequencer::shardFor).distinct().count() > 1);
+
+        AtomicInteger deposited = new AtomicInteger();
+        AtomicInteger withdrawn = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = i % 10;
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                int amount = 1 + random.nextInt(50);
+                try {
+                    if (operation == 0) {
+                        bankAccountService.deposit(new AccountOperationDto(accountNumbers.get(from), BigDecimal.valueOf(amount)));
+                        deposited.addAndGet(amount);
+                    } else if (operation == 1) {
+                        bankAccountService.withdraw(new AccountOperationDto(accountNumbers.get(from), BigDecimal.valueOf(amount)));
+                        withdrawn.addAndGet(amount);
+                    } else {
+                        transactionService.transfer(new TransferRequestDto(accountNumbers.get(from), accountNumbers.get(to),
+                                BigDecimal.valueOf(amount)));
+                    }
+                } catch (InsufficientFundsException ignored) {
+                    // Rechazo válido: el saldo no alcanzaba.
+                } catch (RuntimeException e) {
+                    unexpected.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        long total = bankAccountRepository.findAll().stream()
+                .filter(account -> accountNumbers.contains(account.getAccountNumber()))
+                .mapToLong(BankAccount::getBalanceCents)
+                .sum();
+
+        assertEquals(0, unexpected.get());
+        assertEquals(ACCOUNTS * Money.toMinorUnits(BigDecimal.valueOf(INITIAL_BALANCE)) + 100L * (deposited.get() - withdrawn.get()), total);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from TRANSACTION where credit_pending = true", Integer.class));
+        assertTrue(commandSequencer.getMetrics().getCommands() >= OPERATIONS);
+        assertTrue(transactionRepository.count() > 0);
+    }
+
+    // Objetivo: Los reemplazos de saldo corren en el hilo del shard de la cuenta, en orden con los depósitos: el
+    // saldo final es la suma de los movimientos registrados, incluidas las filas de ajuste.
+    @Test
+    void concurrentUpdatesAndDeposits_areSequencedPerAccount() throws InterruptedException {
+        User user = new User();
+        user.setUsername("ajustes");
+        user.setEmail("ajustes@bank.com");
+        user.setPassword("password123");
+        user.setDni("77777777");
+        Long userId = userRepository.save(user).getId();
+        BankAccountResponseDto account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId));
+        long commandsBefore = commandSequencer.getMetrics().getCommands();
+
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < 400; i++) {
+            int operation = i;
+            executor.execute(() -> {
+                try {
+                    if (operation % 4 == 0) {
+                        bankAccountService.updateAccount(new UpdateBankAccountDto(account.getId(), BigDecimal.valueOf(100 + operation)));
+                    } else {
+                        bankAccountService.deposit(new AccountOperationDto(account.getAccountNumber(), BigDecimal.ONE));
+                    }
+                } catch (RuntimeException e) {
+                    unexpected.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        Long movements = jdbcTemplate.queryForObject("select coalesce(sum(case when target_account_id = ? then amount_cents " +
+                "else -amount_cents end), 0) from TRANSACTION where target_account_id = ? or source_account_id = ?",
+                Long.class, account.getId(), account.getId(), account.getId());
+        assertEquals(0, unexpected.get());
+        assertEquals(movements, bankAccountRepository.findById(account.getId()).orElseThrow().getBalanceCents());
+        assertTrue(commandSequencer.getMetrics().getCommands() - commandsBefore >= 400);
+    }
+}
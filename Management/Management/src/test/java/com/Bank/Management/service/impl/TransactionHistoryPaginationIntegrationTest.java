@@ -0,0 +1,140 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-pagination;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class TransactionHistoryPaginationIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("historial");
+        user.setEmail("historial@bank.com");
+        user.setPassword("password123");
+        user.setDni("66666666");
+        userId = userRepository.save(user).getId();
+    }
+
+    // Objetivo: Recorrer el historial página a página devuelve cada transacción de la cuenta una sola vez,
+    // en orden (fecha, id) descendente, aunque varias compartan la misma fecha.
+    @Test
+    void walkingAllPages_returnsEveryTransactionOnceInStableOrder() {
+        String account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), userId)).getAccountNumber();
+        String other = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), userId)).getAccountNumber();
+        String unrelated = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), userId)).getAccountNumber();
+
+        for (int i = 0; i < 12; i++) {
+            transactionService.transfer(new TransferRequestDto(account, other, BigDecimal.ONE));
+            transactionService.transfer(new TransferRequestDto(other, account, BigDecimal.ONE));
+            transactionService.transfer(new TransferRequestDto(other, unrelated, BigDecimal.ONE));
+        }
+        // Empates de fecha entre páginas: el id decide el orden.
+        jdbcTemplate.update("update TRANSACTION set transaction_date = ? where mod(id, 3) = 0",
+                Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 12, 0)));
+
+        Long accountId = bankAccountRepository.findIdByAccountNumber(account).orElseThrow();
+        List<Long> expected = jdbcTemplate.queryForList(
+                "select id from TRANSACTION where source_account_id = ? or target_account_id = ? order by transaction_date desc, id desc",
+                Long.class, accountId, accountId);
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryPageDto page = transactionService.getHistoryByAccountNumber(account, cursor, 5, null);
+            assertTrue(page.getTransactions().size() <= 5);
+            page.getTransactions().stream().map(TransactionResponseDto::getId).forEach(walked::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(24, expected.size());
+        assertEquals(expected, walked);
+        assertEquals(5, pages);
+    }
+
+    // Objetivo: Con filtros de fecha, monto y dirección las páginas devuelven exactamente las filas que cumplen
+    // las mismas condiciones en SQL, en el mismo orden y sin repetir ninguna entre páginas.
+    @Test
+    void walkingFilteredPages_matchesTheSameConditionsInSql() {
+        String account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), userId)).getAccountNumber();
+        String other = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(1_000.00), userId)).getAccountNumber();
+
+        for (int i = 1; i <= 10; i++) {
+            transactionService.transfer(new TransferRequestDto(account, other, BigDecimal.valueOf(i)));
+            transactionService.transfer(new TransferRequestDto(other, account, BigDecimal.valueOf(i)));
+            bankAccountService.deposit(new AccountOperationDto(account, BigDecimal.valueOf(i)));
+            bankAccountService.withdraw(new AccountOperationDto(account, BigDecimal.valueOf(i)));
+        }
+        // Una transacción por día desde el 1 de enero, con un empate de fecha cada dos filas.
+        jdbcTemplate.update("update TRANSACTION set transaction_date = dateadd('DAY', (id - (select min(id) from TRANSACTION)) / 2, timestamp '2024-01-01 00:00:00')");
+
+        Long accountId = bankAccountRepository.findIdByAccountNumber(account).orElseThrow();
+        LocalDateTime from = LocalDateTime.of(2024, 1, 5, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 18, 0, 0);
+        List<Long> expected = jdbcTemplate.queryForList(
+                "select id from TRANSACTION where transaction_date >= ? and transaction_date < ? and amount_cents between 300 and 800 " +
+                        "and ((target_account_id = ? and source_account_id is not null) or (source_account_id = ? and target_account_id is null)) " +
+                        "order by transaction_date desc, id desc",
+                Long.class, Timestamp.valueOf(from), Timestamp.valueOf(to), accountId, accountId);
+
+        TransactionHistoryFilterDto filter = new TransactionHistoryFilterDto(from, to, BigDecimal.valueOf(3), BigDecimal.valueOf(8),
+                List.of("incoming", "withdrawal"));
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionHistoryPageDto page = transactionService.getHistoryByAccountNumber(account, cursor, 2, filter);
+            page.getTransactions().stream().map(TransactionResponseDto::getId).forEach(walked::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, walked);
+    }
+}
@@ -0,0 +1,103 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TransactionHistoryQueryCountIntegrationTest {
+
+    // Ids salientes, ids entrantes y la proyección de la página; el id de la cuenta sale de AccountLookupCache
+    // (las transferencias del escenario ya la cargaron).
+    private static final long STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("conteo");
+        user.setEmail("conteo@bank.com");
+        user.setPassword("password123");
+        user.setDni("44444444");
+        userId = userRepository.save(user).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Objetivo: La cantidad de sentencias SQL por llamada al historial es la misma sin importar el tamaño
+    // de la página, la profundidad ni cuántas cuentas distintas aparecen (sin cargas perezosas por fila).
+    @Test
+    void historyPage_runsConstantNumberOfStatements() {
+        String account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(10_000.00), userId)).getAccountNumber();
+        List<String> counterparties = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            counterparties.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getAccountNumber());
+        }
+        for (String counterparty : counterparties) {
+            transactionService.transfer(new TransferRequestDto(account, counterparty, BigDecimal.ONE));
+            transactionService.transfer(new TransferRequestDto(counterparty, account, BigDecimal.ONE));
+        }
+
+        TransactionHistoryPageDto small = assertStatements(() -> transactionService.getHistoryByAccountNumber(account, null, 5, null));
+        TransactionHistoryPageDto large = assertStatements(() -> transactionService.getHistoryByAccountNumber(account, null, 60, null));
+        TransactionHistoryPageDto deep = assertStatements(() -> transactionService.getHistoryByAccountNumber(account, large.getNextCursor(), 60, null));
+        TransactionHistoryPageDto counterpartyPage = assertStatements(() -> transactionService.getHistoryByAccountNumber(counterparties.get(0), null, 60, null));
+
+        assertEquals(5, small.getTransactions().size());
+        assertEquals(60, large.getTransactions().size());
+        assertEquals(20, deep.getTransactions().size());
+        assertNull(deep.getNextCursor());
+        assertEquals(2, counterpartyPage.getTransactions().size());
+        assertTrue(large.getTransactions().stream().allMatch(t -> t.getSourceAccountNumber() != null && t.getTargetAccountNumber() != null));
+    }
+
+    private TransactionHistoryPageDto assertStatements(Supplier<TransactionHistoryPageDto> call) {
+        statistics.clear();
+        TransactionHistoryPageDto page = call.get();
+        assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+        return page;
+    }
+}
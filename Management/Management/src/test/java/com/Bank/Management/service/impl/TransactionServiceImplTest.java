@@ -1,28 +1,51 @@
 package com.Bank.Management.service.impl;
 
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.HotAccountCreditBuffer;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.datasource.ReadYourWritesTracker;
+import com.Bank.Management.dto.request.TransactionHistoryFilterDto;
 import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.BatchTransferResultDto;
+import com.Bank.Management.dto.response.OperationStatus;
+import com.Bank.Management.dto.response.TransactionHistoryPageDto;
 import com.Bank.Management.dto.response.TransactionResponseDto;
 import com.Bank.Management.entity.BankAccount;
 import com.Bank.Management.entity.Transaction;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.InsufficientFundsException;
 import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.eventsourcing.AccountEventStore;
+import com.Bank.Management.journal.LedgerJournal;
 import com.Bank.Management.mapper.TransactionMapper;
+import com.Bank.Management.money.Money;
 import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.projection.TransactionSummary;
+import com.Bank.Management.sequencer.ShardedCommandSequencer;
+import com.Bank.Management.sharding.CrossShardTransferCoordinator;
+import com.Bank.Management.sharding.ShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +62,15 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionMapper transactionMapper;
 
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    @Mock
+    private AccountEventStore accountEventStore;
+
+    @Mock
+    private CrossShardTransferCoordinator crossShardTransferCoordinator;
+
     private BankAccount sourceAccount;
     private BankAccount targetAccount;
     private TransferRequestDto transferDto;
@@ -47,20 +79,33 @@ class TransactionServiceImplTest {
 
     private final String SOURCE_NUM = "111-ORIGEN";
     private final String TARGET_NUM = "222-DESTINO";
+    private final String HOT_NUM = "333-RECAUDO";
     private final BigDecimal INITIAL_SOURCE_BALANCE = BigDecimal.valueOf(200.00);
     private final BigDecimal INITIAL_TARGET_BALANCE = BigDecimal.valueOf(50.00);
     private final BigDecimal TRANSFER_AMOUNT = BigDecimal.valueOf(50.00);
+    private final long TRANSFER_CENTS = 5_000L;
     private final Long TRANSACTION_ID = 100L;
 
 
+    private final OptimisticRetryExecutor retryExecutor = new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 0, 0);
+
+    private TransactionServiceImpl newService(ShardedCommandSequencer sequencer) {
+        AccountLockManager lockManager = new AccountLockManager(16, true);
+        HotAccountCreditBuffer buffer = new HotAccountCreditBuffer(bankAccountRepository, transactionRepository, lockManager,
+                retryExecutor, sequencer, accountEventStore, ledgerJournal, List.of(HOT_NUM), 50, 100);
+        return new TransactionServiceImpl(transactionRepository, bankAccountRepository, transactionMapper, lockManager,
+                retryExecutor, buffer, sequencer, new AccountLookupCache(bankAccountRepository, 100), ledgerJournal, accountEventStore,
+                new ShardRouter(null, List.of()), crossShardTransferCoordinator, 2, 10, 2, 5);
+    }
+
     @BeforeEach
     void setUp() {
-        transactionService = new TransactionServiceImpl(transactionRepository, bankAccountRepository, transactionMapper);
+        transactionService = newService(new ShardedCommandSequencer(retryExecutor, new ReadYourWritesTracker(1000), "locking", 1, 16, 8, 0));
 
         sourceAccount = new BankAccount();
         sourceAccount.setId(1L);
         sourceAccount.setAccountNumber(SOURCE_NUM);
-        sourceAccount.setBalance(INITIAL_SOURCE_BALANCE.doubleValue());
+        sourceAccount.setBalanceCents(Money.toMinorUnits(INITIAL_SOURCE_BALANCE));
         sourceAccount.setOutgoingTransactions(new ArrayList<>());
         sourceAccount.setIncomingTransactions(new ArrayList<>());
 
@@ -68,7 +113,7 @@ class TransactionServiceImplTest {
         targetAccount = new BankAccount();
         targetAccount.setId(2L);
         targetAccount.setAccountNumber(TARGET_NUM);
-        targetAccount.setBalance(INITIAL_TARGET_BALANCE.doubleValue());
+        targetAccount.setBalanceCents(Money.toMinorUnits(INITIAL_TARGET_BALANCE));
 
         transferDto = new TransferRequestDto();
         transferDto.setSourceAccountNumber(SOURCE_NUM);
@@ -77,35 +122,71 @@ class TransactionServiceImplTest {
 
         testTransaction = new Transaction();
         testTransaction.setId(TRANSACTION_ID);
-        testTransaction.setAmount(TRANSFER_AMOUNT.doubleValue());
+        testTransaction.setAmountCents(TRANSFER_CENTS);
 
         responseDto = new TransactionResponseDto();
         responseDto.setId(TRANSACTION_ID);
         responseDto.setSourceAccountNumber(SOURCE_NUM);
         responseDto.setTargetAccountNumber(TARGET_NUM);
-        responseDto.setAmount(TRANSFER_AMOUNT.doubleValue());
+        responseDto.setAmount(TRANSFER_AMOUNT);
     }
 
     // Objetivo: Transferencia entre cuentas (transfer) - Caso de Éxito y Casos de Error
     @Test
     void transfer_Success_UpdatesBalancesAndSavesTransaction() {
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(sourceAccount));
-        when(bankAccountRepository.findByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(targetAccount));
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(bankAccountRepository.findIdByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(2L));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, TRANSFER_CENTS)).thenReturn(1);
+        when(bankAccountRepository.addToBalance(2L, TRANSFER_CENTS)).thenReturn(1);
+        when(bankAccountRepository.getReferenceById(1L)).thenReturn(sourceAccount);
+        when(bankAccountRepository.getReferenceById(2L)).thenReturn(targetAccount);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
         when(transactionMapper.toTransactionResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
         var result = transactionService.transfer(transferDto);
 
-        assertAll("Transferencia exitosa",
-                () -> assertNotNull(result),
-                () -> assertEquals(150.00, sourceAccount.getBalance()),
-                () -> assertEquals(100.00, targetAccount.getBalance())
-        );
+        assertNotNull(result);
 
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
-        verify(bankAccountRepository).findByAccountNumber(TARGET_NUM);
-        verify(bankAccountRepository, times(2)).save(any(BankAccount.class));
+        InOrder inOrder = inOrder(bankAccountRepository);
+        inOrder.verify(bankAccountRepository).subtractFromBalanceIfSufficient(1L, TRANSFER_CENTS);
+        inOrder.verify(bankAccountRepository).addToBalance(2L, TRANSFER_CENTS);
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(ledgerJournal).recordMovement(testTransaction);
+    }
+
+    // Objetivo: Las filas se actualizan en orden de id aunque el destino tenga el id menor.
+    @Test
+    void transfer_Success_UpdatesRowsInIdOrder() {
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(5L));
+        when(bankAccountRepository.findIdByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(2L));
+        when(bankAccountRepository.addToBalance(2L, TRANSFER_CENTS)).thenReturn(1);
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(5L, TRANSFER_CENTS)).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(transactionMapper.toTransactionResponseDto(any(Transaction.class))).thenReturn(responseDto);
+
+        transactionService.transfer(transferDto);
+
+        InOrder inOrder = inOrder(bankAccountRepository);
+        inOrder.verify(bankAccountRepository).addToBalance(2L, TRANSFER_CENTS);
+        inOrder.verify(bankAccountRepository).subtractFromBalanceIfSufficient(5L, TRANSFER_CENTS);
+    }
+
+    // Objetivo: Una transferencia a una cuenta caliente solo debita el origen; el crédito queda marcado como pendiente.
+    @Test
+    void transfer_ToHotAccount_DefersCredit() {
+        transferDto.setDestinationAccountNumber(HOT_NUM);
+
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(bankAccountRepository.findIdByAccountNumber(HOT_NUM)).thenReturn(Optional.of(3L));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, TRANSFER_CENTS)).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(transactionMapper.toTransactionResponseDto(any(Transaction.class))).thenReturn(responseDto);
+
+        transactionService.transfer(transferDto);
+
+        verify(bankAccountRepository, never()).addToBalance(any(), anyLong());
+        verify(transactionRepository).save(argThat(Transaction::isCreditPending));
     }
 
     // Objetivo: Transferencia entre cuentas (transfer) - Caso de Error: Fondos insuficientes
@@ -113,14 +194,15 @@ class TransactionServiceImplTest {
     void transfer_Fails_ThrowsInsufficientFundsException() {
         transferDto.setAmount(BigDecimal.valueOf(300.00));
 
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(sourceAccount));
-        when(bankAccountRepository.findByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(targetAccount));
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(bankAccountRepository.findIdByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(2L));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, 30_000L)).thenReturn(0);
 
         assertThrows(InsufficientFundsException.class, () -> transactionService.transfer(transferDto));
 
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
-        verify(bankAccountRepository).findByAccountNumber(TARGET_NUM);
-        verify(bankAccountRepository, never()).save(any());
+        verify(bankAccountRepository).findIdByAccountNumber(SOURCE_NUM);
+        verify(bankAccountRepository).findIdByAccountNumber(TARGET_NUM);
+        verify(bankAccountRepository, never()).addToBalance(any(), anyLong());
         verifyNoInteractions(transactionRepository);
     }
 
@@ -131,37 +213,110 @@ class TransactionServiceImplTest {
 
         assertThrows(InvalidOperationException.class, () -> transactionService.transfer(transferDto));
 
-        verify(bankAccountRepository, never()).findByAccountNumber(any());
+        verify(bankAccountRepository, never()).findIdByAccountNumber(any());
         verifyNoInteractions(transactionRepository);
     }
 
     // Objetivo: Cuenta de Origen No Encontrada
     @Test
     void transfer_Fails_WhenSourceAccountNotFound() {
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> transactionService.transfer(transferDto));
 
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
-        verify(bankAccountRepository, never()).findByAccountNumber(TARGET_NUM);
-        verify(bankAccountRepository, never()).save(any());
+        verify(bankAccountRepository).findIdByAccountNumber(SOURCE_NUM);
+        verify(bankAccountRepository, never()).findIdByAccountNumber(TARGET_NUM);
+        verify(bankAccountRepository, never()).subtractFromBalanceIfSufficient(any(), anyLong());
         verifyNoInteractions(transactionRepository);
     }
 
     // Objetivo: Verificar que la transferencia falle y lance una DataNotFoundException si la cuenta de destino no se encuentra en el repositorio.
     @Test
     void transfer_Fails_WhenTargetAccountNotFound() {
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(sourceAccount));
-        when(bankAccountRepository.findByAccountNumber(TARGET_NUM)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(bankAccountRepository.findIdByAccountNumber(TARGET_NUM)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> transactionService.transfer(transferDto));
 
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
-        verify(bankAccountRepository).findByAccountNumber(TARGET_NUM);
-        verify(bankAccountRepository, never()).save(any());
+        verify(bankAccountRepository).findIdByAccountNumber(SOURCE_NUM);
+        verify(bankAccountRepository).findIdByAccountNumber(TARGET_NUM);
+        verify(bankAccountRepository, never()).subtractFromBalanceIfSufficient(any(), anyLong());
         verifyNoInteractions(transactionRepository);
     }
 
+    // Objetivo: Lote de transferencias - los errores de negocio se reportan por ítem sin afectar al resto.
+    @Test
+    void transferBatch_ReportsPerItemResults() {
+        TransferRequestDto insufficient = new TransferRequestDto(SOURCE_NUM, TARGET_NUM, BigDecimal.valueOf(500.00));
+        TransferRequestDto sameAccount = new TransferRequestDto(SOURCE_NUM, SOURCE_NUM, TRANSFER_AMOUNT);
+
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(bankAccountRepository.findIdByAccountNumber(TARGET_NUM)).thenReturn(Optional.of(2L));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, TRANSFER_CENTS)).thenReturn(1);
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, 50_000L)).thenReturn(0);
+        when(bankAccountRepository.addToBalance(2L, TRANSFER_CENTS)).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(transactionMapper.toTransactionResponseDto(any(Transaction.class))).thenReturn(responseDto);
+
+        List<BatchTransferResultDto> results = transactionService.transferBatch(List.of(transferDto, insufficient, sameAccount));
+
+        assertEquals(3, results.size());
+        assertEquals(OperationStatus.COMPLETED, results.get(0).getStatus());
+        assertEquals(TRANSACTION_ID, results.get(0).getTransaction().getId());
+        assertEquals(OperationStatus.FAILED, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(OperationStatus.FAILED, results.get(2).getStatus());
+        verify(bankAccountRepository, times(1)).addToBalance(any(), anyLong());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    // Objetivo: Lote de transferencias - se rechaza un lote vacío o mayor al máximo permitido.
+    @Test
+    void transferBatch_Fails_WhenEmptyOrTooLarge() {
+        List<TransferRequestDto> tooLarge = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            tooLarge.add(transferDto);
+        }
+
+        assertThrows(InvalidOperationException.class, () -> transactionService.transferBatch(List.of()));
+        assertThrows(InvalidOperationException.class, () -> transactionService.transferBatch(tooLarge));
+
+        verifyNoInteractions(bankAccountRepository);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    // Objetivo: En modo "sequencer", si el crédito en el shard de destino falla, el débito ya confirmado
+    // en el shard de origen se compensa y el movimiento se borra.
+    @Test
+    void transfer_Sequenced_CrossShard_CompensatesWhenCreditFails() {
+        ShardedCommandSequencer sequencer = new ShardedCommandSequencer(retryExecutor, new ReadYourWritesTracker(1000), "sequencer", 4, 16, 8, 0);
+        sequencer.start();
+        try {
+            String target = TARGET_NUM;
+            for (int i = 1; sequencer.sameShard(SOURCE_NUM, target); i++) {
+                target = TARGET_NUM + "-" + i;
+            }
+            transferDto.setDestinationAccountNumber(target);
+            TransactionServiceImpl sequencedService = newService(sequencer);
+
+            when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+            when(bankAccountRepository.findIdByAccountNumber(target)).thenReturn(Optional.of(2L));
+            when(bankAccountRepository.subtractFromBalanceIfSufficient(1L, TRANSFER_CENTS)).thenReturn(1);
+            when(bankAccountRepository.addToBalance(2L, TRANSFER_CENTS)).thenReturn(0);
+            when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+            when(transactionMapper.toTransactionResponseDto(any(Transaction.class))).thenReturn(responseDto);
+
+            assertThrows(DataNotFoundException.class, () -> sequencedService.transfer(transferDto));
+
+            verify(transactionRepository).save(argThat(Transaction::isCreditPending));
+            verify(bankAccountRepository).addToBalance(1L, TRANSFER_CENTS);
+            verify(transactionRepository).deleteById(TRANSACTION_ID);
+            verify(transactionRepository, never()).clearCreditPending(any());
+        } finally {
+            sequencer.stop();
+        }
+    }
+
     // Objetivo: Obtener Transacción por ID (getTransactionById) - Caso de Éxito y Caso de Error
     @Test
     void getTransactionById_Success_ReturnsTransaction() {
@@ -188,56 +343,112 @@ class TransactionServiceImplTest {
         verifyNoInteractions(transactionMapper);
     }
 
-    // Objetivo: Obtener Historial de Transacciones por Número de Cuenta (getHistoryByAccountNumber) - Caso de Éxito y Caso de Error
+    // Objetivo: La primera página mezcla salientes y entrantes de la más reciente a la más antigua y devuelve el cursor siguiente
     @Test
-    void getHistoryByAccountNumber_Success_ReturnsListOfTransactions() {
-        // Setup de la entidad para simular las listas cargadas
-        Transaction incomingTransaction = new Transaction();
-        Transaction outgoingTransaction = new Transaction();
-        List<Transaction> outgoingList = List.of(outgoingTransaction);
-        List<Transaction> incomingList = List.of(incomingTransaction);
+    void getHistoryByAccountNumber_FirstPage_MergesNewestFirstWithNextCursor() {
+        TransactionSummary oldestOutgoing = historySummary(1L, 1);
+        TransactionSummary incoming = historySummary(2L, 2);
+        TransactionSummary newestOutgoing = historySummary(3L, 3);
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(transactionRepository.findOutgoingIdsBefore(eq(1L), eq(HistoryFilter.EARLIEST), eq(HistoryCursor.START.transactionDate()), eq(Long.MAX_VALUE), eq(0L), eq(Long.MAX_VALUE), eq(true), eq(true), any()))
+                .thenReturn(List.of(3L, 1L));
+        when(transactionRepository.findIncomingIdsBefore(eq(1L), eq(HistoryFilter.EARLIEST), eq(HistoryCursor.START.transactionDate()), eq(Long.MAX_VALUE), eq(0L), eq(Long.MAX_VALUE), eq(true), eq(true), any()))
+                .thenReturn(List.of(2L));
+        when(transactionRepository.findSummariesByIdIn(List.of(3L, 1L, 2L)))
+                .thenReturn(List.of(newestOutgoing, incoming, oldestOutgoing));
+        when(transactionMapper.toTransactionResponseDtos(any())).thenAnswer(invocation -> {
+            List<TransactionSummary> page = invocation.getArgument(0);
+            return page.stream().map(t -> new TransactionResponseDto(t.getId(), null, t.getTransactionDate(), null, null, null)).toList();
+        });
+
+        TransactionHistoryPageDto result = transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null, null);
+
+        assertEquals(List.of(3L, 2L), result.getTransactions().stream().map(TransactionResponseDto::getId).toList());
+        assertEquals(2, result.getSize());
+        assertEquals(new HistoryCursor(incoming.getTransactionDate(), 2L), HistoryCursor.decode(result.getNextCursor()));
+    }
 
-        // El testTransaction original solo se usa para el DTO de respuesta, no para la lista
-        TransactionResponseDto outgoingResponseDto = new TransactionResponseDto();
-        TransactionResponseDto incomingResponseDto = new TransactionResponseDto();
+    // Objetivo: Con un cursor la consulta continúa desde esa posición y la última página no trae cursor siguiente
+    @Test
+    void getHistoryByAccountNumber_WithCursor_LastPageHasNoNextCursor() {
+        TransactionSummary older = historySummary(1L, 1);
+        HistoryCursor cursor = new HistoryCursor(historySummary(2L, 2).getTransactionDate(), 2L);
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(transactionRepository.findOutgoingIdsBefore(eq(1L), eq(HistoryFilter.EARLIEST), eq(cursor.transactionDate()), eq(2L), eq(0L), eq(Long.MAX_VALUE), eq(true), eq(true), any())).thenReturn(List.of(1L));
+        when(transactionRepository.findIncomingIdsBefore(eq(1L), eq(HistoryFilter.EARLIEST), eq(cursor.transactionDate()), eq(2L), eq(0L), eq(Long.MAX_VALUE), eq(true), eq(true), any())).thenReturn(List.of());
+        when(transactionRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(older));
+        when(transactionMapper.toTransactionResponseDtos(any())).thenReturn(List.of(new TransactionResponseDto()));
+
+        TransactionHistoryPageDto result = transactionService.getHistoryByAccountNumber(SOURCE_NUM, cursor.encode(), 2, null);
+
+        assertEquals(1, result.getTransactions().size());
+        assertNull(result.getNextCursor());
+        verify(transactionRepository).findOutgoingIdsBefore(eq(1L), eq(HistoryFilter.EARLIEST), eq(cursor.transactionDate()), eq(2L),
+                eq(0L), eq(Long.MAX_VALUE), eq(true), eq(true), argThat(pageable -> pageable.getPageSize() == 3));
+    }
 
-        // Configurar la cuenta para que devuelva las listas
-        BankAccount accountWithHistory = new BankAccount();
-        accountWithHistory.setOutgoingTransactions(outgoingList);
-        accountWithHistory.setIncomingTransactions(incomingList);
+    // Objetivo: Los filtros se pasan a las consultas como valores concretos; el límite "to" reemplaza al cursor
+    // inicial y una dirección sin coincidencias (solo depósitos) no ejecuta la consulta de salientes
+    @Test
+    void getHistoryByAccountNumber_WithFilters_PushesThemIntoIndexedQueries() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 4, 1, 0, 0);
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(1L));
+        when(transactionRepository.findIncomingIdsBefore(eq(1L), eq(from), eq(to), eq(Long.MIN_VALUE), eq(1_000L), eq(25_050L),
+                eq(false), eq(true), any())).thenReturn(List.of());
+
+        TransactionHistoryPageDto result = transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null,
+                new TransactionHistoryFilterDto(from, to, new BigDecimal("10.00"), new BigDecimal("250.50"), List.of(" Deposit ")));
+
+        assertTrue(result.getTransactions().isEmpty());
+        assertNull(result.getNextCursor());
+        verify(transactionRepository, never()).findOutgoingIdsBefore(any(), any(), any(), any(), anyLong(), anyLong(), anyBoolean(), anyBoolean(), any());
+        verify(transactionRepository, never()).findSummariesByIdIn(any());
+    }
 
-        // Mocking: La cuenta existe y tiene las listas cargadas
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.of(accountWithHistory));
+    // Objetivo: Rangos de fechas o montos invertidos y direcciones desconocidas se rechazan sin consultar transacciones
+    @Test
+    void getHistoryByAccountNumber_InvalidFilters_ThrowsInvalidOperation() {
+        LocalDateTime day = LocalDateTime.of(2024, 3, 1, 0, 0);
 
-        // Mocking: El mapper mapea cada tipo de transacción a su DTO
-        when(transactionMapper.toTransactionResponseDto(outgoingTransaction)).thenReturn(outgoingResponseDto);
-        when(transactionMapper.toTransactionResponseDto(incomingTransaction)).thenReturn(incomingResponseDto);
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null,
+                new TransactionHistoryFilterDto(day, day, null, null, null)));
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null,
+                new TransactionHistoryFilterDto(null, null, BigDecimal.TEN, BigDecimal.ONE, null)));
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null,
+                new TransactionHistoryFilterDto(null, null, null, null, List.of("sideways"))));
 
-        // Ejecución
-        List<TransactionResponseDto> result = transactionService.getHistoryByAccountNumber(SOURCE_NUM);
+        verifyNoInteractions(bankAccountRepository);
+        verifyNoInteractions(transactionRepository);
+    }
 
-        // Aserciones: El resultado es la concatenación de ambas listas (2 transacciones)
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(2, result.size());
+    // Objetivo: Un cursor mal formado o un tamaño fuera de rango se rechazan sin consultar transacciones
+    @Test
+    void getHistoryByAccountNumber_InvalidCursorOrSize_ThrowsInvalidOperation() {
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, "no-es-un-cursor", null, null));
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, 6, null));
+        assertThrows(InvalidOperationException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, 0, null));
 
-        // Verificaciones
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
-        // Verificamos que el mapper se llamó 1 vez por outgoing y 1 vez por incoming (Total 2 veces)
-        verify(transactionMapper, times(1)).toTransactionResponseDto(outgoingTransaction);
-        verify(transactionMapper, times(1)).toTransactionResponseDto(incomingTransaction);
-        verifyNoInteractions(transactionRepository); // No se usó el repositorio de transacciones
+        verifyNoInteractions(transactionRepository);
     }
 
     // Objetivo: Obtener Historial de Transacciones por Número de Cuenta (getHistoryByAccountNumber) - Caso de Error (Cuenta no encontrada)
     @Test
     void getHistoryByAccountNumber_Fails_ThrowsDataNotFoundException() {
-        when(bankAccountRepository.findByAccountNumber(SOURCE_NUM)).thenReturn(Optional.empty());
+        when(bankAccountRepository.findIdByAccountNumber(SOURCE_NUM)).thenReturn(Optional.empty());
 
-        assertThrows(DataNotFoundException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM));
+        assertThrows(DataNotFoundException.class, () -> transactionService.getHistoryByAccountNumber(SOURCE_NUM, null, null, null));
 
-        verify(bankAccountRepository).findByAccountNumber(SOURCE_NUM);
+        verify(bankAccountRepository).findIdByAccountNumber(SOURCE_NUM);
         verifyNoInteractions(transactionRepository);
         verifyNoInteractions(transactionMapper);
     }
-}
\ No newline at end of file
+
+    private TransactionSummary historySummary(Long id, int minute) {
+        return new HistoryRow(id, 100L, LocalDateTime.of(2024, 1, 1, 10, minute), "Transferencia", SOURCE_NUM, TARGET_NUM);
+    }
+
+    private record HistoryRow(Long getId, long getAmountCents, LocalDateTime getTransactionDate, String getDescription,
+                              String getSourceAccountNumber, String getTargetAccountNumber) implements TransactionSummary {
+    }
+}
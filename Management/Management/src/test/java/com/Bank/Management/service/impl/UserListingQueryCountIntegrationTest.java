@@ -0,0 +1,107 @@
+package com.Bank.Management.service.impl;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.response.UserPageDto;
+import com.Bank.Management.dto.response.UserResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import com.Bank.Management.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-listing-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserListingQueryCountIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Objetivo: Cada página del listado ejecuta 1 sentencia (básico) o 2 (con cuentas), sin importar cuántas cuentas
+    // y transacciones tengan los usuarios; las transacciones nunca se cargan.
+    @Test
+    void userPages_runBoundedNumberOfStatements() {
+        List<Long> userIds = new ArrayList<>();
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            User user = new User();
+            user.setUsername("usuario" + i);
+            user.setEmail("usuario" + i + "@bank.com");
+            user.setPassword("password123");
+            user.setDni("7000000" + String.format("%02d", i));
+            Long userId = userRepository.save(user).getId();
+            userIds.add(userId);
+            for (int a = 0; a < 3; a++) {
+                accounts.add(bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId)).getAccountNumber());
+            }
+        }
+        for (int i = 0; i < accounts.size(); i++) {
+            transactionService.transfer(new TransferRequestDto(accounts.get(i), accounts.get((i + 1) % accounts.size()), BigDecimal.ONE));
+        }
+
+        UserPageDto first = assertStatements(1, () -> userService.getUsers(null, 5, false));
+        UserPageDto second = assertStatements(2, () -> userService.getUsers(first.getNextAfterId(), 5, true));
+        UserPageDto last = assertStatements(2, () -> userService.getUsers(second.getNextAfterId(), 5, true));
+
+        List<Long> walked = new ArrayList<>();
+        for (UserPageDto page : List.of(first, second, last)) {
+            page.getUsers().stream().map(UserResponseDto::getId).forEach(walked::add);
+        }
+        assertEquals(userIds, walked);
+        assertNull(last.getNextAfterId());
+        assertTrue(first.getUsers().stream().allMatch(u -> u.getBankAccounts() == null && u.getPassword() == null));
+        assertTrue(second.getUsers().stream().allMatch(u -> u.getBankAccounts().size() == 3
+                && u.getBankAccounts().stream().allMatch(a -> a.getOutgoingTransactions() == null)));
+
+        UserResponseDto single = assertStatements(1, () -> userService.getUserById(userIds.get(0)));
+        assertEquals(3, single.getBankAccounts().size());
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
@@ -1,14 +1,22 @@
 package com.Bank.Management.service.impl;
 
+import com.Bank.Management.cache.AccountLookupCache;
 import com.Bank.Management.dto.request.UserRegistrationDto;
 import com.Bank.Management.dto.request.UpdateUserDTO;
+import com.Bank.Management.dto.response.UserPageDto;
 import com.Bank.Management.dto.response.UserResponseDto;
 import com.Bank.Management.dto.response.BankAccountResponseDto;
 import com.Bank.Management.entity.User;
 import com.Bank.Management.exception.DataNotFoundException;
 import com.Bank.Management.exception.DuplicatedDataException;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.mapper.BankAccountMapper;
 import com.Bank.Management.mapper.UserMapper;
+import com.Bank.Management.repository.BankAccountRepository;
 import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.repository.projection.UserSummary;
+import com.Bank.Management.sharding.ShardRouter;
+import com.Bank.Management.sharding.ShardTransactions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +29,8 @@ import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +44,15 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private ShardTransactions shardTransactions;
+
+    @Mock
+    private BankAccountMapper bankAccountMapper;
+
     private User userTest;
     private UserRegistrationDto registerDto;
     private UserResponseDto responseDto;
@@ -44,7 +63,9 @@ class UserServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        userServiceImpl = new UserServiceImpl(userRepository, userMapper);
+        userServiceImpl = new UserServiceImpl(userRepository, userMapper, bankAccountRepository,
+                new AccountLookupCache(bankAccountRepository, 100), new ShardRouter(null, List.of()), shardTransactions,
+                bankAccountMapper, 50, 500);
 
         userTest = new User();
         userTest.setId(TEST_ID);
@@ -128,14 +149,14 @@ class UserServiceImplTest {
 
     @Test
     void getUserById_Success_ReturnsUser() {
-        when(userRepository.findById(TEST_ID)).thenReturn(Optional.of(userTest));
+        when(userRepository.findWithBankAccountsById(TEST_ID)).thenReturn(Optional.of(userTest));
         when(userMapper.toUserResponseDto(any(User.class))).thenReturn(responseDto);
 
         var result = userServiceImpl.getUserById(TEST_ID);
 
         assertNotNull(result);
 
-        verify(userRepository).findById(TEST_ID);
+        verify(userRepository).findWithBankAccountsById(TEST_ID);
         verify(userMapper).toUserResponseDto(userTest);
     }
 
@@ -143,27 +164,53 @@ class UserServiceImplTest {
 
     @Test
     void getUserById_Fails_ThrowsDataNotFoundException() {
-        when(userRepository.findById(TEST_ID)).thenReturn(Optional.empty());
+        when(userRepository.findWithBankAccountsById(TEST_ID)).thenReturn(Optional.empty());
 
         assertThrows(DataNotFoundException.class, () -> userServiceImpl.getUserById(TEST_ID));
 
-        verify(userRepository).findById(TEST_ID);
+        verify(userRepository).findWithBankAccountsById(TEST_ID);
         verifyNoInteractions(userMapper);
     }
 
-    // Objetivo: Obtener Todos los Usuarios (getAllUsers) - Caso de Éxito
+    // Objetivo: El listado básico sale de la proyección, pide una fila de más para el cursor y no carga entidades
     @Test
-    void getAllUsers_Success_ReturnsListOfUsers() {
-        List<User> userList = List.of(userTest);
-        when(userRepository.findAll()).thenReturn(userList);
-        when(userMapper.toUserResponseDto(any(User.class))).thenReturn(responseDto);
-        List<UserResponseDto> result = userServiceImpl.getAllUsers();
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(TEST_ID, result.get(0).getId());
-        verify(userRepository).findAll();
-        verify(userMapper, times(userList.size())).toUserResponseDto(any(User.class));
+    void getUsers_Success_ReturnsSummaryPage() {
+        UserSummary first = new UserSummary(TEST_ID, TEST_DNI, "TestUser", TEST_EMAIL);
+        UserSummary extra = new UserSummary(2L, NEW_DNI, "Otro", "otro@bank.com");
+        when(userRepository.findSummariesAfter(eq(0L), argThat(pageable -> pageable.getPageSize() == 2))).thenReturn(List.of(first, extra));
+        when(userMapper.toUserResponseDtos(List.of(first))).thenReturn(List.of(responseDto));
+
+        UserPageDto result = userServiceImpl.getUsers(null, 1, false);
+
+        assertEquals(List.of(responseDto), result.getUsers());
+        assertEquals(TEST_ID, result.getNextAfterId());
+        assertEquals(1, result.getSize());
+        verify(userRepository, never()).findWithBankAccountsByIdIn(any());
+    }
+
+    // Objetivo: Con includeAccounts los usuarios de la página se cargan con sus cuentas en una sola consulta por ids
+    @Test
+    void getUsers_IncludeAccounts_LoadsPageWithEntityGraph() {
+        UserSummary first = new UserSummary(TEST_ID, TEST_DNI, "TestUser", TEST_EMAIL);
+        when(userRepository.findSummariesAfter(eq(5L), any())).thenReturn(List.of(first));
+        when(userRepository.findWithBankAccountsByIdIn(List.of(TEST_ID))).thenReturn(List.of(userTest));
+        when(userMapper.toUserResponseDtoList(List.of(userTest))).thenReturn(List.of(responseDto));
+
+        UserPageDto result = userServiceImpl.getUsers(5L, null, true);
+
+        assertEquals(List.of(responseDto), result.getUsers());
+        assertNull(result.getNextAfterId());
+        assertEquals(50, result.getSize());
+        verify(userMapper, never()).toUserResponseDtos(any());
+    }
+
+    // Objetivo: Un tamaño de página fuera de rango se rechaza sin consultar usuarios
+    @Test
+    void getUsers_InvalidSize_ThrowsInvalidOperation() {
+        assertThrows(InvalidOperationException.class, () -> userServiceImpl.getUsers(null, 0, false));
+        assertThrows(InvalidOperationException.class, () -> userServiceImpl.getUsers(null, 501, true));
+
+        verifyNoInteractions(userRepository);
     }
 
     // Objetivo: Actualizar Usuario (update) - Caso de Éxito
@@ -0,0 +1,134 @@
+package com.Bank.Management.sharding;
+
+import com.Bank.Management.cache.AccountLookupCache;
+import com.Bank.Management.concurrency.AccountLockManager;
+import com.Bank.Management.concurrency.OptimisticRetryExecutor;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.entity.Transaction;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Dos shards sin base: los repositorios son mocks y el ruteo solo decide a qué shard va cada paso.
+@ExtendWith(MockitoExtension.class)
+class CrossShardTransferCoordinatorTest {
+
+    private static final Long SOURCE_ID = 1L;
+    private static final Long TARGET_ID = ShardRouter.firstIdOf(1) + 1;
+    private static final Long TRANSFER_ID = 99L;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private HikariDataSource shard1;
+
+    private CrossShardTransferCoordinator coordinator;
+    private String source;
+    private String target;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(null, List.of(shard1));
+        coordinator = new CrossShardTransferCoordinator(shardRouter, bankAccountRepository, transactionRepository,
+                new AccountLookupCache(bankAccountRepository, 100), new AccountLockManager(16, true),
+                new OptimisticRetryExecutor(TransactionOperations.withoutTransaction(), 3, 0, 0));
+        source = accountIn(shardRouter, 0);
+        target = accountIn(shardRouter, 1);
+
+        when(bankAccountRepository.findIdByAccountNumber(source)).thenReturn(Optional.of(SOURCE_ID));
+        when(bankAccountRepository.findIdByAccountNumber(target)).thenReturn(Optional.of(TARGET_ID));
+        when(bankAccountRepository.subtractFromBalanceIfSufficient(SOURCE_ID, 3_000L)).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId(TRANSFER_ID);
+            return transaction;
+        });
+    }
+
+    // Objetivo: Si el crédito falla de forma ambigua pero la copia ya está en el destino, no se compensa: la
+    // transferencia se informa como hecha y el origen no recibe un reintegro.
+    @Test
+    void transfer_ambiguousCreditFailure_withTheCopyInTheTarget_doesNotCompensate() {
+        when(transactionRepository.existsById(TRANSFER_ID)).thenReturn(false, true);
+        when(bankAccountRepository.addToBalance(TARGET_ID, 3_000L)).thenReturn(1);
+        when(transactionRepository.insertIncomingCopy(eq(TRANSFER_ID), anyLong(), any(), any(), eq(TARGET_ID), eq(source)))
+                .thenThrow(new DataAccessResourceFailureException("conexión perdida durante el commit"));
+
+        assertEquals(TRANSFER_ID, coordinator.transfer(new TransferRequestDto(source, target, BigDecimal.valueOf(30.00))).getId());
+
+        verify(bankAccountRepository, never()).addToBalance(eq(SOURCE_ID), anyLong());
+        verify(transactionRepository, never()).deleteById(TRANSFER_ID);
+        verify(transactionRepository).clearCreditPending(List.of(TRANSFER_ID));
+    }
+
+    // Objetivo: Sin la copia en el destino, el débito se compensa y el error llega al llamador.
+    @Test
+    void transfer_creditFailure_withoutTheCopy_compensates() {
+        when(transactionRepository.existsById(TRANSFER_ID)).thenReturn(false);
+        when(bankAccountRepository.addToBalance(TARGET_ID, 3_000L)).thenThrow(new DataAccessResourceFailureException("shard caído"));
+        when(bankAccountRepository.addToBalance(SOURCE_ID, 3_000L)).thenReturn(1);
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> coordinator.transfer(new TransferRequestDto(source, target, BigDecimal.valueOf(30.00))));
+
+        verify(transactionRepository).deleteById(TRANSFER_ID);
+        verify(transactionRepository, never()).clearCreditPending(any());
+    }
+
+    // Objetivo: Si el destino no se puede consultar no se sabe si el crédito se confirmó: no se compensa y la
+    // marca queda para la recuperación.
+    @Test
+    void transfer_creditFailure_withTheTargetUnreachable_leavesTheMark() {
+        when(transactionRepository.existsById(TRANSFER_ID)).thenReturn(false)
+                .thenThrow(new DataAccessResourceFailureException("shard caído"));
+        when(bankAccountRepository.addToBalance(TARGET_ID, 3_000L)).thenThrow(new DataAccessResourceFailureException("shard caído"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> coordinator.transfer(new TransferRequestDto(source, target, BigDecimal.valueOf(30.00))));
+
+        verify(bankAccountRepository, never()).addToBalance(eq(SOURCE_ID), anyLong());
+        verify(transactionRepository, never()).deleteById(any());
+        verify(transactionRepository, never()).clearCreditPending(any());
+    }
+
+    // Objetivo: Una compensación que no reintegra exactamente una fila falla sin borrar el movimiento.
+    @Test
+    void transfer_compensationWithoutTheSourceRow_keepsTheMovement() {
+        when(transactionRepository.existsById(TRANSFER_ID)).thenReturn(false);
+        when(bankAccountRepository.addToBalance(TARGET_ID, 3_000L)).thenThrow(new DataAccessResourceFailureException("shard caído"));
+        when(bankAccountRepository.addToBalance(SOURCE_ID, 3_000L)).thenReturn(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> coordinator.transfer(new TransferRequestDto(source, target, BigDecimal.valueOf(30.00))));
+
+        verify(transactionRepository, never()).deleteById(any());
+    }
+
+    private String accountIn(ShardRouter shardRouter, int shard) {
+        for (int i = 0; ; i++) {
+            String number = "cuenta-" + i;
+            if (shardRouter.shardOfAccount(number) == shard) {
+                return number;
+            }
+        }
+    }
+}
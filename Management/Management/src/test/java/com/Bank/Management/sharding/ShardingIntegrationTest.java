@@ -0,0 +1,320 @@
+package com.Bank.Management.sharding;
+
+import com.Bank.Management.dto.request.AccountOperationDto;
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.TransferRequestDto;
+import com.Bank.Management.dto.request.UpdateUserDTO;
+import com.Bank.Management.dto.response.BalanceSnapshotRunDto;
+import com.Bank.Management.dto.response.BankAccountPageDto;
+import com.Bank.Management.dto.response.BankAccountResponseDto;
+import com.Bank.Management.dto.response.StatementRunReportDto;
+import com.Bank.Management.dto.response.TransactionResponseDto;
+import com.Bank.Management.dto.response.UserResponseDto;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import com.Bank.Management.service.TransactionService;
+import com.Bank.Management.service.UserService;
+import com.Bank.Management.snapshot.BalanceSnapshotJob;
+import com.Bank.Management.statement.MonthlyStatementEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tres shards en bases H2 en memoria: la del primario (shard 0) y dos más. Cada shard se revisa con su propio pool
+// para ver dónde quedó cada fila.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.open-in-view=false",
+        "bank.sharding.shards=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1"
+})
+class ShardingIntegrationTest {
+
+    @TempDir
+    static Path statementsDirectory;
+
+    @DynamicPropertySource
+    static void statementProperties(DynamicPropertyRegistry registry) {
+        registry.add("bank.statements.directory", () -> statementsDirectory.toString());
+    }
+
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private CrossShardTransferCoordinator crossShardTransferCoordinator;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+    @Autowired
+    private MonthlyStatementEngine monthlyStatementEngine;
+
+    private Long userId;
+    // Una cuenta por shard, indexadas por shard.
+    private final Map<Integer, BankAccountResponseDto> accounts = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            JdbcTemplate jdbc = jdbc(shard);
+            jdbc.update("delete from TRANSACTION");
+            jdbc.update("delete from BANK_ACCOUNTS");
+            jdbc.update("delete from USERS");
+            jdbc.update("delete from ACCOUNT_BALANCE_SNAPSHOTS");
+            jdbc.update("delete from BALANCE_SNAPSHOT_RUNS");
+            jdbc.update("delete from STATEMENT_PARTITIONS");
+            jdbc.update("delete from STATEMENT_RUNS");
+        }
+        accounts.clear();
+
+        User user = new User();
+        user.setUsername("shards");
+        user.setEmail("shards@bank.com");
+        user.setPassword("password123");
+        user.setDni("66666666");
+        userId = userRepository.save(user).getId();
+
+        // Los números son correlativos: unas pocas cuentas cubren todos los shards.
+        for (int i = 0; i < 20 && accounts.size() < shardRouter.size(); i++) {
+            BankAccountResponseDto account = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.valueOf(100.00), userId));
+            accounts.putIfAbsent(shardRouter.shardOfAccount(account.getAccountNumber()), account);
+        }
+        assertEquals(shardRouter.size(), accounts.size());
+    }
+
+    // Objetivo: Cada cuenta queda solo en el shard de su número, con un id del rango de ese shard, y las operaciones
+    // por id o por número van a ese shard.
+    @Test
+    void accounts_liveInTheShardOfTheirNumber() {
+        for (Map.Entry<Integer, BankAccountResponseDto> entry : accounts.entrySet()) {
+            int shard = entry.getKey();
+            BankAccountResponseDto account = entry.getValue();
+            assertEquals(shard, shardRouter.shardOfId(account.getId()));
+            for (int other = 0; other < shardRouter.size(); other++) {
+                assertEquals(other == shard ? 1 : 0, jdbc(other).queryForObject(
+                        "select count(*) from BANK_ACCOUNTS where account_number = ?", Integer.class, account.getAccountNumber()));
+            }
+        }
+
+        BankAccountResponseDto account = accounts.get(2);
+        bankAccountService.deposit(new AccountOperationDto(account.getAccountNumber(), BigDecimal.valueOf(25.00)));
+        bankAccountService.withdraw(new AccountOperationDto(account.getAccountNumber(), BigDecimal.valueOf(5.00)));
+
+        assertEquals(new BigDecimal("120.00"), bankAccountService.getAccountById(account.getId(), false).getBalance());
+        assertEquals(2, jdbc(2).queryForObject("select count(*) from TRANSACTION", Integer.class));
+        assertEquals(new BigDecimal("120.00"), bankAccountService.getBalanceAt(account.getId(), LocalDateTime.now().plusMinutes(1)).getBalance());
+    }
+
+    // Objetivo: El listado por id recorre los shards en orden y el cursor sigue de un shard al siguiente.
+    @Test
+    void accountListing_pagesAcrossShards() {
+        List<Long> listed = new ArrayList<>();
+        Long afterId = null;
+        do {
+            BankAccountPageDto page = bankAccountService.getAccounts(afterId, 2, true);
+            page.getAccounts().forEach(account -> listed.add(account.getId()));
+            afterId = page.getNextAfterId();
+        } while (afterId != null);
+
+        List<Long> expected = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            expected.addAll(jdbc(shard).queryForList("select id from BANK_ACCOUNTS order by id", Long.class));
+        }
+        assertEquals(expected, listed);
+    }
+
+    // Objetivo: Una transferencia entre shards deja el débito en el shard de origen y una copia con el mismo id en el
+    // de destino; cada historial muestra el número de la otra cuenta.
+    @Test
+    void crossShardTransfer_writesBothShards() {
+        BankAccountResponseDto source = accounts.get(0);
+        BankAccountResponseDto target = accounts.get(1);
+
+        TransactionResponseDto result = transactionService.transfer(
+                new TransferRequestDto(source.getAccountNumber(), target.getAccountNumber(), BigDecimal.valueOf(30.00)));
+
+        assertEquals(source.getAccountNumber(), result.getSourceAccountNumber());
+        assertEquals(target.getAccountNumber(), result.getTargetAccountNumber());
+        assertEquals(new BigDecimal("70.00"), bankAccountService.getAccountById(source.getId(), false).getBalance());
+        assertEquals(new BigDecimal("130.00"), bankAccountService.getAccountById(target.getId(), false).getBalance());
+
+        Map<String, Object> outgoing = jdbc(0).queryForMap("select * from TRANSACTION where id = ?", result.getId());
+        assertEquals(false, outgoing.get("CREDIT_PENDING"));
+        assertNull(outgoing.get("TARGET_ACCOUNT_ID"));
+        assertEquals(target.getAccountNumber(), outgoing.get("COUNTERPART_ACCOUNT_NUMBER"));
+        Map<String, Object> incoming = jdbc(1).queryForMap("select * from TRANSACTION where id = ?", result.getId());
+        assertNull(incoming.get("SOURCE_ACCOUNT_ID"));
+        assertEquals(source.getAccountNumber(), incoming.get("COUNTERPART_ACCOUNT_NUMBER"));
+
+        TransactionResponseDto incomingView = transactionService.getHistoryByAccountNumber(target.getAccountNumber(), null, 10, null)
+                .getTransactions().get(0);
+        assertEquals(result.getId(), incomingView.getId());
+        assertEquals(source.getAccountNumber(), incomingView.getSourceAccountNumber());
+        assertEquals(target.getAccountNumber(), incomingView.getTargetAccountNumber());
+        assertEquals(target.getAccountNumber(), transactionService.getTransactionById(result.getId()).getTargetAccountNumber());
+        assertEquals(source.getAccountNumber(), bankAccountService.getAccountById(target.getId(), true)
+                .getIncomingTransactions().get(0).getSourceAccountNumber());
+    }
+
+    // Objetivo: Si el crédito falla en el shard de destino, el débito se compensa y no queda ningún movimiento.
+    @Test
+    void crossShardTransfer_compensatesWhenTheCreditFails() {
+        BankAccountResponseDto source = accounts.get(1);
+        BankAccountResponseDto target = accounts.get(2);
+        jdbc(2).update("update BANK_ACCOUNTS set balance_cents = ? where id = ?", Long.MAX_VALUE - 10, target.getId());
+
+        assertThrows(InvalidOperationException.class, () -> transactionService.transfer(
+                new TransferRequestDto(source.getAccountNumber(), target.getAccountNumber(), BigDecimal.valueOf(30.00))));
+
+        assertEquals(new BigDecimal("100.00"), bankAccountService.getAccountById(source.getId(), false).getBalance());
+        assertEquals(0, jdbc(1).queryForObject("select count(*) from TRANSACTION", Integer.class));
+        assertEquals(0, jdbc(2).queryForObject("select count(*) from TRANSACTION", Integer.class));
+    }
+
+    // Objetivo: Con el crédito ya confirmado, un fallo al limpiar la marca en el origen no hace fallar la
+    // transferencia; la marca queda y la recuperación la limpia sin acreditar de nuevo.
+    @Test
+    void crossShardTransfer_succeedsWhenClearingTheMarkFails() {
+        BankAccountResponseDto source = accounts.get(1);
+        BankAccountResponseDto target = accounts.get(0);
+        jdbc(1).execute("alter table TRANSACTION add constraint CREDIT_STILL_PENDING check (credit_pending) nocheck");
+        TransactionResponseDto result;
+        try {
+            result = transactionService.transfer(
+                    new TransferRequestDto(source.getAccountNumber(), target.getAccountNumber(), BigDecimal.valueOf(30.00)));
+        } finally {
+            jdbc(1).execute("alter table TRANSACTION drop constraint CREDIT_STILL_PENDING");
+        }
+        assertEquals(true, jdbc(1).queryForObject("select credit_pending from TRANSACTION where id = ?", Boolean.class, result.getId()));
+
+        crossShardTransferCoordinator.recoverPendingTransfers();
+
+        assertEquals(false, jdbc(1).queryForObject("select credit_pending from TRANSACTION where id = ?", Boolean.class, result.getId()));
+        assertEquals(new BigDecimal("70.00"), bankAccountService.getAccountById(source.getId(), false).getBalance());
+        assertEquals(new BigDecimal("130.00"), bankAccountService.getAccountById(target.getId(), false).getBalance());
+    }
+
+    // Objetivo: Un débito con el crédito pendiente (proceso caído entre pasos) se completa al recuperar, una sola vez.
+    @Test
+    void pendingCrossShardTransfer_isCompletedOnRecovery() {
+        BankAccountResponseDto source = accounts.get(2);
+        BankAccountResponseDto target = accounts.get(0);
+        long id = ShardRouter.firstIdOf(2) + 999_999;
+        jdbc(2).update("update BANK_ACCOUNTS set balance_cents = balance_cents - 4000 where id = ?", source.getId());
+        jdbc(2).update("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, source_account_id, " +
+                        "counterpart_account_number) values (?, 4000, ?, 'pendiente', true, ?, ?)",
+                id, LocalDateTime.now(), source.getId(), target.getAccountNumber());
+
+        crossShardTransferCoordinator.recoverPendingTransfers();
+        crossShardTransferCoordinator.recoverPendingTransfers();
+
+        assertEquals(new BigDecimal("60.00"), bankAccountService.getAccountById(source.getId(), false).getBalance());
+        assertEquals(new BigDecimal("140.00"), bankAccountService.getAccountById(target.getId(), false).getBalance());
+        assertEquals(false, jdbc(2).queryForObject("select credit_pending from TRANSACTION where id = ?", Boolean.class, id));
+        assertEquals(target.getId(), jdbc(0).queryForObject("select target_account_id from TRANSACTION where id = ?", Long.class, id));
+    }
+
+    // Objetivo: Las fotos de saldo y los extractos recorren todos los shards: cada shard guarda las fotos de sus
+    // cuentas, cada cuenta tiene su extracto y una contraparte de otro shard aparece con su número.
+    @Test
+    void balanceSnapshotsAndStatements_coverEveryShard() throws IOException {
+        BankAccountResponseDto source = accounts.get(0);
+        BankAccountResponseDto target = accounts.get(1);
+        transactionService.transfer(new TransferRequestDto(source.getAccountNumber(), target.getAccountNumber(), BigDecimal.valueOf(30.00)));
+        YearMonth month = YearMonth.now().minusMonths(1);
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            jdbc(shard).update("update BANK_ACCOUNTS set created_at = ?", month.atDay(1).atStartOfDay());
+            jdbc(shard).update("update TRANSACTION set transaction_date = ?", month.atDay(10).atStartOfDay());
+        }
+
+        LocalDate day = month.atDay(15);
+        BalanceSnapshotRunDto run = balanceSnapshotJob.run(day);
+
+        assertEquals(shardRouter.size(), run.getAccounts());
+        assertEquals(7_000L, jdbc(0).queryForObject(
+                "select balance_cents from ACCOUNT_BALANCE_SNAPSHOTS where account_id = ? and snapshot_date = ?", Long.class, source.getId(), day));
+        assertEquals(13_000L, jdbc(1).queryForObject(
+                "select balance_cents from ACCOUNT_BALANCE_SNAPSHOTS where account_id = ? and snapshot_date = ?", Long.class, target.getId(), day));
+        assertEquals(10_000L, jdbc(2).queryForObject(
+                "select balance_cents from ACCOUNT_BALANCE_SNAPSHOTS where account_id = ? and snapshot_date = ?", Long.class, accounts.get(2).getId(), day));
+
+        StatementRunReportDto report = monthlyStatementEngine.generate(month);
+
+        assertEquals(shardRouter.size(), report.getAccounts());
+        assertEquals(2, report.getTransactions());
+        List<String> lines = statementLines(month);
+        assertTrue(lines.contains("A," + source.getAccountNumber() + ",100.00,70.00,1"));
+        assertTrue(lines.contains("A," + target.getAccountNumber() + ",100.00,130.00,1"));
+        assertTrue(lines.contains("A," + accounts.get(2).getAccountNumber() + ",100.00,100.00,0"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("T,") && line.contains(",-30.00," + target.getAccountNumber() + ",")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("T,") && line.contains(",30.00," + source.getAccountNumber() + ",")));
+    }
+
+    // Objetivo: El usuario vive en el shard 0 con copias donde tiene cuentas; la consulta junta sus cuentas de todos
+    // los shards, la actualización llega a las copias y el borrado lo quita de todos.
+    @Test
+    void users_spanShards() {
+        UserResponseDto user = userService.getUserById(userId);
+        assertEquals(accounts.values().stream().map(BankAccountResponseDto::getId).sorted().toList(),
+                user.getBankAccounts().stream().map(BankAccountResponseDto::getId).sorted().toList());
+        assertEquals(1, userService.getUsers(null, 10, true).getUsers().size());
+
+        userService.update(new UpdateUserDTO(userId, "66666666", "shards", "nuevo@bank.com", "password123"));
+        assertEquals("nuevo@bank.com", jdbc(1).queryForObject("select email from USERS where id = ?", String.class, userId));
+
+        userService.delete(userId);
+        for (int shard = 0; shard < shardRouter.size(); shard++) {
+            assertEquals(0, jdbc(shard).queryForObject("select count(*) from USERS", Integer.class));
+            assertEquals(0, jdbc(shard).queryForObject("select count(*) from BANK_ACCOUNTS", Integer.class));
+        }
+    }
+
+    private List<String> statementLines(YearMonth month) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(statementsDirectory.resolve(month.toString()))) {
+            for (Path file : files.toList()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    reader.lines().forEach(lines::add);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardRouter.dataSource(shard));
+    }
+}
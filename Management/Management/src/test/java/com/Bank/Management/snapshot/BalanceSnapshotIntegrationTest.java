@@ -0,0 +1,239 @@
+package com.Bank.Management.snapshot;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.UpdateBankAccountDto;
+import com.Bank.Management.dto.response.BalanceSnapshotRunDto;
+import com.Bank.Management.entity.BalanceSnapshotRunStatus;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balance-snapshots;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.snapshots.enabled=false",
+        "bank.snapshots.partitions=3",
+        "bank.snapshots.chunk-size=2"
+})
+class BalanceSnapshotIntegrationTest {
+
+    private static final int DAYS = 10;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate firstDay;
+    private final List<Long> accountIds = new ArrayList<>();
+    private final List<LocalDateTime> createdAt = new ArrayList<>();
+    private final List<Long> initialBalances = new ArrayList<>();
+    // Movimientos insertados: {fecha (epoch ms), origen (-1 si es depósito), destino (-1 si es retiro), monto}.
+    private final List<long[]> movements = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from ACCOUNT_BALANCE_SNAPSHOTS");
+        jdbcTemplate.update("delete from BALANCE_SNAPSHOT_RUNS");
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("fotos");
+        user.setEmail("fotos@bank.com");
+        user.setPassword("password123");
+        user.setDni("22222222");
+        Long userId = userRepository.save(user).getId();
+
+        // Historial de los últimos DAYS días; la última cuenta se abre a mitad del período.
+        firstDay = LocalDate.now().minusDays(DAYS);
+        for (int i = 0; i < 5; i++) {
+            String number = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+            accountIds.add(bankAccountRepository.findIdByAccountNumber(number).orElseThrow());
+            createdAt.add(i == 4 ? firstDay.plusDays(5).atTime(12, 0) : firstDay.atStartOfDay());
+            initialBalances.add(100_000L * (i + 1));
+        }
+
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1_000_000;
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDateTime at = firstDay.atTime(0, 30); at.isBefore(now); at = at.plusMinutes(97)) {
+            int source = random.nextInt(accountIds.size() + 1) - 1;
+            int target = random.nextInt(accountIds.size() + 1) - 1;
+            if (source == target || !exists(source, at) || !exists(target, at)) {
+                continue;
+            }
+            long amount = 1 + random.nextInt(5_000);
+            movements.add(new long[]{Timestamp.valueOf(at).getTime(), source, target, amount});
+            rows.add(new Object[]{id++, amount, Timestamp.valueOf(at), "Movimiento",
+                    source < 0 ? null : accountIds.get(source), target < 0 ? null : accountIds.get(target)});
+        }
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+
+        for (int i = 0; i < accountIds.size(); i++) {
+            jdbcTemplate.update("update BANK_ACCOUNTS set created_at = ?, balance_cents = ? where id = ?",
+                    Timestamp.valueOf(createdAt.get(i)), expectedBalance(i, LocalDateTime.of(9999, 1, 1, 0, 0)), accountIds.get(i));
+        }
+    }
+
+    // Objetivo: Cada foto diaria coincide con el saldo que da reproducir todo el historial hasta el cierre del día,
+    // tanto la primera (que parte del saldo actual) como las siguientes (foto anterior + movimientos del día).
+    @Test
+    void dailySnapshots_matchFullReplay() {
+        for (int d = 0; d < DAYS; d++) {
+            BalanceSnapshotRunDto run = balanceSnapshotJob.run(firstDay.plusDays(d));
+            assertEquals(BalanceSnapshotRunStatus.COMPLETED, run.getStatus());
+            assertEquals(d < 5 ? 4 : 5, run.getAccounts());
+        }
+        assertSnapshotsMatchReplay();
+    }
+
+    // Objetivo: Un día interrumpido (RUNNING con fotos parciales) se retoma en la siguiente pasada generando
+    // solo las fotos que faltan, y luego se completan los días hasta ayer.
+    @Test
+    void interruptedDay_isResumedByCatchUp() {
+        for (int d = 0; d < 4; d++) {
+            balanceSnapshotJob.run(firstDay.plusDays(d));
+        }
+        LocalDate interrupted = firstDay.plusDays(4);
+        balanceSnapshotJob.run(interrupted);
+        jdbcTemplate.update("delete from ACCOUNT_BALANCE_SNAPSHOTS where snapshot_date = ? and account_id <> ?", interrupted, accountIds.get(0));
+        jdbcTemplate.update("update BALANCE_SNAPSHOT_RUNS set status = 'RUNNING', finished_at = null where snapshot_date = ?", interrupted);
+
+        List<BalanceSnapshotRunDto> runs = balanceSnapshotJob.catchUp();
+
+        assertEquals(interrupted, runs.get(0).getSnapshotDate());
+        assertEquals(DAYS - 4, runs.size());
+        assertEquals(4, runs.get(0).getAccounts());
+        assertTrue(runs.stream().allMatch(run -> run.getStatus() == BalanceSnapshotRunStatus.COMPLETED));
+        assertSnapshotsMatchReplay();
+    }
+
+    // Objetivo: El saldo a una fecha coincide con la reproducción completa del historial, con y sin fotos,
+    // y antes, entre y después de los días con foto.
+    @Test
+    void balanceAt_matchesFullReplay() {
+        List<LocalDateTime> instants = new ArrayList<>();
+        for (int d = 0; d <= DAYS; d++) {
+            instants.add(firstDay.plusDays(d).atTime(7, 13));
+            instants.add(firstDay.plusDays(d).atStartOfDay());
+        }
+        instants.add(LocalDateTime.now().plusMinutes(1));
+
+        assertBalancesMatchReplay(instants);
+        for (int d = 3; d < 7; d++) {
+            balanceSnapshotJob.run(firstDay.plusDays(d));
+        }
+        assertBalancesMatchReplay(instants);
+    }
+
+    // Objetivo: Un reemplazo de saldo (updateAccount) deja una fila de ajuste: las fotos y el saldo a una fecha lo
+    // incluyen desde el momento del ajuste, y el saldo actual es el indicado.
+    @Test
+    void balanceOverride_isIncludedInSnapshotsAndBalanceAt() {
+        long previous = expectedBalance(0, LocalDateTime.of(9999, 1, 1, 0, 0));
+        bankAccountService.updateAccount(new UpdateBankAccountDto(accountIds.get(0), new BigDecimal("1234.56")));
+        // El ajuste se lleva a un día cerrado, con movimientos de la cuenta antes y después.
+        LocalDateTime overriddenAt = firstDay.plusDays(DAYS - 3).atTime(12, 0);
+        assertEquals(1, jdbcTemplate.update("update TRANSACTION set transaction_date = ? where description like 'Ajuste de saldo%'",
+                Timestamp.valueOf(overriddenAt)));
+        long delta = 123_456L - previous;
+        movements.add(new long[]{Timestamp.valueOf(overriddenAt).getTime(), delta < 0 ? 0 : -1, delta < 0 ? -1 : 0, Math.abs(delta)});
+
+        for (int d = 0; d < DAYS; d++) {
+            balanceSnapshotJob.run(firstDay.plusDays(d));
+        }
+
+        assertSnapshotsMatchReplay();
+        assertBalancesMatchReplay(List.of(overriddenAt.minusMinutes(1), overriddenAt.plusMinutes(1), LocalDateTime.now().plusMinutes(1)));
+        assertEquals(0, new BigDecimal("1234.56").compareTo(
+                bankAccountService.getBalanceAt(accountIds.get(0), LocalDateTime.now().plusMinutes(1)).getBalance()));
+    }
+
+    // Objetivo: Solo se generan fotos de días ya cerrados.
+    @Test
+    void run_rejectsOpenDay() {
+        assertThrows(InvalidOperationException.class, () -> balanceSnapshotJob.run(LocalDate.now()));
+    }
+
+    private void assertSnapshotsMatchReplay() {
+        for (int d = 0; d < DAYS; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            for (int i = 0; i < accountIds.size(); i++) {
+                List<Long> stored = jdbcTemplate.queryForList(
+                        "select balance_cents from ACCOUNT_BALANCE_SNAPSHOTS where account_id = ? and snapshot_date = ?",
+                        Long.class, accountIds.get(i), day);
+                if (!createdAt.get(i).isBefore(day.plusDays(1).atStartOfDay())) {
+                    assertTrue(stored.isEmpty(), "La cuenta no existía el " + day);
+                    continue;
+                }
+                assertEquals(List.of(expectedBalance(i, day.plusDays(1).atStartOfDay())), stored, "Cuenta " + i + " el " + day);
+            }
+        }
+    }
+
+    private void assertBalancesMatchReplay(List<LocalDateTime> instants) {
+        for (LocalDateTime at : instants) {
+            for (int i = 0; i < accountIds.size(); i++) {
+                if (at.isBefore(createdAt.get(i))) {
+                    int account = i;
+                    assertThrows(InvalidOperationException.class, () -> bankAccountService.getBalanceAt(accountIds.get(account), at));
+                    continue;
+                }
+                BigDecimal balance = bankAccountService.getBalanceAt(accountIds.get(i), at).getBalance();
+                assertEquals(0, BigDecimal.valueOf(expectedBalance(i, at), 2).compareTo(balance), "Cuenta " + i + " en " + at);
+            }
+        }
+    }
+
+    // Saldo inicial más todos los movimientos con fecha anterior a "at".
+    private long expectedBalance(int account, LocalDateTime at) {
+        long balance = initialBalances.get(account);
+        long limit = Timestamp.valueOf(at).getTime();
+        for (long[] movement : movements) {
+            if (movement[0] >= limit) {
+                continue;
+            }
+            if (movement[2] == account) {
+                balance += movement[3];
+            }
+            if (movement[1] == account) {
+                balance -= movement[3];
+            }
+        }
+        return balance;
+    }
+
+    private boolean exists(int account, LocalDateTime at) {
+        return account < 0 || !at.isBefore(createdAt.get(account));
+    }
+}
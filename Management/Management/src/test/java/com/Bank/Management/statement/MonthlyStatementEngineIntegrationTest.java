@@ -0,0 +1,275 @@
+package com.Bank.Management.statement;
+
+import com.Bank.Management.dto.request.BankAccountRequestDto;
+import com.Bank.Management.dto.request.UpdateBankAccountDto;
+import com.Bank.Management.dto.response.StatementRunReportDto;
+import com.Bank.Management.entity.StatementRunStatus;
+import com.Bank.Management.entity.User;
+import com.Bank.Management.exception.InvalidOperationException;
+import com.Bank.Management.repository.BankAccountRepository;
+import com.Bank.Management.repository.TransactionRepository;
+import com.Bank.Management.repository.UserRepository;
+import com.Bank.Management.service.BankAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:monthly-statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "bank.snapshots.enabled=false",
+        "bank.statements.partition-size=3",
+        "bank.statements.parallelism=2"
+})
+class MonthlyStatementEngineIntegrationTest {
+
+    @TempDir
+    static Path statementsDirectory;
+
+    @DynamicPropertySource
+    static void statementProperties(DynamicPropertyRegistry registry) {
+        registry.add("bank.statements.directory", () -> statementsDirectory.toString());
+    }
+
+    @Autowired
+    private MonthlyStatementEngine monthlyStatementEngine;
+    @Autowired
+    private BankAccountService bankAccountService;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final YearMonth month = YearMonth.now().minusMonths(1);
+    private final List<Long> accountIds = new ArrayList<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+    // Movimientos insertados: {fecha (epoch ms), origen (-1 si es depósito), destino (-1 si es retiro), monto}.
+    private final List<long[]> movements = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate.update("delete from STATEMENT_PARTITIONS");
+        jdbcTemplate.update("delete from STATEMENT_RUNS");
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+        try (Stream<Path> files = Files.walk(statementsDirectory)) {
+            for (Path file : files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList()) {
+                if (!file.equals(statementsDirectory)) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        User user = new User();
+        user.setUsername("extractos");
+        user.setEmail("extractos@bank.com");
+        user.setPassword("password123");
+        user.setDni("11111111");
+        Long userId = userRepository.save(user).getId();
+
+        // 7 cuentas abiertas antes del mes (3 particiones de 3) y una abierta después, que no lleva extracto.
+        LocalDateTime opened = month.minusMonths(1).atDay(1).atStartOfDay();
+        for (int i = 0; i < 8; i++) {
+            String number = bankAccountService.createAccount(new BankAccountRequestDto(BigDecimal.ZERO, userId)).getAccountNumber();
+            accountNumbers.add(number);
+            accountIds.add(bankAccountRepository.findIdByAccountNumber(number).orElseThrow());
+        }
+
+        // Movimientos el mes anterior (saldo inicial), durante el mes y después (saldo actual).
+        Random random = new Random(7);
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1_000_000;
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDateTime at = opened.plusHours(1); at.isBefore(now); at = at.plusMinutes(211)) {
+            int source = random.nextInt(8) - 1;
+            int target = random.nextInt(8) - 1;
+            if (source == target) {
+                continue;
+            }
+            long amount = 1 + random.nextInt(10_000);
+            movements.add(new long[]{Timestamp.valueOf(at).getTime(), source, target, amount});
+            rows.add(new Object[]{id++, amount, Timestamp.valueOf(at), "Pago, ref " + id,
+                    source < 0 ? null : accountIds.get(source), target < 0 ? null : accountIds.get(target)});
+        }
+        jdbcTemplate.batchUpdate("insert into TRANSACTION (id, amount_cents, transaction_date, description, credit_pending, " +
+                "source_account_id, target_account_id) values (?, ?, ?, ?, false, ?, ?)", rows);
+
+        for (int i = 0; i < accountIds.size(); i++) {
+            LocalDateTime createdAt = i == 7 ? month.plusMonths(1).atDay(2).atStartOfDay() : opened;
+            jdbcTemplate.update("update BANK_ACCOUNTS set created_at = ?, balance_cents = ? where id = ?",
+                    Timestamp.valueOf(createdAt), 1_000_000L + replay(i, LocalDateTime.of(9999, 1, 1, 0, 0)), accountIds.get(i));
+        }
+    }
+
+    // Objetivo: Cada extracto tiene saldo inicial y final iguales a reproducir el historial completo, y los
+    // movimientos del mes en orden cronológico con el signo correcto; las cuentas abiertas después del mes no aparecen.
+    @Test
+    void generate_writesStatementsMatchingFullReplay() throws IOException {
+        StatementRunReportDto report = monthlyStatementEngine.generate(month);
+
+        assertEquals(StatementRunStatus.COMPLETED, report.getStatus());
+        assertEquals(3, report.getPartitions());
+        assertEquals(3, report.getProcessedPartitions());
+        assertEquals(7, report.getAccounts());
+        assertEquals(7, report.getProcessedAccounts());
+        assertTrue(report.getAccountsPerSecond() > 0);
+        assertStatementsMatchReplay(report.getTransactions());
+    }
+
+    // Objetivo: Si el proceso cae a mitad de camino, la siguiente ejecución del mes solo procesa las particiones
+    // pendientes y el resultado final es el mismo.
+    @Test
+    void generate_resumesInterruptedRun() throws IOException {
+        monthlyStatementEngine.generate(month);
+        Path monthDirectory = statementsDirectory.resolve(month.toString());
+        Files.delete(monthDirectory.resolve("statements-" + month + "-00001.csv.gz"));
+        jdbcTemplate.update("update STATEMENT_PARTITIONS set completed_at = null, accounts = 0, transactions = 0 where partition_index = 1");
+        jdbcTemplate.update("update STATEMENT_RUNS set status = 'RUNNING', finished_at = null");
+
+        StatementRunReportDto report = monthlyStatementEngine.generate(month);
+
+        assertEquals(StatementRunStatus.COMPLETED, report.getStatus());
+        assertEquals(2, report.getResumedPartitions());
+        assertEquals(1, report.getProcessedPartitions());
+        assertEquals(3, report.getProcessedAccounts());
+        assertEquals(7, report.getAccounts());
+        assertStatementsMatchReplay(report.getTransactions());
+
+        StatementRunReportDto again = monthlyStatementEngine.generate(month);
+        assertEquals(0, again.getProcessedPartitions());
+    }
+
+    // Objetivo: Un reemplazo de saldo (updateAccount) hecho durante el mes aparece como línea del extracto, sin
+    // contraparte, y los saldos inicial y final siguen cuadrando con el historial.
+    @Test
+    void generate_includesBalanceOverridesAsLines() throws IOException {
+        long previous = 1_000_000L + replay(0, LocalDateTime.of(9999, 1, 1, 0, 0));
+        bankAccountService.updateAccount(new UpdateBankAccountDto(accountIds.get(0), new BigDecimal("5000.00")));
+        // A mitad de minuto: no coincide con la hora de ningún otro movimiento.
+        LocalDateTime overriddenAt = month.atDay(15).atTime(10, 0, 30);
+        assertEquals(1, jdbcTemplate.update("update TRANSACTION set transaction_date = ? where description like 'Ajuste de saldo%'",
+                Timestamp.valueOf(overriddenAt)));
+        long delta = 500_000L - previous;
+        movements.add(new long[]{Timestamp.valueOf(overriddenAt).getTime(), delta < 0 ? 0 : -1, delta < 0 ? -1 : 0, Math.abs(delta)});
+        movements.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        StatementRunReportDto report = monthlyStatementEngine.generate(month);
+
+        assertStatementsMatchReplay(report.getTransactions());
+        assertTrue(readStatements().get(accountNumbers.get(0)).stream()
+                .anyMatch(line -> line[0].equals("T") && line[4].equals(",Ajuste de saldo de la cuenta " + accountNumbers.get(0))));
+    }
+
+    // Objetivo: Solo se generan extractos de meses cerrados.
+    @Test
+    void generate_rejectsOpenMonth() {
+        assertThrows(InvalidOperationException.class, () -> monthlyStatementEngine.generate(YearMonth.now()));
+    }
+
+    private void assertStatementsMatchReplay(long reportedTransactions) throws IOException {
+        Map<String, List<String[]>> statements = readStatements();
+        assertEquals(7, statements.size());
+        assertFalse(statements.containsKey(accountNumbers.get(7)));
+
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime until = month.plusMonths(1).atDay(1).atStartOfDay();
+        long transactions = 0;
+        for (int i = 0; i < 7; i++) {
+            List<String[]> statement = statements.get(accountNumbers.get(i));
+            String[] header = statement.get(0);
+            assertEquals(0, BigDecimal.valueOf(1_000_000L + replay(i, from), 2).compareTo(new BigDecimal(header[2])), "Cuenta " + i);
+            assertEquals(0, BigDecimal.valueOf(1_000_000L + replay(i, until), 2).compareTo(new BigDecimal(header[3])), "Cuenta " + i);
+            assertEquals(statement.size() - 1, Integer.parseInt(header[4]));
+
+            List<Long> expected = new ArrayList<>();
+            for (long[] movement : movements) {
+                if (movement[0] >= Timestamp.valueOf(from).getTime() && movement[0] < Timestamp.valueOf(until).getTime()) {
+                    if (movement[1] == i) {
+                        expected.add(-movement[3]);
+                    } else if (movement[2] == i) {
+                        expected.add(movement[3]);
+                    }
+                }
+            }
+            List<Long> written = statement.subList(1, statement.size()).stream()
+                    .map(line -> new BigDecimal(line[3]).movePointRight(2).longValueExact())
+                    .toList();
+            assertEquals(expected, written, "Cuenta " + i);
+            transactions += written.size();
+        }
+        assertEquals(transactions, reportedTransactions);
+    }
+
+    // Número de cuenta -> [línea A, líneas T...]; ningún archivo temporal queda en el directorio.
+    private Map<String, List<String[]>> readStatements() throws IOException {
+        Map<String, List<String[]>> statements = new HashMap<>();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(statementsDirectory.resolve(month.toString()))) {
+            files = listing.sorted().toList();
+        }
+        assertEquals(3, files.size());
+        for (Path file : files) {
+            assertTrue(file.getFileName().toString().endsWith(".csv.gz"));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                List<String[]> current = null;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = line.split(",", 5);
+                    if (fields[0].equals("A")) {
+                        current = new ArrayList<>();
+                        statements.put(fields[1], current);
+                    }
+                    current.add(fields);
+                }
+            }
+        }
+        return statements;
+    }
+
+    // Suma de los movimientos con fecha anterior a "at".
+    private long replay(int account, LocalDateTime at) {
+        long balance = 0;
+        long limit = Timestamp.valueOf(at).getTime();
+        for (long[] movement : movements) {
+            if (movement[0] < limit) {
+                if (movement[2] == account) {
+                    balance += movement[3];
+                }
+                if (movement[1] == account) {
+                    balance -= movement[3];
+                }
+            }
+        }
+        return balance;
+    }
+}